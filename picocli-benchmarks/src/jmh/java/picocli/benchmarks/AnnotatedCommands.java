@@ -0,0 +1,112 @@
+package picocli.benchmarks;
+
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotated command classes of increasing size, used to measure the cost of building
+ * the model with reflection in {@code new CommandLine(Object)}.
+ */
+final class AnnotatedCommands {
+    private AnnotatedCommands() {}
+
+    static Class<?> commandClass(String shape) {
+        if ("small".equals(shape))  { return Small.class; }
+        if ("medium".equals(shape)) { return Medium.class; }
+        if ("large".equals(shape))  { return Large.class; }
+        throw new IllegalArgumentException("Unknown shape: " + shape);
+    }
+
+    @Command(name = "small", mixinStandardHelpOptions = true, description = "Small command.")
+    static class Small implements Runnable {
+        @Option(names = {"-v", "--verbose"}, description = "Verbose output.") boolean verbose;
+        @Option(names = {"-o", "--output"}, description = "Output file.") File output;
+        @Parameters(description = "Input files.") List<File> files;
+        public void run() { }
+    }
+
+    @Command(name = "medium", mixinStandardHelpOptions = true, version = "1.0",
+            description = "Medium-sized command with a mixin, an arg group and a subcommand.",
+            subcommands = Small.class)
+    static class Medium implements Runnable {
+        @Mixin CommonOptions common;
+        @ArgGroup(exclusive = true, multiplicity = "0..1") Mode mode;
+        @Option(names = {"-c", "--count"}, defaultValue = "1", description = "Count. Default: ${DEFAULT-VALUE}") int count;
+        @Option(names = {"-t", "--timeout"}, description = "Timeout.") long timeout;
+        @Option(names = {"-u", "--unit"}, description = "Time unit. Valid values: ${COMPLETION-CANDIDATES}") TimeUnit unit;
+        @Option(names = {"-D", "--property"}, description = "System properties.") Map<String, String> properties;
+        @Option(names = {"-x", "--exclude"}, split = ",", description = "Excluded names.") List<String> excluded;
+        @Parameters(index = "0", description = "Source.") File source;
+        @Parameters(index = "1..*", description = "Targets.") List<File> targets;
+        public void run() { }
+    }
+
+    @Command(name = "large", mixinStandardHelpOptions = true, version = "1.0",
+            description = "Large command with many options, nested arg groups and subcommands.",
+            subcommands = {Small.class, Medium.class})
+    static class Large implements Runnable {
+        @Mixin CommonOptions common;
+        @ArgGroup(exclusive = false, multiplicity = "0..*", heading = "Connection options:%n") List<Connection> connections;
+        @Option(names = "--a01", description = "Option a01.") String a01;
+        @Option(names = "--a02", description = "Option a02.") String a02;
+        @Option(names = "--a03", description = "Option a03.") String a03;
+        @Option(names = "--a04", description = "Option a04.") String a04;
+        @Option(names = "--a05", description = "Option a05.") String a05;
+        @Option(names = "--a06", description = "Option a06.") String a06;
+        @Option(names = "--a07", description = "Option a07.") String a07;
+        @Option(names = "--a08", description = "Option a08.") String a08;
+        @Option(names = "--a09", description = "Option a09.") String a09;
+        @Option(names = "--a10", description = "Option a10.") String a10;
+        @Option(names = "--b01", description = "Option b01.") int b01;
+        @Option(names = "--b02", description = "Option b02.") int b02;
+        @Option(names = "--b03", description = "Option b03.") int b03;
+        @Option(names = "--b04", description = "Option b04.") int b04;
+        @Option(names = "--b05", description = "Option b05.") int b05;
+        @Option(names = "--b06", description = "Option b06.") int b06;
+        @Option(names = "--b07", description = "Option b07.") int b07;
+        @Option(names = "--b08", description = "Option b08.") int b08;
+        @Option(names = "--b09", description = "Option b09.") int b09;
+        @Option(names = "--b10", description = "Option b10.") int b10;
+        @Option(names = "--c01", description = "Option c01.") List<String> c01;
+        @Option(names = "--c02", description = "Option c02.") List<String> c02;
+        @Option(names = "--c03", description = "Option c03.") List<String> c03;
+        @Option(names = "--c04", description = "Option c04.") List<String> c04;
+        @Option(names = "--c05", description = "Option c05.") List<String> c05;
+        @Option(names = "--d01", negatable = true, description = "Option d01.") boolean d01;
+        @Option(names = "--d02", negatable = true, description = "Option d02.") boolean d02;
+        @Option(names = "--d03", negatable = true, description = "Option d03.") boolean d03;
+        @Option(names = "--d04", negatable = true, description = "Option d04.") boolean d04;
+        @Option(names = "--d05", negatable = true, description = "Option d05.") boolean d05;
+        @Parameters(description = "Input files.") List<File> files;
+        public void run() { }
+    }
+
+    static class CommonOptions {
+        @Option(names = {"-q", "--quiet"}, description = "Suppress output.") boolean quiet;
+        @Option(names = {"-l", "--log-level"}, description = "Log level.") String logLevel;
+    }
+
+    static class Mode {
+        @Option(names = "--fast", description = "Fast mode.") boolean fast;
+        @Option(names = "--safe", description = "Safe mode.") boolean safe;
+    }
+
+    static class Connection {
+        @Option(names = "--host", required = true, description = "Host name.") String host;
+        @Option(names = "--port", description = "Port number.") int port;
+        @ArgGroup(exclusive = true, multiplicity = "0..1") Credentials credentials;
+    }
+
+    static class Credentials {
+        @Option(names = "--password", description = "Password.") String password;
+        @Option(names = "--key-file", description = "Key file.") File keyFile;
+    }
+}
@@ -0,0 +1,60 @@
+package picocli.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import picocli.AutoComplete;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link AutoComplete#complete(CommandSpec, String[], int, int, int, List)}
+ * for a partially typed option name on the deepest subcommand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AutoCompleteBenchmark {
+
+    @Param({"10", "100"})
+    int optionCount;
+
+    @Param({"0", "3"})
+    int subcommandDepth;
+
+    @Param({"0", "2"})
+    int groupNesting;
+
+    CommandSpec spec;
+    String[] args;
+    int argIndex;
+    int positionInArg;
+
+    @Setup
+    public void setup() {
+        spec = CommandShapes.commandLine(optionCount, subcommandDepth, groupNesting).getCommandSpec();
+        args = CommandShapes.completionArgs(subcommandDepth);
+        argIndex = args.length - 1;
+        positionInArg = args[argIndex].length();
+    }
+
+    @Benchmark
+    public List<CharSequence> complete() {
+        List<CharSequence> candidates = new ArrayList<CharSequence>();
+        AutoComplete.complete(spec, args, argIndex, positionInArg, positionInArg, candidates);
+        return candidates;
+    }
+
+    @Benchmark
+    public String bashScript() {
+        return AutoComplete.bash("bench", spec.commandLine());
+    }
+}
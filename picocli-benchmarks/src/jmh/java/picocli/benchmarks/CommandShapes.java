@@ -0,0 +1,121 @@
+package picocli.benchmarks;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Model.ArgGroupSpec;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.OptionSpec;
+import picocli.CommandLine.Model.PositionalParamSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds synthetic command hierarchies with the programmatic API, so that benchmarks can be
+ * parameterized by the shape of the command (option count, subcommand depth, arg group nesting
+ * and the number of values passed to a vararg positional parameter).
+ * <p>
+ * Every command in the hierarchy has {@code optionCount} options named {@code --option0},
+ * {@code --option1}, ..., a boolean flag {@code -v}, a vararg positional parameter and, if
+ * {@code groupNesting > 0}, a chain of nested arg groups with options {@code --group0},
+ * {@code --group1}, .... Commands at depth {@code n} have a single subcommand named {@code sub<n+1>}.
+ * </p>
+ */
+final class CommandShapes {
+    private CommandShapes() {}
+
+    /** No-op command body, so that {@link CommandLine#execute(String...)} measures picocli, not the command. */
+    static final Runnable NO_OP = new Runnable() {
+        public void run() { }
+    };
+
+    static CommandLine commandLine(int optionCount, int subcommandDepth, int groupNesting) {
+        return new CommandLine(command("bench", optionCount, subcommandDepth, groupNesting));
+    }
+
+    static CommandSpec command(String name, int optionCount, int subcommandDepth, int groupNesting) {
+        CommandSpec spec = CommandSpec.wrapWithoutInspection(NO_OP);
+        spec.name(name).mixinStandardHelpOptions(true);
+        spec.usageMessage().description("Synthetic benchmark command with " + optionCount + " options.");
+        spec.addOption(OptionSpec.builder("-v", "--verbose")
+                .description("Boolean flag. Can be clustered with other short options.").build());
+        for (int i = 0; i < optionCount; i++) {
+            spec.addOption(OptionSpec.builder("--option" + i)
+                    .type(String.class)
+                    .paramLabel("<value" + i + ">")
+                    .description("Option number " + i + " of the synthetic command. "
+                            + "The description is long enough to wrap in the usage help message, "
+                            + "so that the text table layout is exercised as well.")
+                    .build());
+        }
+        if (groupNesting > 0) {
+            spec.addArgGroup(group(0, groupNesting));
+        }
+        spec.addPositional(PositionalParamSpec.builder()
+                .index("0..*")
+                .type(List.class)
+                .auxiliaryTypes(String.class)
+                .paramLabel("FILE")
+                .description("Files to process.")
+                .build());
+        if (subcommandDepth > 0) {
+            String subName = "sub" + (depthOf(name) + 1);
+            spec.addSubcommand(subName, command(subName, optionCount, subcommandDepth - 1, groupNesting));
+        }
+        return spec;
+    }
+
+    private static int depthOf(String name) {
+        return name.startsWith("sub") ? Integer.parseInt(name.substring(3)) : 0;
+    }
+
+    private static ArgGroupSpec group(int level, int groupNesting) {
+        ArgGroupSpec.Builder builder = ArgGroupSpec.builder()
+                .exclusive(false)
+                .multiplicity("0..1")
+                .heading("Group " + level + " options:%n")
+                .addArg(OptionSpec.builder("--group" + level)
+                        .type(int.class)
+                        .description("Option in nested group " + level + ".")
+                        .build());
+        if (level + 1 < groupNesting) {
+            builder.addSubgroup(group(level + 1, groupNesting));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the arguments that match every option, group option and subcommand of a command
+     * created with the same shape, ending with {@code varargLength} positional parameters
+     * for the deepest subcommand.
+     */
+    static String[] args(int optionCount, int subcommandDepth, int groupNesting, int varargLength) {
+        List<String> result = new ArrayList<String>();
+        for (int depth = 0; depth <= subcommandDepth; depth++) {
+            if (depth > 0) {
+                result.add("sub" + depth);
+            }
+            result.add("-v");
+            for (int i = 0; i < optionCount; i++) {
+                result.add("--option" + i);
+                result.add("value" + i);
+            }
+            for (int level = 0; level < groupNesting; level++) {
+                result.add("--group" + level + "=" + level);
+            }
+        }
+        for (int i = 0; i < varargLength; i++) {
+            result.add("file" + i + ".txt");
+        }
+        return result.toArray(new String[0]);
+    }
+
+    /** Returns the command line for the deepest subcommand followed by a partial option name to complete. */
+    static String[] completionArgs(int subcommandDepth) {
+        String[] result = new String[subcommandDepth + 1];
+        for (int depth = 1; depth <= subcommandDepth; depth++) {
+            result[depth - 1] = "sub" + depth;
+        }
+        result[subcommandDepth] = "--opt";
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package picocli.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import picocli.CommandLine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of building the model: {@code new CommandLine(Object)} for annotated
+ * classes (reflection, see {@code CommandReflection.extractCommandSpec}), and building
+ * a synthetic hierarchy with the programmatic API.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConstructionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Annotated {
+        @Param({"small", "medium", "large"})
+        String shape;
+
+        Class<?> commandClass;
+
+        @Setup
+        public void setup() {
+            commandClass = AnnotatedCommands.commandClass(shape);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Programmatic {
+        @Param({"10", "100"})
+        int optionCount;
+
+        @Param({"0", "3"})
+        int subcommandDepth;
+
+        @Param({"0", "2"})
+        int groupNesting;
+    }
+
+    @Benchmark
+    public CommandLine annotatedClass(Annotated state) {
+        return new CommandLine(state.commandClass);
+    }
+
+    @Benchmark
+    public CommandLine programmatic(Programmatic state) {
+        return CommandShapes.commandLine(state.optionCount, state.subcommandDepth, state.groupNesting);
+    }
+}
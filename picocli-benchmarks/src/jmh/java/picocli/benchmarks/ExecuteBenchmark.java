@@ -0,0 +1,53 @@
+package picocli.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import picocli.CommandLine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CommandLine#execute(String...)}: parsing, the default execution strategy
+ * and exit code handling, with a command body that does nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecuteBenchmark {
+
+    @Param({"10", "100"})
+    int optionCount;
+
+    @Param({"0", "3"})
+    int subcommandDepth;
+
+    @Param({"0", "2"})
+    int groupNesting;
+
+    @Param({"0", "1000"})
+    int varargLength;
+
+    CommandLine commandLine;
+    String[] args;
+
+    @Setup
+    public void setup() {
+        commandLine = CommandShapes.commandLine(optionCount, subcommandDepth, groupNesting);
+        args = CommandShapes.args(optionCount, subcommandDepth, groupNesting, varargLength);
+        int exitCode = commandLine.execute(args);
+        if (exitCode != 0) {
+            throw new IllegalStateException("Benchmark command failed with exit code " + exitCode);
+        }
+    }
+
+    @Benchmark
+    public int execute() {
+        return commandLine.execute(args);
+    }
+}
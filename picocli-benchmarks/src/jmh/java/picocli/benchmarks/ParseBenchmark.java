@@ -0,0 +1,58 @@
+package picocli.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import picocli.CommandLine;
+import picocli.CommandLine.ParseResult;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CommandLine#parseArgs(String...)} on a {@code CommandLine} instance that is
+ * reused between invocations, so that only the parsing work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+
+    @Param({"10", "100"})
+    int optionCount;
+
+    @Param({"0", "3"})
+    int subcommandDepth;
+
+    @Param({"0", "2"})
+    int groupNesting;
+
+    @Param({"0", "1000"})
+    int varargLength;
+
+    CommandLine commandLine;
+    String[] args;
+    String[] clusteredArgs;
+
+    @Setup
+    public void setup() {
+        commandLine = CommandShapes.commandLine(optionCount, subcommandDepth, groupNesting);
+        args = CommandShapes.args(optionCount, subcommandDepth, groupNesting, varargLength);
+        clusteredArgs = new String[] {"-vh"};
+        commandLine.parseArgs(args); // fail fast if the args do not match the command shape
+    }
+
+    @Benchmark
+    public ParseResult parseArgs() {
+        return commandLine.parseArgs(args);
+    }
+
+    @Benchmark
+    public ParseResult parseClusteredShortOptions() {
+        return commandLine.parseArgs(clusteredArgs);
+    }
+}
@@ -0,0 +1,60 @@
+package picocli.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import picocli.CommandLine;
+import picocli.CommandLine.Help;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering the usage help message with and without ANSI styles,
+ * via {@link CommandLine#getUsageMessage(Help.Ansi)} and {@link CommandLine#usage(PrintWriter, Help.Ansi)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UsageHelpBenchmark {
+
+    @Param({"10", "100"})
+    int optionCount;
+
+    @Param({"0", "3"})
+    int subcommandDepth;
+
+    @Param({"0", "2"})
+    int groupNesting;
+
+    CommandLine commandLine;
+
+    @Setup
+    public void setup() {
+        commandLine = CommandShapes.commandLine(optionCount, subcommandDepth, groupNesting);
+        commandLine.setUsageHelpAutoWidth(false);
+    }
+
+    @Benchmark
+    public String usageMessagePlain() {
+        return commandLine.getUsageMessage(Help.Ansi.OFF);
+    }
+
+    @Benchmark
+    public String usageMessageAnsi() {
+        return commandLine.getUsageMessage(Help.Ansi.ON);
+    }
+
+    @Benchmark
+    public StringWriter usageToWriter() {
+        StringWriter sw = new StringWriter();
+        commandLine.usage(new PrintWriter(sw), Help.Ansi.ON);
+        return sw;
+    }
+}
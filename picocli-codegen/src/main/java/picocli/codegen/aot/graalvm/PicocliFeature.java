@@ -0,0 +1,127 @@
+package picocli.codegen.aot.graalvm;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeClassInitialization;
+import picocli.CommandLine;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Model.ArgGroupSpec;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * GraalVM native image {@code Feature} that builds picocli commands at image build time, so that their
+ * {@code CommandSpec} tree, type converters and pre-rendered usage help are stored in the image heap,
+ * and the native image does not inspect any annotations at startup.
+ * <p>
+ * Specify the fully qualified class names of the top-level commands (comma-separated) in the
+ * {@value #COMMANDS_PROPERTY} system property when building the image, for example:
+ * </p><pre>
+ * native-image --features=picocli.codegen.aot.graalvm.PicocliFeature \
+ *     -Dpicocli.prebuilt.commands=com.example.App -cp ... com.example.App
+ * </pre><p>
+ * The application then obtains the prebuilt {@code CommandLine} with {@link PrebuiltCommands#get(Class)}:
+ * </p><pre>
+ * public static void main(String... args) {
+ *     System.exit(PrebuiltCommands.get(App.class).execute(args));
+ * }
+ * </pre><p>
+ * The commands are built while the image is set up. The picocli classes, and the application classes that the built
+ * commands refer to, are initialized at image build time, because the image heap contains instances of these classes.
+ * These are the classes of the command, subcommand, mixin and argument group objects, of the type converters, version
+ * providers, default value providers, completion candidates and parameter consumers, and the types of the options and
+ * positional parameters, with their superclasses. Other classes in the same packages are not affected.
+ * </p><p>
+ * Note that the static initializers of these classes, and the field initializers of the command objects, run on the
+ * machine that builds the image, and their results are frozen into the image. An option whose initial value is, for
+ * example, {@code Instant.now()} or read from an environment variable or system property has the value from image
+ * build time when the native image runs. Use a default value or a default value provider for such values instead.
+ * </p><p>
+ * The native image still needs the reflection configuration generated by the {@link ReflectionConfigGenerator}
+ * for the annotated fields and methods, since picocli reads and writes these with reflection.
+ * </p>
+ * @see PrebuiltCommands
+ * @since 4.3
+ */
+public class PicocliFeature implements Feature {
+    /** Name of the system property with the comma-separated class names of the commands to build: {@value}. */
+    public static final String COMMANDS_PROPERTY = "picocli.prebuilt.commands";
+
+    public void duringSetup(DuringSetupAccess access) {
+        List<Class<?>> commands = new ArrayList<Class<?>>();
+        for (String name : System.getProperty(COMMANDS_PROPERTY, "").split(",")) {
+            if (name.trim().length() == 0) { continue; }
+            Class<?> cls = access.findClassByName(name.trim());
+            if (cls == null) {
+                throw new IllegalArgumentException("Could not find class '" + name.trim() + "' specified in system property " + COMMANDS_PROPERTY);
+            }
+            commands.add(cls);
+        }
+        if (commands.isEmpty()) { return; }
+        PrebuiltCommands.build(commands.toArray(new Class<?>[0]));
+        Set<CommandSpec> specs = new LinkedHashSet<CommandSpec>();
+        for (Class<?> cls : commands) {
+            collectSpecs(PrebuiltCommands.get(cls).getCommandSpec(), specs);
+        }
+        initializeAtBuildTime(reachableClasses(specs));
+    }
+
+    /** Registers the picocli package and the specified application classes for initialization at image build time. */
+    void initializeAtBuildTime(Set<Class<?>> classes) {
+        RuntimeClassInitialization.initializeAtBuildTime("picocli");
+        RuntimeClassInitialization.initializeAtBuildTime(classes.toArray(new Class<?>[0]));
+    }
+
+    /** Adds the specified command and its mixins and subcommands to the specified set. */
+    private static void collectSpecs(CommandSpec spec, Set<CommandSpec> result) {
+        if (!result.add(spec)) { return; }
+        for (CommandSpec mixin : spec.mixins().values()) { collectSpecs(mixin, result); }
+        for (CommandLine sub : spec.subcommands().values()) { collectSpecs(sub.getCommandSpec(), result); }
+    }
+
+    /** Returns the application classes whose instances the specified commands refer to. */
+    static Set<Class<?>> reachableClasses(Collection<CommandSpec> specs) {
+        Set<Class<?>> result = new LinkedHashSet<Class<?>>();
+        for (CommandSpec spec : specs) {
+            Object userObject = spec.userObject();
+            add(userObject instanceof Method ? ((Method) userObject).getDeclaringClass() : classOf(userObject), result);
+            add(classOf(spec.versionProvider()), result);
+            add(classOf(spec.defaultValueProvider()), result);
+            addGroups(spec.argGroups(), result);
+            for (ArgSpec arg : spec.args()) {
+                add(arg.type(), result);
+                for (Class<?> type : arg.auxiliaryTypes()) { add(type, result); }
+                for (ITypeConverter<?> converter : arg.converters()) { add(classOf(converter), result); }
+                add(classOf(arg.completionCandidates()), result);
+                add(classOf(arg.parameterConsumer()), result);
+            }
+        }
+        return result;
+    }
+
+    private static void addGroups(List<ArgGroupSpec> groups, Set<Class<?>> result) {
+        for (ArgGroupSpec group : groups) {
+            add(group.typeInfo().getType(), result);
+            for (Class<?> type : group.typeInfo().getAuxiliaryTypes()) { add(type, result); }
+            addGroups(group.subgroups(), result);
+        }
+    }
+
+    private static Class<?> classOf(Object object) {
+        return object == null ? null : object.getClass();
+    }
+
+    /** Adds the specified class and its superclasses, unless they are JDK classes. */
+    private static void add(Class<?> cls, Set<Class<?>> result) {
+        while (cls != null && cls.isArray()) { cls = cls.getComponentType(); }
+        for (; cls != null && cls.getClassLoader() != null; cls = cls.getSuperclass()) { // JDK classes have no class loader
+            result.add(cls);
+        }
+    }
+}
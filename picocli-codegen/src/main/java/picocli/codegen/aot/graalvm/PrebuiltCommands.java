@@ -0,0 +1,246 @@
+package picocli.codegen.aot.graalvm;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Help.Ansi;
+import picocli.CommandLine.Help.Ansi.IStyle;
+import picocli.CommandLine.Help.ColorScheme;
+import picocli.CommandLine.IHelpFactory;
+import picocli.CommandLine.IHelpSectionRenderer;
+import picocli.CommandLine.IStreamingHelpSectionRenderer;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.UsageMessageSpec;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Holds {@code CommandLine} objects that were built ahead of time, together with their pre-rendered usage help sections.
+ * <p>
+ * In a GraalVM native image, the {@link PicocliFeature} builds the commands at image build time,
+ * so that the {@code CommandLine} objects (the {@code CommandSpec} tree, the type converters and the rendered usage help)
+ * are stored in the image heap. Applications obtain these objects with {@link #get(Class)} instead of
+ * constructing a new {@code CommandLine}, so that the native image does not inspect any annotations at startup.
+ * </p><p>
+ * On the JVM, or for classes that were not built ahead of time, {@link #get(Class)} simply returns a new {@code CommandLine}.
+ * </p><p>
+ * A pre-rendered usage help section is only used while the usage help width, the default locale and the color scheme styles
+ * are the same as when the section was rendered; otherwise the section is rendered as usual.
+ * Sections that contain variables are rendered with the values of the variables at build time. The system properties and
+ * environment variables that these values were looked up from are recorded, and the pre-rendered sections of a command are
+ * only used while these have the same values at runtime. For example, the standard help options of commands with
+ * {@code mixinStandardHelpOptions} are pre-rendered, and are rendered at runtime when their names are overridden with
+ * system properties. The sections of commands with a default value provider or with
+ * {@linkplain UsageMessageSpec#autoWidth() automatic width} are not pre-rendered, since these depend on the runtime environment.
+ * The pre-rendered text is kept by the help factory of the command; the {@linkplain UsageMessageSpec#sectionMap() section map}
+ * is not modified, and sections that the application replaces are rendered by the new renderer.
+ * Applications should not otherwise modify the model of prebuilt commands.
+ * </p>
+ * @see PicocliFeature
+ * @since 4.3
+ */
+public final class PrebuiltCommands {
+    private static final Map<Class<?>, CommandLine> COMMANDS = new LinkedHashMap<Class<?>, CommandLine>();
+
+    private PrebuiltCommands() {}
+
+    /**
+     * Builds a {@code CommandLine} for each of the specified command classes, pre-renders its usage help
+     * and the usage help of its subcommands, and keeps the result so it can be obtained with {@link #get(Class)}.
+     * @param classes the command classes to build
+     */
+    public static synchronized void build(Class<?>... classes) {
+        for (Class<?> cls : classes) {
+            CommandLine commandLine = new CommandLine(cls);
+            prerenderUsageHelp(commandLine, Collections.newSetFromMap(new IdentityHashMap<CommandLine, Boolean>()));
+            COMMANDS.put(cls, commandLine);
+        }
+    }
+
+    /**
+     * Returns the {@code CommandLine} that was {@linkplain #build(Class[]) built} for the specified class,
+     * or a new {@code CommandLine} if the class was not built ahead of time.
+     * Prebuilt commands are not copied: every call returns the same instance.
+     * @param cls the command class
+     * @return a {@code CommandLine} for the specified class, never {@code null}
+     */
+    public static synchronized CommandLine get(Class<?> cls) {
+        CommandLine result = COMMANDS.get(cls);
+        return result == null ? new CommandLine(cls) : result;
+    }
+
+    /**
+     * Returns whether a {@code CommandLine} was {@linkplain #build(Class[]) built} ahead of time for the specified class.
+     * @param cls the command class
+     * @return {@code true} if {@link #get(Class)} returns a prebuilt command for the specified class
+     */
+    public static synchronized boolean isPrebuilt(Class<?> cls) {
+        return COMMANDS.containsKey(cls);
+    }
+
+    /** Returns the pre-rendered usage help sections of the specified command, or {@code null} if none were pre-rendered. */
+    static PrerenderedUsage prerenderedUsage(CommandLine commandLine) {
+        IHelpFactory factory = commandLine.getHelpFactory();
+        return factory instanceof PrerenderedHelpFactory ? ((PrerenderedHelpFactory) factory).usage : null;
+    }
+
+    /** Makes the specified command use the specified pre-rendered usage help sections for the sections it currently has. */
+    static void install(CommandLine commandLine, PrerenderedUsage usage) {
+        UsageMessageSpec spec = commandLine.getCommandSpec().usageMessage();
+        spec.helpFactory(new PrerenderedHelpFactory(usage, spec.sectionMap()));
+    }
+
+    private static void prerenderUsageHelp(CommandLine commandLine, Set<CommandLine> visited) {
+        if (!visited.add(commandLine)) { return; } // subcommand aliases share the same CommandLine
+        CommandSpec spec = commandLine.getCommandSpec();
+        UsageMessageSpec usage = spec.usageMessage();
+        if (!usage.autoWidth() && spec.defaultValueProvider() == null && isDefault(commandLine.getHelpFactory())) {
+            ColorScheme plainScheme = new ColorScheme.Builder(commandLine.getColorScheme()).ansi(Ansi.OFF).build();
+            ColorScheme ansiScheme = new ColorScheme.Builder(commandLine.getColorScheme()).ansi(Ansi.ON).build();
+            Help plain = commandLine.getHelpFactory().create(spec, plainScheme);
+            Help ansi = commandLine.getHelpFactory().create(spec, ansiScheme);
+            PrerenderedUsage prerendered = new PrerenderedUsage(usage.width(), Locale.getDefault(), ansiScheme, spec.interpolateVariables());
+            for (Map.Entry<String, IHelpSectionRenderer> entry : usage.sectionMap().entrySet()) {
+                prerendered.put(entry.getKey(), entry.getValue().render(plain), entry.getValue().render(ansi));
+            }
+            prerendered.dependsOn(interpolationDependencies(spec, new LinkedHashMap<String, String>(), true));
+            install(commandLine, prerendered);
+        }
+        for (CommandLine sub : commandLine.getSubcommands().values()) {
+            prerenderUsageHelp(sub, visited);
+        }
+    }
+
+    /** Returns whether the specified factory is picocli's default help factory, which creates a plain {@code Help}. */
+    private static boolean isDefault(IHelpFactory factory) {
+        return factory.getClass().getName().equals(CommandLine.class.getName() + "$DefaultHelpFactory");
+    }
+
+    /** Adds the system properties and environment variables that the interpolated strings of the specified command
+     * depend on to the specified map, including those of its mixins, and optionally of its subcommands, which are
+     * listed in the usage help of the command. */
+    private static Map<String, String> interpolationDependencies(CommandSpec spec, Map<String, String> result, boolean subcommands) {
+        result.putAll(spec.interpolationDependencies());
+        for (CommandSpec mixin : spec.mixins().values()) { interpolationDependencies(mixin, result, false); }
+        if (subcommands) {
+            for (CommandLine sub : spec.subcommands().values()) { interpolationDependencies(sub.getCommandSpec(), result, false); }
+        }
+        return result;
+    }
+
+    /**
+     * The pre-rendered text of the usage help sections of a command, keyed by section name, and the conditions under
+     * which the text was rendered. This is a serializable snapshot: it does not refer to the command or its model.
+     */
+    static final class PrerenderedUsage implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int width;
+        private final Locale locale;
+        private final String styles;
+        private final boolean interpolateVariables;
+        private final Map<String, String[]> sections = new LinkedHashMap<String, String[]>();
+        private final Map<String, String> dependencies = new LinkedHashMap<String, String>();
+
+        PrerenderedUsage(int width, Locale locale, ColorScheme colorScheme, boolean interpolateVariables) {
+            this.width = width;
+            this.locale = locale;
+            this.styles = styles(colorScheme);
+            this.interpolateVariables = interpolateVariables;
+        }
+
+        void put(String key, String plainText, String ansiText) {
+            sections.put(key, new String[] {plainText, ansiText});
+        }
+
+        /** Records the system properties and environment variables (keyed by {@code "sys:"} or {@code "env:"} and the name)
+         * that the variables in the pre-rendered text were looked up from, and their values at build time. */
+        void dependsOn(Map<String, String> variables) {
+            dependencies.putAll(variables);
+        }
+
+        /** Returns the names of the pre-rendered sections. */
+        Set<String> sectionKeys() { return Collections.unmodifiableSet(sections.keySet()); }
+
+        /** Returns the pre-rendered text of the specified section, or {@code null} if the section was not pre-rendered
+         * or if the specified help is rendered under different conditions than at build time. */
+        String text(String key, Help help) {
+            String[] text = sections.get(key);
+            if (text == null) { return null; }
+            ColorScheme scheme = help.colorScheme();
+            if (help.commandSpec().usageMessage().width() != width || !locale.equals(Locale.getDefault()) || !styles.equals(styles(scheme))
+                    || help.commandSpec().interpolateVariables() != interpolateVariables || !isCurrent()) {
+                return null;
+            }
+            return scheme.ansi().enabled() ? text[1] : text[0];
+        }
+
+        /** Returns whether the system properties and environment variables that the text depends on still have the same values. */
+        private boolean isCurrent() {
+            for (Map.Entry<String, String> entry : dependencies.entrySet()) {
+                String name = entry.getKey().substring(4);
+                String current = entry.getKey().startsWith("sys:") ? System.getProperty(name) : System.getenv(name);
+                if (current == null ? entry.getValue() != null : !current.equals(entry.getValue())) { return false; }
+            }
+            return true;
+        }
+
+        /** Returns the ANSI codes of the styles of the specified color scheme. */
+        private static String styles(ColorScheme scheme) {
+            StringBuilder sb = new StringBuilder();
+            for (List<IStyle> styles : Arrays.asList(scheme.commandStyles(), scheme.optionStyles(), scheme.parameterStyles(), scheme.optionParamStyles())) {
+                for (IStyle style : styles) { sb.append(style.on()).append(style.off()); }
+                sb.append('|');
+            }
+            for (Map.Entry<String, IStyle> entry : new TreeMap<String, IStyle>(scheme.customMarkupMap()).entrySet()) {
+                sb.append(entry.getKey()).append('=').append(entry.getValue().on()).append(entry.getValue().off()).append('|');
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Creates {@code Help} objects that use the pre-rendered text for the sections that are still rendered by the
+     * same renderers as when the text was rendered. The section map of the command itself is not modified,
+     * so sections that the application replaces afterwards are rendered by the new renderer.
+     */
+    static final class PrerenderedHelpFactory implements IHelpFactory {
+        private final PrerenderedUsage usage;
+        private final Map<String, IHelpSectionRenderer> renderers;
+
+        PrerenderedHelpFactory(PrerenderedUsage usage, Map<String, IHelpSectionRenderer> renderers) {
+            this.usage = usage;
+            this.renderers = new HashMap<String, IHelpSectionRenderer>(renderers);
+        }
+
+        public Help create(CommandSpec commandSpec, ColorScheme colorScheme) {
+            return new Help(commandSpec, colorScheme) {
+                @Override
+                public void render(Appendable destination) throws IOException {
+                    UsageMessageSpec spec = commandSpec().usageMessage();
+                    Map<String, IHelpSectionRenderer> sectionMap = spec.sectionMap();
+                    for (String key : spec.sectionKeys()) {
+                        IHelpSectionRenderer renderer = sectionMap.get(key);
+                        String text = renderer != null && renderer == renderers.get(key) ? usage.text(key, this) : null;
+                        if (text != null) {
+                            destination.append(text);
+                        } else if (renderer instanceof IStreamingHelpSectionRenderer) {
+                            ((IStreamingHelpSectionRenderer) renderer).render(this, destination);
+                        } else if (renderer != null) {
+                            destination.append(renderer.render(this));
+                        }
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,742 @@
+package picocli.codegen.aot.model;
+
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.IFactory;
+import picocli.CommandLine.IParameterConsumer;
+import picocli.CommandLine.IParameterSink;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Model.IGeneratedClass;
+import picocli.CommandLine.Model.IGeneratedField;
+import picocli.CommandLine.Model.OptionSpec;
+import picocli.CommandLine.Model.PositionalParamSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Range;
+import picocli.CommandLine.Spec;
+import picocli.CommandLine.Unmatched;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates an {@link IGeneratedClass} implementation for each class with picocli annotations,
+ * so that at runtime picocli can build the model of these classes without reflection.
+ * <p>
+ * For a class {@code com.example.App}, this processor generates a class {@code com.example.App_PicocliGenerated}
+ * that creates the options and positional parameters of the {@code @Option} and {@code @Parameters} fields of the class
+ * with the {@link OptionSpec} and {@link PositionalParamSpec} builders, reads and writes these fields directly,
+ * and creates new instances of the class with its no-argument constructor.
+ * The generated classes are registered in {@code META-INF/services/picocli.CommandLine$Model$IGeneratedClass}.
+ * </p><p>
+ * Classes that generated code cannot access are skipped, and picocli inspects them with reflection as before.
+ * This is the case for private, generic, local and anonymous classes, classes with private or final annotated fields,
+ * classes with {@code @Mixin}, {@code @ArgGroup}, {@code @Spec}, {@code @ParentCommand} or {@code @Unmatched} fields
+ * or {@code IParameterSink} fields, and classes with annotated methods or {@code @Command}-annotated methods.
+ * </p><p>
+ * Generation is opt-in: this processor does nothing unless the {@code -Apicocli.generate.classes=true} processor option
+ * is specified. Service entries that already exist in the class output directory, for example from an earlier
+ * incremental compilation, are kept.
+ * The {@code -Averbose} option prints a note for every class that was generated or skipped.
+ * </p>
+ * @since 4.3
+ */
+@SupportedOptions({GeneratedClassProcessor.OPTION_GENERATE, GeneratedClassProcessor.OPTION_VERBOSE})
+public class GeneratedClassProcessor extends AbstractProcessor {
+    /**
+     * Name of the processor option that enables generation of classes when set to {@code true}.
+     * The value of this constant is {@value}.
+     */
+    public static final String OPTION_GENERATE = "picocli.generate.classes";
+    /**
+     * Name of the processor option that prints a note for every class that was generated or skipped.
+     * The value of this constant is {@value}.
+     */
+    public static final String OPTION_VERBOSE = "verbose";
+    /** Suffix of the names of the generated classes: {@value}. */
+    public static final String SUFFIX = "_PicocliGenerated";
+
+    static final String SERVICE_FILE = "META-INF/services/" + IGeneratedClass.class.getName();
+
+    private static final String NO_DEFAULT_VALUE = "__no_default_value__";
+    private static final String NO_COMPLETION_CANDIDATES = "picocli.CommandLine.NoCompletionCandidates";
+    private static final String NULL_PARAMETER_CONSUMER = "picocli.CommandLine.NullParameterConsumer";
+
+    private static final List<Class<? extends Annotation>> ANNOTATIONS = Arrays.<Class<? extends Annotation>>asList(
+            Command.class, Option.class, Parameters.class, Mixin.class, ArgGroup.class, Spec.class, ParentCommand.class, Unmatched.class);
+
+    private final List<String> generatedClassNames = new ArrayList<String>();
+    private final List<Element> originatingElements = new ArrayList<Element>();
+    private Elements elements;
+    private Types types;
+
+    public GeneratedClassProcessor() {}
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton("picocli.*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latest();
+    }
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_GENERATE))) {
+            return false;
+        }
+        try {
+            if (roundEnv.processingOver()) {
+                writeServiceFile();
+            } else {
+                for (TypeElement type : annotatedClasses(roundEnv)) {
+                    generate(type);
+                }
+            }
+        } catch (Exception e) {
+            // We don't allow exceptions of any kind to propagate to the compiler
+            fatalError(stacktrace(e));
+        }
+        return false;
+    }
+
+    private Set<TypeElement> annotatedClasses(RoundEnvironment roundEnv) {
+        Set<TypeElement> result = new LinkedHashSet<TypeElement>();
+        for (Class<? extends Annotation> annotation : ANNOTATIONS) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind().isClass() || element.getKind().isInterface()) {
+                    result.add((TypeElement) element);
+                } else if (element.getKind() == ElementKind.FIELD || element.getKind() == ElementKind.METHOD) {
+                    result.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        return result;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String simpleName = generatedSimpleName(type);
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String source;
+        try {
+            source = new SourceBuilder(type).build(packageName, simpleName);
+        } catch (UnsupportedException ex) {
+            logInfo("skipped " + type.getQualifiedName() + ": " + ex.getMessage());
+            return;
+        }
+        String className = packageName.length() == 0 ? simpleName : packageName + "." + simpleName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(className, type);
+        write(source, file);
+        generatedClassNames.add(className);
+        originatingElements.add(type);
+        logInfo("generated " + className);
+    }
+
+    private void writeServiceFile() throws IOException {
+        if (generatedClassNames.isEmpty()) {
+            return;
+        }
+        Set<String> classNames = existingServiceEntries();
+        classNames.addAll(generatedClassNames);
+        StringBuilder text = new StringBuilder();
+        for (String className : classNames) {
+            text.append(className).append('\n');
+        }
+        FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE,
+                originatingElements.toArray(new Element[0]));
+        write(text.toString(), resource);
+        logInfo("wrote " + StandardLocation.CLASS_OUTPUT + "/" + SERVICE_FILE);
+    }
+
+    /** Returns the class names in the service file in the class output directory, or an empty set if there is no such file. */
+    private Set<String> existingServiceEntries() {
+        Set<String> result = new LinkedHashSet<String>();
+        BufferedReader reader = null;
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            reader = new BufferedReader(existing.openReader(true));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int comment = line.indexOf('#');
+                String className = (comment < 0 ? line : line.substring(0, comment)).trim();
+                if (className.length() > 0) { result.add(className); }
+            }
+        } catch (IOException ignored) {
+            // there is no service file yet
+        } finally {
+            if (reader != null) {
+                try { reader.close(); } catch (IOException ignored) { }
+            }
+        }
+        return result;
+    }
+
+    private static String generatedSimpleName(TypeElement type) {
+        String result = type.getSimpleName().toString();
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            result = e.getSimpleName() + "_" + result;
+        }
+        return result + SUFFIX;
+    }
+
+    /** Builds the source code of the generated class for a single annotated class. */
+    private class SourceBuilder {
+        private final TypeElement type;
+        private final PackageElement pkg;
+        private final String typeName;
+        private String simpleName;
+
+        SourceBuilder(TypeElement type) {
+            this.type = type;
+            this.pkg = elements.getPackageOf(type);
+            this.typeName = type.getQualifiedName().toString();
+        }
+
+        String build(String packageName, String simpleName) throws UnsupportedException {
+            this.simpleName = simpleName;
+            validateType();
+            StringBuilder sb = new StringBuilder();
+            if (packageName.length() > 0) {
+                sb.append("package ").append(packageName).append(";\n\n");
+            }
+            sb.append("/** Options, positional parameters and annotated fields of {@link ").append(typeName).append("}, generated by ")
+                    .append(GeneratedClassProcessor.class.getName()).append(". */\n");
+            sb.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            sb.append("public final class ").append(simpleName).append(" implements ").append(canonicalName(IGeneratedClass.class)).append(" {\n");
+            sb.append("    public ").append(simpleName).append("() {}\n\n");
+            sb.append("    public java.lang.Class<?> getType() { return ").append(typeName).append(".class; }\n\n");
+            sb.append("    public ").append(canonicalName(IGeneratedField.class)).append("[] getFields() {\n");
+            sb.append("        return new ").append(canonicalName(IGeneratedField.class)).append("[] {\n");
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                AnnotationMirror option = findAnnotation(field.getAnnotationMirrors(), Option.class);
+                AnnotationMirror parameters = findAnnotation(field.getAnnotationMirrors(), Parameters.class);
+                if (option != null || parameters != null) {
+                    appendField(sb, field, option != null ? option : parameters, option != null);
+                }
+            }
+            sb.append("        };\n");
+            sb.append("    }\n\n");
+            sb.append("    public java.lang.Object newInstance() { return ").append(canCreateInstance() ? "new " + typeName + "()" : "null").append("; }\n\n");
+            sb.append("    private static java.lang.Class<?> loadClass(java.lang.String name) {\n");
+            sb.append("        try {\n");
+            sb.append("            return java.lang.Class.forName(name, false, ").append(simpleName).append(".class.getClassLoader());\n");
+            sb.append("        } catch (java.lang.ClassNotFoundException ex) {\n");
+            sb.append("            throw new java.lang.NoClassDefFoundError(name);\n");
+            sb.append("        }\n");
+            sb.append("    }\n");
+            sb.append("}\n");
+            return sb.toString();
+        }
+
+        private void validateType() throws UnsupportedException {
+            if (type.getKind() != ElementKind.CLASS) {
+                throw new UnsupportedException("not a class");
+            }
+            if (!isAccessible(type)) {
+                throw new UnsupportedException("class is not accessible from package " + pkg.getQualifiedName());
+            }
+            if (!type.getTypeParameters().isEmpty()) {
+                throw new UnsupportedException("generic class");
+            }
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (!picocliAnnotations(method).isEmpty()) {
+                    throw new UnsupportedException("annotated method " + method);
+                }
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                List<AnnotationMirror> annotations = picocliAnnotations(field);
+                if (annotations.isEmpty()) { continue; }
+                if (annotations.size() > 1) {
+                    throw new UnsupportedException("field " + field.getSimpleName() + " has more than one picocli annotation");
+                }
+                if (!isAnnotation(annotations.get(0), Option.class) && !isAnnotation(annotations.get(0), Parameters.class)) {
+                    throw new UnsupportedException("@" + annotations.get(0).getAnnotationType().asElement().getSimpleName()
+                            + " field " + field.getSimpleName());
+                }
+                if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                    throw new UnsupportedException("private field " + field.getSimpleName());
+                }
+                if (field.getModifiers().contains(Modifier.FINAL)) {
+                    throw new UnsupportedException("final field " + field.getSimpleName());
+                }
+                if (!isAccessible(field.asType())) {
+                    throw new UnsupportedException("type of field " + field.getSimpleName() + " is not accessible");
+                }
+                if (isSubtype(field.asType(), IParameterSink.class)) {
+                    throw new UnsupportedException("parameter sink field " + field.getSimpleName());
+                }
+            }
+            if (hasCommandMethods(type.asType(), new HashSet<String>())) {
+                throw new UnsupportedException("@Command methods");
+            }
+        }
+
+        /** Returns true if the type or any of its supertypes has {@code @Command}-annotated methods, which picocli finds with reflection. */
+        private boolean hasCommandMethods(TypeMirror typeMirror, Set<String> visited) {
+            if (typeMirror.getKind() != TypeKind.DECLARED) { return false; }
+            TypeElement element = (TypeElement) types.asElement(typeMirror);
+            if (!visited.add(element.getQualifiedName().toString())) { return false; }
+            for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+                if (findAnnotation(method.getAnnotationMirrors(), Command.class) != null) { return true; }
+            }
+            for (TypeMirror supertype : types.directSupertypes(typeMirror)) {
+                if (hasCommandMethods(supertype, visited)) { return true; }
+            }
+            return false;
+        }
+
+        private boolean canCreateInstance() {
+            Set<Modifier> modifiers = type.getModifiers();
+            if (modifiers.contains(Modifier.ABSTRACT)) { return false; }
+            if (type.getNestingKind() != NestingKind.TOP_LEVEL && !modifiers.contains(Modifier.STATIC)) { return false; }
+            for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+                if (constructor.getParameters().isEmpty()
+                        && !constructor.getModifiers().contains(Modifier.PRIVATE)
+                        && constructor.getThrownTypes().isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void appendField(StringBuilder sb, VariableElement field, AnnotationMirror annotation, boolean isOption) throws UnsupportedException {
+            String name = field.getSimpleName().toString();
+            TypeMirror fieldType = field.asType();
+            String target = field.getModifiers().contains(Modifier.STATIC) ? typeName : "((" + typeName + ") instance)";
+            String castType = fieldType.getKind().isPrimitive()
+                    ? types.boxedClass((PrimitiveType) fieldType).getQualifiedName().toString()
+                    : types.erasure(fieldType).toString();
+
+            sb.append("            new ").append(canonicalName(IGeneratedField.class)).append("() {\n");
+            sb.append("                public java.lang.String getName() { return ").append(quote(name)).append("; }\n");
+            sb.append("                public java.lang.Class<?> getType() { return ").append(classLiteral(types.erasure(fieldType))).append("; }\n");
+            sb.append("                public ").append(canonicalName(ArgSpec.class)).append(" createArgSpec(")
+                    .append(canonicalName(IFactory.class)).append(" factory) throws java.lang.Exception {\n");
+            sb.append("                    return ");
+            appendBuilder(sb, field, annotation, isOption, "                            ");
+            sb.append(";\n");
+            sb.append("                }\n");
+            sb.append("                public java.lang.Object get(java.lang.Object instance) { return ").append(target).append(".").append(name).append("; }\n");
+            sb.append("                public void set(java.lang.Object instance, java.lang.Object value) { ")
+                    .append(target).append(".").append(name).append(" = (").append(castType).append(") value; }\n");
+            sb.append("            },\n");
+        }
+
+        /** Appends the builder calls that create the same {@code OptionSpec} or {@code PositionalParamSpec}
+         * as picocli creates with reflection from the annotation on the specified field. */
+        private void appendBuilder(StringBuilder sb, VariableElement field, AnnotationMirror annotation, boolean isOption, String indent) throws UnsupportedException {
+            Map<String, Object> values = values(annotation);
+            TypeMirror fieldType = field.asType();
+            List<TypeMirror> auxiliaryTypes = auxiliaryTypes(fieldType, (List<?>) values.get("type"));
+            boolean interactive = (Boolean) values.get("interactive");
+
+            if (isOption) {
+                sb.append(canonicalName(OptionSpec.class)).append(".builder(").append(stringArray((List<?>) values.get("names"))).append(")");
+            } else {
+                sb.append(canonicalName(PositionalParamSpec.class)).append(".builder()");
+                String index = (String) values.get("index");
+                if (index.length() > 0) { sb.append("\n").append(indent).append(".index(").append(quote(index)).append(")"); }
+            }
+            sb.append("\n").append(indent).append(".type(").append(classLiteral(types.erasure(fieldType))).append(")");
+            sb.append("\n").append(indent).append(".auxiliaryTypes(");
+            for (int i = 0; i < auxiliaryTypes.size(); i++) {
+                sb.append(i > 0 ? ", " : "").append(classLiteral(types.erasure(auxiliaryTypes.get(i))));
+            }
+            sb.append(")");
+
+            String arity = (String) values.get("arity");
+            Range range = Range.valueOf(arity);
+            if (range.isUnspecified()) {
+                range = Range.valueOf(defaultArity(fieldType, auxiliaryTypes, isOption, interactive));
+                sb.append("\n").append(indent).append(".arity(").append(canonicalName(Range.class)).append(".valueOf(")
+                        .append(quote(range.toString())).append(").unspecified(true))");
+            } else {
+                sb.append("\n").append(indent).append(".arity(").append(quote(arity)).append(")");
+            }
+            boolean required = isOption ? (Boolean) values.get("required") : range.min() > 0;
+            if (required) { sb.append("\n").append(indent).append(".required(true)"); }
+
+            String paramLabel = (String) values.get("paramLabel");
+            sb.append("\n").append(indent).append(".paramLabel(")
+                    .append(quote(paramLabel.length() > 0 ? paramLabel.trim() : inferLabel(field, fieldType, auxiliaryTypes))).append(")");
+            if ((Boolean) values.get("hideParamSyntax")) { sb.append("\n").append(indent).append(".hideParamSyntax(true)"); }
+            if (interactive) { sb.append("\n").append(indent).append(".interactive(true)"); }
+            List<?> description = (List<?>) values.get("description");
+            if (!description.isEmpty()) { sb.append("\n").append(indent).append(".description(").append(stringArray(description)).append(")"); }
+            sb.append("\n").append(indent).append(".descriptionKey(").append(quote((String) values.get("descriptionKey"))).append(")");
+            String split = (String) values.get("split");
+            if (split.length() > 0) { sb.append("\n").append(indent).append(".splitRegex(").append(quote(split)).append(")"); }
+            if ((Boolean) values.get("hidden")) { sb.append("\n").append(indent).append(".hidden(true)"); }
+            String defaultValue = (String) values.get("defaultValue");
+            if (!NO_DEFAULT_VALUE.equals(defaultValue)) { sb.append("\n").append(indent).append(".defaultValue(").append(quote(defaultValue)).append(")"); }
+            String showDefaultValue = ((VariableElement) values.get("showDefaultValue")).getSimpleName().toString();
+            if (!Help.Visibility.ON_DEMAND.name().equals(showDefaultValue)) {
+                sb.append("\n").append(indent).append(".showDefaultValue(").append(canonicalName(Help.Visibility.class)).append(".").append(showDefaultValue).append(")");
+            }
+            List<?> converters = (List<?>) values.get("converter");
+            if (!converters.isEmpty()) {
+                sb.append("\n").append(indent).append(".converters(");
+                for (int i = 0; i < converters.size(); i++) {
+                    sb.append(i > 0 ? ", " : "").append(create(ITypeConverter.class, (TypeMirror) ((AnnotationValue) converters.get(i)).getValue()));
+                }
+                sb.append(")");
+            }
+            TypeMirror completionCandidates = (TypeMirror) values.get("completionCandidates");
+            if (!isNamed(completionCandidates, NO_COMPLETION_CANDIDATES)) {
+                sb.append("\n").append(indent).append(".completionCandidates(").append(create(Iterable.class, completionCandidates)).append(")");
+            }
+            TypeMirror parameterConsumer = (TypeMirror) values.get("parameterConsumer");
+            if (!isNamed(parameterConsumer, NULL_PARAMETER_CONSUMER)) {
+                sb.append("\n").append(indent).append(".parameterConsumer(").append(create(IParameterConsumer.class, parameterConsumer)).append(")");
+            }
+            if (isOption) {
+                if ((Boolean) values.get("help"))        { sb.append("\n").append(indent).append(".help(true)"); }
+                if ((Boolean) values.get("usageHelp"))   { sb.append("\n").append(indent).append(".usageHelp(true)"); }
+                if ((Boolean) values.get("versionHelp")) { sb.append("\n").append(indent).append(".versionHelp(true)"); }
+                if ((Boolean) values.get("negatable"))   { sb.append("\n").append(indent).append(".negatable(true)"); }
+                String fallbackValue = (String) values.get("fallbackValue");
+                if (fallbackValue.length() > 0) { sb.append("\n").append(indent).append(".fallbackValue(").append(quote(fallbackValue)).append(")"); }
+                int order = (Integer) values.get("order");
+                if (order != -1) { sb.append("\n").append(indent).append(".order(").append(order).append(")"); }
+            }
+            sb.append("\n").append(indent).append(".withToString(").append(quote("field " + abbreviate(genericString(field)))).append(")");
+            sb.append("\n").append(indent).append(".build()");
+        }
+
+        /** Returns the annotation attribute values, including defaults, by attribute name. */
+        private Map<String, Object> values(AnnotationMirror mirror) {
+            Map<String, Object> result = new HashMap<String, Object>();
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+                result.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+            }
+            return result;
+        }
+
+        /** Returns the auxiliary types of the field the way {@code RuntimeTypeInfo} infers them with reflection. */
+        private List<TypeMirror> auxiliaryTypes(TypeMirror fieldType, List<?> annotationTypes) {
+            List<TypeMirror> result = new ArrayList<TypeMirror>();
+            if (!annotationTypes.isEmpty()) {
+                for (Object value : annotationTypes) { result.add((TypeMirror) ((AnnotationValue) value).getValue()); }
+                return result;
+            }
+            if (fieldType.getKind() == TypeKind.ARRAY) {
+                result.add(((ArrayType) fieldType).getComponentType());
+                return result;
+            }
+            if (!isSubtype(fieldType, Collection.class) && !isSubtype(fieldType, Map.class)) {
+                result.add(fieldType);
+                return result;
+            }
+            List<? extends TypeMirror> arguments = ((DeclaredType) fieldType).getTypeArguments();
+            for (TypeMirror argument : arguments) {
+                TypeMirror cls = reflectedClass(argument);
+                if (cls == null) { // too convoluted generic type: use String, like picocli does at runtime
+                    result.clear();
+                    break;
+                }
+                result.add(cls);
+            }
+            if (result.isEmpty()) { // raw type or convoluted generic type
+                TypeMirror string = elements.getTypeElement(String.class.getName()).asType();
+                result.addAll(Collections.nCopies(arguments.isEmpty() ? 2 : arguments.size(), string));
+            }
+            return result;
+        }
+
+        /** Returns the default arity of the field, like {@code Range.defaultArity} at runtime. */
+        private String defaultArity(TypeMirror fieldType, List<TypeMirror> auxiliaryTypes, boolean isOption, boolean interactive) {
+            if (interactive) { return "0"; }
+            if (isOption) {
+                TypeMirror first = auxiliaryTypes.get(0);
+                boolean isBoolean = first.getKind() == TypeKind.BOOLEAN || isNamed(first, Boolean.class.getName());
+                return isBoolean ? "0" : "1";
+            }
+            return isMultiValue(fieldType) ? "0..1" : "1";
+        }
+
+        /** Returns the parameter label inferred from the field name and type, like {@code ArgSpec.Builder.inferLabel} at runtime. */
+        private String inferLabel(VariableElement field, TypeMirror fieldType, List<TypeMirror> auxiliaryTypes) {
+            String name = field.getSimpleName().toString();
+            if (fieldType.getKind() != TypeKind.ARRAY && isSubtype(fieldType, Map.class)) {
+                name = auxiliaryTypes.size() < 2
+                        ? "String=String"
+                        : classSimpleName(auxiliaryTypes.get(0)) + "=" + classSimpleName(auxiliaryTypes.get(1));
+            }
+            return "<" + name + ">";
+        }
+
+        /** Returns the name that {@code Class.getSimpleName()} returns for the specified type. */
+        private String classSimpleName(TypeMirror typeMirror) {
+            if (typeMirror.getKind() == TypeKind.ARRAY) { return classSimpleName(((ArrayType) typeMirror).getComponentType()) + "[]"; }
+            if (typeMirror.getKind() == TypeKind.DECLARED) { return types.asElement(typeMirror).getSimpleName().toString(); }
+            return typeMirror.toString();
+        }
+
+        private boolean isMultiValue(TypeMirror typeMirror) {
+            return typeMirror.getKind() == TypeKind.ARRAY || isSubtype(typeMirror, Collection.class) || isSubtype(typeMirror, Map.class);
+        }
+
+        private boolean isSubtype(TypeMirror typeMirror, Class<?> cls) {
+            if (typeMirror.getKind() != TypeKind.DECLARED) { return false; }
+            TypeElement element = elements.getTypeElement(canonicalName(cls));
+            return element != null && types.isSubtype(types.erasure(typeMirror), types.erasure(element.asType()));
+        }
+
+        private boolean isNamed(TypeMirror typeMirror, String qualifiedName) {
+            return typeMirror.getKind() == TypeKind.DECLARED
+                    && ((TypeElement) types.asElement(typeMirror)).getQualifiedName().contentEquals(qualifiedName);
+        }
+
+        /** Returns an expression that creates an instance of the specified class with the factory. */
+        private String create(Class<?> expectedType, TypeMirror cls) throws UnsupportedException {
+            return "(" + canonicalName(expectedType) + ") factory.create(" + classLiteral(cls) + ")";
+        }
+
+        private String stringArray(List<?> values) {
+            StringBuilder sb = new StringBuilder("new java.lang.String[] {");
+            for (int i = 0; i < values.size(); i++) {
+                sb.append(i > 0 ? ", " : "").append(quote((String) ((AnnotationValue) values.get(i)).getValue()));
+            }
+            return sb.append("}").toString();
+        }
+
+        /** Returns a class literal, or a call to load the class by name if the class is not accessible from the generated class. */
+        private String classLiteral(TypeMirror typeMirror) throws UnsupportedException {
+            if (typeMirror.getKind().isPrimitive() || typeMirror.getKind() == TypeKind.VOID) {
+                return typeMirror + ".class";
+            }
+            if (typeMirror.getKind() == TypeKind.DECLARED) {
+                TypeElement element = (TypeElement) types.asElement(typeMirror);
+                return isAccessible(element)
+                        ? element.getQualifiedName() + ".class"
+                        : "((java.lang.Class) " + simpleName + ".loadClass(" + quote(elements.getBinaryName(element).toString()) + "))";
+            }
+            if (typeMirror.getKind() == TypeKind.ARRAY && isAccessible(typeMirror)) {
+                return types.erasure(typeMirror) + ".class";
+            }
+            throw new UnsupportedException("unsupported class " + typeMirror);
+        }
+
+        /** Returns the type that reflection represents as a {@code Class} for the specified type argument, or {@code null}. */
+        private TypeMirror reflectedClass(TypeMirror argument) {
+            switch (argument.getKind()) {
+                case DECLARED:
+                    return ((DeclaredType) argument).getTypeArguments().isEmpty() ? argument : null;
+                case ARRAY:
+                    TypeMirror component = ((ArrayType) argument).getComponentType();
+                    return component.getKind().isPrimitive() || reflectedClass(component) != null ? argument : null;
+                case WILDCARD:
+                    WildcardType wildcard = (WildcardType) argument;
+                    if (wildcard.getSuperBound() != null) {
+                        TypeMirror lower = reflectedClass(wildcard.getSuperBound());
+                        return lower != null ? lower : elements.getTypeElement("java.lang.Object").asType();
+                    }
+                    if (wildcard.getExtendsBound() != null) {
+                        return reflectedClass(wildcard.getExtendsBound());
+                    }
+                    return elements.getTypeElement("java.lang.Object").asType();
+                default:
+                    return null;
+            }
+        }
+
+        /** Returns the description of the field in the format of {@code java.lang.reflect.Field.toGenericString()}. */
+        private String genericString(VariableElement field) {
+            StringBuilder sb = new StringBuilder();
+            for (Modifier modifier : Arrays.asList(Modifier.PUBLIC, Modifier.PROTECTED, Modifier.PRIVATE,
+                    Modifier.STATIC, Modifier.FINAL, Modifier.TRANSIENT, Modifier.VOLATILE)) {
+                if (field.getModifiers().contains(modifier)) { sb.append(modifier).append(' '); }
+            }
+            return sb.append(reflectedTypeName(field.asType())).append(' ')
+                    .append(elements.getBinaryName(type)).append('.').append(field.getSimpleName()).toString();
+        }
+
+        private String reflectedTypeName(TypeMirror typeMirror) {
+            switch (typeMirror.getKind()) {
+                case ARRAY:
+                    return reflectedTypeName(((ArrayType) typeMirror).getComponentType()) + "[]";
+                case DECLARED:
+                    DeclaredType declared = (DeclaredType) typeMirror;
+                    StringBuilder sb = new StringBuilder(elements.getBinaryName((TypeElement) declared.asElement()));
+                    String separator = "<";
+                    for (TypeMirror argument : declared.getTypeArguments()) {
+                        sb.append(separator).append(reflectedTypeName(argument));
+                        separator = ", ";
+                    }
+                    return declared.getTypeArguments().isEmpty() ? sb.toString() : sb.append(">").toString();
+                case WILDCARD:
+                    WildcardType wildcard = (WildcardType) typeMirror;
+                    if (wildcard.getSuperBound() != null) { return "? super " + reflectedTypeName(wildcard.getSuperBound()); }
+                    if (wildcard.getExtendsBound() != null) { return "? extends " + reflectedTypeName(wildcard.getExtendsBound()); }
+                    return "?";
+                default:
+                    return typeMirror.toString();
+            }
+        }
+
+        private boolean isAccessible(TypeMirror typeMirror) {
+            if (typeMirror.getKind().isPrimitive()) { return true; }
+            if (typeMirror.getKind() == TypeKind.ARRAY) { return isAccessible(((ArrayType) typeMirror).getComponentType()); }
+            if (typeMirror.getKind() == TypeKind.DECLARED) { return isAccessible((TypeElement) types.asElement(typeMirror)); }
+            return false;
+        }
+
+        /** Returns true if the specified type can be referenced by name from a class in the package of the annotated class. */
+        private boolean isAccessible(TypeElement element) {
+            for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+                TypeElement typeElement = (TypeElement) e;
+                if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS) { return false; }
+                Set<Modifier> modifiers = typeElement.getModifiers();
+                if (modifiers.contains(Modifier.PRIVATE)) { return false; }
+                if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(typeElement).equals(pkg)) { return false; }
+            }
+            return true;
+        }
+    }
+
+    private static List<AnnotationMirror> picocliAnnotations(Element element) {
+        List<AnnotationMirror> result = new ArrayList<AnnotationMirror>();
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            for (Class<? extends Annotation> annotation : ANNOTATIONS) {
+                if (isAnnotation(mirror, annotation)) { result.add(mirror); }
+            }
+        }
+        return result;
+    }
+
+    private static AnnotationMirror findAnnotation(List<? extends AnnotationMirror> mirrors, Class<? extends Annotation> annotation) {
+        for (AnnotationMirror mirror : mirrors) {
+            if (isAnnotation(mirror, annotation)) { return mirror; }
+        }
+        return null;
+    }
+
+    private static boolean isAnnotation(AnnotationMirror mirror, Class<? extends Annotation> annotation) {
+        TypeElement element = (TypeElement) mirror.getAnnotationType().asElement();
+        return element.getQualifiedName().contentEquals(canonicalName(annotation));
+    }
+
+    /** Removes the modifiers and the {@code java.lang} package from a field description, like {@code TypedMember.abbreviate} at runtime. */
+    private static String abbreviate(String text) {
+        return text.replace("private ", "")
+                .replace("protected ", "")
+                .replace("public ", "")
+                .replace("java.lang.", "");
+    }
+
+    private static String canonicalName(Class<?> cls) {
+        return cls.getName().replace('$', '.');
+    }
+
+    static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\%03o", (int) c)); // unicode escapes of line terminators would break the literal
+                    } else if (c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static void write(String text, FileObject file) throws IOException {
+        Writer writer = null;
+        try {
+            writer = file.openWriter();
+            writer.write(text);
+            writer.flush();
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    private static String stacktrace(Exception e) {
+        StringWriter writer = new StringWriter();
+        e.printStackTrace(new PrintWriter(writer));
+        return writer.toString();
+    }
+
+    private void logInfo(String msg) {
+        if (processingEnv.getOptions().containsKey(OPTION_VERBOSE)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, getClass().getSimpleName() + " " + msg);
+        }
+    }
+
+    private void fatalError(String msg) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "FATAL ERROR: " + msg);
+    }
+
+    /** Thrown when generated code cannot access a class or one of its members. */
+    private static class UnsupportedException extends Exception {
+        private static final long serialVersionUID = 1L;
+        UnsupportedException(String message) { super(message); }
+    }
+}
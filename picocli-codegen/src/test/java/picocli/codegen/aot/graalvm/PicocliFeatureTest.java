@@ -0,0 +1,132 @@
+package picocli.codegen.aot.graalvm;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.junit.After;
+import org.junit.Test;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.IDefaultValueProvider;
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Option;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PicocliFeatureTest {
+
+    static class Point { int x, y; }
+
+    static class PointConverter implements ITypeConverter<Point> {
+        public Point convert(String value) { return new Point(); }
+    }
+
+    static class Defaults implements IDefaultValueProvider {
+        public String defaultValue(ArgSpec argSpec) { return null; }
+    }
+
+    static class Base {
+        @Option(names = "--base") String base;
+    }
+
+    static class Common {
+        @Option(names = "--common") String common;
+    }
+
+    static class Group {
+        @Option(names = "--grouped", required = true) String grouped;
+    }
+
+    @Command(name = "feature", mixinStandardHelpOptions = true, subcommands = FeatureSub.class,
+            defaultValueProvider = Defaults.class)
+    static class FeatureApp extends Base {
+        @Mixin Common common;
+        @ArgGroup(exclusive = false) Group group;
+        @Option(names = "--point", converter = PointConverter.class) Point point;
+        @Option(names = "--count") int count;
+    }
+
+    @Command(name = "sub")
+    static class FeatureSub {
+        @Option(names = "-v") boolean verbose;
+    }
+
+    static class Unrelated { }
+
+    static class RecordingFeature extends PicocliFeature {
+        final Set<Class<?>> registered = new LinkedHashSet<Class<?>>();
+        int calls;
+        @Override
+        void initializeAtBuildTime(Set<Class<?>> classes) {
+            calls++;
+            registered.addAll(classes);
+        }
+    }
+
+    private static Feature.DuringSetupAccess access() {
+        return (Feature.DuringSetupAccess) Proxy.newProxyInstance(PicocliFeatureTest.class.getClassLoader(),
+                new Class<?>[] {Feature.DuringSetupAccess.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (!"findClassByName".equals(method.getName())) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        try {
+                            return Class.forName((String) args[0]);
+                        } catch (ClassNotFoundException ex) {
+                            return null;
+                        }
+                    }
+                });
+    }
+
+    @After
+    public void clearProperty() {
+        System.clearProperty(PicocliFeature.COMMANDS_PROPERTY);
+    }
+
+    @Test
+    public void testDuringSetupBuildsCommandsAndRegistersReachableClasses() {
+        System.setProperty(PicocliFeature.COMMANDS_PROPERTY, " " + FeatureApp.class.getName() + " ,");
+        RecordingFeature feature = new RecordingFeature();
+        feature.duringSetup(access());
+
+        assertTrue(PrebuiltCommands.isPrebuilt(FeatureApp.class));
+        assertEquals(1, feature.calls);
+        Set<Class<?>> expected = new LinkedHashSet<Class<?>>();
+        for (Class<?> cls : new Class<?>[] {FeatureApp.class, Base.class, Common.class, Group.class, Point.class,
+                PointConverter.class, Defaults.class, FeatureSub.class}) {
+            expected.add(cls);
+        }
+        assertTrue(feature.registered.toString(), feature.registered.containsAll(expected));
+        assertFalse(feature.registered.contains(Unrelated.class));
+        assertFalse(feature.registered.contains(PicocliFeatureTest.class));
+        assertFalse(feature.registered.contains(int.class));
+        assertFalse(feature.registered.contains(String.class));
+        assertFalse(feature.registered.contains(Object.class));
+    }
+
+    @Test
+    public void testDuringSetupWithoutCommandsDoesNothing() {
+        RecordingFeature feature = new RecordingFeature();
+        feature.duringSetup(access());
+        assertEquals(0, feature.calls);
+    }
+
+    @Test
+    public void testDuringSetupRejectsUnknownClass() {
+        System.setProperty(PicocliFeature.COMMANDS_PROPERTY, "com.example.DoesNotExist");
+        try {
+            new RecordingFeature().duringSetup(access());
+            fail("Expected exception");
+        } catch (IllegalArgumentException ex) {
+            assertEquals("Could not find class 'com.example.DoesNotExist' specified in system property "
+                    + PicocliFeature.COMMANDS_PROPERTY, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package picocli.codegen.aot.graalvm;
+
+import org.junit.Test;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Help.Ansi;
+import picocli.CommandLine.IHelpSectionRenderer;
+import picocli.CommandLine.Model.UsageMessageSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static picocli.CommandLine.Model.UsageMessageSpec.SECTION_KEY_DESCRIPTION;
+import static picocli.CommandLine.Model.UsageMessageSpec.SECTION_KEY_OPTION_LIST;
+import static picocli.CommandLine.Model.UsageMessageSpec.SECTION_KEY_SYNOPSIS;
+
+public class PrebuiltCommandsTest {
+
+    @Command(name = "app", mixinStandardHelpOptions = true, version = "1.0",
+            description = "Example @|bold app|@.", subcommands = Sub.class)
+    static class App {
+        @Option(names = {"-x", "--count"}, defaultValue = "3", description = "The count.") int count;
+        @Parameters(description = "The files.") String[] files;
+    }
+
+    @Command(name = "sub", aliases = "s", description = "Home is ${sys:user.home}.")
+    static class Sub {
+        @Option(names = "-v") boolean verbose;
+    }
+
+    @Command(name = "auto", usageHelpAutoWidth = true, description = "Adjusts to the terminal width.")
+    static class AutoWidth { }
+
+    @Command(name = "unbuilt")
+    static class Unbuilt { }
+
+    @Test
+    public void testGetReturnsSameInstanceAfterBuild() {
+        PrebuiltCommands.build(App.class);
+        assertTrue(PrebuiltCommands.isPrebuilt(App.class));
+        CommandLine cmd = PrebuiltCommands.get(App.class);
+        assertSame(cmd, PrebuiltCommands.get(App.class));
+        assertTrue(cmd.getCommand() instanceof App);
+    }
+
+    @Test
+    public void testBuildDoesNotDetectTerminalWidthAtImageBuildTime() throws Exception {
+        Field terminalWidth = UsageMessageSpec.class.getDeclaredField("terminalWidth");
+        terminalWidth.setAccessible(true);
+        terminalWidth.set(null, null);
+        String old = System.setProperty("org.graalvm.nativeimage.imagecode", "buildtime");
+        try {
+            PrebuiltCommands.build(AutoWidth.class);
+            assertNull(PrebuiltCommands.prerenderedUsage(PrebuiltCommands.get(AutoWidth.class)));
+            assertTrue(PrebuiltCommands.get(AutoWidth.class).getCommandSpec().usageMessage().width() >= 55);
+            assertNull(terminalWidth.get(null));
+        } finally {
+            if (old == null) { System.clearProperty("org.graalvm.nativeimage.imagecode"); }
+            else { System.setProperty("org.graalvm.nativeimage.imagecode", old); }
+        }
+    }
+
+    @Test
+    public void testGetUnbuiltClassReturnsNewInstance() {
+        assertFalse(PrebuiltCommands.isPrebuilt(Unbuilt.class));
+        CommandLine cmd = PrebuiltCommands.get(Unbuilt.class);
+        assertNotSame(cmd, PrebuiltCommands.get(Unbuilt.class));
+        assertEquals("unbuilt", cmd.getCommandName());
+    }
+
+    @Test
+    public void testPrerenderedUsageSameAsRendered() {
+        PrebuiltCommands.build(App.class);
+        CommandLine prebuilt = PrebuiltCommands.get(App.class);
+        CommandLine fresh = new CommandLine(App.class);
+        assertEquals(fresh.getUsageMessage(Ansi.OFF), prebuilt.getUsageMessage(Ansi.OFF));
+        assertEquals(fresh.getUsageMessage(Ansi.ON), prebuilt.getUsageMessage(Ansi.ON));
+        assertEquals(fresh.getSubcommands().get("sub").getUsageMessage(Ansi.OFF),
+                prebuilt.getSubcommands().get("sub").getUsageMessage(Ansi.OFF));
+    }
+
+    @Test
+    public void testSectionsArePrerendered() {
+        PrebuiltCommands.build(App.class);
+        Set<String> sections = PrebuiltCommands.prerenderedUsage(PrebuiltCommands.get(App.class)).sectionKeys();
+        assertTrue(sections.contains(SECTION_KEY_DESCRIPTION));
+        // the names of the standard help options are variables, rendered with their values at build time
+        assertTrue(sections.contains(SECTION_KEY_SYNOPSIS));
+        assertTrue(sections.contains(SECTION_KEY_OPTION_LIST));
+
+        Set<String> subSections = PrebuiltCommands.prerenderedUsage(PrebuiltCommands.get(App.class).getSubcommands().get("sub")).sectionKeys();
+        assertTrue(subSections.contains(SECTION_KEY_SYNOPSIS));
+        assertTrue(subSections.contains(SECTION_KEY_OPTION_LIST));
+    }
+
+    @Test
+    public void testSectionWithVariablesPrerenderedWithValues() {
+        PrebuiltCommands.build(App.class);
+        CommandLine sub = PrebuiltCommands.get(App.class).getSubcommands().get("sub");
+        assertSame(sub, PrebuiltCommands.get(App.class).getSubcommands().get("s"));
+        String description = PrebuiltCommands.prerenderedUsage(sub).text(SECTION_KEY_DESCRIPTION, sub.getHelp());
+        assertEquals(String.format("Home is %s.%n", System.getProperty("user.home")), description);
+    }
+
+    @Test
+    public void testChangedVariableFallsBackToRenderer() {
+        PrebuiltCommands.build(App.class);
+        CommandLine prebuilt = PrebuiltCommands.get(App.class);
+        assertNotNull(PrebuiltCommands.prerenderedUsage(prebuilt).text(SECTION_KEY_OPTION_LIST, prebuilt.getHelp()));
+        System.setProperty("picocli.help.name.0", "-?");
+        try {
+            assertNull(PrebuiltCommands.prerenderedUsage(prebuilt).text(SECTION_KEY_OPTION_LIST, prebuilt.getHelp()));
+            String usage = prebuilt.getUsageMessage(Ansi.OFF);
+            assertTrue(usage, usage.contains("-?, --help"));
+            assertEquals(new CommandLine(App.class).getUsageMessage(Ansi.OFF), usage);
+        } finally {
+            System.clearProperty("picocli.help.name.0");
+        }
+        assertNotNull(PrebuiltCommands.prerenderedUsage(prebuilt).text(SECTION_KEY_OPTION_LIST, prebuilt.getHelp()));
+    }
+
+    @Test
+    public void testDisabledInterpolationFallsBackToRenderer() {
+        PrebuiltCommands.build(App.class);
+        CommandLine sub = PrebuiltCommands.get(App.class).getSubcommands().get("sub");
+        sub.setInterpolateVariables(false);
+        try {
+            assertTrue(sub.getUsageMessage(Ansi.OFF).contains("Home is ${sys:user.home}."));
+        } finally {
+            sub.setInterpolateVariables(true);
+        }
+    }
+
+    @Test
+    public void testBuildKeepsSectionMap() {
+        Map<String, IHelpSectionRenderer> original = new CommandLine(App.class).getHelpSectionMap();
+        PrebuiltCommands.build(App.class);
+        Map<String, IHelpSectionRenderer> sections = PrebuiltCommands.get(App.class).getHelpSectionMap();
+        assertEquals(original.keySet(), sections.keySet());
+        for (IHelpSectionRenderer renderer : sections.values()) {
+            assertNotSame(PrebuiltCommands.class, renderer.getClass().getEnclosingClass());
+        }
+    }
+
+    @Test
+    public void testReplacedSectionIsRenderedByNewRenderer() {
+        PrebuiltCommands.build(App.class);
+        CommandLine prebuilt = PrebuiltCommands.get(App.class);
+        Map<String, IHelpSectionRenderer> sections = prebuilt.getHelpSectionMap();
+        IHelpSectionRenderer original = sections.get(SECTION_KEY_DESCRIPTION);
+        try {
+            sections.put(SECTION_KEY_DESCRIPTION, new IHelpSectionRenderer() {
+                public String render(CommandLine.Help help) { return "Replaced description.%n"; }
+            });
+            assertTrue(prebuilt.getUsageMessage(Ansi.OFF).contains("Replaced description."));
+        } finally {
+            sections.put(SECTION_KEY_DESCRIPTION, original);
+        }
+        assertFalse(prebuilt.getUsageMessage(Ansi.OFF).contains("Replaced description."));
+    }
+
+    @Test
+    public void testPrerenderedUsageSerializationRoundTrip() throws Exception {
+        PrebuiltCommands.build(App.class);
+        PrebuiltCommands.PrerenderedUsage usage = PrebuiltCommands.prerenderedUsage(PrebuiltCommands.get(App.class));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(usage);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        PrebuiltCommands.PrerenderedUsage copy = (PrebuiltCommands.PrerenderedUsage) in.readObject();
+        in.close();
+        assertEquals(usage.sectionKeys(), copy.sectionKeys());
+
+        CommandLine restored = new CommandLine(App.class);
+        PrebuiltCommands.install(restored, copy);
+        CommandLine fresh = new CommandLine(App.class);
+        assertEquals(fresh.getUsageMessage(Ansi.OFF), restored.getUsageMessage(Ansi.OFF));
+        assertEquals(fresh.getUsageMessage(Ansi.ON), restored.getUsageMessage(Ansi.ON));
+        String description = restored.getHelpSectionMap().get(SECTION_KEY_DESCRIPTION).render(restored.getHelp());
+        assertEquals(description, copy.text(SECTION_KEY_DESCRIPTION, restored.getHelp()));
+    }
+
+    @Test
+    public void testChangedWidthFallsBackToRenderer() {
+        PrebuiltCommands.build(App.class);
+        CommandLine prebuilt = PrebuiltCommands.get(App.class);
+        int width = prebuilt.getUsageHelpWidth();
+        try {
+            prebuilt.setUsageHelpWidth(55);
+            CommandLine fresh = new CommandLine(App.class);
+            fresh.setUsageHelpWidth(55);
+            assertEquals(fresh.getUsageMessage(Ansi.OFF), prebuilt.getUsageMessage(Ansi.OFF));
+        } finally {
+            prebuilt.setUsageHelpWidth(width);
+        }
+    }
+
+    @Test
+    public void testPrerenderedSectionDelegatesForDifferentStyles() {
+        PrebuiltCommands.build(App.class);
+        CommandLine prebuilt = PrebuiltCommands.get(App.class);
+        CommandLine.Help.ColorScheme scheme = new CommandLine.Help.ColorScheme.Builder(Ansi.ON)
+                .commands(CommandLine.Help.Ansi.Style.fg_red).build();
+        CommandLine fresh = new CommandLine(App.class);
+        assertEquals(fresh.getUsageMessage(scheme), prebuilt.getUsageMessage(scheme));
+    }
+}
@@ -0,0 +1,177 @@
+package picocli.codegen.aot.model;
+
+import org.junit.Test;
+import picocli.CommandLine;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeneratedClassProcessorTest {
+    private static final String SOURCE = "" +
+            "package example;\n" +
+            "import picocli.CommandLine.*;\n" +
+            "import java.io.File;\n" +
+            "import java.util.List;\n" +
+            "import java.util.Map;\n" +
+            "@Command(name = \"app\", mixinStandardHelpOptions = true, version = \"1.0\",\n" +
+            "        description = \"Example \\\"app\\\".\", subcommands = {App.Sub.class, App.WithParent.class})\n" +
+            "public class App {\n" +
+            "    @Option(names = {\"-x\", \"--count\"}, defaultValue = \"3\", description = \"Count: ${DEFAULT-VALUE}.\") int count;\n" +
+            "    @Option(names = \"-D\", description = \"Properties.\") Map<String, Integer> properties;\n" +
+            "    @Option(names = \"-t\", arity = \"0..1\", fallbackValue = \"9\", showDefaultValue = Help.Visibility.ALWAYS, order = 2) Integer t;\n" +
+            "    @Option(names = \"--list\", split = \",\", required = true, hideParamSyntax = true) List<String> list;\n" +
+            "    @Option(names = \"--upper\", converter = Upper.class, descriptionKey = \"up\", hidden = true) String upper;\n" +
+            "    @Parameters(index = \"0\", paramLabel = \"FIRST\") String first;\n" +
+            "    @Parameters(index = \"1..*\", description = \"Files.\") List<File> files;\n" +
+            "    @Command(name = \"sub\", description = \"Subcommand.\")\n" +
+            "    static class Sub {\n" +
+            "        @Option(names = \"-v\") boolean verbose;\n" +
+            "        @Option(names = \"--no-color\", negatable = true) boolean color = true;\n" +
+            "        @Parameters String[] rest;\n" +
+            "    }\n" +
+            "    @Command(name = \"withparent\")\n" +
+            "    static class WithParent {\n" +
+            "        @ParentCommand App parent;\n" +
+            "    }\n" +
+            "    static class PrivateField {\n" +
+            "        @Option(names = \"-p\") private int p;\n" +
+            "    }\n" +
+            "    public static class Upper implements ITypeConverter<String> {\n" +
+            "        public String convert(String value) { return value.toUpperCase(); }\n" +
+            "    }\n" +
+            "}\n";
+
+    @Test
+    public void testGeneratesClassesAndServiceFile() throws Exception {
+        File dir = compile();
+        assertTrue(new File(dir, "example/App_PicocliGenerated.class").exists());
+        assertTrue(new File(dir, "example/App_Sub_PicocliGenerated.class").exists());
+        assertFalse(new File(dir, "example/App_WithParent_PicocliGenerated.class").exists());
+        assertFalse(new File(dir, "example/App_PrivateField_PicocliGenerated.class").exists());
+
+        String services = read(new File(dir, GeneratedClassProcessor.SERVICE_FILE));
+        assertEquals("example.App_PicocliGenerated\nexample.App_Sub_PicocliGenerated\n", services);
+    }
+
+    @Test
+    public void testGeneratesNothingByDefault() throws Exception {
+        File dir = compile(null);
+        assertTrue(new File(dir, "example/App.class").exists());
+        assertFalse(new File(dir, "example/App_PicocliGenerated.class").exists());
+        assertFalse(new File(dir, GeneratedClassProcessor.SERVICE_FILE).exists());
+    }
+
+    @Test
+    public void testServiceFileKeepsExistingEntries() throws Exception {
+        File dir = compile("# generated earlier\nexample.Other_PicocliGenerated\n\nexample.App_PicocliGenerated\n",
+                "-A" + GeneratedClassProcessor.OPTION_GENERATE + "=true");
+        String services = read(new File(dir, GeneratedClassProcessor.SERVICE_FILE));
+        assertEquals("example.Other_PicocliGenerated\nexample.App_PicocliGenerated\nexample.App_Sub_PicocliGenerated\n", services);
+    }
+
+    @Test
+    public void testGeneratedClassesGiveSameModelAsReflection() throws Exception {
+        File dir = compile();
+        String generatedUsage;
+        System.setProperty("picocli.useGeneratedClasses", "true");
+        try {
+            generatedUsage = usageAndParse(dir, "GeneratedFieldBinding");
+        } finally {
+            System.clearProperty("picocli.useGeneratedClasses");
+        }
+        String reflectedUsage = usageAndParse(dir, "FieldBinding");
+        assertEquals(reflectedUsage, generatedUsage);
+    }
+
+    @Test
+    public void testQuote() {
+        assertEquals("\"a\\\"b\\\\c\\nd\\001\\u00e9\"", GeneratedClassProcessor.quote("a\"b\\c\nd\u0001\u00e9"));
+    }
+
+    private static String usageAndParse(File dir, String expectedBinding) throws Exception {
+        URLClassLoader loader = new URLClassLoader(new URL[] {dir.toURI().toURL()}, CommandLine.class.getClassLoader());
+        Class<?> cls = loader.loadClass("example.App");
+        CommandLine cmd = new CommandLine(cls);
+        assertEquals(expectedBinding, cmd.getCommandSpec().findOption("-x").getter().getClass().getSimpleName());
+        cmd.parseArgs("-D", "a=1", "-x", "5", "-t", "--list", "a,b", "--upper", "abc", "first", "f1", "f2", "sub", "-v", "--color", "r");
+        StringBuilder result = new StringBuilder();
+        for (String name : new String[] {"app", "sub"}) {
+            CommandLine command = name.equals("app") ? cmd : cmd.getSubcommands().get(name);
+            result.append(command.getUsageMessage(CommandLine.Help.Ansi.OFF));
+            for (CommandLine.Model.ArgSpec arg : command.getCommandSpec().args()) {
+                result.append(arg).append('=').append(valueString(arg.getValue())).append(' ')
+                        .append(arg.arity()).append(' ').append(arg.required()).append(' ')
+                        .append(Arrays.asList(arg.auxiliaryTypes())).append('\n');
+            }
+        }
+        return result.toString();
+    }
+
+    private static String valueString(Object value) {
+        return value instanceof Object[] ? Arrays.toString((Object[]) value) : String.valueOf(value);
+    }
+
+    private static File compile() throws IOException {
+        return compile(null, "-A" + GeneratedClassProcessor.OPTION_GENERATE + "=true");
+    }
+
+    private static File compile(String existingServiceFile, String... options) throws IOException {
+        File dir = File.createTempFile("picocli-generated", "");
+        dir.delete();
+        File source = new File(dir, "src/example/App.java");
+        write(source, SOURCE);
+        File classes = new File(dir, "classes");
+        classes.mkdirs();
+        if (existingServiceFile != null) {
+            write(new File(classes, GeneratedClassProcessor.SERVICE_FILE), existingServiceFile);
+        }
+        List<String> args = new ArrayList<String>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", GeneratedClassProcessor.class.getName(),
+                "-encoding", "UTF-8",
+                "-s", classes.getAbsolutePath(),
+                "-d", classes.getAbsolutePath()));
+        args.addAll(Arrays.asList(options));
+        args.add(source.getAbsolutePath());
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = compiler.run(null, null, err, args.toArray(new String[0]));
+        assertEquals(err.toString(), 0, exitCode);
+        return classes;
+    }
+
+    private static void write(File file, String text) throws IOException {
+        file.getParentFile().mkdirs();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(text);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String read(File file) throws IOException {
+        java.io.FileInputStream in = new java.io.FileInputStream(file);
+        try {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int len; (len = in.read(buffer)) > 0; ) { result.write(buffer, 0, len); }
+            return result.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
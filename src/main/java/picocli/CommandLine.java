@@ -21,6 +21,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.*;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -30,14 +31,24 @@ import java.net.NetworkInterface;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.text.BreakIterator;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import picocli.CommandLine.Help.Ansi.IStyle;
@@ -224,6 +235,7 @@ public class CommandLine {
         commandSpec.commandLine(this);
         commandSpec.validate();
         if (commandSpec.unmatchedArgsBindings().size() > 0) { setUnmatchedArgumentsAllowed(true); }
+        if (commandSpec.usageMessage().autoWidth()) { UsageMessageSpec.detectTerminalWidthInBackground(); }
     }
 
     /**
@@ -346,12 +358,64 @@ public class CommandLine {
         return this;
     }
     /** Returns a map with the subcommands {@linkplain #addSubcommand(String, Object) registered} on this instance.
+     * Subcommands that are {@linkplain Command#lazySubcommands() constructed lazily} are constructed by this method.
      * @return a map with the registered subcommands
      * @since 0.9.7
      */
     public Map<String, CommandLine> getSubcommands() {
         return new LinkedHashMap<String, CommandLine>(getCommandSpec().subcommands());
     }
+    /** Settings that {@code CommandLine} setters apply to the full hierarchy of subcommands.
+     * Subcommands that are {@linkplain Command#lazySubcommands() constructed lazily} receive these settings when they are constructed. */
+    private enum SubcommandSetting {
+        HELP_FACTORY                               { void apply(CommandLine sub, Object value) { sub.setHelpFactory((IHelpFactory) value); } },
+        HELP_SECTION_KEYS                          { void apply(CommandLine sub, Object value) { sub.setHelpSectionKeys(SubcommandSetting.<List<String>>cast(value)); } },
+        HELP_SECTION_MAP                           { void apply(CommandLine sub, Object value) { sub.setHelpSectionMap(SubcommandSetting.<Map<String, IHelpSectionRenderer>>cast(value)); } },
+        ADJUST_LINE_BREAKS_FOR_WIDE_CJK_CHARACTERS { void apply(CommandLine sub, Object value) { sub.setAdjustLineBreaksForWideCJKCharacters((Boolean) value); } },
+        TOGGLE_BOOLEAN_FLAGS                       { void apply(CommandLine sub, Object value) { sub.setToggleBooleanFlags((Boolean) value); } },
+        INTERPOLATE_VARIABLES                      { void apply(CommandLine sub, Object value) { sub.setInterpolateVariables((Boolean) value); } },
+        OVERWRITTEN_OPTIONS_ALLOWED                { void apply(CommandLine sub, Object value) { sub.setOverwrittenOptionsAllowed((Boolean) value); } },
+        POSIX_CLUSTERED_SHORT_OPTIONS_ALLOWED      { void apply(CommandLine sub, Object value) { sub.setPosixClusteredShortOptionsAllowed((Boolean) value); } },
+        CASE_INSENSITIVE_ENUM_VALUES_ALLOWED       { void apply(CommandLine sub, Object value) { sub.setCaseInsensitiveEnumValuesAllowed((Boolean) value); } },
+        TRIM_QUOTES                                { void apply(CommandLine sub, Object value) { sub.setTrimQuotes((Boolean) value); } },
+        SPLIT_QUOTED_STRINGS                       { @SuppressWarnings("deprecation") void apply(CommandLine sub, Object value) { sub.setSplitQuotedStrings((Boolean) value); } },
+        END_OF_OPTIONS_DELIMITER                   { void apply(CommandLine sub, Object value) { sub.setEndOfOptionsDelimiter((String) value); } },
+        DEFAULT_VALUE_PROVIDER                     { void apply(CommandLine sub, Object value) { sub.setDefaultValueProvider((IDefaultValueProvider) value); } },
+        STOP_AT_POSITIONAL                         { void apply(CommandLine sub, Object value) { sub.setStopAtPositional((Boolean) value); } },
+        STOP_AT_UNMATCHED                          { void apply(CommandLine sub, Object value) { sub.setStopAtUnmatched((Boolean) value); } },
+        UNMATCHED_OPTIONS_ARE_POSITIONAL_PARAMS    { void apply(CommandLine sub, Object value) { sub.setUnmatchedOptionsArePositionalParams((Boolean) value); } },
+        UNMATCHED_ARGUMENTS_ALLOWED                { void apply(CommandLine sub, Object value) { sub.setUnmatchedArgumentsAllowed((Boolean) value); } },
+        COLOR_SCHEME                               { void apply(CommandLine sub, Object value) { sub.setColorScheme((Help.ColorScheme) value); } },
+        OUT                                        { void apply(CommandLine sub, Object value) { sub.setOut((PrintWriter) value); } },
+        ERR                                        { void apply(CommandLine sub, Object value) { sub.setErr((PrintWriter) value); } },
+        EXIT_CODE_EXCEPTION_MAPPER                 { void apply(CommandLine sub, Object value) { sub.setExitCodeExceptionMapper((IExitCodeExceptionMapper) value); } },
+        EXECUTION_STRATEGY                         { void apply(CommandLine sub, Object value) { sub.setExecutionStrategy((IExecutionStrategy) value); } },
+        PARAMETER_EXCEPTION_HANDLER                { void apply(CommandLine sub, Object value) { sub.setParameterExceptionHandler((IParameterExceptionHandler) value); } },
+        EXECUTION_EXCEPTION_HANDLER                { void apply(CommandLine sub, Object value) { sub.setExecutionExceptionHandler((IExecutionExceptionHandler) value); } },
+        REGISTER_CONVERTER                         { void apply(CommandLine sub, Object value) {
+            Object[] pair = (Object[]) value;
+            sub.registerConverter(SubcommandSetting.<Class<Object>>cast(pair[0]), SubcommandSetting.<ITypeConverter<Object>>cast(pair[1]));
+        }
+            Object key(Object value) { return Arrays.asList(this, ((Object[]) value)[0]); } },
+        SEPARATOR                                  { void apply(CommandLine sub, Object value) { sub.setSeparator((String) value); } },
+        RESOURCE_BUNDLE                            { void apply(CommandLine sub, Object value) { sub.setResourceBundle((ResourceBundle) value); } },
+        USAGE_HELP_WIDTH                           { void apply(CommandLine sub, Object value) { sub.setUsageHelpWidth((Integer) value); } },
+        USAGE_HELP_LONG_OPTIONS_MAX_WIDTH          { void apply(CommandLine sub, Object value) { sub.setUsageHelpLongOptionsMaxWidth((Integer) value); } },
+        USAGE_HELP_AUTO_WIDTH                      { void apply(CommandLine sub, Object value) { sub.setUsageHelpAutoWidth((Boolean) value); } },
+        USAGE_HELP_CACHED                          { void apply(CommandLine sub, Object value) { sub.setUsageHelpCached((Boolean) value); } },
+        AT_FILE_COMMENT_CHAR                       { void apply(CommandLine sub, Object value) { sub.setAtFileCommentChar((Character) value); } },
+        AT_FILE_CHARSET                            { void apply(CommandLine sub, Object value) { sub.setAtFileCharset((Charset) value); } },
+        AT_FILE_CACHE                              { void apply(CommandLine sub, Object value) { sub.setAtFileCache((AtFileCache) value); } },
+        USE_SIMPLIFIED_AT_FILES                    { void apply(CommandLine sub, Object value) { sub.setUseSimplifiedAtFiles((Boolean) value); } },
+        NEGATABLE_OPTION_TRANSFORMER               { void apply(CommandLine sub, Object value) { sub.setNegatableOptionTransformer((INegatableOptionTransformer) value); } };
+
+        abstract void apply(CommandLine sub, Object value);
+        /** Returns the key under which the specified value is remembered: a later value with the same key replaces an earlier one. */
+        Object key(Object value) { return this; }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T cast(Object value) { return (T) value; }
+    }
     /**
      * Returns the command that this is a subcommand of, or {@code null} if this is a top-level command.
      * @return the command that this is a subcommand of, or {@code null} if this is a top-level command
@@ -364,6 +428,28 @@ public class CommandLine {
         return parent == null ? null : parent.commandLine();
     }
 
+    /** Returns a new {@code CommandLine} with a new instance of the user object of this command and a copy of the
+     * model and settings of this command and its subcommands. Used when a repeatable subcommand is matched again.
+     * If the model cannot be copied, the new user object is inspected for annotations instead. */
+    private CommandLine copy() {
+        CommandUserObject cuo = getCommandSpec().userObject;
+        Object command = cuo.type == null ? cuo.instance : cuo.type;
+        CommandSpec spec = getCommandSpec().copy(command);
+        if (spec == null) {
+            return new CommandLine(command, factory);
+        }
+        CommandLine result = new CommandLine(spec, factory);
+        result.out = out;
+        result.err = err;
+        result.colorScheme = colorScheme;
+        result.exitCodeExceptionMapper = exitCodeExceptionMapper;
+        result.executionStrategy = executionStrategy;
+        result.parameterExceptionHandler = parameterExceptionHandler;
+        result.executionExceptionHandler = executionExceptionHandler;
+        result.interpreter.converters = interpreter.converters;
+        return result;
+    }
+
     /** Returns the annotated user object that this {@code CommandLine} instance was constructed with.
      * @param <T> the type of the variable that the return value is being assigned to
      * @return the annotated object that this {@code CommandLine} instance was constructed with
@@ -377,12 +463,12 @@ public class CommandLine {
     /** Returns {@code true} if an option annotated with {@link Option#usageHelp()} was specified on the command line.
      * @return whether the parser encountered an option annotated with {@link Option#usageHelp()}.
      * @since 0.9.8 */
-    public boolean isUsageHelpRequested() { return interpreter.parseResultBuilder != null && interpreter.parseResultBuilder.usageHelpRequested; }
+    public boolean isUsageHelpRequested() { return interpreter.lastContext != null && interpreter.lastContext.builder.usageHelpRequested; }
 
     /** Returns {@code true} if an option annotated with {@link Option#versionHelp()} was specified on the command line.
      * @return whether the parser encountered an option annotated with {@link Option#versionHelp()}.
      * @since 0.9.8 */
-    public boolean isVersionHelpRequested() { return interpreter.parseResultBuilder != null && interpreter.parseResultBuilder.versionHelpRequested; }
+    public boolean isVersionHelpRequested() { return interpreter.lastContext != null && interpreter.lastContext.builder.versionHelpRequested; }
     /** Returns a new {@code Help} object created by the {@code IHelpFactory} with the {@code CommandSpec} and {@code ColorScheme} of this command.
      * @see Help#Help(CommandSpec, Help.ColorScheme)
      * @see #getHelpFactory()
@@ -412,9 +498,7 @@ public class CommandLine {
      */
     public CommandLine setHelpFactory(IHelpFactory helpFactory) {
         getCommandSpec().usageMessage().helpFactory(helpFactory);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setHelpFactory(helpFactory);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.HELP_FACTORY, helpFactory);
         return this;
     }
 
@@ -456,9 +540,7 @@ public class CommandLine {
      */
     public CommandLine setHelpSectionKeys(List<String> keys) {
         getCommandSpec().usageMessage().sectionKeys(keys);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setHelpSectionKeys(keys);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.HELP_SECTION_KEYS, keys);
         return this;
     }
 
@@ -487,9 +569,7 @@ public class CommandLine {
      */
     public CommandLine setHelpSectionMap(Map<String, IHelpSectionRenderer> map) {
         getCommandSpec().usageMessage().sectionMap(map);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setHelpSectionMap(map);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.HELP_SECTION_MAP, map);
         return this;
     }
     /**
@@ -506,9 +586,7 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setAdjustLineBreaksForWideCJKCharacters(boolean adjustForWideChars) {
         getCommandSpec().usageMessage().adjustLineBreaksForWideCJKCharacters(adjustForWideChars);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setAdjustLineBreaksForWideCJKCharacters(adjustForWideChars);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.ADJUST_LINE_BREAKS_FOR_WIDE_CJK_CHARACTERS, adjustForWideChars);
         return this;
     }
 
@@ -537,9 +615,7 @@ public class CommandLine {
      */
     public CommandLine setToggleBooleanFlags(boolean newValue) {
         getCommandSpec().parser().toggleBooleanFlags(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setToggleBooleanFlags(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.TOGGLE_BOOLEAN_FLAGS, newValue);
         return this;
     }
 
@@ -554,9 +630,7 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setInterpolateVariables(boolean interpolate) {
         getCommandSpec().interpolateVariables(interpolate);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setInterpolateVariables(interpolate);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.INTERPOLATE_VARIABLES, interpolate);
         return this;
     }
 
@@ -582,9 +656,7 @@ public class CommandLine {
      */
     public CommandLine setOverwrittenOptionsAllowed(boolean newValue) {
         getCommandSpec().parser().overwrittenOptionsAllowed(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setOverwrittenOptionsAllowed(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.OVERWRITTEN_OPTIONS_ALLOWED, newValue);
         return this;
     }
 
@@ -604,9 +676,7 @@ public class CommandLine {
      */
     public CommandLine setPosixClusteredShortOptionsAllowed(boolean newValue) {
         getCommandSpec().parser().posixClusteredShortOptionsAllowed(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setPosixClusteredShortOptionsAllowed(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.POSIX_CLUSTERED_SHORT_OPTIONS_ALLOWED, newValue);
         return this;
     }
 
@@ -630,9 +700,7 @@ public class CommandLine {
      */
     public CommandLine setCaseInsensitiveEnumValuesAllowed(boolean newValue) {
         getCommandSpec().parser().caseInsensitiveEnumValuesAllowed(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setCaseInsensitiveEnumValuesAllowed(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.CASE_INSENSITIVE_ENUM_VALUES_ALLOWED, newValue);
         return this;
     }
 
@@ -675,9 +743,7 @@ public class CommandLine {
      */
     public CommandLine setTrimQuotes(boolean newValue) {
         getCommandSpec().parser().trimQuotes(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setTrimQuotes(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.TRIM_QUOTES, newValue);
         return this;
     }
 
@@ -721,9 +787,7 @@ public class CommandLine {
      */
     @Deprecated public CommandLine setSplitQuotedStrings(boolean newValue) {
         getCommandSpec().parser().splitQuotedStrings(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setSplitQuotedStrings(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.SPLIT_QUOTED_STRINGS, newValue);
         return this;
     }
 
@@ -738,9 +802,7 @@ public class CommandLine {
      * @since 3.5 */
     public CommandLine setEndOfOptionsDelimiter(String delimiter) {
         getCommandSpec().parser().endOfOptionsDelimiter(delimiter);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setEndOfOptionsDelimiter(delimiter);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.END_OF_OPTIONS_DELIMITER, delimiter);
         return this;
     }
 
@@ -766,9 +828,7 @@ public class CommandLine {
      */
     public CommandLine setDefaultValueProvider(IDefaultValueProvider newValue) {
         getCommandSpec().defaultValueProvider(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setDefaultValueProvider(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.DEFAULT_VALUE_PROVIDER, newValue);
         return this;
     }
 
@@ -793,9 +853,7 @@ public class CommandLine {
      */
     public CommandLine setStopAtPositional(boolean newValue) {
         getCommandSpec().parser().stopAtPositional(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setStopAtPositional(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.STOP_AT_POSITIONAL, newValue);
         return this;
     }
 
@@ -828,9 +886,7 @@ public class CommandLine {
      */
     public CommandLine setStopAtUnmatched(boolean newValue) {
         getCommandSpec().parser().stopAtUnmatched(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setStopAtUnmatched(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.STOP_AT_UNMATCHED, newValue);
         if (newValue) { setUnmatchedArgumentsAllowed(true); }
         return this;
     }
@@ -859,9 +915,7 @@ public class CommandLine {
      */
     public CommandLine setUnmatchedOptionsArePositionalParams(boolean newValue) {
         getCommandSpec().parser().unmatchedOptionsArePositionalParams(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setUnmatchedOptionsArePositionalParams(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.UNMATCHED_OPTIONS_ARE_POSITIONAL_PARAMS, newValue);
         return this;
     }
 
@@ -889,9 +943,7 @@ public class CommandLine {
      */
     public CommandLine setUnmatchedArgumentsAllowed(boolean newValue) {
         getCommandSpec().parser().unmatchedArgumentsAllowed(newValue);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setUnmatchedArgumentsAllowed(newValue);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.UNMATCHED_ARGUMENTS_ALLOWED, newValue);
         return this;
     }
 
@@ -901,7 +953,7 @@ public class CommandLine {
      * @since 0.9.7
      */
     public List<String> getUnmatchedArguments() {
-        return interpreter.parseResultBuilder == null ? Collections.<String>emptyList() : UnmatchedArgumentException.stripErrorMessage(interpreter.parseResultBuilder.unmatched);
+        return interpreter.lastContext == null ? Collections.<String>emptyList() : UnmatchedArgumentException.stripErrorMessage(interpreter.lastContext.builder.unmatched);
     }
 
     /**
@@ -1029,7 +1081,7 @@ public class CommandLine {
      */
     public CommandLine setColorScheme(Help.ColorScheme colorScheme) {
         this.colorScheme = Assert.notNull(colorScheme, "colorScheme");
-        for (CommandLine sub : getSubcommands().values()) { sub.setColorScheme(colorScheme); }
+        getCommandSpec().commands.propagate(SubcommandSetting.COLOR_SCHEME, colorScheme);
         return this;
     }
 
@@ -1057,7 +1109,7 @@ public class CommandLine {
      */
     public CommandLine setOut(PrintWriter out) {
         this.out = Assert.notNull(out, "out");
-        for (CommandLine sub : getSubcommands().values()) { sub.setOut(out); }
+        getCommandSpec().commands.propagate(SubcommandSetting.OUT, out);
         return this;
     }
 
@@ -1085,7 +1137,7 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setErr(PrintWriter err) {
         this.err = Assert.notNull(err, "err");
-        for (CommandLine sub : getSubcommands().values()) { sub.setErr(err); }
+        getCommandSpec().commands.propagate(SubcommandSetting.ERR, err);
         return this;
     }
 
@@ -1105,7 +1157,7 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setExitCodeExceptionMapper(IExitCodeExceptionMapper exitCodeExceptionMapper) {
         this.exitCodeExceptionMapper = Assert.notNull(exitCodeExceptionMapper, "exitCodeExceptionMapper");
-        for (CommandLine sub : getSubcommands().values()) { sub.setExitCodeExceptionMapper(exitCodeExceptionMapper); }
+        getCommandSpec().commands.propagate(SubcommandSetting.EXIT_CODE_EXCEPTION_MAPPER, exitCodeExceptionMapper);
         return this;
     }
 
@@ -1127,7 +1179,7 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setExecutionStrategy(IExecutionStrategy executionStrategy) {
         this.executionStrategy = Assert.notNull(executionStrategy, "executionStrategy");
-        for (CommandLine sub : getSubcommands().values()) { sub.setExecutionStrategy(executionStrategy); }
+        getCommandSpec().commands.propagate(SubcommandSetting.EXECUTION_STRATEGY, executionStrategy);
         return this;
     }
 
@@ -1181,7 +1233,7 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setParameterExceptionHandler(IParameterExceptionHandler parameterExceptionHandler) {
         this.parameterExceptionHandler = Assert.notNull(parameterExceptionHandler, "parameterExceptionHandler");
-        for (CommandLine sub : getSubcommands().values()) { sub.setParameterExceptionHandler(parameterExceptionHandler); }
+        getCommandSpec().commands.propagate(SubcommandSetting.PARAMETER_EXCEPTION_HANDLER, parameterExceptionHandler);
         return this;
     }
 
@@ -1204,7 +1256,7 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setExecutionExceptionHandler(IExecutionExceptionHandler executionExceptionHandler) {
         this.executionExceptionHandler = Assert.notNull(executionExceptionHandler, "executionExceptionHandler");
-        for (CommandLine sub : getSubcommands().values()) { sub.setExecutionExceptionHandler(executionExceptionHandler); }
+        getCommandSpec().commands.propagate(SubcommandSetting.EXECUTION_EXCEPTION_HANDLER, executionExceptionHandler);
         return this;
     }
 
@@ -1300,6 +1352,11 @@ public class CommandLine {
      * The caller is responsible for catching any exceptions, handling requests for usage help
      * or version information, and invoking the business logic.
      * Applications may be interested in using the {@link #execute(String...)} method instead.</p>
+     * <p>The parser keeps its state for an invocation in a context that is not shared with other invocations, and the
+     * returned {@code ParseResult} reports the values matched by this invocation only. This method may therefore be
+     * called from multiple threads at the same time. Note that the parsed values are still written to the
+     * annotated fields and methods of the command, which all threads share, and that options and positional
+     * parameters in {@linkplain ArgGroup argument groups} are always read from and written to the group's user object.</p>
      *
      * @param args the command line arguments to parse
      * @return a list with the top-level command and any subcommands initialized by this method
@@ -1308,10 +1365,9 @@ public class CommandLine {
      * @see #execute(String...)
      */
     public ParseResult parseArgs(String... args) {
-        interpreter.parse(args);
-        return getParseResult();
+        return interpreter.parse(new ArrayList<CommandLine>(), args).builder.build();
     }
-    public ParseResult getParseResult() { return interpreter.parseResultBuilder == null ? null : interpreter.parseResultBuilder.build(); }
+    public ParseResult getParseResult() { return interpreter.lastContext == null ? null : interpreter.lastContext.builder.build(); }
 
     /** Returns the result of calling the user object {@code Callable} or invoking the user object {@code Method}
      * after parsing the user input, or {@code null} if this command has not been {@linkplain #execute(String...) executed}
@@ -1336,7 +1392,7 @@ public class CommandLine {
      * @since 4.0 */
     public void clearExecutionResults() {
         executionResult = null;
-        for (CommandLine sub : getSubcommands().values()) { sub.clearExecutionResults(); }
+        for (CommandLine sub : getCommandSpec().commands.constructed()) { sub.clearExecutionResults(); }
     }
     /**
      * Represents a function that can process a List of {@code CommandLine} objects resulting from successfully
@@ -2445,37 +2501,53 @@ public class CommandLine {
      * @see UsageMessageSpec
      */
     public void usage(PrintStream out, Help.ColorScheme colorScheme) {
-        out.print(usage(new StringBuilder(), getHelpFactory().create(getCommandSpec(), colorScheme)));
+        printUsageHelp(out, colorScheme);
         out.flush();
     }
     /** Similar to {@link #usage(PrintStream, Help.ColorScheme)}, but with the specified {@code PrintWriter} instead of a {@code PrintStream}.
      * @since 3.0 */
     public void usage(PrintWriter writer, Help.ColorScheme colorScheme) {
-        writer.print(usage(new StringBuilder(), getHelpFactory().create(getCommandSpec(), colorScheme)));
+        printUsageHelp(writer, colorScheme);
         writer.flush();
     }
     /** Similar to {@link #usage(PrintStream)}, but returns the usage help message as a String instead of printing it to the {@code PrintStream}.
      * @since 3.2 */
     public String getUsageMessage() {
-        return usage(new StringBuilder(), getHelp()).toString();
+        return getUsageMessage(getColorScheme());
     }
     /** Similar to {@link #usage(PrintStream, Help.Ansi)}, but returns the usage help message as a String instead of printing it to the {@code PrintStream}.
      * @since 3.2 */
     public String getUsageMessage(Help.Ansi ansi) {
-        return usage(new StringBuilder(), getHelpFactory().create(getCommandSpec(), Help.defaultColorScheme(ansi))).toString();
+        return getUsageMessage(Help.defaultColorScheme(ansi));
     }
     /** Similar to {@link #usage(PrintStream, Help.ColorScheme)}, but returns the usage help message as a String instead of printing it to the {@code PrintStream}.
      * @since 3.2 */
     public String getUsageMessage(Help.ColorScheme colorScheme) {
-        return usage(new StringBuilder(), getHelpFactory().create(getCommandSpec(), colorScheme)).toString();
+        return getCommandSpec().usageMessage().usageHelp(this, colorScheme);
+    }
+
+    String renderUsageHelp(Help.ColorScheme colorScheme) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            getHelpFactory().create(getCommandSpec(), colorScheme).render(sb);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // StringBuilder does not throw IOException
+        }
+        return sb.toString();
     }
 
-    private StringBuilder usage(StringBuilder sb, Help help) {
-        for (String key : getHelpSectionKeys()) {
-            IHelpSectionRenderer renderer = getHelpSectionMap().get(key);
-            if (renderer != null) { sb.append(renderer.render(help)); }
+    /** Writes the usage help message to the specified destination. Unless usage help is {@linkplain #isUsageHelpCached() cached},
+     * the message is streamed to the destination with {@link Help#render(Appendable)} instead of being built up as a String first. */
+    private void printUsageHelp(Appendable out, Help.ColorScheme colorScheme) {
+        try {
+            if (isUsageHelpCached()) {
+                out.append(getUsageMessage(colorScheme));
+            } else {
+                getHelpFactory().create(getCommandSpec(), colorScheme).render(out);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // PrintStream, PrintWriter and StringBuilder do not throw IOException
         }
-        return sb;
     }
 
     /**
@@ -3068,10 +3140,8 @@ public class CommandLine {
      * @see #addSubcommand(String, Object)
      */
     public <K> CommandLine registerConverter(Class<K> cls, ITypeConverter<K> converter) {
-        interpreter.converterRegistry.put(Assert.notNull(cls, "class"), Assert.notNull(converter, "converter"));
-        for (CommandLine command : getCommandSpec().commands.values()) {
-            command.registerConverter(cls, converter);
-        }
+        interpreter.registerConverter(Assert.notNull(cls, "class"), Assert.notNull(converter, "converter"));
+        getCommandSpec().commands.propagate(SubcommandSetting.REGISTER_CONVERTER, new Object[] {cls, converter});
         return this;
     }
 
@@ -3091,9 +3161,7 @@ public class CommandLine {
      * @return this {@code CommandLine} object, to allow method chaining */
     public CommandLine setSeparator(String separator) {
         getCommandSpec().parser().separator(Assert.notNull(separator, "separator"));
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setSeparator(separator);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.SEPARATOR, separator);
         return this;
     }
 
@@ -3115,9 +3183,7 @@ public class CommandLine {
      * @since 3.6 */
     public CommandLine setResourceBundle(ResourceBundle bundle) {
         getCommandSpec().resourceBundle(bundle);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setResourceBundle(bundle);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.RESOURCE_BUNDLE, bundle);
         return this;
     }
 
@@ -3135,9 +3201,7 @@ public class CommandLine {
      * @return this {@code CommandLine} object, to allow method chaining */
     public CommandLine setUsageHelpWidth(int width) {
         getCommandSpec().usageMessage().width(width);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setUsageHelpWidth(width);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.USAGE_HELP_WIDTH, width);
         return this;
     }
 
@@ -3163,9 +3227,7 @@ public class CommandLine {
      * @since 4.2 */
     public CommandLine setUsageHelpLongOptionsMaxWidth(int columnWidth) {
         getCommandSpec().usageMessage().longOptionsMaxWidth(columnWidth);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setUsageHelpLongOptionsMaxWidth(columnWidth);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.USAGE_HELP_LONG_OPTIONS_MAX_WIDTH, columnWidth);
         return this;
     }
 
@@ -3189,9 +3251,30 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setUsageHelpAutoWidth(boolean detectTerminalSize) {
         getCommandSpec().usageMessage().autoWidth(detectTerminalSize);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setUsageHelpAutoWidth(detectTerminalSize);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.USAGE_HELP_AUTO_WIDTH, detectTerminalSize);
+        return this;
+    }
+
+    /** Returns whether the rendered usage help message is cached, so that printing the usage help again does not
+     * render all sections again. The default is {@code false}.
+     * @see UsageMessageSpec#cacheUsageHelp()
+     * @since 4.3 */
+    public boolean isUsageHelpCached() { return getCommandSpec().usageMessage().cacheUsageHelp(); }
+
+    /** Sets whether the rendered usage help message should be cached, for applications that print the usage help of
+     * the same commands many times, like an interactive shell. The default is {@code false}.
+     * Cached messages are discarded when the model is modified; see {@link UsageMessageSpec#cacheUsageHelp(boolean)} for details.
+     * <p>The specified setting will be registered with this {@code CommandLine} and the full hierarchy of its
+     * subcommands and nested sub-subcommands <em>at the moment this method is called</em>. Subcommands added
+     * later will have the default setting. To ensure a setting is applied to all
+     * subcommands, call the setter last, after adding subcommands.</p>
+     * @param cached whether to cache the rendered usage help message
+     * @see UsageMessageSpec#cacheUsageHelp(boolean)
+     * @return this {@code CommandLine} object, to allow method chaining
+     * @since 4.3 */
+    public CommandLine setUsageHelpCached(boolean cached) {
+        getCommandSpec().usageMessage().cacheUsageHelp(cached);
+        getCommandSpec().commands.propagate(SubcommandSetting.USAGE_HELP_CACHED, cached);
         return this;
     }
 
@@ -3249,9 +3332,50 @@ public class CommandLine {
      * @since 3.5 */
     public CommandLine setAtFileCommentChar(Character atFileCommentChar) {
         getCommandSpec().parser().atFileCommentChar(atFileCommentChar);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setAtFileCommentChar(atFileCommentChar);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.AT_FILE_COMMENT_CHAR, atFileCommentChar);
+        return this;
+    }
+
+    /** Returns the charset used to decode argument files.
+     * @return the charset used to decode argument files. The default is the platform's {@linkplain Charset#defaultCharset() default charset}.
+     * @see ParserSpec#atFileCharset()
+     * @since 4.3 */
+    public Charset getAtFileCharset() { return getCommandSpec().parser().atFileCharset(); }
+
+    /** Sets the charset used to decode argument files.
+     * <p>The specified setting will be registered with this {@code CommandLine} and the full hierarchy of its
+     * subcommands and nested sub-subcommands <em>at the moment this method is called</em>. Subcommands added
+     * later will have the default setting. To ensure a setting is applied to all
+     * subcommands, call the setter last, after adding subcommands.</p>
+     * @param atFileCharset the charset used to decode argument files, or {@code null} to use the platform's default charset
+     * @return this {@code CommandLine} object, to allow method chaining
+     * @see ParserSpec#atFileCharset(Charset)
+     * @since 4.3 */
+    public CommandLine setAtFileCharset(Charset atFileCharset) {
+        getCommandSpec().parser().atFileCharset(atFileCharset);
+        getCommandSpec().commands.propagate(SubcommandSetting.AT_FILE_CHARSET, atFileCharset);
+        return this;
+    }
+
+    /** Returns the cache of expanded argument files, or {@code null} if argument files are read every time they are expanded.
+     * @return the cache of expanded argument files, or {@code null}. The default is {@code null}.
+     * @see ParserSpec#atFileCache()
+     * @since 4.3 */
+    public AtFileCache getAtFileCache() { return getCommandSpec().parser().atFileCache(); }
+
+    /** Sets the cache of expanded argument files. When set, argument files that were expanded before and have not been
+     * modified since are not read again.
+     * <p>The specified setting will be registered with this {@code CommandLine} and the full hierarchy of its
+     * subcommands and nested sub-subcommands <em>at the moment this method is called</em>. Subcommands added
+     * later will have the default setting. To ensure a setting is applied to all
+     * subcommands, call the setter last, after adding subcommands.</p>
+     * @param atFileCache the cache of expanded argument files, or {@code null} to disable caching
+     * @return this {@code CommandLine} object, to allow method chaining
+     * @see ParserSpec#atFileCache(AtFileCache)
+     * @since 4.3 */
+    public CommandLine setAtFileCache(AtFileCache atFileCache) {
+        getCommandSpec().parser().atFileCache(atFileCache);
+        getCommandSpec().commands.propagate(SubcommandSetting.AT_FILE_CACHE, atFileCache);
         return this;
     }
 
@@ -3274,9 +3398,7 @@ public class CommandLine {
      * @since 3.9 */
     public CommandLine setUseSimplifiedAtFiles(boolean simplifiedAtFiles) {
         getCommandSpec().parser().useSimplifiedAtFiles(simplifiedAtFiles);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setUseSimplifiedAtFiles(simplifiedAtFiles);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.USE_SIMPLIFIED_AT_FILES, simplifiedAtFiles);
         return this;
     }
     /** Returns the {@code INegatableOptionTransformer} used to create the negative form of {@linkplain Option#negatable() negatable} options.
@@ -3299,9 +3421,7 @@ public class CommandLine {
      * @since 4.0 */
     public CommandLine setNegatableOptionTransformer(INegatableOptionTransformer transformer) {
         getCommandSpec().negatableOptionTransformer(transformer);
-        for (CommandLine command : getCommandSpec().subcommands().values()) {
-            command.setNegatableOptionTransformer(transformer);
-        }
+        getCommandSpec().commands.propagate(SubcommandSetting.NEGATABLE_OPTION_TRANSFORMER, transformer);
         return this;
     }
     private static boolean empty(String str) { return str == null || str.trim().length() == 0; }
@@ -3309,7 +3429,7 @@ public class CommandLine {
     private static String str(String[] arr, int i) { return (arr == null || arr.length <= i) ? "" : arr[i]; }
     private static boolean isBoolean(Class<?> type) { return type == Boolean.class || type == Boolean.TYPE; }
     private static CommandLine toCommandLine(Object obj, IFactory factory) { return obj instanceof CommandLine ? (CommandLine) obj : new CommandLine(obj, factory);}
-    private static boolean isMultiValue(Class<?> cls) { return cls.isArray() || Collection.class.isAssignableFrom(cls) || Map.class.isAssignableFrom(cls); }
+    private static boolean isMultiValue(Class<?> cls) { return cls.isArray() || Collection.class.isAssignableFrom(cls) || Map.class.isAssignableFrom(cls) || IParameterSink.class.isAssignableFrom(cls); }
     private static String format(String formatString, Object... params) {
         try {
             return formatString == null ? "" : String.format(formatString, params);
@@ -4120,6 +4240,20 @@ public class CommandLine {
          * @since 4.2 */
         boolean subcommandsRepeatable() default false;
 
+        /** Returns whether the {@linkplain #subcommands() subcommands} of this command should be constructed lazily.
+         * When {@code true}, only the name and aliases of the subcommand classes are registered when this command is
+         * constructed, and a subcommand is instantiated the first time it is matched on the command line, or when
+         * all subcommands are needed, for example to show the usage help message, or when
+         * {@link CommandLine#getSubcommands()} is called.
+         * This reduces the startup time of applications with many subcommands.
+         * <p>Settings that are applied to this command with {@code CommandLine} setters are applied to a lazy subcommand
+         * when it is constructed, as if the subcommand had existed when the setter was called.
+         * Errors in the definition of a lazy subcommand are only reported when the subcommand is constructed.
+         * Subcommands with a name or aliases that contain variables are always constructed immediately.</p>
+         * @return whether the subcommands of this command are constructed on demand; {@code false} by default
+         * @since 4.3 */
+        boolean lazySubcommands() default false;
+
         /** Specify whether methods annotated with {@code @Command} should be registered as subcommands of their
          * enclosing {@code @Command} class.
          * The default is {@code true}. For example:
@@ -4608,6 +4742,38 @@ public class CommandLine {
         public void consumeParameters(Stack<String> args, ArgSpec argSpec, CommandSpec commandSpec) { throw new UnsupportedOperationException(); }
     }
 
+    /**
+     * Options or positional parameters of type {@code IParameterSink} receive their values one at a time,
+     * converted to the element type, while the command line is being parsed.
+     * Unlike options and positional parameters of a {@code Collection} or array type, picocli does not retain
+     * the matched values: they are not recorded in the {@link ArgSpec#stringValues() stringValues},
+     * {@link ArgSpec#originalStringValues() originalStringValues} or {@link ArgSpec#typedValues() typedValues}
+     * of the {@code ArgSpec}. This keeps memory usage flat for commands that accept a very large number of arguments.
+     * <p>The element type is inferred from the generic type of the annotated field or method, or can be specified
+     * with the {@code type} attribute of the annotation. Arity and {@code split} are handled as for multi-value types.</p>
+     * <p>Example usage:</p>
+     * <pre>
+     * class Checksum {
+     *     &#064;Parameters(description = "The files to process.")
+     *     IParameterSink&lt;File&gt; files = new IParameterSink&lt;File&gt;() {
+     *         public void accept(File file) throws Exception {
+     *             // process the file as soon as it is parsed
+     *         }
+     *     };
+     * }</pre>
+     * <p>If the annotated field is {@code null}, picocli creates an instance of the field type with the {@link IFactory factory}.</p>
+     * @param <T> the type of the values to receive
+     * @since 4.3 */
+    public interface IParameterSink<T> {
+        /**
+         * Receives the specified value, converted to the element type of the option or positional parameter.
+         * Exceptions thrown by this method abort parsing and are reported as a {@link ParameterException}.
+         * @param value the converted value
+         * @throws Exception if the value could not be processed
+         */
+        void accept(T value) throws Exception;
+    }
+
     /** Determines the option name transformation of {@linkplain Option#negatable() negatable} boolean options.
      * Making an option negatable has two aspects:
      * <ul>
@@ -4900,6 +5066,9 @@ public class CommandLine {
                 } catch (Exception ignored) { }
                 return cls.cast(new LinkedHashMap<Object, Object>());
             }
+            Model.IGeneratedClass generated = Model.GeneratedClasses.forClass(cls);
+            Object instance = generated == null ? null : generated.newInstance();
+            if (instance != null) { return cls.cast(instance); }
             try {
                 @SuppressWarnings("deprecation") // Class.newInstance is deprecated in Java 9
                 T result = cls.newInstance();
@@ -5160,7 +5329,6 @@ public class CommandLine {
             min = min == Integer.MAX_VALUE ? min : min + 1;
         }
     }
-    @SuppressWarnings("unchecked") private static Stack<String> copy(Stack<String> stack) { return (Stack<String>) stack.clone(); }
     private static <T> Stack<T> reverse(Stack<T> stack) {
         Collections.reverse(stack);
         return stack;
@@ -5249,7 +5417,7 @@ public class CommandLine {
 
             static final Boolean DEFAULT_SUBCOMMANDS_REPEATABLE = false;
 
-            private final Map<String, CommandLine> commands = new LinkedHashMap<String, CommandLine>();
+            private final SubcommandMap commands = new SubcommandMap();
             private final Map<String, OptionSpec> optionsByNameMap = new LinkedHashMap<String, OptionSpec>();
             private final Map<String, OptionSpec> negatedOptionsByNameMap = new LinkedHashMap<String, OptionSpec>();
             private final Map<Character, OptionSpec> posixOptionsByKeyMap = new LinkedHashMap<Character, OptionSpec>();
@@ -5265,6 +5433,7 @@ public class CommandLine {
             private final List<ArgGroupSpec> groups = new ArrayList<ArgGroupSpec>();
             private final ParserSpec parser = new ParserSpec();
             private final Interpolator interpolator = new Interpolator(this);
+            final Map<String, Interpolator.Resolution> interpolated = new java.util.concurrent.ConcurrentHashMap<String, Interpolator.Resolution>();
             private final UsageMessageSpec usageMessage = new UsageMessageSpec(interpolator);
 
             private final CommandUserObject userObject;
@@ -5288,6 +5457,7 @@ public class CommandLine {
             private Integer exitCodeOnVersionHelp;
             private Integer exitCodeOnInvalidInput;
             private Integer exitCodeOnExecutionException;
+            private ParsePlan parsePlan;
 
             private CommandSpec(CommandUserObject userObject) { this.userObject = userObject; }
 
@@ -5381,7 +5551,7 @@ public class CommandLine {
                 for (CommandSpec mixedInSpec : mixins.values()) {
                     mixedInSpec.commandLine(commandLine);
                 }
-                for (CommandLine sub : commands.values()) {
+                for (CommandLine sub : commands.constructed()) {
                     sub.getCommandSpec().parent(this);
                 }
                 return this;
@@ -5477,6 +5647,7 @@ public class CommandLine {
                 String actualName = validateSubcommandName(name, subSpec);
                 Tracer t = new Tracer();
                 if (t.isDebug()) {t.debug("Adding subcommand '%s' to '%s'%n", actualName, this.qualifiedName());}
+                modified();
                 CommandLine previous = commands.put(actualName, subCommandLine);
                 if (previous != null && previous != subCommandLine) { throw new InitializationException("Another subcommand named '" + actualName + "' already exists for command '" + this.name() + "'"); }
                 if (subSpec.name == null) { subSpec.name(actualName); }
@@ -5507,11 +5678,298 @@ public class CommandLine {
                 if (resourceBundle() == null && resourceBundleBaseName() == null) {
                     setBundle(bundleBaseName, rb);
                 }
-                for (CommandLine sub : commands.values()) { // percolate down the hierarchy
+                for (CommandLine sub : commands.constructed()) { // percolate down the hierarchy
                     sub.getCommandSpec().initCommandHierarchyWithResourceBundle(bundleBaseName, rb);
                 }
             }
 
+            /** Registers the specified subcommand class under the specified name and aliases without instantiating it.
+             * The subcommand is constructed when it is first looked up by name, or when the subcommand map is iterated.
+             * @see Command#lazySubcommands() */
+            void addLazySubcommand(String name, String[] aliases, Class<?> cls, IFactory factory) {
+                Tracer t = new Tracer();
+                if (t.isDebug()) {t.debug("Adding lazy subcommand '%s' to '%s'%n", name, this.qualifiedName());}
+                modified();
+                LazySubcommand lazy = new LazySubcommand(name, aliases, cls, factory);
+                if (commands.containsKey(name)) { throw new InitializationException("Another subcommand named '" + name + "' already exists for command '" + this.name() + "'"); }
+                commands.putLazy(name, lazy);
+                for (String alias : aliases) {
+                    if (commands.containsKey(alias)) { throw new InitializationException("Alias '" + alias + "' for subcommand '" + name + "' is already used by another subcommand of '" + this.name() + "'"); }
+                    commands.putLazy(alias, lazy);
+                }
+            }
+
+            /** Instantiates a subcommand that was registered with {@link #addLazySubcommand(String, String[], Class, IFactory)}
+             * and initializes it the same way as subcommands that are constructed immediately. */
+            private CommandLine constructLazySubcommand(LazySubcommand lazy) {
+                Tracer t = new Tracer();
+                if (t.isDebug()) {t.debug("Constructing lazy subcommand '%s' of '%s'%n", lazy.name, this.qualifiedName());}
+                CommandLine subcommandLine;
+                try {
+                    subcommandLine = toCommandLine(lazy.cls, lazy.factory);
+                } catch (InitializationException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new InitializationException("Could not instantiate and add subcommand " + lazy.cls.getName() + ": " + ex, ex);
+                }
+                CommandSpec subSpec = subcommandLine.getCommandSpec();
+                subSpec.parent(this);
+                subSpec.initCommandHierarchyWithResourceBundle(resourceBundleBaseName(), resourceBundle());
+                subSpec.injectParentCommand(userObject);
+                for (CommandSpec mixin : subSpec.mixins().values()) {
+                    mixin.injectParentCommand(userObject);
+                }
+                commands.construct(lazy, subcommandLine);
+                return subcommandLine;
+            }
+
+            /** A subcommand class registered with {@link Command#lazySubcommands() lazySubcommands = true} that has not been constructed yet. */
+            private static final class LazySubcommand {
+                final String name;
+                final String[] aliases;
+                final Class<?> cls;
+                final IFactory factory;
+                final boolean hidden;
+                LazySubcommand(String name, String[] aliases, Class<?> cls, IFactory factory) {
+                    this.name = name;
+                    this.aliases = aliases;
+                    this.cls = cls;
+                    this.factory = factory;
+                    Command command = cls.getAnnotation(Command.class);
+                    hidden = command != null && command.hidden();
+                }
+            }
+
+            /** Maps subcommand names and aliases to subcommands, some of which may not have been
+             * {@linkplain Command#lazySubcommands() constructed} yet. Looking up a subcommand by name constructs only that
+             * subcommand; iterating over the entries or values of this map constructs all subcommands.
+             * <p>Lazy subcommands are constructed while holding the lock of this map, so concurrent lookups construct each
+             * subcommand once and only see fully initialized subcommands. Once all subcommands have been constructed,
+             * lookups no longer acquire the lock. The set of names does not change during construction.</p> */
+            private final class SubcommandMap extends AbstractMap<String, CommandLine> {
+                private final Map<String, Object> entries = new LinkedHashMap<String, Object>(); // values are CommandLine or LazySubcommand
+                private final Map<Object, Object[]> deferredSettings = new LinkedHashMap<Object, Object[]>(); // the last value per setting
+                private volatile int lazyCount;
+
+                @Override public int size() { return entries.size(); }
+                @Override public boolean isEmpty() { return entries.isEmpty(); }
+                @Override public boolean containsKey(Object key) { return entries.containsKey(key); }
+                @Override public Set<String> keySet() { return entries.keySet(); }
+                @Override public CommandLine get(Object key) {
+                    if (lazyCount == 0) { return (CommandLine) entries.get(key); }
+                    synchronized (this) {
+                        Object value = entries.get(key);
+                        return value instanceof LazySubcommand ? constructLazySubcommand((LazySubcommand) value) : (CommandLine) value;
+                    }
+                }
+                @Override public synchronized CommandLine put(String key, CommandLine value) {
+                    if (entries.get(key) instanceof LazySubcommand) { return get(key); } // name clash: keep the registered subcommand
+                    return (CommandLine) entries.put(key, value);
+                }
+                @SuppressWarnings("unchecked")
+                @Override public Set<Map.Entry<String, CommandLine>> entrySet() {
+                    if (lazyCount > 0) {
+                        synchronized (this) {
+                            for (Object value : new ArrayList<Object>(entries.values())) {
+                                if (value instanceof LazySubcommand && entries.get(((LazySubcommand) value).name) == value) {
+                                    constructLazySubcommand((LazySubcommand) value);
+                                }
+                            }
+                        }
+                    }
+                    Map<String, ?> result = entries;
+                    return ((Map<String, CommandLine>) result).entrySet();
+                }
+                synchronized void putLazy(String key, LazySubcommand lazy) {
+                    if (entries.put(key, lazy) == null && key.equals(lazy.name)) { lazyCount++; }
+                }
+                /** Applies the deferred settings to the specified subcommand, then replaces the lazy entries for its name and aliases with it.
+                 * Called with the lock held, after the subcommand has been initialized. */
+                void construct(LazySubcommand lazy, CommandLine subcommandLine) {
+                    for (Object[] deferred : deferredSettings.values()) { ((SubcommandSetting) deferred[0]).apply(subcommandLine, deferred[1]); }
+                    entries.put(lazy.name, subcommandLine);
+                    for (String alias : lazy.aliases) { entries.put(alias, subcommandLine); }
+                    if (--lazyCount == 0) { deferredSettings.clear(); }
+                }
+                /** Returns the subcommands that have been constructed, without constructing lazy subcommands. */
+                @SuppressWarnings("unchecked")
+                Collection<CommandLine> constructed() {
+                    if (lazyCount == 0) {
+                        Map<String, ?> result = entries;
+                        return ((Map<String, CommandLine>) result).values();
+                    }
+                    synchronized (this) {
+                        List<CommandLine> result = new ArrayList<CommandLine>(entries.size());
+                        for (Object value : entries.values()) {
+                            if (value instanceof CommandLine) { result.add((CommandLine) value); }
+                        }
+                        return result;
+                    }
+                }
+                boolean hasLazySubcommands() { return lazyCount > 0; }
+                /** Returns the names and aliases of the subcommands that are not hidden, without constructing lazy subcommands. */
+                synchronized List<String> visibleNames() {
+                    List<String> result = new ArrayList<String>();
+                    for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                        Object value = entry.getValue();
+                        boolean hidden = value instanceof LazySubcommand
+                                ? ((LazySubcommand) value).hidden
+                                : ((CommandLine) value).getCommandSpec().usageMessage().hidden();
+                        if (!hidden) { result.add(entry.getKey()); }
+                    }
+                    return result;
+                }
+                /** Applies the specified setting to the constructed subcommands, and remembers it for the subcommands that are constructed later.
+                 * Only the last value of each setting is remembered, so repeatedly changing a setting does not accumulate state. */
+                synchronized void propagate(SubcommandSetting setting, Object value) {
+                    for (CommandLine sub : constructed()) { setting.apply(sub, value); }
+                    if (lazyCount > 0) { defer(setting.key(value), new Object[] {setting, value}); }
+                }
+                void copyDeferredSettings(SubcommandMap source) {
+                    synchronized (source) {
+                        for (Map.Entry<Object, Object[]> entry : source.deferredSettings.entrySet()) { defer(entry.getKey(), entry.getValue()); }
+                    }
+                }
+                private void defer(Object key, Object[] settingAndValue) {
+                    deferredSettings.remove(key); // keep the settings in the order they were last changed
+                    deferredSettings.put(key, settingAndValue);
+                }
+            }
+
+            /** Returns a copy of this command and its subcommands with the same configuration, whose options and positional
+             * parameters are bound to the specified user object instead of to the user object of this command.
+             * The model is copied without inspecting the annotations of the user object again, so the cost of the copy is
+             * proportional to the number of options and positional parameters.
+             * <p>
+             * Returns {@code null} if this command cannot be copied: this is the case for commands
+             * with {@linkplain ArgGroup argument groups} or {@linkplain Unmatched unmatched} bindings,
+             * and for commands whose user object is a {@code @Command}-annotated method or an interface.
+             * </p>
+             * @param userObject an instance of the class of the user object of this command, or the class itself,
+             *                   in which case the instance is obtained from the factory of this command
+             * @return a copy of this command bound to the specified user object, or {@code null} */
+            CommandSpec copy(Object userObject) {
+                try {
+                    return copy(CommandUserObject.create(userObject, this.userObject.factory), new IdentityHashMap<Object, Object>());
+                } catch (InitializationException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new InitializationException("Could not copy " + this + ": " + ex, ex);
+                }
+            }
+
+            /** Copies this command and records the new scope for each scope and the new arg for each arg it copies
+             * in the specified map, so that mixins and the commands that they are mixed into share the same copies. */
+            private CommandSpec copy(CommandUserObject newUserObject, Map<Object, Object> copies) throws Exception {
+                if (userObject.isMethod() || userObject.isProxyClass() || !groups.isEmpty() || !unmatchedArgs.isEmpty()) { return null; }
+                CommandSpec result = new CommandSpec(newUserObject);
+                copies.put(userObject, newUserObject);
+                result.name = name;
+                result.aliases = new LinkedHashSet<String>(aliases);
+                result.isHelpCommand = isHelpCommand;
+                result.versionProvider = versionProvider;
+                result.defaultValueProvider = defaultValueProvider;
+                result.negatableOptionTransformer = negatableOptionTransformer;
+                result.subcommandsRepeatable = subcommandsRepeatable;
+                result.version = version;
+                result.toString = toString;
+                result.isAddMethodSubcommands = isAddMethodSubcommands;
+                result.interpolateVariables = interpolateVariables;
+                result.exitCodeOnSuccess = exitCodeOnSuccess;
+                result.exitCodeOnUsageHelp = exitCodeOnUsageHelp;
+                result.exitCodeOnVersionHelp = exitCodeOnVersionHelp;
+                result.exitCodeOnInvalidInput = exitCodeOnInvalidInput;
+                result.exitCodeOnExecutionException = exitCodeOnExecutionException;
+                result.parser.initFrom(parser);
+                result.parser.useSimplifiedAtFiles = parser.useSimplifiedAtFiles;
+                result.usageMessage.copyFrom(usageMessage, result);
+
+                for (Map.Entry<String, CommandSpec> entry : mixins.entrySet()) {
+                    CommandSpec mixin = entry.getValue();
+                    IAnnotatedElement element = mixinAnnotatedElements.get(entry.getKey());
+                    TypedMember member = null;
+                    CommandUserObject mixinUserObject;
+                    if (element == null) {
+                        mixinUserObject = mixin.userObject.copy();
+                    } else if (element instanceof TypedMember && copies.containsKey(((TypedMember) element).scope)) {
+                        member = ((TypedMember) element).bind((IScope) copies.get(((TypedMember) element).scope), result);
+                        Object instance = member.getter().get();
+                        if (instance == null) {
+                            instance = DefaultFactory.create(mixin.userObject.factory, member.getTypeInfo().getType());
+                            member.setter().set(instance);
+                        }
+                        mixinUserObject = CommandUserObject.create(instance, mixin.userObject.factory);
+                    } else {
+                        return null;
+                    }
+                    CommandSpec mixinCopy = mixin.copy(mixinUserObject, copies);
+                    if (mixinCopy == null) { return null; }
+                    result.mixins.put(entry.getKey(), mixinCopy);
+                    if (member != null) { result.mixinAnnotatedElements.put(entry.getKey(), member); }
+                    for (IAnnotatedElement specElement : mixinCopy.specElements) {
+                        if (specElement.getAnnotation(Spec.class).value() == Spec.Target.MIXEE) { specElement.setter().set(result); }
+                    }
+                }
+                for (ArgSpec arg : args) {
+                    ArgSpec copy = (ArgSpec) copies.get(arg);
+                    if (copy == null) {
+                        if ((copy = copyArg(arg, copies, result)) == null) { return null; }
+                        copies.put(arg, copy);
+                    }
+                    result.add(copy);
+                }
+                for (IAnnotatedElement element : specElements) {
+                    TypedMember member = rebind(element, copies, result);
+                    if (member == null) { return null; }
+                    result.addSpecElement(member);
+                    if (member.getAnnotation(Spec.class).value() == Spec.Target.SELF) { member.setter().set(result); }
+                }
+                for (IAnnotatedElement element : parentCommandElements) {
+                    TypedMember member = rebind(element, copies, result);
+                    if (member == null) { return null; }
+                    result.addParentCommandElement(member);
+                }
+                for (Object value : new LinkedHashSet<Object>(commands.entries.values())) { // each subcommand once, in registration order
+                    if (value instanceof LazySubcommand) {
+                        LazySubcommand lazy = (LazySubcommand) value;
+                        result.addLazySubcommand(lazy.name, lazy.aliases, lazy.cls, lazy.factory);
+                    } else {
+                        CommandLine sub = ((CommandLine) value).copy();
+                        result.addSubcommand(sub.getCommandSpec().name, sub);
+                        sub.getCommandSpec().injectParentCommand(newUserObject);
+                        for (CommandSpec mixin : sub.getCommandSpec().mixins().values()) {
+                            mixin.injectParentCommand(newUserObject);
+                        }
+                    }
+                }
+                result.commands.copyDeferredSettings(commands);
+                return result;
+            }
+            private static TypedMember rebind(IAnnotatedElement element, Map<Object, Object> copies, CommandSpec spec) {
+                if (!(element instanceof TypedMember) || ((TypedMember) element).accessible instanceof MethodParam) { return null; }
+                IScope scope = (IScope) copies.get(((TypedMember) element).scope);
+                return scope == null ? null : ((TypedMember) element).bind(scope, spec);
+            }
+            private static ArgSpec copyArg(ArgSpec arg, Map<Object, Object> copies, CommandSpec spec) {
+                if (arg.getter() instanceof ObjectBinding && arg.setter() == arg.getter()) { // created programmatically
+                    ObjectBinding binding = new ObjectBinding();
+                    ArgSpec.Builder<?> builder;
+                    if (arg.isOption()) {
+                        builder = ((OptionSpec) arg).toBuilder();
+                    } else {
+                        PositionalParamSpec.Builder positional = ((PositionalParamSpec) arg).toBuilder();
+                        positional.capacity = ((PositionalParamSpec) arg).builderCapacity;
+                        builder = positional;
+                    }
+                    builder.getter = binding;
+                    builder.setter = binding;
+                    return builder.build();
+                }
+                TypedMember member = rebind(arg.source, copies, spec);
+                if (member == null) { return null; }
+                return ClassTemplate.copy(arg, member, member.getter(), member.setter(), member.scope(), arg.hasInitialValue());
+            }
+
             /** Returns whether method commands should be added as subcommands. True by default. Used by the annotation processor.
              * @since 4.0 */
             public boolean isAddMethodSubcommands() { return (isAddMethodSubcommands == null) ? DEFAULT_IS_ADD_METHOD_SUBCOMMANDS : isAddMethodSubcommands; }
@@ -5524,7 +5982,27 @@ public class CommandLine {
             public boolean interpolateVariables() { return (interpolateVariables == null) ? DEFAULT_INTERPOLATE_VARIABLES : interpolateVariables; }
             /** Sets whether whether variables should be interpolated in String values. True by default.
              * @since 4.0 */
-            public CommandSpec interpolateVariables(Boolean interpolate) { interpolateVariables = interpolate; return this; }
+            public CommandSpec interpolateVariables(Boolean interpolate) { interpolateVariables = interpolate; usageMessage.modified(); return this; }
+
+            /** Returns the system properties and environment variables that the currently cached interpolated strings of
+             * this command depend on, keyed by {@code "sys:"} or {@code "env:"} followed by the name, with the value they had
+             * when the strings were interpolated (which may be {@code null}). Tools that keep text rendered from this command,
+             * like the pre-rendered usage help of picocli-codegen, can use this to detect whether the text is still current.
+             * Strings of subcommands and mixins are cached by their own {@code CommandSpec}.
+             * @return a new map with the system properties and environment variables that interpolated strings depend on
+             * @since 4.3 */
+            public Map<String, String> interpolationDependencies() {
+                Map<String, String> result = new LinkedHashMap<String, String>();
+                for (Interpolator.Resolution resolution : interpolated.values()) {
+                    for (int i = 0; i < resolution.systemProperties.length; i += 2) {
+                        result.put("sys:" + resolution.systemProperties[i], resolution.systemProperties[i + 1]);
+                    }
+                    for (int i = 0; i < resolution.environment.length; i += 2) {
+                        result.put("env:" + resolution.environment[i], resolution.environment[i + 1]);
+                    }
+                }
+                return result;
+            }
 
             /** Reflects on the class of the {@linkplain #userObject() user object} and registers any command methods
              * (class methods annotated with {@code @Command}) as subcommands.
@@ -5555,6 +6033,7 @@ public class CommandLine {
             }
             static List<CommandLine> createMethodSubcommands(Class<?> cls, IFactory factory) {
                 List<CommandLine> result = new ArrayList<CommandLine>();
+                if (GeneratedClasses.forClass(cls) != null) { return result; } // generated classes have no @Command methods
                 for (Method method : getCommandMethods(cls, null)) {
                     result.add(new CommandLine(method, factory));
                 }
@@ -5572,6 +6051,7 @@ public class CommandLine {
              * @return this CommandSpec for method chaining */
             public CommandSpec parent(CommandSpec parent) {
                 this.parent = parent;
+                interpolationModified();
                 injectParentCommand(parent.userObject);
                 return this;
             }
@@ -5627,6 +6107,7 @@ public class CommandLine {
             private void resetNegativeOptionNames() {
                 Tracer tracer = new Tracer();
                 tracer.debug("Clearing negatedOptionsByNameMap...%n");
+                modified();
                 negatedOptionsByNameMap.clear();
                 for (OptionSpec option : options) {
                     addOptionNegative(option, tracer);
@@ -5650,6 +6131,7 @@ public class CommandLine {
                 return this;
             }
             private CommandSpec addArg(ArgSpec arg) {
+                modified();
                 args.add(arg);
                 arg.messages(usageMessage().messages());
                 arg.commandSpec = this;
@@ -5671,6 +6153,7 @@ public class CommandLine {
                 if (arg.group() != null) {
                     throw new UnsupportedOperationException("Cannot remove ArgSpec that is part of an ArgGroup");
                 }
+                modified();
                 int removed = remove(arg, optionsByNameMap);
                 removed +=    remove(arg, posixOptionsByKeyMap);
                 removed +=    remove(arg, negatedOptionsByNameMap);
@@ -5872,6 +6355,29 @@ public class CommandLine {
              * @return an immutable list of the required options and positional parameters for this command. */
             public List<ArgSpec> requiredArgs() { return Collections.unmodifiableList(requiredArgs); }
 
+            /** Discards the interpolated strings of this command and its subcommands after the name, parent or resource bundle
+             * of this command was modified, since the full names and parent names of the subcommands may have changed too. */
+            void interpolationModified() {
+                interpolated.clear();
+                for (CommandLine sub : commands.constructed()) { sub.getCommandSpec().interpolationModified(); }
+            }
+
+            /** Discards the parse plan and any cached usage help message after the options, positional parameters or subcommands were modified. */
+            private void modified() {
+                parsePlan = null;
+                usageMessage.modified();
+            }
+
+            /** Returns the parse plan for this command, creating it if this command was modified since the plan was last created. */
+            ParsePlan parsePlan() {
+                ParsePlan result = parsePlan;
+                if (result == null || !result.isCurrent(parser)) {
+                    result = new ParsePlan(this);
+                    parsePlan = result;
+                }
+                return result;
+            }
+
             /** Returns the list of {@link UnmatchedArgsBinding UnmatchedArgumentsBindings} configured for this command;
              * each {@code UnmatchedArgsBinding} captures the arguments that could not be matched to any options or positional parameters. */
             public List<UnmatchedArgsBinding> unmatchedArgsBindings() { return Collections.unmodifiableList(unmatchedArgs); }
@@ -6024,13 +6530,14 @@ public class CommandLine {
 
             /** Sets the String to use as the program name in the synopsis line of the help message.
              * @return this CommandSpec for method chaining */
-            public CommandSpec name(String name) { this.name = name; return this; }
+            public CommandSpec name(String name) { this.name = name; interpolationModified(); usageMessage.modified(); return this; }
 
             /** Sets the alternative names by which this subcommand is recognized on the command line.
              * @return this CommandSpec for method chaining
              * @since 3.1 */
             public CommandSpec aliases(String... aliases) {
                 this.aliases = new LinkedHashSet<String>(Arrays.asList(aliases == null ? new String[0] : aliases));
+                usageMessage.modified();
                 return this;
             }
 
@@ -6043,7 +6550,7 @@ public class CommandLine {
              * @param defaultValueProvider the default value provider to use, or {@code null}.
              * @return this CommandSpec for method chaining
              * @since 3.6 */
-            public CommandSpec defaultValueProvider(IDefaultValueProvider  defaultValueProvider) { this.defaultValueProvider = defaultValueProvider; return this; }
+            public CommandSpec defaultValueProvider(IDefaultValueProvider  defaultValueProvider) { this.defaultValueProvider = defaultValueProvider; usageMessage.modified(); return this; }
 
             /** Sets version information literals for this command, to print to the console when the user specifies an
              * {@linkplain OptionSpec#versionHelp() option} to request version help. Only used if no {@link #versionProvider() versionProvider} is set.
@@ -6102,6 +6609,7 @@ public class CommandLine {
                 } else {
                     CommandSpec helpMixin = mixins.remove(AutoHelpMixin.KEY);
                     if (helpMixin != null) {
+                        modified();
                         options.removeAll(helpMixin.options);
                         for (OptionSpec option : helpMixin.options()) {
                             for (String name : interpolator.interpolate(option.names())) {
@@ -6213,13 +6721,7 @@ public class CommandLine {
                 return prefixed;
             }
             List<String> findVisibleOptionNamesWithPrefix(String prefix) {
-                List<String> result = new ArrayList<String>();
-                for (OptionSpec option : options()) {
-                    for (String name : option.names()) {
-                        if (!option.hidden() && stripPrefix(name).startsWith(prefix)) { result.add(name); }
-                    }
-                }
-                return result;
+                return parsePlan().visibleOptionNamesWithPrefix(prefix);
             }
 
             boolean resemblesOption(String arg, Tracer tracer) {
@@ -6236,17 +6738,134 @@ public class CommandLine {
                     if (tracer != null && tracer.isDebug()) {tracer.debug("'%s' %s an option%n", arg, (result ? "resembles" : "doesn't resemble"));}
                     return result;
                 }
-                int count = 0;
-                for (String optionName : optionsMap().keySet()) {
-                    for (int i = 0; i < arg.length(); i++) {
-                        if (optionName.length() > i && arg.charAt(i) == optionName.charAt(i)) { count++; } else { break; }
-                    }
-                }
+                int count = parsePlan().commonPrefixLength(arg);
                 boolean result = count > 0 && count * 10 >= optionsMap().size() * 9; // at least one prefix char in common with 9 out of 10 options
                 if (tracer != null && tracer.isDebug()) {tracer.debug("'%s' %s an option: %d matching prefix chars out of %d option names%n", arg, (result ? "resembles" : "doesn't resemble"), count, optionsMap().size());}
                 return result;
             }
         }
+
+        /** Immutable snapshot of the parts of a {@code CommandSpec} that the parser consults for every command line argument:
+         * the required args in the order they are validated, the option and subcommand lookup tables,
+         * and the parser separator and end-of-options delimiter.
+         * The snapshot is created lazily by {@link CommandSpec#parsePlan()} and discarded when the {@code CommandSpec}
+         * is modified, so that this work is not repeated every time the command line is parsed. */
+        static final class ParsePlan {
+            private static final int VISIBLE_OPTION_PREFIX_LENGTH = 2;
+            final List<ArgSpec> required;
+            final Map<ArgSpec, Integer> requiredOrdinals = new IdentityHashMap<ArgSpec, Integer>();
+            final Map<String, OptionSpec> options;
+            final Map<String, OptionSpec> negatedOptions;
+            final Map<String, CommandLine> subcommands;
+            final String separator;
+            final String endOfOptionsDelimiter;
+            private final OptionSpec[] asciiPosixOptions = new OptionSpec[128];
+            private final Map<Character, OptionSpec> posixOptions;
+            private final PrefixNode optionNamePrefixes;
+            private final CommandSpec spec;
+            private volatile Suggestions suggestions; // created when the first suggestion is needed
+
+            ParsePlan(CommandSpec spec) {
+                this.spec = spec;
+                List<ArgSpec> sorted = new ArrayList<ArgSpec>(spec.requiredArgs);
+                Collections.sort(sorted, new PositionalParametersSorter());
+                required = Collections.unmodifiableList(sorted);
+                for (int i = 0; i < sorted.size(); i++) { requiredOrdinals.put(sorted.get(i), i); }
+                options = new HashMap<String, OptionSpec>(spec.optionsByNameMap);
+                negatedOptions = new HashMap<String, OptionSpec>(spec.negatedOptionsByNameMap);
+                optionNamePrefixes = PrefixNode.index(options.keySet());
+                subcommands = spec.commands.hasLazySubcommands() ? spec.subcommands() : new HashMap<String, CommandLine>(spec.commands);
+                posixOptions = new HashMap<Character, OptionSpec>();
+                for (Map.Entry<Character, OptionSpec> entry : spec.posixOptionsByKeyMap.entrySet()) {
+                    char key = entry.getKey();
+                    if (key < asciiPosixOptions.length) { asciiPosixOptions[key] = entry.getValue(); }
+                    else { posixOptions.put(key, entry.getValue()); }
+                }
+                separator = spec.parser.separator();
+                endOfOptionsDelimiter = spec.parser.endOfOptionsDelimiter();
+            }
+            /** Returns {@code false} if the parser separator or end-of-options delimiter were changed after this plan was created. */
+            boolean isCurrent(ParserSpec parser) {
+                return separator == parser.separator() && endOfOptionsDelimiter == parser.endOfOptionsDelimiter();
+            }
+            /** Returns the option with the specified single-character name, or {@code null}. */
+            OptionSpec posixOption(char key) {
+                return key < asciiPosixOptions.length ? asciiPosixOptions[key] : posixOptions.get(key);
+            }
+            /** Returns the lookup tables for "did you mean" suggestions, creating them the first time they are needed,
+             * since most command lines are parsed without errors. Threads that race to create them create equal tables. */
+            private Suggestions suggestions() {
+                Suggestions result = suggestions;
+                if (result == null) {
+                    result = new Suggestions(spec);
+                    suggestions = result;
+                }
+                return result;
+            }
+            /** Returns the bigram index of the names and aliases of the subcommands that are not hidden. */
+            CosineSimilarity.Index subcommandIndex() { return suggestions().subcommandIndex; }
+            /** Returns the names of the options that are not hidden and whose name, without its prefix, starts with the specified string. */
+            List<String> visibleOptionNamesWithPrefix(String prefix) {
+                List<String> names = suggestions().visibleOptionNames.get(prefix.substring(0, Math.min(VISIBLE_OPTION_PREFIX_LENGTH, prefix.length())));
+                List<String> result = new ArrayList<String>();
+                if (names == null) { return result; }
+                for (String name : names) {
+                    if (prefix.length() <= VISIBLE_OPTION_PREFIX_LENGTH || CommandSpec.stripPrefix(name).startsWith(prefix)) { result.add(name); }
+                }
+                return result;
+            }
+            /** Returns the total number of leading characters that the option names have in common with the specified argument:
+             * the sum, for each option name, of the length of the prefix it shares with the argument.
+             * The option names are indexed in a prefix tree when the plan is created, so this takes time proportional to the length of the argument. */
+            int commonPrefixLength(String arg) {
+                PrefixNode node = optionNamePrefixes;
+                int result = 0;
+                for (int i = 0; i < arg.length() && (node = node.children.get(arg.charAt(i))) != null; i++) {
+                    result += node.count;
+                }
+                return result;
+            }
+            /** Immutable lookup tables for suggesting visible options and subcommands when the user input does not match. */
+            private static final class Suggestions {
+                final Map<String, List<String>> visibleOptionNames = new HashMap<String, List<String>>(); // stripped name prefix (up to 2 chars) -> names
+                final CosineSimilarity.Index subcommandIndex;
+
+                Suggestions(CommandSpec spec) {
+                    for (OptionSpec option : spec.options) {
+                        if (option.hidden()) { continue; }
+                        for (String name : option.names()) {
+                            String stripped = CommandSpec.stripPrefix(name);
+                            for (int i = 0; i <= Math.min(VISIBLE_OPTION_PREFIX_LENGTH, stripped.length()); i++) {
+                                String prefix = stripped.substring(0, i);
+                                List<String> names = visibleOptionNames.get(prefix);
+                                if (names == null) { visibleOptionNames.put(prefix, names = new ArrayList<String>()); }
+                                names.add(name);
+                            }
+                        }
+                    }
+                    subcommandIndex = new CosineSimilarity.Index(spec.commands.visibleNames());
+                }
+            }
+        }
+        /** Node in a prefix tree of option names, holding the number of names that start with the prefix leading to this node. */
+        static final class PrefixNode {
+            final Map<Character, PrefixNode> children = new HashMap<Character, PrefixNode>();
+            int count;
+
+            static PrefixNode index(Collection<String> names) {
+                PrefixNode root = new PrefixNode();
+                for (String name : names) {
+                    PrefixNode node = root;
+                    for (int i = 0; i < name.length(); i++) {
+                        PrefixNode child = node.children.get(name.charAt(i));
+                        if (child == null) { node.children.put(name.charAt(i), child = new PrefixNode()); }
+                        child.count++;
+                        node = child;
+                    }
+                }
+                return root;
+            }
+        }
         private static boolean initializable(Object current, Object candidate, Object defaultValue) {
             return current == null && isNonDefault(candidate, defaultValue);
         }
@@ -6408,6 +7027,11 @@ public class CommandLine {
             private final static int    DEFAULT_SYNOPSIS_INDENT          = -1; // by default, fall back to aligning to the synopsis heading
             private final static double DEFAULT_SYNOPSIS_AUTO_INDENT_THRESHOLD = 0.5;
             private final static double MAX_SYNOPSIS_AUTO_INDENT_THRESHOLD     = 0.9;
+            private final static int    MAX_CACHED_USAGE_HELP_MESSAGES         = 16;
+            private final static long   TERMINAL_WIDTH_TIMEOUT_MILLIS          = 2000;
+
+            /** The terminal width detected for all commands in this JVM, or {@code null} if not detected yet. Guarded by {@code UsageMessageSpec.class}. */
+            private static FutureTask<Integer> terminalWidth;
 
             /** Constant Boolean holding the default setting for whether to attempt to adjust the width to the terminal width: <code>{@value}</code>. */
             static final Boolean DEFAULT_USAGE_AUTO_WIDTH = Boolean.FALSE;
@@ -6494,7 +7118,10 @@ public class CommandLine {
             private Map<String, String> exitCodeList;
             private int width = DEFAULT_USAGE_WIDTH;
             private int longOptionsMaxWidth = DEFAULT_USAGE_LONG_OPTIONS_WIDTH;
-            private Integer cachedTerminalWidth;
+            private boolean cacheUsageHelp;
+            private int modCount;
+            private long usageHelpCacheVersion;
+            private final Map<List<Object>, String> usageHelpCache = new HashMap<List<Object>, String>();
 
             private final Interpolator interpolator;
             private Messages messages;
@@ -6513,7 +7140,7 @@ public class CommandLine {
                 if (newValue < MINIMUM_USAGE_WIDTH) {
                     throw new InitializationException("Invalid usage message width " + newValue + ". Minimum value is " + MINIMUM_USAGE_WIDTH);
                 }
-                width = newValue; return this;
+                width = newValue; return modified();
             }
             /**
              * Sets the maximum usage help long options column max width to the specified value.
@@ -6528,15 +7155,13 @@ public class CommandLine {
                 } else if (newValue > width() - DEFAULT_USAGE_LONG_OPTIONS_WIDTH) {
                     throw new InitializationException("Invalid usage long options max width " + newValue + ". Value must not exceed width(" + width() + ") - " + DEFAULT_USAGE_LONG_OPTIONS_WIDTH);
                 }
-                longOptionsMaxWidth = newValue; return this;
+                longOptionsMaxWidth = newValue; return modified();
             }
 
             private int getSysPropertyWidthOrDefault(int defaultWidth, boolean detectTerminalSize) {
                 if (detectTerminalSize) {
-                    if (cachedTerminalWidth == null) {
-                        cachedTerminalWidth = getTerminalWidth();
-                    }
-                    return cachedTerminalWidth < 0 ? defaultWidth : Math.max(cachedTerminalWidth, MINIMUM_USAGE_WIDTH);
+                    int terminalWidth = getTerminalWidth();
+                    return terminalWidth < 0 ? defaultWidth : Math.max(terminalWidth, MINIMUM_USAGE_WIDTH);
                 }
                 String userValue = System.getProperty("picocli.usage.width");
                 if (userValue == null) { return defaultWidth; }
@@ -6562,60 +7187,107 @@ public class CommandLine {
                 catch (Exception any) { return false; }
             }
 
+            /** Returns the terminal width from the {@code COLUMNS} environment variable if it is set, otherwise waits for
+             * the terminal width detected in the background. The detected width is shared by all commands in this JVM. */
             private static int getTerminalWidth() {
-                return (Help.Ansi.isTTY() || Help.Ansi.isPseudoTTY()) ? detectTerminalWidth() : -1;
+                int columns = environmentColumns();
+                if (columns > 0) { return columns; }
+                if (isImageBuildTime()) { return -1; }
+                Future<Integer> detection = terminalWidthDetection();
+                try {
+                    return detection.get(TERMINAL_WIDTH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ex) {
+                    new Tracer().debug("getTerminalWidth() timed out after %dms%n", TERMINAL_WIDTH_TIMEOUT_MILLIS);
+                    detection.cancel(true); // don't wait again the next time
+                    return -1;
+                } catch (Exception ex) { // cancelled or interrupted
+                    return -1;
+                }
+            }
+            private static int environmentColumns() {
+                try {
+                    String columns = System.getenv("COLUMNS");
+                    return columns == null ? -1 : Integer.parseInt(columns.trim());
+                } catch (Exception ignored) { // not a number, or not allowed to read the environment
+                    return -1;
+                }
+            }
+            /** Starts detecting the terminal width in a background thread, unless the {@code COLUMNS} environment variable
+             * is set. Called when a command with auto width is constructed, so that detection overlaps with parsing.
+             * Does nothing while a GraalVM native image is being built, since the detected width would be stored in the image. */
+            static void detectTerminalWidthInBackground() {
+                if (environmentColumns() <= 0 && !isImageBuildTime()) { terminalWidthDetection(); }
+            }
+            private static boolean isImageBuildTime() {
+                return "buildtime".equals(System.getProperty("org.graalvm.nativeimage.imagecode"));
+            }
+            /** Returns the detection of the terminal width, after starting it in a background thread if it was not started yet. */
+            private static synchronized Future<Integer> terminalWidthDetection() {
+                if (terminalWidth == null) {
+                    terminalWidth = new FutureTask<Integer>(new Callable<Integer>() {
+                        public Integer call() {
+                            return (Help.Ansi.isTTY() || Help.Ansi.isPseudoTTY()) ? detectTerminalWidth() : -1;
+                        }
+                    });
+                    Thread thread = new Thread(terminalWidth, "picocli-terminal-width");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                return terminalWidth;
             }
             private static int detectTerminalWidth() {
                 long start = System.nanoTime();
-                final Tracer tracer = new Tracer();
-                final AtomicInteger size = new AtomicInteger(-1);
-                final String[] cmd = (Help.Ansi.isWindows() && !Help.Ansi.isPseudoTTY())
+                Tracer tracer = new Tracer();
+                int size = -1;
+                String[] cmd = (Help.Ansi.isWindows() && !Help.Ansi.isPseudoTTY())
                         ? new String[] {"cmd.exe", "/c", "mode con"}
                         : (Help.Ansi.isMac()
                                 ? new String[] {"stty", "-a", "-f", "/dev/tty"}
                                 : new String[] {"stty", "-a", "-F", "/dev/tty"});
-                Thread t = new Thread(new Runnable() {
-                    public void run() {
-                        Process proc = null;
-                        BufferedReader reader = null;
-                        try {
-                            ProcessBuilder pb = new ProcessBuilder(cmd);
-                            tracer.debug("getTerminalWidth() executing command %s%n", pb.command());
-                            //proc = Runtime.getRuntime().exec(new String[] { "sh", "-c", "tput cols 2> /dev/tty" });
-                            Class<?> redirectClass = Class.forName("java.lang.ProcessBuilder$Redirect");
-                            Object INHERIT = redirectClass.getField("INHERIT").get(null);
-                            Method redirectError = ProcessBuilder.class.getDeclaredMethod("redirectError", redirectClass);
-                            redirectError.invoke(pb, INHERIT);
-                            proc = pb.start();
-                            reader = new BufferedReader(new InputStreamReader(proc.getInputStream()));
-                            String line = null;
-                            String txt = "";
-                            while ((line = reader.readLine()) != null) {
-                                txt += " " + line;
-                            }
-                            tracer.debug("getTerminalWidth() parsing output: %s%n", txt);
-                            Pattern pattern = Pattern.compile(".*olumns(:)?\\s+(\\d+)\\D.*", Pattern.DOTALL);
-                            Matcher matcher = pattern.matcher(txt);
-                            if (matcher.matches()) {
-                                size.set(Integer.parseInt(matcher.group(2)));
-                            }
-                        } catch (Exception ignored) { // nothing to do...
-                            tracer.debug("getTerminalWidth() ERROR: %s%n", ignored);
-                        } finally {
-                            if (proc != null) { proc.destroy(); }
-                            close(reader);
-                        }
+                Process proc = null;
+                BufferedReader reader = null;
+                try {
+                    ProcessBuilder pb = new ProcessBuilder(cmd);
+                    tracer.debug("getTerminalWidth() executing command %s%n", pb.command());
+                    //proc = Runtime.getRuntime().exec(new String[] { "sh", "-c", "tput cols 2> /dev/tty" });
+                    Class<?> redirectClass = Class.forName("java.lang.ProcessBuilder$Redirect");
+                    Object INHERIT = redirectClass.getField("INHERIT").get(null);
+                    Method redirectError = ProcessBuilder.class.getDeclaredMethod("redirectError", redirectClass);
+                    redirectError.invoke(pb, INHERIT);
+                    proc = pb.start();
+                    reader = new BufferedReader(new InputStreamReader(proc.getInputStream()));
+                    String line = null;
+                    StringBuilder txt = new StringBuilder();
+                    while ((line = reader.readLine()) != null) {
+                        txt.append(' ').append(line);
                     }
-                });
-                t.start();
-                long now = System.currentTimeMillis();
-                do {
-                    if (size.intValue() >= 0) { break; }
-                    try { Thread.sleep(25); } catch (InterruptedException ignored) {}
-                } while (System.currentTimeMillis() < now + 2000);
+                    tracer.debug("getTerminalWidth() parsing output: %s%n", txt);
+                    Pattern pattern = Pattern.compile(".*olumns(:)?\\s+(\\d+)\\D.*", Pattern.DOTALL);
+                    Matcher matcher = pattern.matcher(txt);
+                    if (matcher.matches()) {
+                        size = Integer.parseInt(matcher.group(2));
+                    }
+                } catch (Exception ignored) { // nothing to do...
+                    tracer.debug("getTerminalWidth() ERROR: %s%n", ignored);
+                } finally {
+                    if (proc != null) { proc.destroy(); }
+                    close(reader);
+                }
                 double duration = (System.nanoTime() - start) / 1000000.0;
                 tracer.debug("getTerminalWidth() returning: %s in %,.1fms%n", size, duration);
-                return size.intValue();
+                return size;
+            }
+
+            /** Discards the terminal width that was detected for {@linkplain #autoWidth() auto-width} usage help messages,
+             * and starts detecting it again in a background thread.
+             * The terminal width is detected once and shared by all commands in the JVM. Applications whose terminal
+             * may be resized while they are running, like interactive shells, can call this method when the terminal size changes
+             * (for example, on a {@code SIGWINCH} signal).
+             * A width specified in the {@code COLUMNS} environment variable takes precedence over the detected width.
+             * @since 4.3 */
+            public static void refreshTerminalWidth() {
+                synchronized (UsageMessageSpec.class) { terminalWidth = null; }
+                detectTerminalWidthInBackground();
             }
 
             /** Returns the maximum usage help message width. Derived from system property {@code "picocli.usage.width"}
@@ -6642,7 +7314,69 @@ public class CommandLine {
              * @param detectTerminalSize whether picocli should attempt to detect the terminal size
              * @see Command#usageHelpAutoWidth()
              * @since 4.0 */
-            public UsageMessageSpec autoWidth(boolean detectTerminalSize) { autoWidth = detectTerminalSize; return this; }
+            public UsageMessageSpec autoWidth(boolean detectTerminalSize) { autoWidth = detectTerminalSize; return modified(); }
+
+            /** Returns whether the rendered usage help message is cached, so that printing the usage help again for the same
+             * width, ANSI mode, color scheme and default locale does not render all sections again. The default is {@code false}.
+             * @see #cacheUsageHelp(boolean)
+             * @since 4.3 */
+            public boolean cacheUsageHelp() { return cacheUsageHelp; }
+
+            /** Sets whether the rendered usage help message should be cached. The default is {@code false}.
+             * <p>
+             * A cached message is discarded when this {@code UsageMessageSpec}, the command's options, positional parameters,
+             * subcommands or other usage help related attributes of the {@code CommandSpec} are modified,
+             * or when the {@linkplain #sectionMap() section map} is changed.
+             * Cached messages are not discarded when the values of variables, the default values returned by a
+             * {@linkplain CommandSpec#defaultValueProvider() default value provider} or the output of custom section renderers
+             * change, so applications that rely on these being evaluated for every usage help request should not enable the cache.
+             * </p>
+             * @param newValue whether to cache the rendered usage help message
+             * @return this {@code UsageMessageSpec} for method chaining
+             * @since 4.3 */
+            public UsageMessageSpec cacheUsageHelp(boolean newValue) {
+                cacheUsageHelp = newValue;
+                synchronized (usageHelpCache) { usageHelpCache.clear(); }
+                return this;
+            }
+
+            /** Returns the usage help message that was cached for the specified command and color scheme, or renders it with the
+             * specified {@code CommandLine} (and caches it, if caching is enabled) otherwise. */
+            String usageHelp(CommandLine commandLine, Help.ColorScheme colorScheme) {
+                if (!cacheUsageHelp) { return commandLine.renderUsageHelp(colorScheme); }
+                CommandSpec spec = commandLine.getCommandSpec();
+                long version = modCount; // includes modifications of the subcommands, whose names and descriptions are in the command list
+                List<Object> key = Arrays.<Object>asList(width(), colorScheme.ansi().enabled(), Locale.getDefault(),
+                        spec.parser().separator(), spec.parser().expandAtFiles(), spec.parser().limitSplit(), spec.qualifiedName(),
+                        colorScheme.commandStyles(), colorScheme.optionStyles(), colorScheme.parameterStyles(),
+                        colorScheme.optionParamStyles(), colorScheme.customMarkupMap(),
+                        new LinkedHashMap<String, IHelpSectionRenderer>(helpSectionRendererMap));
+                synchronized (usageHelpCache) {
+                    if (version != usageHelpCacheVersion) {
+                        usageHelpCache.clear();
+                        usageHelpCacheVersion = version;
+                    }
+                    String result = usageHelpCache.get(key);
+                    if (result != null) { return result; }
+                }
+                String result = commandLine.renderUsageHelp(colorScheme);
+                synchronized (usageHelpCache) {
+                    if (version == usageHelpCacheVersion) {
+                        if (usageHelpCache.size() >= MAX_CACHED_USAGE_HELP_MESSAGES) { usageHelpCache.clear(); }
+                        usageHelpCache.put(key, result);
+                    }
+                }
+                return result;
+            }
+
+            /** Records that an attribute affecting the usage help message was modified, so cached messages of this command
+             * and the commands above it in the hierarchy are no longer used. */
+            UsageMessageSpec modified() {
+                modCount++;
+                CommandSpec parent = interpolator == null ? null : interpolator.commandSpec.parent();
+                if (parent != null) { parent.usageMessage.modified(); }
+                return this;
+            }
             /**
              * Given a character, is this character considered to be a CJK character?
              * Shamelessly stolen from
@@ -6691,15 +7425,21 @@ public class CommandLine {
                 //e.g. [@<filename>...] One or more argument files containing options.
                 result.put(SECTION_KEY_AT_FILE_PARAMETER,      new IHelpSectionRenderer() { public String render(Help help) { return help.atFileParameterList(); } });
                 //e.g. [FILE...] the files to convert
-                result.put(SECTION_KEY_PARAMETER_LIST,         new IHelpSectionRenderer() { public String render(Help help) { return help.parameterList(); } });
+                result.put(SECTION_KEY_PARAMETER_LIST,         new IStreamingHelpSectionRenderer() {
+                    public String render(Help help) { return help.parameterList(); }
+                    public void render(Help help, Appendable destination) throws IOException { help.parameterList(destination); } });
                 //e.g. %nOptions:%n%n
                 result.put(SECTION_KEY_OPTION_LIST_HEADING,    new IHelpSectionRenderer() { public String render(Help help) { return help.optionListHeading(); } });
                 //e.g. -h, --help   displays this help and exits
-                result.put(SECTION_KEY_OPTION_LIST,            new IHelpSectionRenderer() { public String render(Help help) { return help.optionList(); } });
+                result.put(SECTION_KEY_OPTION_LIST,            new IStreamingHelpSectionRenderer() {
+                    public String render(Help help) { return help.optionList(); }
+                    public void render(Help help, Appendable destination) throws IOException { help.optionList(destination); } });
                 //e.g. %nCommands:%n%n
                 result.put(SECTION_KEY_COMMAND_LIST_HEADING,   new IHelpSectionRenderer() { public String render(Help help) { return help.commandListHeading(); } });
                 //e.g.    add       adds the frup to the frooble
-                result.put(SECTION_KEY_COMMAND_LIST,           new IHelpSectionRenderer() { public String render(Help help) { return help.commandList(); } });
+                result.put(SECTION_KEY_COMMAND_LIST,           new IStreamingHelpSectionRenderer() {
+                    public String render(Help help) { return help.commandList(); }
+                    public void render(Help help, Appendable destination) throws IOException { help.commandList(destination); } });
                 result.put(SECTION_KEY_EXIT_CODE_LIST_HEADING, new IHelpSectionRenderer() { public String render(Help help) { return help.exitCodeListHeading(); } });
                 result.put(SECTION_KEY_EXIT_CODE_LIST,         new IHelpSectionRenderer() { public String render(Help help) { return help.exitCodeList(); } });
                 result.put(SECTION_KEY_FOOTER_HEADING,         new IHelpSectionRenderer() { public String render(Help help) { return help.footerHeading(); } });
@@ -6738,7 +7478,7 @@ public class CommandLine {
              * @see #sectionKeys
              * @since 3.9
              */
-            public UsageMessageSpec sectionKeys(List<String> keys) { sectionKeys = Collections.unmodifiableList(new ArrayList<String>(keys)); return this; }
+            public UsageMessageSpec sectionKeys(List<String> keys) { sectionKeys = Collections.unmodifiableList(new ArrayList<String>(keys)); return modified(); }
 
             /**
              * Returns the map of section keys and renderers used to construct the usage help message.
@@ -6758,7 +7498,7 @@ public class CommandLine {
              * @see #setHelpSectionMap(Map)
              * @since 3.9
              */
-            public UsageMessageSpec sectionMap(Map<String, IHelpSectionRenderer> map) { this.helpSectionRendererMap = new LinkedHashMap<String, IHelpSectionRenderer>(map); return this; }
+            public UsageMessageSpec sectionMap(Map<String, IHelpSectionRenderer> map) { this.helpSectionRendererMap = new LinkedHashMap<String, IHelpSectionRenderer>(map); return modified(); }
 
             /** Returns the {@code IHelpFactory} that is used to construct the usage help message.
              * @see #setHelpFactory(IHelpFactory)
@@ -6777,7 +7517,7 @@ public class CommandLine {
              */
             public UsageMessageSpec helpFactory(IHelpFactory helpFactory) {
                 this.helpFactory = Assert.notNull(helpFactory, "helpFactory");
-                return this;
+                return modified();
             }
 
             private String   interpolate(String value)    { return interpolator == null ? value  : interpolator.interpolate(value); }
@@ -6920,21 +7660,21 @@ public class CommandLine {
 
             /** Sets the heading preceding the header section. Initialized from {@link Command#headerHeading()}, or null.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec headerHeading(String headerHeading) { this.headerHeading = headerHeading; return this; }
+            public UsageMessageSpec headerHeading(String headerHeading) { this.headerHeading = headerHeading; return modified(); }
 
             /** Sets the optional header lines displayed at the top of the help message. For subcommands, the first header line is
              * displayed in the list of commands.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec header(String... header) { this.header = header; return this; }
+            public UsageMessageSpec header(String... header) { this.header = header; return modified(); }
 
             /** Sets the optional heading preceding the synopsis.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec synopsisHeading(String newValue) {synopsisHeading = newValue; return this;}
+            public UsageMessageSpec synopsisHeading(String newValue) {synopsisHeading = newValue; return modified();}
 
             /** Sets the String representing the subcommands in the synopsis.
              * @return this UsageMessageSpec for method chaining
              * @since 4.0 */
-            public UsageMessageSpec synopsisSubcommandLabel(String newValue) {synopsisSubcommandLabel = newValue; return this;}
+            public UsageMessageSpec synopsisSubcommandLabel(String newValue) {synopsisSubcommandLabel = newValue; return modified();}
 
             /** Sets the fraction of the usage help {@link #width()} that is the threshold up to which
              * the 2nd line and subsequent lines of a multi-line synopsis should be aligned to the end of the command name.
@@ -6950,7 +7690,7 @@ public class CommandLine {
                     throw new IllegalArgumentException("synopsisAutoIndentThreshold must be between 0.0 and 0.9 (inclusive), but was " + newValue);
                 }
                 synopsisAutoIndentThreshold = newValue;
-                return this;
+                return modified();
             }
 
             /** Sets the indentation to use on the 2nd line and subsequent lines of a multi-line synopsis
@@ -6959,65 +7699,70 @@ public class CommandLine {
              * A positive value means the exact number of spaces to indent for the 2nd line and subsequent lines of the synopsis.
              * @return this UsageMessageSpec for method chaining
              * @since 4.0 */
-            public UsageMessageSpec synopsisIndent(int newValue) {synopsisIndent = newValue; return this;}
+            public UsageMessageSpec synopsisIndent(int newValue) {synopsisIndent = newValue; return modified();}
 
             /** Sets whether the synopsis line(s) should show an abbreviated synopsis without detailed option names.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec abbreviateSynopsis(boolean newValue) {abbreviateSynopsis = newValue; return this;}
+            public UsageMessageSpec abbreviateSynopsis(boolean newValue) {abbreviateSynopsis = newValue; return modified();}
 
             /** Sets the optional custom synopsis lines to use instead of the auto-generated synopsis.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec customSynopsis(String... customSynopsis) { this.customSynopsis = customSynopsis; return this; }
+            public UsageMessageSpec customSynopsis(String... customSynopsis) { this.customSynopsis = customSynopsis; return modified(); }
 
             /** Sets the heading preceding the description section.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec descriptionHeading(String newValue) {descriptionHeading = newValue; return this;}
+            public UsageMessageSpec descriptionHeading(String newValue) {descriptionHeading = newValue; return modified();}
 
             /** Sets the optional text lines to use as the description of the help message, displayed between the synopsis and the
              * options list.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec description(String... description) { this.description = description; return this; }
+            public UsageMessageSpec description(String... description) { this.description = description; return modified(); }
 
             /** Sets the optional heading preceding the parameter list.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec parameterListHeading(String newValue) {parameterListHeading = newValue; return this;}
+            public UsageMessageSpec parameterListHeading(String newValue) {parameterListHeading = newValue; return modified();}
 
             /** Sets the heading preceding the options list.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec optionListHeading(String newValue) {optionListHeading = newValue; return this;}
+            public UsageMessageSpec optionListHeading(String newValue) {optionListHeading = newValue; return modified();}
 
             /** Sets whether the options list in the usage help message should be sorted alphabetically.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec sortOptions(boolean newValue) {sortOptions = newValue; return this;}
+            public UsageMessageSpec sortOptions(boolean newValue) {sortOptions = newValue; return modified();}
 
             /** Sets the character used to prefix required options in the options list.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec requiredOptionMarker(char newValue) {requiredOptionMarker = newValue; return this;}
+            public UsageMessageSpec requiredOptionMarker(char newValue) {requiredOptionMarker = newValue; return modified();}
 
             /** Sets whether the options list in the usage help message should show default values for all non-boolean options.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec showDefaultValues(boolean newValue) {showDefaultValues = newValue; return this;}
+            public UsageMessageSpec showDefaultValues(boolean newValue) {showDefaultValues = newValue; return modified();}
 
             /** Sets whether to show a {@code [@<filename>...]} entry in the synopsis and parameter list of the usage help message.
              * (The entry is not shown if {@linkplain CommandLine#isExpandAtFiles() expanding parameter files} is disabled.)
              * @see Command#showAtFileInUsageHelp()
              * @return this UsageMessageSpec for method chaining
              * @since 4.2*/
-            public UsageMessageSpec showAtFileInUsageHelp(boolean newValue) {showAtFileInUsageHelp = newValue; return this;}
+            public UsageMessageSpec showAtFileInUsageHelp(boolean newValue) {showAtFileInUsageHelp = newValue; return modified();}
             /**
              * Set the hidden flag on this command to control whether to show or hide it in the help usage text of the parent command.
              * @param value enable or disable the hidden flag
              * @return this UsageMessageSpec for method chaining
              * @see Command#hidden() */
-            public UsageMessageSpec hidden(boolean value) { hidden = value; return this; }
+            public UsageMessageSpec hidden(boolean value) {
+                hidden = value;
+                CommandSpec parent = interpolator == null ? null : interpolator.commandSpec.parent();
+                if (parent != null) { parent.modified(); } // the parent suggests and lists only the visible subcommands
+                return modified();
+            }
 
             /** Sets the optional heading preceding the subcommand list.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec commandListHeading(String newValue) {commandListHeading = newValue; return this;}
+            public UsageMessageSpec commandListHeading(String newValue) {commandListHeading = newValue; return modified();}
 
             /** Sets the optional heading preceding the exit codes section, may contain {@code "%n"} line separators. {@code ""} (empty string) by default.
              * @since 4.0 */
-            public UsageMessageSpec exitCodeListHeading(String newValue) { exitCodeListHeading = newValue; return this;}
+            public UsageMessageSpec exitCodeListHeading(String newValue) { exitCodeListHeading = newValue; return modified();}
 
             /** Sets the values to be displayed in the exit codes section: keys are exit codes, values are descriptions.
              * Descriptions may contain {@code "%n"} line separators.
@@ -7030,15 +7775,15 @@ public class CommandLine {
              * @param newValue a map with values to be displayed in the exit codes section
              * @see #keyValuesMap(String...)
              * @since 4.0 */
-            public UsageMessageSpec exitCodeList(Map<String, String> newValue) { exitCodeList = newValue == null ? null : Collections.unmodifiableMap(new LinkedHashMap<String, String>(newValue)); return this;}
+            public UsageMessageSpec exitCodeList(Map<String, String> newValue) { exitCodeList = newValue == null ? null : Collections.unmodifiableMap(new LinkedHashMap<String, String>(newValue)); return modified();}
 
             /** Sets the optional heading preceding the footer section.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec footerHeading(String newValue) {footerHeading = newValue; return this;}
+            public UsageMessageSpec footerHeading(String newValue) {footerHeading = newValue; return modified();}
 
             /** Sets the optional footer text lines displayed at the bottom of the help message.
              * @return this UsageMessageSpec for method chaining */
-            public UsageMessageSpec footer(String... footer) { this.footer = footer; return this; }
+            public UsageMessageSpec footer(String... footer) { this.footer = footer; return modified(); }
             /** Returns the Messages for this usage help message specification, or {@code null}.
              * @return the Messages object that encapsulates this {@linkplain CommandSpec#resourceBundle() command's resource bundle}
              * @since 3.6 */
@@ -7046,7 +7791,11 @@ public class CommandLine {
             /** Sets the Messages for this usageMessage specification, and returns this UsageMessageSpec.
              * @param msgs the new Messages value that encapsulates this {@linkplain CommandSpec#resourceBundle() command's resource bundle}, may be {@code null}
              * @since 3.6 */
-            public UsageMessageSpec messages(Messages msgs) { messages = msgs; return this; }
+            public UsageMessageSpec messages(Messages msgs) {
+                messages = msgs;
+                if (interpolator != null) { interpolator.commandSpec.interpolationModified(); }
+                return modified();
+            }
             /**
              * Returns whether line breaks should take wide Chinese, Japanese and Korean characters into account for line-breaking purposes.
              * @return true if wide Chinese, Japanese and Korean characters are counted as double the size of other characters for line-breaking purposes
@@ -7055,7 +7804,7 @@ public class CommandLine {
             /** Sets whether line breaks should take wide Chinese, Japanese and Korean characters into account, and returns this UsageMessageSpec.
              * @param adjustForWideChars if true, wide Chinese, Japanese and Korean characters are counted as double the size of other characters for line-breaking purposes
              * @since 4.0 */
-            public UsageMessageSpec adjustLineBreaksForWideCJKCharacters(boolean adjustForWideChars) { adjustLineBreaksForWideCJKCharacters = adjustForWideChars; return this; }
+            public UsageMessageSpec adjustLineBreaksForWideCJKCharacters(boolean adjustForWideChars) { adjustLineBreaksForWideCJKCharacters = adjustForWideChars; return modified(); }
 
             void updateFromCommand(Command cmd, CommandSpec commandSpec, boolean loadResourceBundle) {
                 if (!empty(cmd.resourceBundle())) { // else preserve superclass bundle
@@ -7141,6 +7890,20 @@ public class CommandLine {
                 autoWidth = settings.autoWidth;
                 messages = Messages.copy(commandSpec, settings.messages());
                 adjustLineBreaksForWideCJKCharacters = settings.adjustLineBreaksForWideCJKCharacters;
+                modified();
+            }
+            /** Initializes all attributes of this usage message from the specified settings, including the attributes that
+             * {@link #initFrom(UsageMessageSpec, CommandSpec)} does not copy. */
+            void copyFrom(UsageMessageSpec settings, CommandSpec commandSpec) {
+                initFrom(settings, commandSpec);
+                helpFactory = settings.helpFactory;
+                sectionKeys = settings.sectionKeys;
+                helpSectionRendererMap = new LinkedHashMap<String, IHelpSectionRenderer>(settings.helpSectionRendererMap);
+                exitCodeListHeading = settings.exitCodeListHeading;
+                exitCodeListStrings = settings.exitCodeListStrings;
+                exitCodeList = settings.exitCodeList;
+                longOptionsMaxWidth = settings.longOptionsMaxWidth;
+                cacheUsageHelp = settings.cacheUsageHelp;
             }
         }
         /** Models parser configuration specification.
@@ -7159,6 +7922,8 @@ public class CommandLine {
             private boolean expandAtFiles = true;
             private boolean useSimplifiedAtFiles = false;
             private Character atFileCommentChar = '#';
+            private Charset atFileCharset;
+            private AtFileCache atFileCache;
             private boolean posixClusteredShortOptionsAllowed = true;
             private boolean unmatchedOptionsArePositionalParams = false;
             private boolean limitSplit = false;
@@ -7190,6 +7955,12 @@ public class CommandLine {
             /** @see CommandLine#getAtFileCommentChar()
              * @since 3.5 */
             public Character atFileCommentChar()               { return atFileCommentChar; }
+            /** @see CommandLine#getAtFileCharset()
+             * @since 4.3 */
+            public Charset atFileCharset()                     { return atFileCharset == null ? Charset.defaultCharset() : atFileCharset; }
+            /** @see CommandLine#getAtFileCache()
+             * @since 4.3 */
+            public AtFileCache atFileCache()                   { return atFileCache; }
             /** @see CommandLine#isUseSimplifiedAtFiles()
              * @since 3.9 */
             public boolean useSimplifiedAtFiles()              {
@@ -7244,6 +8015,12 @@ public class CommandLine {
             /** @see CommandLine#setAtFileCommentChar(Character)
              * @since 3.5 */
             public ParserSpec atFileCommentChar(Character atFileCommentChar)               { this.atFileCommentChar = atFileCommentChar; return this; }
+            /** @see CommandLine#setAtFileCharset(Charset)
+             * @since 4.3 */
+            public ParserSpec atFileCharset(Charset atFileCharset)                         { this.atFileCharset = atFileCharset; return this; }
+            /** @see CommandLine#setAtFileCache(AtFileCache)
+             * @since 4.3 */
+            public ParserSpec atFileCache(AtFileCache atFileCache)                         { this.atFileCache = atFileCache; return this; }
             /** @see CommandLine#setUseSimplifiedAtFiles(boolean)
              * @since 3.9 */
             public ParserSpec useSimplifiedAtFiles(boolean useSimplifiedAtFiles)           { this.useSimplifiedAtFiles = useSimplifiedAtFiles; return this; }
@@ -7303,6 +8080,8 @@ public class CommandLine {
                 unmatchedArgumentsAllowed = settings.unmatchedArgumentsAllowed;
                 expandAtFiles = settings.expandAtFiles;
                 atFileCommentChar = settings.atFileCommentChar;
+                atFileCharset = settings.atFileCharset;
+                atFileCache = settings.atFileCache;
                 posixClusteredShortOptionsAllowed = settings.posixClusteredShortOptionsAllowed;
                 unmatchedOptionsArePositionalParams = settings.unmatchedOptionsArePositionalParams;
                 limitSplit = settings.limitSplit;
@@ -7354,7 +8133,6 @@ public class CommandLine {
             private List<String> originalStringValues = new ArrayList<String>();
             protected String toString;
             private List<Object> typedValues = new ArrayList<Object>();
-            Map<Integer, Object> typedValueAtPosition = new TreeMap<Integer, Object>();
 
             /** Constructs a new {@code ArgSpec}. */
             private <T extends Builder<T>> ArgSpec(Builder<T> builder) {
@@ -7566,8 +8344,8 @@ public class CommandLine {
              * the option will be reset to the initial value before parsing (regardless of whether a default value exists),
              * to clear values that would otherwise remain from parsing previous input. */
             public Object initialValue()   {
-                if (!isInitialValueCached && source != null) {
-                    try { initialValue = source.getter().get(); } catch (Exception ex) { }
+                if (!isInitialValueCached && (source != null || getter instanceof GeneratedFieldBinding)) {
+                    try { initialValue = (source != null ? source.getter() : getter).get(); } catch (Exception ex) { }
                     isInitialValueCached = true;
                 }
                 return initialValue;
@@ -7662,6 +8440,14 @@ public class CommandLine {
                 } catch (Exception ex) {        throw new PicocliException("Could not set value (" + newValue + ") for " + this + ": " + ex, ex);
                 }
             }
+            /** Sets the value of this argument to the specified value, without reading the previous value if the setter allows it. */
+            void assignValue(Object newValue) throws PicocliException {
+                if (setter instanceof FieldBinding) {
+                    ((FieldBinding) setter).assign(newValue);
+                } else {
+                    setValue(newValue);
+                }
+            }
             /** Sets the value of this argument to the specified value and returns the previous value. Delegates to the current {@link #setter()}.
              * @deprecated use {@link #setValue(Object)} instead. This was a design mistake.
              * @since 3.5 */
@@ -8954,17 +9740,18 @@ public class CommandLine {
             }
             private static String quote(String s) { return s == null ? "null" : "'" + s + "'"; }
 
-            void initUserObject(CommandLine commandLine) {
-                if (commandLine == null) { new Tracer().debug("Could not create user object for %s with null CommandLine%n.", this); }
+            void initUserObject(ParseContext context) {
+                if (context == null) { new Tracer().debug("Could not create user object for %s with null CommandLine%n.", this); }
                 try {
-                    tryInitUserObject(commandLine);
+                    tryInitUserObject(context);
                 } catch (PicocliException ex) {
                     throw ex;
                 } catch (Exception ex) {
                     throw new InitializationException("Could not create user object for " + this, ex);
                 }
             }
-            void tryInitUserObject(CommandLine commandLine) throws Exception {
+            void tryInitUserObject(ParseContext context) throws Exception {
+                CommandLine commandLine = context.commandLine();
                 Tracer tracer = commandLine.tracer;
                 if (typeInfo() != null) {
                     tracer.debug("Creating new user object of type %s for group %s%n", typeInfo().getAuxiliaryTypes()[0], synopsis());
@@ -8974,10 +9761,10 @@ public class CommandLine {
                     for (ArgSpec arg : args()) {
                         tracer.debug("Initializing %s in group %s: setting scope to user object %s and initializing initial and default values%n", ArgSpec.describe(arg, "="), synopsis(), userObject);
                         arg.scope().set(userObject); // flip the actual user object for the arg (and all other args in this group; they share the same IScope instance)
-                        commandLine.interpreter.parseResultBuilder.isInitializingDefaultValues = true;
+                        context.builder.isInitializingDefaultValues = true;
                         arg.applyInitialValue(tracer);
-                        commandLine.interpreter.applyDefault(commandLine.getCommandSpec().defaultValueProvider(), arg);
-                        commandLine.interpreter.parseResultBuilder.isInitializingDefaultValues = false;
+                        commandLine.interpreter.applyDefault(context, commandLine.getCommandSpec().defaultValueProvider(), arg);
+                        context.builder.isInitializingDefaultValues = false;
                     }
                     for (ArgGroupSpec subgroup : subgroups()) {
                         tracer.debug("Setting scope for subgroup %s with setter=%s in group %s to user object %s%n", subgroup.synopsis(), subgroup.setter(), synopsis(), userObject);
@@ -9318,6 +10105,48 @@ public class CommandLine {
             @Override public String toString() { return method.toString() + ":" + getName(); }
         }
 
+        /** Provides the options and positional parameters of a class and direct access to its annotated fields, so that
+         * picocli can build the model for the class without reflection.
+         * <p>
+         * Implementations are generated at compile time by the {@code picocli.codegen.aot.model.GeneratedClassProcessor}
+         * annotation processor in the {@code picocli-codegen} module, and registered as services in
+         * {@code META-INF/services/picocli.CommandLine$Model$IGeneratedClass}. Generated classes are only used if the
+         * {@code picocli.useGeneratedClasses} system property is set to {@code true}. When picocli then needs the options and positional
+         * parameters of a class, it first looks for a generated implementation with the {@code ServiceLoader} of the class
+         * loader of that class, and only inspects the class fields with reflection if no generated implementation was found.
+         * The resulting {@link CommandSpec} is the same either way.
+         * </p>
+         * @since 4.3 */
+        public interface IGeneratedClass {
+            /** Returns the class described by this object. */
+            Class<?> getType();
+            /** Returns the fields declared in the class (not the inherited fields) that have picocli annotations, in declaration order. */
+            IGeneratedField[] getFields();
+            /** Returns a new instance of the class created with its no-argument constructor,
+             * or {@code null} if the class does not have an accessible no-argument constructor. */
+            Object newInstance();
+        }
+
+        /** A field annotated with {@code @Option} or {@code @Parameters}, whose model is built and whose value is accessed
+         * by generated code instead of by reflection.
+         * @see IGeneratedClass
+         * @since 4.3 */
+        public interface IGeneratedField {
+            /** Returns the name of the field. */
+            String getName();
+            /** Returns the declared type of the field. */
+            Class<?> getType();
+            /** Returns a new {@code OptionSpec} or {@code PositionalParamSpec} with the attributes of the annotation on this field.
+             * The returned spec is not bound to the field yet; picocli binds it to the field in the instance of the command.
+             * @param factory the factory to use to instantiate converters, completion candidates and parameter consumers
+             * @throws Exception if a converter, completion candidates or parameter consumer could not be instantiated */
+            ArgSpec createArgSpec(IFactory factory) throws Exception;
+            /** Returns the value of this field in the specified instance of the declaring class. */
+            Object get(Object instance);
+            /** Sets the value of this field in the specified instance of the declaring class to the specified value. */
+            void set(Object instance, Object value);
+        }
+
         /** Encapculates type information for an option or parameter to make this information available both at runtime
          * and at compile time (when {@code Class} values are not available).
          * Most of the methods in this interface (but not all!) are safe to use by annotation processors.
@@ -9409,6 +10238,8 @@ public class CommandLine {
                         auxiliaryTypes = new Class<?>[] {interactive ? char[].class : String.class}; // use String elements
                     } else if (Map.class.isAssignableFrom(type)) { // type is a map but element type is unspecified
                         auxiliaryTypes = new Class<?>[] {String.class, String.class}; // use String keys and String values
+                    } else if (IParameterSink.class.isAssignableFrom(type)) { // element type may be bound by a superclass or interface
+                        auxiliaryTypes = new Class<?>[] {sinkElementType(type)};
                     } else {
                         auxiliaryTypes = new Class<?>[] {type};
                     }
@@ -9418,6 +10249,9 @@ public class CommandLine {
             static Class<?>[] inferTypes(Class<?> propertyType, Class<?>[] annotationTypes, Type genericType) {
                 if (annotationTypes != null && annotationTypes.length > 0) { return annotationTypes; }
                 if (propertyType.isArray()) { return new Class<?>[] { propertyType.getComponentType() }; }
+                if (IParameterSink.class.isAssignableFrom(propertyType)) {
+                    return new Class<?>[] { sinkElementType(genericType == null ? propertyType : genericType) };
+                }
                 if (CommandLine.isMultiValue(propertyType)) {
                     if (genericType instanceof ParameterizedType) {// e.g. Map<Long, ? extends Number>
                         return extractTypeParameters((ParameterizedType) genericType);
@@ -9427,10 +10261,54 @@ public class CommandLine {
                 return new Class<?>[] {propertyType}; // not a multi-value field
             }
 
-            static Class<?>[] extractTypeParameters(ParameterizedType genericType) {
-                ParameterizedType parameterizedType = genericType;
-                Type[] paramTypes = parameterizedType.getActualTypeArguments(); // e.g. ? extends Number
-                Class<?>[] result = new Class<?>[paramTypes.length];
+            /** Returns the type argument {@code T} of {@code IParameterSink<T>} for the specified sink type, which may be a
+             * parameterized type like {@code IParameterSink<File>}, or a class that binds {@code T} in one of its
+             * superclasses or interfaces, like {@code class FileSink implements IParameterSink<File>}.
+             * Returns {@code String} if the sink type is raw.
+             * @throws InitializationException if {@code T} is a type variable that is not bound by the specified type */
+            static Class<?> sinkElementType(Type sinkType) {
+                Type result = sinkTypeArgument(sinkType, new HashMap<TypeVariable<?>, Type>());
+                if (result == null) { return String.class; } // raw type
+                while (result instanceof WildcardType) { // e.g. ? extends Number
+                    WildcardType wildcardType = (WildcardType) result;
+                    result = wildcardType.getLowerBounds().length > 0 ? wildcardType.getLowerBounds()[0] : wildcardType.getUpperBounds()[0];
+                }
+                if (result instanceof Class) { return (Class<?>) result; }
+                if (result instanceof ParameterizedType) { return (Class<?>) ((ParameterizedType) result).getRawType(); }
+                if (result instanceof GenericArrayType && char.class.equals(((GenericArrayType) result).getGenericComponentType())) { return char[].class; }
+                throw new InitializationException("Cannot infer the element type of " + sinkType + ": its IParameterSink type argument is " +
+                        result + ". Specify the element type with the 'type' attribute of the annotation.");
+            }
+            private static Type sinkTypeArgument(Type type, Map<TypeVariable<?>, Type> bindings) {
+                Class<?> raw;
+                if (type instanceof ParameterizedType) {
+                    ParameterizedType parameterizedType = (ParameterizedType) type;
+                    raw = (Class<?>) parameterizedType.getRawType();
+                    Type[] arguments = parameterizedType.getActualTypeArguments();
+                    TypeVariable<?>[] variables = raw.getTypeParameters();
+                    for (int i = 0; i < variables.length; i++) {
+                        Type argument = arguments[i];
+                        while (argument instanceof TypeVariable && bindings.containsKey(argument)) { argument = bindings.get(argument); }
+                        bindings.put(variables[i], argument);
+                    }
+                    if (raw == IParameterSink.class) { return bindings.get(variables[0]); }
+                } else if (type instanceof Class) {
+                    raw = (Class<?>) type;
+                } else {
+                    return null;
+                }
+                if (raw == IParameterSink.class || !IParameterSink.class.isAssignableFrom(raw)) { return null; }
+                for (Type superInterface : raw.getGenericInterfaces()) {
+                    Type result = sinkTypeArgument(superInterface, bindings);
+                    if (result != null) { return result; }
+                }
+                return raw.getGenericSuperclass() == null ? null : sinkTypeArgument(raw.getGenericSuperclass(), bindings);
+            }
+
+            static Class<?>[] extractTypeParameters(ParameterizedType genericType) {
+                ParameterizedType parameterizedType = genericType;
+                Type[] paramTypes = parameterizedType.getActualTypeArguments(); // e.g. ? extends Number
+                Class<?>[] result = new Class<?>[paramTypes.length];
                 for (int i = 0; i < paramTypes.length; i++) {
                     if (paramTypes[i] instanceof Class) { result[i] = (Class<?>) paramTypes[i]; continue; } // e.g. Long
                     else if (paramTypes[i] instanceof WildcardType) { // e.g. ? extends Number
@@ -9558,7 +10436,22 @@ public class CommandLine {
                 return isAnnotated(method) ? new TypedMember(method, scope, spec) : null;
             }
             private TypedMember(Method method, IScope scope, CommandSpec spec) {
+                this(method);
                 this.scope = scope;
+                if (hasInitialValue && ObjectScope.isProxyClass(scope)) {
+                    Object proxy = ObjectScope.tryGet(scope);
+                    PicocliInvocationHandler handler = (PicocliInvocationHandler) Proxy.getInvocationHandler(proxy);
+                    PicocliInvocationHandler.ProxyBinding binding = handler.new ProxyBinding(method);
+                    getter = binding; setter = binding;
+                    initializeInitialValue(method);
+                } else {
+                    //throw new IllegalArgumentException("Getter method but not a proxy: " + scope + ": " + method);
+                    MethodBinding binding = new MethodBinding(scope, method, spec);
+                    getter = binding; setter = binding;
+                }
+            }
+            /** Creates a member for the specified getter or setter method that is not bound to any scope yet. */
+            TypedMember(Method method) {
                 accessible = Assert.notNull(method, "method");
                 accessible.setAccessible(true);
                 name = propertyName(method.getName());
@@ -9566,27 +10459,29 @@ public class CommandLine {
                 boolean isGetter = parameterTypes.length == 0 && method.getReturnType() != Void.TYPE && method.getReturnType() != Void.class;
                 boolean isSetter = parameterTypes.length > 0;
                 if (isSetter == isGetter) { throw new InitializationException("Invalid method, must be either getter or setter: " + method); }
-                if (isGetter) {
-                    hasInitialValue = true;
-                    typeInfo = createTypeInfo(method.getReturnType(), method.getGenericReturnType());
-                    if (ObjectScope.isProxyClass(scope)) {
-                        Object proxy = ObjectScope.tryGet(scope);
-                        PicocliInvocationHandler handler = (PicocliInvocationHandler) Proxy.getInvocationHandler(proxy);
-                        PicocliInvocationHandler.ProxyBinding binding = handler.new ProxyBinding(method);
-                        getter = binding; setter = binding;
-                        initializeInitialValue(method);
-                    } else {
-                        //throw new IllegalArgumentException("Getter method but not a proxy: " + scope + ": " + method);
-                        MethodBinding binding = new MethodBinding(scope, method, spec);
-                        getter = binding; setter = binding;
-                    }
+                hasInitialValue = isGetter;
+                typeInfo = isGetter
+                        ? createTypeInfo(method.getReturnType(), method.getGenericReturnType())
+                        : createTypeInfo(parameterTypes[0], method.getGenericParameterTypes()[0]);
+            }
+            /** Creates a copy of the specified unbound field or method member that gets and sets its value on the specified scope.
+             * The scope must not be an interface proxy. */
+            private TypedMember(TypedMember prototype, IScope scope, CommandSpec spec) {
+                accessible = prototype.accessible;
+                name = prototype.name;
+                typeInfo = prototype.typeInfo;
+                hasInitialValue = prototype.hasInitialValue;
+                this.scope = scope;
+                if (accessible instanceof Field) {
+                    FieldBinding binding = new FieldBinding(scope, (Field) accessible);
+                    getter = binding; setter = binding;
+                    hasInitialValue &= ObjectScope.hasInstance(scope);
                 } else {
-                    hasInitialValue = false;
-                    typeInfo = createTypeInfo(parameterTypes[0], method.getGenericParameterTypes()[0]);
-                    MethodBinding binding = new MethodBinding(scope, method, spec);
+                    MethodBinding binding = new MethodBinding(scope, (Method) accessible, spec);
                     getter = binding; setter = binding;
                 }
             }
+            TypedMember bind(IScope scope, CommandSpec spec) { return new TypedMember(this, scope, spec); }
             TypedMember(MethodParam param, IScope scope) {
                 this.scope = scope;
                 accessible = Assert.notNull(param, "command method parameter");
@@ -9661,7 +10556,11 @@ public class CommandLine {
                 if (isMixin()) { return abbreviate("mixin from member " + toGenericString()); }
                 return (accessible instanceof Field ? "field " : accessible instanceof Method ? "method " : accessible.getClass().getSimpleName() + " ") + abbreviate(toGenericString());
             }
-            public String toGenericString() { return accessible instanceof Field ? ((Field) accessible).toGenericString() : accessible instanceof Method ? ((Method) accessible).toGenericString() : ((MethodParam)accessible).toString(); }
+            public String toGenericString() {
+                if (accessible instanceof Field)          { return ((Field) accessible).toGenericString(); }
+                if (accessible instanceof Method)         { return ((Method) accessible).toGenericString(); }
+                return ((MethodParam) accessible).toString();
+            }
             public boolean hasInitialValue()    { return hasInitialValue; }
             public boolean isMethodParameter()  { return accessible instanceof MethodParam; }
             public int getMethodParamPosition() { return isMethodParameter() ? ((MethodParam) accessible).position : -1; }
@@ -9744,10 +10643,13 @@ public class CommandLine {
          * @see CommandSpec#qualifiedName(String)
          * @since 3.6 */
         public static class Messages {
+            // the keys of each bundle are indexed once and shared by all Messages objects for that bundle
+            private static final Map<ResourceBundle, Set<String>> KEYS =
+                    Collections.synchronizedMap(new WeakHashMap<ResourceBundle, Set<String>>());
             private final CommandSpec spec;
             private final String bundleBaseName;
             private final ResourceBundle rb;
-            private final Set<String> keys;
+            private Set<String> keys;
             public Messages(CommandSpec spec, String baseName) {
                 this(spec, baseName, createBundle(baseName));
             }
@@ -9758,7 +10660,6 @@ public class CommandLine {
                 this.spec = Assert.notNull(spec, "CommandSpec");
                 this.bundleBaseName = baseName;
                 this.rb = rb;
-                this.keys = keys(rb);
                 if (rb != null) {
                     new Tracer().debug("Created Messages from resourceBundle[base=%s] for command '%s' (%s)%n", baseName, spec.name(), spec);
                 }
@@ -9773,8 +10674,18 @@ public class CommandLine {
             }
             private static Set<String> keys(ResourceBundle rb) {
                 if (rb == null) { return Collections.emptySet(); }
-                Set<String> keys = new LinkedHashSet<String>();
-                for (Enumeration<String> k = rb.getKeys(); k.hasMoreElements(); keys.add(k.nextElement()));
+                Set<String> keys = KEYS.get(rb);
+                if (keys == null) {
+                    keys = new HashSet<String>();
+                    for (Enumeration<String> k = rb.getKeys(); k.hasMoreElements(); keys.add(k.nextElement()));
+                    keys = Collections.unmodifiableSet(keys);
+                    KEYS.put(rb, keys);
+                }
+                return keys;
+            }
+            /** Returns the keys of the resource bundle, which are only indexed when a message is first looked up. */
+            private Set<String> keys() {
+                if (keys == null) { keys = keys(rb); }
                 return keys;
             }
 
@@ -9798,12 +10709,12 @@ public class CommandLine {
             public String getString(String key, String defaultValue) {
                 if (isEmpty()) { return defaultValue; }
                 String cmd = spec.qualifiedName(".");
-                if (keys.contains(cmd + "." + key)) { return rb.getString(cmd + "." + key); }
-                if (keys.contains(key)) { return rb.getString(key); }
+                if (keys().contains(cmd + "." + key)) { return rb.getString(cmd + "." + key); }
+                if (keys().contains(key)) { return rb.getString(key); }
                 return defaultValue;
             }
 
-            boolean isEmpty() { return rb == null || keys.isEmpty(); }
+            boolean isEmpty() { return rb == null || keys().isEmpty(); }
 
             /** Returns the String array value found in the resource bundle for the specified key, or the specified default value if not found.
              * Multi-line strings can be specified in the resource bundle with {@code key.0}, {@code key.1}, {@code key.2}, etc.
@@ -9815,9 +10726,9 @@ public class CommandLine {
             public String[] getStringArray(String key, String[] defaultValues) {
                 if (isEmpty()) { return defaultValues; }
                 String cmd = spec.qualifiedName(".");
-                List<String> result = addAllWithPrefix(rb, cmd + "." + key, keys, new ArrayList<String>());
+                List<String> result = addAllWithPrefix(rb, cmd + "." + key, keys(), new ArrayList<String>());
                 if (!result.isEmpty()) { return result.toArray(new String[0]); }
-                addAllWithPrefix(rb, key, keys, result);
+                addAllWithPrefix(rb, key, keys(), result);
                 return result.isEmpty() ? defaultValues : result.toArray(new String[0]);
             }
             private static List<String> addAllWithPrefix(ResourceBundle rb, String key, Set<String> keys, List<String> result) {
@@ -9847,6 +10758,179 @@ public class CommandLine {
         private static interface Predicate<T> {
             boolean test(T t);
         }
+        /** The annotated fields and methods declared by a class, and the options and positional parameters built from them.
+         * Templates are cached per class, so that creating another {@code CommandSpec} for a class that was seen before
+         * does not scan the class for annotated members or read the {@code @Option} and {@code @Parameters} annotations again.
+         * The cached members and arguments are not bound to any user object: each use binds copies to a new scope.
+         * Arguments with a custom converter, completion candidates or parameter consumer are not cached,
+         * because these objects are created by the factory for each command. */
+        private static final class ClassTemplate {
+            // the templates refer to their class, so they are softly reachable to allow class unloading
+            private static final Map<Class<?>, SoftReference<ClassTemplate>> CACHE =
+                    Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<ClassTemplate>>());
+            final TypedMember[] members;
+            /** The generated fields of a class with a generated {@link IGeneratedClass}, or {@code null} for other classes. */
+            final IGeneratedField[] generatedFields;
+            private final java.util.concurrent.atomic.AtomicReferenceArray<ArgSpec> args;
+
+            private ClassTemplate(Class<?> cls) {
+                generatedFields = null;
+                List<TypedMember> list = new ArrayList<TypedMember>();
+                for (Field field : cls.getDeclaredFields()) {
+                    if (TypedMember.isAnnotated(field)) { list.add(new TypedMember(field)); }
+                }
+                for (Method method : cls.getDeclaredMethods()) {
+                    if (TypedMember.isAnnotated(method)) { list.add(new TypedMember(method)); }
+                }
+                members = list.toArray(new TypedMember[0]);
+                args = new java.util.concurrent.atomic.AtomicReferenceArray<ArgSpec>(members.length);
+            }
+            private ClassTemplate(IGeneratedClass generated) {
+                generatedFields = generated.getFields().clone();
+                members = new TypedMember[0];
+                args = new java.util.concurrent.atomic.AtomicReferenceArray<ArgSpec>(0);
+            }
+            /** Returns the template for the specified class, or {@code null} if the class has invalid members;
+             * in that case the caller should inspect the class as usual to report the problem.
+             * Classes with a generated {@link IGeneratedClass} are not inspected with reflection. */
+            static ClassTemplate forClass(Class<?> cls) {
+                SoftReference<ClassTemplate> ref = CACHE.get(cls);
+                ClassTemplate result = ref == null ? null : ref.get();
+                if (result == null) {
+                    try {
+                        IGeneratedClass generated = GeneratedClasses.forClass(cls);
+                        result = generated == null ? new ClassTemplate(cls) : new ClassTemplate(generated);
+                    } catch (RuntimeException ex) {
+                        return null;
+                    }
+                    CACHE.put(cls, new SoftReference<ClassTemplate>(result));
+                }
+                return result;
+            }
+            /** Returns new options and positional parameters for the generated fields, bound to the fields in the specified scope. */
+            List<ArgSpec> generatedArgs(IScope scope, IFactory factory) {
+                List<ArgSpec> result = new ArrayList<ArgSpec>(generatedFields.length);
+                for (IGeneratedField field : generatedFields) {
+                    ArgSpec original;
+                    try {
+                        original = field.createArgSpec(factory);
+                    } catch (InitializationException ex) {
+                        throw ex;
+                    } catch (Exception ex) {
+                        throw new InitializationException("Could not create the option or positional parameter for generated field " + field.getName() + ": " + ex, ex);
+                    }
+                    GeneratedFieldBinding binding = new GeneratedFieldBinding(scope, field);
+                    ArgSpec.Builder<?> builder;
+                    if (original.isOption()) {
+                        builder = ((OptionSpec) original).toBuilder();
+                    } else {
+                        PositionalParamSpec.Builder positional = ((PositionalParamSpec) original).toBuilder();
+                        positional.capacity = original.isMultiValue() ? null : original.arity();
+                        builder = positional;
+                    }
+                    builder.userObject = field;
+                    builder.getter = binding;
+                    builder.setter = binding;
+                    builder.scope = scope;
+                    builder.initialValue = null; // read from the field when first needed, like reflected fields
+                    builder.hasInitialValue = ObjectScope.hasInstance(scope);
+                    builder.isInitialValueCached = false;
+                    result.add(builder.build());
+                }
+                return result;
+            }
+            /** Returns a copy of the cached argument at the specified index bound to the specified member, or {@code null} if it was not cached. */
+            ArgSpec arg(int index, TypedMember member) {
+                ArgSpec template = args.get(index);
+                return template == null ? null : copy(template, member, member.getter(), member.setter(), member.scope(), member.hasInitialValue());
+            }
+            void cacheArg(int index, ArgSpec arg) {
+                TypedMember member = members[index];
+                if (usesFactory(member)) { return; }
+                ObjectBinding unbound = new ObjectBinding();
+                args.compareAndSet(index, null, copy(arg, member, unbound, unbound, new ObjectScope(null), false));
+            }
+            private static boolean usesFactory(TypedMember member) {
+                if (member.isOption()) {
+                    Option option = member.getAnnotation(Option.class);
+                    return option.converter().length > 0
+                            || !NoCompletionCandidates.class.equals(option.completionCandidates())
+                            || !NullParameterConsumer.class.equals(option.parameterConsumer());
+                }
+                Parameters parameters = member.getAnnotation(Parameters.class);
+                return parameters == null
+                        || parameters.converter().length > 0
+                        || !NoCompletionCandidates.class.equals(parameters.completionCandidates())
+                        || !NullParameterConsumer.class.equals(parameters.parameterConsumer());
+            }
+            private static ArgSpec copy(ArgSpec original, IAnnotatedElement source, IGetter getter, ISetter setter, IScope scope, boolean hasInitialValue) {
+                ArgSpec.Builder<?> builder;
+                if (original.isOption()) {
+                    builder = ((OptionSpec) original).toBuilder();
+                } else {
+                    PositionalParamSpec.Builder positional = ((PositionalParamSpec) original).toBuilder();
+                    positional.capacity = ((PositionalParamSpec) original).builderCapacity;
+                    builder = positional;
+                }
+                builder.source = source;
+                builder.getter = getter;
+                builder.setter = setter;
+                builder.scope = scope;
+                builder.initialValue = null;
+                builder.hasInitialValue = hasInitialValue;
+                builder.isInitialValueCached = false;
+                return builder.build();
+            }
+        }
+        /** The {@link IGeneratedClass} implementations registered as services, loaded once per class loader. */
+        private static final class GeneratedClasses {
+            /** Name of the system property that enables looking up generated classes: {@value}. */
+            static final String PROPERTY = "picocli.useGeneratedClasses";
+            // the values refer to classes of their class loader, so they are softly reachable to allow class unloading
+            private static final Map<ClassLoader, SoftReference<Map<String, IGeneratedClass>>> CACHE =
+                    Collections.synchronizedMap(new WeakHashMap<ClassLoader, SoftReference<Map<String, IGeneratedClass>>>());
+
+            /** Returns the generated implementation for the specified class, or {@code null} if none was registered
+             * or if the {@value #PROPERTY} system property is not {@code true}. */
+            static IGeneratedClass forClass(Class<?> cls) {
+                if (!Boolean.valueOf(System.getProperty(PROPERTY))) { return null; } // don't scan the class path for apps without generated classes
+                ClassLoader loader = cls.getClassLoader();
+                if (loader == null) { return null; } // bootstrap classes like java.lang.Object
+                SoftReference<Map<String, IGeneratedClass>> ref = CACHE.get(loader);
+                Map<String, IGeneratedClass> generated = ref == null ? null : ref.get();
+                if (generated == null) {
+                    generated = load(loader);
+                    CACHE.put(loader, new SoftReference<Map<String, IGeneratedClass>>(generated));
+                }
+                IGeneratedClass result = generated.get(cls.getName());
+                return result != null && result.getType() == cls ? result : null;
+            }
+            private static Map<String, IGeneratedClass> load(ClassLoader loader) {
+                Map<String, IGeneratedClass> result = new HashMap<String, IGeneratedClass>();
+                try {
+                    ServiceLoading.load(loader, result);
+                } catch (LinkageError ex) { // ServiceLoader is not available on Java 5
+                    new Tracer().debug("Could not load generated classes: %s%n", ex);
+                }
+                return result.isEmpty() ? Collections.<String, IGeneratedClass>emptyMap() : result;
+            }
+            /** Uses the Java 6 {@code ServiceLoader}; only loaded when generated classes are enabled, so that
+             * {@code GeneratedClasses} itself can be loaded on Java 5. */
+            private static final class ServiceLoading {
+                static void load(ClassLoader loader, Map<String, IGeneratedClass> result) {
+                    Iterator<IGeneratedClass> iterator = ServiceLoader.load(IGeneratedClass.class, loader).iterator();
+                    while (true) {
+                        try {
+                            if (!iterator.hasNext()) { break; }
+                            IGeneratedClass generated = iterator.next();
+                            result.put(generated.getType().getName(), generated);
+                        } catch (ServiceConfigurationError ex) {
+                            new Tracer().warn("Could not load generated class, falling back to reflection: %s%n", ex);
+                        }
+                    }
+                }
+            }
+        }
         private static class CommandReflection {
             static ArgGroupSpec extractArgGroupSpec(IAnnotatedElement member, IFactory factory, CommandSpec commandSpec, boolean annotationsAreMandatory) throws Exception {
                 Object instance = null;
@@ -9920,8 +11004,8 @@ public class CommandLine {
                             hasCommandAnnotation = true;
                         }
                         hasCommandAnnotation |= initFromAnnotatedFields(userObject, cls, result, null, factory, null);
-                        if (cls.isAnnotationPresent(Command.class)) {
-                            mixinStandardHelpOptions |= cls.getAnnotation(Command.class).mixinStandardHelpOptions();
+                        if (cmd != null) {
+                            mixinStandardHelpOptions |= cmd.mixinStandardHelpOptions();
                         }
                     }
                     result.mixinStandardHelpOptions(mixinStandardHelpOptions); //#377 Standard help options should be added last
@@ -9953,6 +11037,14 @@ public class CommandLine {
                     }
                     try {
                         if (Help.class == sub) { throw new InitializationException(Help.class.getName() + " is not a valid subcommand. Did you mean " + HelpCommand.class.getName() + "?"); }
+                        if (cmd.lazySubcommands()) {
+                            String name = subcommandName(sub);
+                            String[] aliases = sub.getAnnotation(Command.class).aliases();
+                            if (!containsVariables(name, aliases)) {
+                                parent.addLazySubcommand(name, aliases, sub, factory);
+                                continue;
+                            }
+                        }
                         CommandLine subcommandLine = toCommandLine(sub, factory);
                         parent.addSubcommand(subcommandName(sub), subcommandLine);
                         subcommandLine.getCommandSpec().injectParentCommand(parent.userObject);
@@ -9975,6 +11067,13 @@ public class CommandLine {
                     }
                 }
             }
+            private static boolean containsVariables(String name, String[] aliases) {
+                if (name.contains("${")) { return true; }
+                for (String alias : aliases) {
+                    if (alias.contains("${")) { return true; }
+                }
+                return false;
+            }
             private static String subcommandName(Class<?> sub) {
                 Command subCommand = sub.getAnnotation(Command.class);
                 if (subCommand == null || Help.DEFAULT_COMMAND_NAME.equals(subCommand.name())) {
@@ -9985,11 +11084,30 @@ public class CommandLine {
             }
             private static boolean initFromAnnotatedFields(IScope scope, Class<?> cls, CommandSpec receiver, ArgGroupSpec.Builder groupBuilder, IFactory factory, Predicate<TypedMember> predicate) {
                 boolean result = false;
+                ClassTemplate template = ObjectScope.isProxyClass(scope) ? null : ClassTemplate.forClass(cls);
+                if (template != null && template.generatedFields != null) {
+                    if (predicate != null) { return false; } // generated classes only have options and positional parameters
+                    for (ArgSpec arg : template.generatedArgs(scope, factory)) {
+                        if (groupBuilder != null) {
+                            groupBuilder.addArg(arg);
+                        } else {
+                            receiver.add(arg);
+                        }
+                        result = true;
+                    }
+                    return result;
+                }
+                if (template != null) {
+                    for (int i = 0; i < template.members.length; i++) {
+                        result |= initFromAnnotatedTypedMembers(template.members[i].bind(scope, receiver), predicate, receiver, groupBuilder, factory, template, i);
+                    }
+                    return result;
+                }
                 for (Field field : cls.getDeclaredFields()) {
-                    result |= initFromAnnotatedTypedMembers(TypedMember.createIfAnnotated(field, scope), predicate, receiver, groupBuilder, factory);
+                    result |= initFromAnnotatedTypedMembers(TypedMember.createIfAnnotated(field, scope), predicate, receiver, groupBuilder, factory, null, -1);
                 }
                 for (Method method : cls.getDeclaredMethods()) {
-                    result |= initFromAnnotatedTypedMembers(TypedMember.createIfAnnotated(method, scope, receiver), predicate, receiver, groupBuilder, factory);
+                    result |= initFromAnnotatedTypedMembers(TypedMember.createIfAnnotated(method, scope, receiver), predicate, receiver, groupBuilder, factory, null, -1);
                 }
                 return result;
             }
@@ -9998,7 +11116,9 @@ public class CommandLine {
                                                                  Predicate<TypedMember> predicate,
                                                                  CommandSpec commandSpec,
                                                                  ArgGroupSpec.Builder groupBuilder,
-                                                                 IFactory factory) {
+                                                                 IFactory factory,
+                                                                 ClassTemplate template,
+                                                                 int index) {
                 boolean result = false;
                 if (member == null || (predicate != null && !predicate.test(member))) { return result; }
                 if (member.isMixin()) {
@@ -10036,11 +11156,16 @@ public class CommandLine {
                     }
                 }
                 if (member.isArgSpec()) {
-                    validateArgSpecMember(member);
+                    ArgSpec arg = template == null ? null : template.arg(index, member);
+                    if (arg == null) {
+                        validateArgSpecMember(member);
+                        arg = buildArgForMember(member, factory);
+                        if (template != null) { template.cacheArg(index, arg); }
+                    }
                     if (groupBuilder != null) {
-                        groupBuilder.addArg(buildArgForMember(member, factory));
+                        groupBuilder.addArg(arg);
                     } else {
-                        commandSpec.add(buildArgForMember(member, factory));
+                        commandSpec.add(arg);
                     }
                     result = true;
                 }
@@ -10066,7 +11191,7 @@ public class CommandLine {
                     } else {
                         param.position = i - optionCount;
                     }
-                    result |= initFromAnnotatedTypedMembers(new TypedMember(param, scope), null, receiver, groupBuilder, factory);
+                    result |= initFromAnnotatedTypedMembers(new TypedMember(param, scope), null, receiver, groupBuilder, factory, null, -1);
                 }
                 return result;
             }
@@ -10156,12 +11281,60 @@ public class CommandLine {
         static class FieldBinding implements IGetter, ISetter {
             private final IScope scope;
             private final Field field;
+            private MemberAccessor accessor;
+            private int accessCount;
             FieldBinding(Object scope, Field field) { this(ObjectScope.asScope(scope), field); }
-            FieldBinding(IScope scope, Field field) { this.scope = scope; this.field = field; }
+            FieldBinding(IScope scope, Field field) { this.scope = scope; this.field = field; this.accessor = new ReflectionAccessor(field); }
             public <T> T get() throws PicocliException {
-                Object obj = null;
-                try { obj = scope.get(); }
+                Object obj = scope();
+                try {
+                    @SuppressWarnings("unchecked") T result = (T) accessor().get(obj);
+                    return result;
+                } catch (Exception ex) {
+                    throw new PicocliException("Could not get value for field " + field, ex);
+                }
+            }
+            public <T> T set(T value) throws PicocliException {
+                Object obj = scope();
+                try {
+                    MemberAccessor accessor = accessor();
+                    @SuppressWarnings("unchecked") T result = (T) accessor.get(obj);
+                    accessor.set(obj, value);
+                    return result;
+                } catch (Exception ex) {
+                    throw new PicocliException("Could not set value for field " + field + " to " + value, ex);
+                }
+            }
+            /** Sets the field to the specified value without reading the previous value. */
+            void assign(Object value) throws PicocliException {
+                Object obj = scope();
+                try {
+                    accessor().set(obj, value);
+                } catch (Exception ex) {
+                    throw new PicocliException("Could not set value for field " + field + " to " + value, ex);
+                }
+            }
+            private Object scope() {
+                try { return scope.get(); }
                 catch (Exception ex) { throw new PicocliException("Could not get scope for field " + field, ex); }
+            }
+            private MemberAccessor accessor() {
+                if (accessCount < MemberAccessor.INFLATION_THRESHOLD && ++accessCount == MemberAccessor.INFLATION_THRESHOLD) {
+                    accessor = MemberAccessor.inflate(accessor, field);
+                }
+                return accessor;
+            }
+            public String toString() {
+                return String.format("%s(%s %s.%s)", getClass().getSimpleName(), field.getType().getName(),
+                        field.getDeclaringClass().getName(), field.getName());
+            }
+        }
+        static class GeneratedFieldBinding implements IGetter, ISetter {
+            private final IScope scope;
+            private final IGeneratedField field;
+            GeneratedFieldBinding(IScope scope, IGeneratedField field) { this.scope = scope; this.field = field; }
+            public <T> T get() throws PicocliException {
+                Object obj = scope();
                 try {
                     @SuppressWarnings("unchecked") T result = (T) field.get(obj);
                     return result;
@@ -10170,9 +11343,7 @@ public class CommandLine {
                 }
             }
             public <T> T set(T value) throws PicocliException {
-                Object obj = null;
-                try { obj = scope.get(); }
-                catch (Exception ex) { throw new PicocliException("Could not get scope for field " + field, ex); }
+                Object obj = scope();
                 try {
                     @SuppressWarnings("unchecked") T result = (T) field.get(obj);
                     field.set(obj, value);
@@ -10181,9 +11352,12 @@ public class CommandLine {
                     throw new PicocliException("Could not set value for field " + field + " to " + value, ex);
                 }
             }
+            private Object scope() {
+                try { return scope.get(); }
+                catch (Exception ex) { throw new PicocliException("Could not get scope for field " + field, ex); }
+            }
             public String toString() {
-                return String.format("%s(%s %s.%s)", getClass().getSimpleName(), field.getType().getName(),
-                        field.getDeclaringClass().getName(), field.getName());
+                return String.format("%s(%s %s)", getClass().getSimpleName(), field.getType().getName(), field.getName());
             }
         }
         static class MethodBinding implements IGetter, ISetter {
@@ -10191,19 +11365,25 @@ public class CommandLine {
             private final Method method;
             private final CommandSpec spec;
             private Object currentValue;
+            private MemberAccessor accessor;
+            private int accessCount;
             MethodBinding(IScope scope, Method method, CommandSpec spec) {
                 this.scope = scope;
                 this.method = method;
                 this.spec = spec;
+                this.accessor = new ReflectionAccessor(method);
             }
             @SuppressWarnings("unchecked") public <T> T get() { return (T) currentValue; }
             public <T> T set(T value) throws PicocliException {
                 Object obj = null;
                 try { obj = scope.get(); }
                 catch (Exception ex) { throw new PicocliException("Could not get scope for method " + method, ex); }
+                if (accessCount < MemberAccessor.INFLATION_THRESHOLD && ++accessCount == MemberAccessor.INFLATION_THRESHOLD) {
+                    accessor = MemberAccessor.inflate(accessor, method);
+                }
                 try {
                     @SuppressWarnings("unchecked") T result = (T) currentValue;
-                    method.invoke(obj, value);
+                    accessor.set(obj, value);
                     currentValue = value;
                     return result;
                 } catch (InvocationTargetException ex) {
@@ -10221,6 +11401,59 @@ public class CommandLine {
                 return String.format("%s(%s)", getClass().getSimpleName(), method);
             }
         }
+        /** Reads or writes a field, or invokes a setter method, on behalf of a {@link FieldBinding} or {@link MethodBinding}.
+         * Bindings start out using reflection, and switch to method handles once they have been accessed
+         * {@link #INFLATION_THRESHOLD} times, so that applications that parse only once don't pay for creating method handles.
+         * <p>The method handle accessor is the {@code picocli.MethodHandleAccessor} class in {@code src/main/java7}, which is
+         * compiled separately with {@code -source 7} because {@code MethodHandle.invokeExact} is signature polymorphic.
+         * It is loaded by name, so reflection remains in use on Java 5 and 6, wherever method handles cannot be created,
+         * and when picocli is included as source without that class.</p>
+         * <p>Anything thrown by a setter method is wrapped in an {@link InvocationTargetException}, like {@code Method.invoke} does.
+         * Exceptions and errors thrown while accessing a field are rethrown as is.</p> */
+        abstract static class MemberAccessor {
+            static final int INFLATION_THRESHOLD = 16;
+            private static volatile boolean methodHandlesUnavailable;
+            private static volatile Method methodHandleFactory; // MethodHandleAccessor.create(Member)
+
+            /** Returns the value of the field, or throws UnsupportedOperationException for methods. */
+            abstract Object get(Object obj) throws Exception;
+            /** Sets the field or invokes the method; throws an {@code InvocationTargetException} if the method throws anything. */
+            abstract void set(Object obj, Object value) throws Exception;
+
+            static MemberAccessor inflate(MemberAccessor current, Member member) {
+                if (methodHandlesUnavailable) { return current; }
+                try {
+                    Method factory = methodHandleFactory;
+                    if (factory == null) {
+                        methodHandleFactory = factory = Class.forName("picocli.MethodHandleAccessor").getDeclaredMethod("create", Member.class);
+                    }
+                    return (MemberAccessor) factory.invoke(null, member);
+                } catch (LinkageError notOnThisPlatform) { // class file version 51 is not supported on Java 5 and 6
+                    methodHandlesUnavailable = true;
+                } catch (ClassNotFoundException notCompiled) { // picocli was included as source
+                    methodHandlesUnavailable = true;
+                } catch (InvocationTargetException ex) {
+                    // java.lang.invoke is missing on some Android versions; otherwise e.g. a final field: keep using reflection
+                    if (ex.getTargetException() instanceof LinkageError) { methodHandlesUnavailable = true; }
+                } catch (Exception ex) { // not allowed to load or invoke the factory: keep using reflection
+                    methodHandlesUnavailable = true;
+                }
+                return current;
+            }
+        }
+        static final class ReflectionAccessor extends MemberAccessor {
+            private final Field field;
+            private final Method method;
+            ReflectionAccessor(Field field)   { this.field = field; this.method = null; }
+            ReflectionAccessor(Method method) { this.field = null;  this.method = method; }
+            Object get(Object obj) throws Exception {
+                if (field == null) { throw new UnsupportedOperationException("Cannot get value from " + method); }
+                return field.get(obj);
+            }
+            void set(Object obj, Object value) throws Exception {
+                if (field != null) { field.set(obj, value); } else { method.invoke(obj, value); }
+            }
+        }
         private static class PicocliInvocationHandler implements InvocationHandler {
             final Map<String, Object> map = new HashMap<String, Object>();
             public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
@@ -10349,6 +11582,8 @@ public class CommandLine {
             }
         }
         static class Interpolator {
+            /** Maximum number of remembered interpolated strings per command, in case a version provider or default value provider returns different strings every time. */
+            private static final int MAX_CACHE_SIZE = 1024;
             private final CommandSpec commandSpec;
             private final Map<String, ILookup> lookups = new LinkedHashMap<String, ILookup>();
 
@@ -10390,15 +11625,44 @@ public class CommandLine {
                 return result;
             }
             public String interpolate(String original) {
-                if (original == null || !commandSpec.interpolateVariables()) { return original; }
-                return resolveLookups(original, new HashSet<String>(), new HashMap<String, String>());
+                if (original == null || original.indexOf('$') < 0 || !commandSpec.interpolateVariables()) { return original; }
+                if (original.indexOf("${") < 0) { return original.replace("$$", "$"); }
+                Map<String, Resolution> cache = commandSpec.interpolated;
+                Resolution cached = cache.get(original);
+                if (cached != null && cached.isCurrent()) { return cached.value; }
+                List<String> systemProperties = new ArrayList<String>();
+                List<String> environment = new ArrayList<String>();
+                String result = resolveLookups(original, new HashSet<String>(), new HashMap<String, String>(), systemProperties, environment);
+                if (cached == null && cache.size() >= MAX_CACHE_SIZE) { cache.clear(); }
+                cache.put(original, new Resolution(result, systemProperties.toArray(new String[0]), environment.toArray(new String[0])));
+                return result;
             }
             public String interpolateCommandName(String original) {
-                if (original == null || !commandSpec.interpolateVariables()) { return original; }
-                return resolveLookups(original, new HashSet<String>(), new HashMap<String, String>());
+                return interpolate(original);
+            }
+
+            /** The result of interpolating a string, with a snapshot of the system properties and environment variables that were consulted to produce it.
+             * Changes to the command name, parent and resource bundle explicitly discard the cached results of a command,
+             * and environment variables cannot change while the application runs, so only system properties are compared. */
+            static class Resolution {
+                final String value;
+                final String[] systemProperties; // pairs of key and value
+                final String[] environment; // pairs of key and value, see CommandSpec.interpolationDependencies
+                Resolution(String value, String[] systemProperties, String[] environment) {
+                    this.value = value;
+                    this.systemProperties = systemProperties;
+                    this.environment = environment;
+                }
+                boolean isCurrent() {
+                    for (int i = 0; i < systemProperties.length; i += 2) {
+                        String current = System.getProperty(systemProperties[i]);
+                        if (current == null ? systemProperties[i + 1] != null : !current.equals(systemProperties[i + 1])) { return false; }
+                    }
+                    return true;
+                }
             }
 
-            private String resolveLookups(String text, Set<String> visited, Map<String, String> resolved) {
+            private String resolveLookups(String text, Set<String> visited, Map<String, String> resolved, List<String> systemProperties, List<String> environment) {
                 if (text == null) { return null; }
                 for (String lookupKey : lookups.keySet()) {
                     ILookup lookup = lookups.get(lookupKey);
@@ -10412,16 +11676,27 @@ public class CommandLine {
 
                         int defaultStartPos = fullKey.indexOf(":-");
                         if (defaultStartPos >= 0) { actualKey = fullKey.substring(0, defaultStartPos); }
-                        String value = resolved.containsKey(prefix + actualKey)
-                                ? resolved.get(prefix + actualKey)
-                                : lookup.get(actualKey);
+                        String value;
+                        if (resolved.containsKey(prefix + actualKey)) {
+                            value = resolved.get(prefix + actualKey);
+                        } else {
+                            value = lookup.get(actualKey);
+                            if ("sys:".equals(lookupKey) || "".equals(lookupKey)) {
+                                systemProperties.add(actualKey);
+                                systemProperties.add(System.getProperty(actualKey));
+                            }
+                            if ("env:".equals(lookupKey) || "".equals(lookupKey)) {
+                                environment.add(actualKey);
+                                environment.add(System.getenv(actualKey));
+                            }
+                        }
                         if (visited.contains(prefix + actualKey) && !resolved.containsKey(prefix + actualKey)) {
                             throw new InitializationException("Lookup '" + prefix + actualKey + "' has a circular reference.");
                         }
                         visited.add(prefix + actualKey);
                         if (value == null && defaultStartPos >= 0) {
                             String defaultValue = fullKey.substring(defaultStartPos + 2);
-                            value = resolveLookups(defaultValue, visited, resolved);
+                            value = resolveLookups(defaultValue, visited, resolved, systemProperties, environment);
                         }
                         resolved.put(prefix + actualKey, value);
                         if (value == null && startPos == 0 && endPos == text.length() - 1) {
@@ -10507,6 +11782,7 @@ public class CommandLine {
         private final List<Exception> errors;
         private final GroupMatchContainer groupMatchContainer;
         private final List<ParseResult> subcommands;
+        private final Map<ArgSpec, Object> matchedValues;
         final List<Object> tentativeMatch;
 
         private final boolean usageHelpRequested;
@@ -10528,6 +11804,7 @@ public class CommandLine {
             versionHelpRequested = builder.versionHelpRequested;
             tentativeMatch = builder.nowProcessing;
             groupMatchContainer = builder.groupMatchContainer.trim();
+            matchedValues = builder.context == null ? Collections.<ArgSpec, Object>emptyMap() : builder.context.matchedValues(matchedArgs);
         }
         /** Creates and returns a new {@code ParseResult.Builder} for the specified command spec. */
         public static Builder builder(CommandSpec commandSpec) { return new Builder(commandSpec); }
@@ -10651,13 +11928,14 @@ public class CommandLine {
         public <T> T matchedOptionValue(String name, T defaultValue)       { return matchedOptionValue(matchedOption(name), defaultValue); }
         /** Returns the command line argument value of the specified option, converted to the {@linkplain OptionSpec#type() type} of the option, or the specified default value if the specified option is {@code null}. */
         @SuppressWarnings("unchecked")
-        private <T> T matchedOptionValue(OptionSpec option, T defaultValue) { return option == null ? defaultValue : (T) option.getValue(); }
+        private <T> T matchedOptionValue(OptionSpec option, T defaultValue) { return option == null ? defaultValue : (T) matchedValue(option); }
 
         /** Returns the command line argument value of the positional parameter at the specified position, converted to the {@linkplain PositionalParamSpec#type() type} of the positional parameter, or the specified default value if no positional parameter was matched at that position. */
         public <T> T matchedPositionalValue(int position, T defaultValue)  { return matchedPositionalValue(matchedPositional(position), defaultValue); }
         /** Returns the command line argument value of the specified positional parameter, converted to the {@linkplain PositionalParamSpec#type() type} of the positional parameter, or the specified default value if the specified positional parameter is {@code null}. */
         @SuppressWarnings("unchecked")
-        private <T> T matchedPositionalValue(PositionalParamSpec positional, T defaultValue) { return positional == null ? defaultValue : (T) positional.getValue(); }
+        private <T> T matchedPositionalValue(PositionalParamSpec positional, T defaultValue) { return positional == null ? defaultValue : (T) matchedValue(positional); }
+        private Object matchedValue(ArgSpec arg) { return matchedValues.containsKey(arg) ? matchedValues.get(arg) : arg.getValue(); }
 
         /** Returns {@code true} if a subcommand was matched on the command line, {@code false} otherwise. */
         public boolean hasSubcommand()          { return !subcommands.isEmpty(); }
@@ -10689,11 +11967,11 @@ public class CommandLine {
             return result;
         }
 
-        void validateGroups() {
+        void validateGroups(ParseContext context) {
             for (ArgGroupSpec group : commandSpec.argGroups()) {
                 groupMatchContainer.updateUnmatchedGroups(group);
             }
-            groupMatchContainer.validate(commandSpec.commandLine());
+            groupMatchContainer.validate(context);
         }
 
         /** Builds immutable {@code ParseResult} instances. */
@@ -10714,6 +11992,7 @@ public class CommandLine {
             private List<Exception> errors = new ArrayList<Exception>(1);
             private List<Object> nowProcessing;
             private GroupMatchContainer groupMatchContainer = new GroupMatchContainer(null, null);
+            ParseContext context; // set when the interpreter builds this result
 
             private Builder(CommandSpec spec) { commandSpec = Assert.notNull(spec, "commandSpec"); }
             /** Creates and returns a new {@code ParseResult} instance for this builder's configuration. */
@@ -10773,10 +12052,10 @@ public class CommandLine {
             /** Sets the specified command line arguments that were parsed. */
             public Builder originalArgs(String[] originalArgs) { originalArgList.addAll(Arrays.asList(originalArgs)); return this;}
 
-            void addStringValue        (ArgSpec argSpec, String value) { if (!isInitializingDefaultValues) { argSpec.stringValues.add(value);} }
+            void addStringValue        (ArgSpec argSpec, String value) { if (!isInitializingDefaultValues) { context.values(argSpec).stringValues.add(value);} }
             void addOriginalStringValue(ArgSpec argSpec, String value) {
                 if (!isInitializingDefaultValues) {
-                    argSpec.originalStringValues.add(value);
+                    context.values(argSpec).originalStringValues.add(value);
                     if (argSpec.group() != null) {
                         GroupMatchContainer groupMatchContainer = this.groupMatchContainer.findLastMatchContainer(argSpec.group());
                         groupMatchContainer.lastMatch().addOriginalStringValue(argSpec, value);
@@ -10786,9 +12065,10 @@ public class CommandLine {
 
             void addTypedValues(ArgSpec argSpec, int position, Object typedValue) {
                 if (!isInitializingDefaultValues) {
-                    argSpec.typedValues.add(typedValue);
+                    ParseContext.ArgValues values = context.values(argSpec);
+                    values.typedValues.add(typedValue);
                     if (argSpec.group() == null) {
-                        argSpec.typedValueAtPosition.put(position, typedValue);
+                        values.typedValueAtPosition.put(position, typedValue);
                     } else {
                         GroupMatchContainer groupMatchContainer = this.groupMatchContainer.findLastMatchContainer(argSpec.group());
                         groupMatchContainer.lastMatch().addMatchedValue(argSpec, position, typedValue, commandSpec.commandLine.tracer);
@@ -10803,7 +12083,7 @@ public class CommandLine {
             void beforeMatchingGroupElement(ArgSpec argSpec) throws Exception {
                 ArgGroupSpec group = argSpec.group();
                 if (group == null || isInitializingDefaultValues) { return; }
-                GroupMatchContainer foundGroupMatchContainer = this.groupMatchContainer.findOrCreateMatchingGroup(argSpec, commandSpec.commandLine);
+                GroupMatchContainer foundGroupMatchContainer = this.groupMatchContainer.findOrCreateMatchingGroup(argSpec, context);
                 GroupMatch match = foundGroupMatchContainer.lastMatch();
                 boolean greedy = true; // commandSpec.parser().greedyMatchMultiValueArgsInGroup(); // or @Option(multiplicity=0..*) to control min/max matches
                 boolean allowMultipleMatchesInGroup = greedy && argSpec.isMultiValue(); // https://github.com/remkop/picocli/issues/815
@@ -10814,8 +12094,8 @@ public class CommandLine {
                     String elementDescription = ArgSpec.describe(argSpec, "=");
                     Tracer tracer = commandSpec.commandLine.tracer;
                     tracer.info("GroupMatch %s is complete: its mandatory elements are all matched. (User object: %s.) %s %s in the group, so it starts a new GroupMatch.%n", foundGroupMatchContainer.lastMatch(), foundGroupMatchContainer.group.userObject(), elementDescription, previousMatch);
-                    foundGroupMatchContainer.addMatch(commandSpec.commandLine);
-                    this.groupMatchContainer.findOrCreateMatchingGroup(argSpec, commandSpec.commandLine);
+                    foundGroupMatchContainer.addMatch(context);
+                    this.groupMatchContainer.findOrCreateMatchingGroup(argSpec, context);
                 }
             }
         }
@@ -10865,7 +12145,7 @@ public class CommandLine {
             private List<GroupMatch> matches = new ArrayList<GroupMatch>();
             private GroupValidationResult validationResult;
 
-            GroupMatchContainer(ArgGroupSpec group, CommandLine cmd) { this.group = group; addMatch(cmd);}
+            GroupMatchContainer(ArgGroupSpec group, ParseContext context) { this.group = group; addMatch(context);}
 
             /** Returns the {@code ArgGroupSpec} whose matches are captured in this {@code GroupMatchContainer}. */
             public ArgGroupSpec group() { return group; }
@@ -10874,11 +12154,11 @@ public class CommandLine {
             /** Returns the list of {@code GroupMatch} instances: {@code ArgGroupSpec}s with a multiplicity greater than one may be matched multiple times. */
             public List<GroupMatch> matches() { return Collections.unmodifiableList(matches); }
 
-            void addMatch(CommandLine commandLine) {
-                Tracer tracer = commandLine == null ? new Tracer() : commandLine.tracer;
+            void addMatch(ParseContext context) {
+                Tracer tracer = context == null ? new Tracer() : context.commandLine().tracer;
                 if (group != null && isMaxMultiplicityReached()) {
                     tracer.info("Completing GroupMatchContainer %s: max multiplicity is reached.%n", this);
-                    complete(commandLine);
+                    complete(context);
                 } else {
                     if (group != null) {
                         tracer.info("Adding match to GroupMatchContainer %s (group=%s %s).%n", this, group == null ? "?" : group.id(), group == null ? "ROOT" : group.synopsisUnit());
@@ -10886,13 +12166,13 @@ public class CommandLine {
                     matches.add(new GroupMatch(this));
                     if (group == null) { return; }
                 }
-                group.initUserObject(commandLine);
+                group.initUserObject(context);
             }
-            void complete(CommandLine commandLine) {
+            void complete(ParseContext context) {
                 if (parentContainer == null) {
-                    addMatch(commandLine); // we have no choice but to potentially exceed the max multiplicity of this group...
+                    addMatch(context); // we have no choice but to potentially exceed the max multiplicity of this group...
                 } else {
-                    parentContainer.addMatch(commandLine);
+                    parentContainer.addMatch(context);
                 }
             }
             /** Returns the "active" multiple of this GroupMatchContainer. */
@@ -10917,7 +12197,7 @@ public class CommandLine {
                 return allRequired ? isMaxMultiplicityReached() : isMinMultiplicityReached();
             }
 
-            private GroupMatchContainer findOrCreateMatchingGroup(ArgSpec argSpec, CommandLine commandLine) {
+            private GroupMatchContainer findOrCreateMatchingGroup(ArgSpec argSpec, ParseContext context) {
                 ArgGroupSpec searchGroup = Assert.notNull(argSpec.group(), "group for " + argSpec);
                 GroupMatchContainer container = this;
                 if (searchGroup == container.group()) { return container; }
@@ -10930,14 +12210,14 @@ public class CommandLine {
                 for (ArgGroupSpec key : keys) {
                     GroupMatchContainer sub = container.lastMatch().matchedSubgroups().get(key);
                     if (sub == null) {
-                        sub = createGroupMatchContainer(key, container, commandLine);
+                        sub = createGroupMatchContainer(key, container, context);
                     }
                     container = sub;
                 }
                 return container;
             }
-            private GroupMatchContainer createGroupMatchContainer(ArgGroupSpec group, GroupMatchContainer parent, CommandLine commandLine) {
-                GroupMatchContainer result = new GroupMatchContainer(group, commandLine);
+            private GroupMatchContainer createGroupMatchContainer(ArgGroupSpec group, GroupMatchContainer parent, ParseContext context) {
+                GroupMatchContainer result = new GroupMatchContainer(group, context);
                 result.parentContainer = parent;
                 parent.lastMatch().matchedSubgroups.put(group, result);
                 return result;
@@ -10999,14 +12279,15 @@ public class CommandLine {
                     }
                 }
             }
-            void validate(CommandLine commandLine) {
+            void validate(ParseContext context) {
+                CommandLine commandLine = context.commandLine();
                 // first, validate the top-level GroupMatchContainer:
                 // Even if cmd has more than one group that each have matches,
                 // we should have a *single* top-level GroupMatch, with a subgroup for each GroupMatchContainer.
                 // If we have more than one top-level GroupMatch, it means that the parser
                 // was forced to "spill over" matches into additional GroupMatches because max multiplicity was exceeded.
                 if (group() == null && matches.size() > 1) {
-                    failGroupMultiplicityExceeded(matches, commandLine);
+                    failGroupMultiplicityExceeded(matches, context);
                 }
 
                 validationResult = matches.isEmpty() ? GroupValidationResult.SUCCESS_ABSENT : GroupValidationResult.SUCCESS_PRESENT;
@@ -11022,26 +12303,27 @@ public class CommandLine {
                 }
                 validateGroupMultiplicity(commandLine);
                 if (validationResult.blockingFailure()) {
-                    commandLine.interpreter.maybeThrow(validationResult.exception); // composite parent validations cannot succeed anyway
+                    commandLine.interpreter.maybeThrow(context, validationResult.exception); // composite parent validations cannot succeed anyway
                 }
                 for (GroupMatch match : matches()) {
-                    match.validate(commandLine);
+                    match.validate(context);
                     if (match.validationResult.blockingFailure()) {
                         validationResult = match.validationResult; // potentially overwrites existing blocking failure with subgroup's!
                         break;
                     }
                 }
                 if (validationResult.blockingFailure()) {
-                    commandLine.interpreter.maybeThrow(validationResult.exception); // composite parent validations cannot succeed anyway
+                    commandLine.interpreter.maybeThrow(context, validationResult.exception); // composite parent validations cannot succeed anyway
                 }
                 if (group() == null) {
                     if (!validationResult.success()) {
-                        commandLine.interpreter.maybeThrow(validationResult.exception);
+                        commandLine.interpreter.maybeThrow(context, validationResult.exception);
                     }
                 }
             }
 
-            private void failGroupMultiplicityExceeded(List<ParseResult.GroupMatch> groupMatches, CommandLine commandLine) {
+            private void failGroupMultiplicityExceeded(List<ParseResult.GroupMatch> groupMatches, ParseContext context) {
+                CommandLine commandLine = context.commandLine();
                 Map<ArgGroupSpec, List<List<ParseResult.GroupMatch>>> matchesPerGroup = new LinkedHashMap<ArgGroupSpec, List<List<GroupMatch>>>();
                 String msg = "";
                 for (ParseResult.GroupMatch match : groupMatches) {
@@ -11055,13 +12337,14 @@ public class CommandLine {
                     }
                 }
                 if (!matchesPerGroup.isEmpty()) {
-                    if (!simplifyErrorMessageForSingleGroup(matchesPerGroup, commandLine)) {
-                        commandLine.interpreter.maybeThrow(new MaxValuesExceededException(commandLine, "Error: expected only one match but got " + msg));
+                    if (!simplifyErrorMessageForSingleGroup(matchesPerGroup, context)) {
+                        commandLine.interpreter.maybeThrow(context, new MaxValuesExceededException(commandLine, "Error: expected only one match but got " + msg));
                     }
                 }
             }
 
-            private boolean simplifyErrorMessageForSingleGroup(Map<ArgGroupSpec, List<List<ParseResult.GroupMatch>>> matchesPerGroup, CommandLine commandLine) {
+            private boolean simplifyErrorMessageForSingleGroup(Map<ArgGroupSpec, List<List<ParseResult.GroupMatch>>> matchesPerGroup, ParseContext context) {
+                CommandLine commandLine = context.commandLine();
                 for (ArgGroupSpec group : matchesPerGroup.keySet()) {
                     List<ParseResult.GroupMatch> flat = flatList(matchesPerGroup.get(group));
                     Set<ArgSpec> matchedArgs = new LinkedHashSet<ArgSpec>();
@@ -11071,7 +12354,7 @@ public class CommandLine {
                     }
                     ParseResult.GroupValidationResult validationResult = group.validateArgs(commandLine, matchedArgs);
                     if (validationResult.exception != null) {
-                        commandLine.interpreter.maybeThrow(validationResult.exception); // there may be multiple failures, just throw on the first one for now
+                        commandLine.interpreter.maybeThrow(context, validationResult.exception); // there may be multiple failures, just throw on the first one for now
                         return true;
                     }
                 }
@@ -11196,13 +12479,14 @@ public class CommandLine {
                 return result;
             }
 
-            void validate(CommandLine commandLine) {
+            void validate(ParseContext context) {
+                CommandLine commandLine = context.commandLine();
                 validationResult = GroupValidationResult.SUCCESS_PRESENT; // we matched _something_ or this object would not exist...
                 if (group() != null && !group().validate()) {
                     return;
                 }
                 for (GroupMatchContainer sub : matchedSubgroups.values()) {
-                    sub.validate(commandLine);
+                    sub.validate(context);
                     if (sub.validationResult.blockingFailure()) {
                         this.validationResult = sub.validationResult;
                         return;
@@ -11272,88 +12556,437 @@ public class CommandLine {
     private enum LookBehind { SEPARATE, ATTACHED, ATTACHED_WITH_SEPARATOR;
         public boolean isAttached() { return this != LookBehind.SEPARATE; }
     }
+    /** Holds the state of parsing the command line arguments for a single command: the position in the command line,
+     * the values matched so far, and the {@code ParseResult} being built. The interpreter creates a new instance every
+     * time a command is parsed and passes it down the call stack, so that concurrent parse invocations on the same
+     * {@code CommandSpec} do not share any parser state. */
+    private static final class ParseContext {
+        final ParseContext parent;
+        final ParsePlan plan;
+        final ParseResult.Builder builder;
+        private final Map<ArgSpec, ArgValues> argValues = new IdentityHashMap<ArgSpec, ArgValues>();
+        int position;
+        int interactiveCount;
+        boolean endOfOptions;
+        boolean isHelpRequested;
+
+        ParseContext(CommandSpec commandSpec, ParseContext parent) {
+            this.parent = parent;
+            plan = commandSpec.parsePlan();
+            builder = ParseResult.builder(commandSpec);
+            builder.context = this;
+        }
+        CommandLine commandLine() { return builder.commandSpec.commandLine(); }
+
+        /** Returns the values recorded for the specified option or positional parameter in this parse. */
+        ArgValues values(ArgSpec arg) {
+            ArgValues result = argValues.get(arg);
+            if (result == null) {
+                result = new ArgValues();
+                argValues.put(arg, result);
+            }
+            return result;
+        }
+        /** Returns the value of the specified option or positional parameter in this parse: the value most recently
+         * assigned by this parse if there is one, otherwise the value of the binding. */
+        Object value(ArgSpec arg) {
+            ArgValues values = argValues.get(arg);
+            return values != null && values.hasValue ? values.value : arg.getValue();
+        }
+        /** Assigns the specified value to the binding of the specified option or positional parameter, and records it
+         * in this parse. Values of arguments in a group are not recorded: the group's user object is their scope. */
+        void assign(ArgSpec arg, Object value) {
+            arg.assignValue(value);
+            if (arg.group() == null) { values(arg).set(value); }
+        }
+        /** Returns the values recorded in this parse for the specified matched arguments. */
+        Map<ArgSpec, Object> matchedValues(List<ArgSpec> matchedArgs) {
+            Map<ArgSpec, Object> result = new IdentityHashMap<ArgSpec, Object>();
+            for (ArgSpec arg : matchedArgs) {
+                ArgValues values = argValues.get(arg);
+                if (values != null && values.hasValue) { result.put(arg, values.value); }
+            }
+            return result;
+        }
+
+        /** The values of one option or positional parameter that were set or matched in a single parse. */
+        static final class ArgValues {
+            final List<String> stringValues = new ArrayList<String>();
+            final List<String> originalStringValues = new ArrayList<String>();
+            final List<Object> typedValues = new ArrayList<Object>();
+            final Map<Integer, Object> typedValueAtPosition = new TreeMap<Integer, Object>();
+            Object value;
+            boolean hasValue;
+
+            void set(Object value) {
+                this.value = value;
+                hasValue = true;
+            }
+        }
+    }
+
+    /** The required args of a parse plan that have not been matched or defaulted yet, in the order they are validated.
+     * Each required arg is identified by its position in the plan, so removing a matched arg clears a bit instead of
+     * searching a list. */
+    private static final class RequiredArgs extends AbstractCollection<ArgSpec> {
+        private final ParsePlan plan;
+        private final BitSet remaining;
+
+        RequiredArgs(ParsePlan plan) {
+            this.plan = plan;
+            remaining = new BitSet(plan.required.size());
+            remaining.set(0, plan.required.size());
+        }
+        @Override public boolean remove(Object arg) {
+            Integer ordinal = plan.requiredOrdinals.get(arg);
+            if (ordinal == null || !remaining.get(ordinal)) { return false; }
+            remaining.clear(ordinal);
+            return true;
+        }
+        @Override public boolean contains(Object arg) {
+            Integer ordinal = plan.requiredOrdinals.get(arg);
+            return ordinal != null && remaining.get(ordinal);
+        }
+        @Override public boolean isEmpty() { return remaining.isEmpty(); }
+        @Override public int size() { return remaining.cardinality(); }
+        @Override public Iterator<ArgSpec> iterator() {
+            return new Iterator<ArgSpec>() {
+                int next = remaining.nextSetBit(0);
+                int last = -1;
+                public boolean hasNext() { return next >= 0; }
+                public ArgSpec next() {
+                    if (next < 0) { throw new NoSuchElementException(); }
+                    last = next;
+                    next = remaining.nextSetBit(next + 1);
+                    return plan.required.get(last);
+                }
+                public void remove() {
+                    if (last < 0) { throw new IllegalStateException(); }
+                    remaining.clear(last);
+                    last = -1;
+                }
+            };
+        }
+    }
+
+    /**
+     * A bounded cache of expanded argument files, for applications that parse command lines with the same
+     * {@code @files} many times, like a long-running command server. The cache is disabled by default;
+     * enable it with {@link CommandLine#setAtFileCache(AtFileCache)} or {@link ParserSpec#atFileCache(AtFileCache)}.
+     * <p>
+     * Entries are keyed by the canonical path, the length and the last modified time of the argument file, as well as
+     * the parser settings that affect how argument files are read. An entry holds all arguments of the file,
+     * including those of nested argument files, and is only used as long as the nested files are also unchanged.
+     * When the cache is full, the least recently used entry is removed.
+     * </p><p>
+     * Instances are thread-safe and can be shared between {@code CommandLine} objects.
+     * </p>
+     * @since 4.3 */
+    public static final class AtFileCache {
+        private final int maxEntries;
+        private final Map<String, CachedFile> entries;
+        private long hitCount;
+        private long missCount;
+
+        /** Constructs a new cache that holds up to the specified number of expanded argument files.
+         * @param maxEntries the maximum number of expanded argument files to keep; must be positive */
+        public AtFileCache(final int maxEntries) {
+            if (maxEntries <= 0) { throw new IllegalArgumentException("maxEntries must be positive but was " + maxEntries); }
+            this.maxEntries = maxEntries;
+            this.entries = new LinkedHashMap<String, CachedFile>(16, 0.75f, true) {
+                protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) { return size() > maxEntries; }
+            };
+        }
+        /** Returns the maximum number of expanded argument files this cache holds. */
+        public int maxEntries() { return maxEntries; }
+        /** Returns the number of expanded argument files currently in this cache. */
+        public synchronized int size() { return entries.size(); }
+        /** Returns how many times an argument file was expanded from this cache without reading the file. */
+        public synchronized long hitCount() { return hitCount; }
+        /** Returns how many times an argument file had to be read because it was not found in this cache, or was modified. */
+        public synchronized long missCount() { return missCount; }
+        /** Removes all entries from this cache. The hit and miss counts are not reset. */
+        public synchronized void clear() { entries.clear(); }
+
+        static String key(File file, ParserSpec parser) throws IOException {
+            return file.getCanonicalPath() + '|' + file.length() + '|' + file.lastModified() + '|' + parser.useSimplifiedAtFiles()
+                    + '|' + parser.atFileCommentChar() + '|' + parser.atFileCharset().name();
+        }
+        synchronized String[] get(String key) {
+            CachedFile entry = entries.get(key);
+            if (entry != null && !entry.isCurrent()) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) { missCount++; return null; }
+            hitCount++;
+            return entry.arguments;
+        }
+        synchronized void put(String key, String[] arguments, List<File> nestedFiles) {
+            entries.put(key, new CachedFile(arguments, nestedFiles));
+        }
+        public String toString() {
+            return String.format("AtFileCache[size=%d, maxEntries=%d, hitCount=%d, missCount=%d]", size(), maxEntries, hitCount(), missCount());
+        }
+
+        private static final class CachedFile {
+            final String[] arguments;
+            final File[] nestedFiles;
+            final long[] stamps;
+            CachedFile(String[] arguments, List<File> nestedFiles) {
+                this.arguments = arguments;
+                this.nestedFiles = nestedFiles.toArray(new File[0]);
+                this.stamps = new long[this.nestedFiles.length * 2];
+                for (int i = 0; i < this.nestedFiles.length; i++) {
+                    stamps[2 * i] = length(this.nestedFiles[i]);
+                    stamps[2 * i + 1] = this.nestedFiles[i].lastModified();
+                }
+            }
+            /** Returns -1 for files that cannot be read: these were passed as literal arguments. */
+            private static long length(File file) { return file.canRead() ? file.length() : -1; }
+            boolean isCurrent() {
+                for (int i = 0; i < nestedFiles.length; i++) {
+                    if (stamps[2 * i] != length(nestedFiles[i]) || stamps[2 * i + 1] != nestedFiles[i].lastModified()) { return false; }
+                }
+                return true;
+            }
+        }
+    }
+
+    /** Tokenizes an argument file. The file is read through a {@code FileChannel} in fixed-size chunks and decoded with
+     * an explicit charset; tokens are produced one at a time, so the file content is never held in memory as a whole.
+     * The standard format follows the rules of the {@code StreamTokenizer} that was used previously:
+     * whitespace separates tokens, single or double quotes delimit a token that may contain whitespace and escape sequences,
+     * and the optional comment character starts a comment that runs to the end of the line.
+     * In the simplified format every line is a token. */
+    private static final class ArgumentFileTokenizer {
+        private static final int NEED_CHAR = Integer.MAX_VALUE;
+        private static final int WHITESPACE = 0, WORD = 1, QUOTE = 2, COMMENT = 3;
+        private final FileChannel channel;
+        private final CharsetDecoder decoder;
+        private final ByteBuffer bytes;
+        private final CharBuffer chars;
+        private final int commentChar;
+        private final StringBuilder token = new StringBuilder();
+        private boolean endOfInput;
+        private boolean flushed;
+        private boolean skipLineFeed;
+        private int peek = NEED_CHAR;
+
+        ArgumentFileTokenizer(FileChannel channel, long length, Charset charset, Character commentChar) {
+            this.channel = channel;
+            this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            int capacity = (int) Math.max(16, Math.min(length, 64 * 1024));
+            this.bytes = ByteBuffer.allocate(capacity);
+            this.bytes.flip(); // empty, ready for reading
+            this.chars = CharBuffer.allocate(capacity);
+            this.chars.flip();
+            this.commentChar = commentChar == null ? -1 : commentChar.charValue();
+        }
+
+        /** Returns the next char, or -1 at the end of the file. Like {@code LineNumberReader}, line ends are normalized to a line feed. */
+        private int read() throws IOException {
+            if (!chars.hasRemaining() && !fill()) { return -1; }
+            char c = chars.get();
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') { return read(); }
+            }
+            if (c == '\r') {
+                skipLineFeed = true;
+                return '\n';
+            }
+            return c;
+        }
+        private boolean fill() throws IOException {
+            if (flushed) { return false; }
+            chars.clear();
+            while (chars.position() == 0) {
+                if (!endOfInput) {
+                    bytes.compact();
+                    endOfInput = channel.read(bytes) < 0;
+                    bytes.flip();
+                }
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if (result.isError()) { result.throwException(); }
+                if (endOfInput && !bytes.hasRemaining() && chars.position() == 0) {
+                    decoder.flush(chars);
+                    flushed = true;
+                    break;
+                }
+            }
+            chars.flip();
+            return chars.hasRemaining();
+        }
+        private int next() throws IOException {
+            int result = peek == NEED_CHAR ? read() : peek;
+            peek = NEED_CHAR;
+            return result;
+        }
+        private int type(int c) {
+            if (c >= 256) { return WORD; } // like StreamTokenizer, which only applies its syntax table to chars up to 255
+            if (c == commentChar) { return COMMENT; }
+            if (c == '"' || c == '\'') { return QUOTE; }
+            return c <= ' ' ? WHITESPACE : WORD;
+        }
+
+        /** Returns the next line, or {@code null} at the end of the file. */
+        String nextLine() throws IOException {
+            int c = next();
+            if (c < 0) { return null; }
+            token.setLength(0);
+            while (c >= 0 && c != '\n') {
+                token.append((char) c);
+                c = read();
+            }
+            return token.toString();
+        }
+
+        /** Returns the next token, or {@code null} at the end of the file. */
+        String nextToken() throws IOException {
+            int c = next();
+            while (true) {
+                while (c >= 0 && type(c) == WHITESPACE) { c = read(); }
+                if (c < 0) { return null; }
+                int type = type(c);
+                if (type == COMMENT) {
+                    while (c >= 0 && c != '\n') { c = read(); }
+                    continue;
+                }
+                token.setLength(0);
+                if (type == QUOTE) { return quoted(c); }
+                do {
+                    token.append((char) c);
+                    c = read();
+                } while (c >= 0 && type(c) == WORD);
+                peek = c;
+                return token.toString();
+            }
+        }
+        private String quoted(int quote) throws IOException {
+            int d = read();
+            while (d >= 0 && d != quote && d != '\n') {
+                int c;
+                if (d == '\\') {
+                    c = read();
+                    int first = c;
+                    if (c >= '0' && c <= '7') { // octal escape: up to three digits, value at most \377
+                        c = c - '0';
+                        int c2 = read();
+                        if ('0' <= c2 && c2 <= '7') {
+                            c = (c << 3) + (c2 - '0');
+                            c2 = read();
+                            if ('0' <= c2 && c2 <= '7' && first <= '3') {
+                                c = (c << 3) + (c2 - '0');
+                                d = read();
+                            } else {
+                                d = c2;
+                            }
+                        } else {
+                            d = c2;
+                        }
+                    } else {
+                        switch (c) {
+                            case 'a': c = 0x7; break;
+                            case 'b': c = '\b'; break;
+                            case 'f': c = 0xC; break;
+                            case 'n': c = '\n'; break;
+                            case 'r': c = '\r'; break;
+                            case 't': c = '\t'; break;
+                            case 'v': c = 0xB; break;
+                        }
+                        d = read();
+                    }
+                } else {
+                    c = d;
+                    d = read();
+                }
+                token.append((char) c);
+            }
+            peek = d == quote ? NEED_CHAR : d; // the closing quote is consumed, a line end is not
+            return token.toString();
+        }
+    }
+
+    /** Cursor over the (expanded) command line arguments. Arguments are consumed from the front of the array without
+     * copying; values split off an argument during parsing are pushed back onto a small buffer that is consumed first.
+     * Offers the subset of {@code Stack} operations the parser needs, without the synchronization of {@code Stack}. */
+    private static final class ArgCursor {
+        private final String[] args;
+        private int next;
+        private String[] pushed;
+        private int pushedCount;
+
+        ArgCursor(String... args) { this(args, 0, new String[4], 0); }
+        private ArgCursor(String[] args, int next, String[] pushed, int pushedCount) {
+            this.args = args;
+            this.next = next;
+            this.pushed = pushed;
+            this.pushedCount = pushedCount;
+        }
+        boolean isEmpty() { return pushedCount == 0 && next >= args.length; }
+        int size() { return pushedCount + args.length - next; }
+        String peek() {
+            if (pushedCount > 0) { return pushed[pushedCount - 1]; }
+            if (next < args.length) { return args[next]; }
+            throw new EmptyStackException();
+        }
+        String pop() {
+            String result = peek();
+            if (pushedCount > 0) { pushed[--pushedCount] = null; } else { next++; }
+            return result;
+        }
+        void push(String arg) {
+            if (pushedCount == pushed.length) {
+                String[] grown = new String[pushed.length * 2];
+                System.arraycopy(pushed, 0, grown, 0, pushedCount);
+                pushed = grown;
+            }
+            pushed[pushedCount++] = arg;
+        }
+        /** Returns an independent cursor positioned at the same argument as this cursor. Does not copy the arguments. */
+        ArgCursor copy() { return new ArgCursor(args, next, pushed.clone(), pushedCount); }
+
+        /** Returns the remaining arguments as a {@code Stack} with the next argument on top, for {@link IParameterConsumer}s. */
+        Stack<String> toStack() {
+            Stack<String> result = new Stack<String>();
+            for (int i = args.length - 1; i >= next; i--) { result.add(args[i]); }
+            for (int i = 0; i < pushedCount; i++) { result.add(pushed[i]); }
+            return result;
+        }
+        /** Replaces the remaining arguments with the contents of the specified stack (which may have been modified by an {@link IParameterConsumer}). */
+        void reset(Stack<String> stack) {
+            next = args.length;
+            pushed = stack.toArray(new String[Math.max(4, stack.size())]);
+            pushedCount = stack.size();
+        }
+        /** Returns the remaining arguments in command line order. */
+        List<String> remainder() {
+            List<String> result = new ArrayList<String>(size());
+            for (int i = pushedCount - 1; i >= 0; i--) { result.add(pushed[i]); }
+            for (int i = next; i < args.length; i++) { result.add(args[i]); }
+            return result;
+        }
+        public String toString() { return remainder().toString(); }
+    }
+
     /**
      * Helper class responsible for processing command line arguments.
      */
     private class Interpreter {
-        private final Map<Class<?>, ITypeConverter<?>> converterRegistry = new HashMap<Class<?>, ITypeConverter<?>>();
-        private boolean isHelpRequested;
-        private int position;
-        private int interactiveCount;
-        private boolean endOfOptions;
-        private ParseResult.Builder parseResultBuilder;
-
-        Interpreter() { registerBuiltInConverters(); }
-
-        private void registerBuiltInConverters() {
-            converterRegistry.put(Object.class,        new BuiltIn.StringConverter());
-            converterRegistry.put(String.class,        new BuiltIn.StringConverter());
-            converterRegistry.put(StringBuilder.class, new BuiltIn.StringBuilderConverter());
-            converterRegistry.put(char[].class,        new BuiltIn.CharArrayConverter());
-            converterRegistry.put(CharSequence.class,  new BuiltIn.CharSequenceConverter());
-            converterRegistry.put(Byte.class,          new BuiltIn.ByteConverter());
-            converterRegistry.put(Byte.TYPE,           new BuiltIn.ByteConverter());
-            converterRegistry.put(Boolean.class,       new BuiltIn.BooleanConverter());
-            converterRegistry.put(Boolean.TYPE,        new BuiltIn.BooleanConverter());
-            converterRegistry.put(Character.class,     new BuiltIn.CharacterConverter());
-            converterRegistry.put(Character.TYPE,      new BuiltIn.CharacterConverter());
-            converterRegistry.put(Short.class,         new BuiltIn.ShortConverter());
-            converterRegistry.put(Short.TYPE,          new BuiltIn.ShortConverter());
-            converterRegistry.put(Integer.class,       new BuiltIn.IntegerConverter());
-            converterRegistry.put(Integer.TYPE,        new BuiltIn.IntegerConverter());
-            converterRegistry.put(Long.class,          new BuiltIn.LongConverter());
-            converterRegistry.put(Long.TYPE,           new BuiltIn.LongConverter());
-            converterRegistry.put(Float.class,         new BuiltIn.FloatConverter());
-            converterRegistry.put(Float.TYPE,          new BuiltIn.FloatConverter());
-            converterRegistry.put(Double.class,        new BuiltIn.DoubleConverter());
-            converterRegistry.put(Double.TYPE,         new BuiltIn.DoubleConverter());
-            converterRegistry.put(File.class,          new BuiltIn.FileConverter());
-            converterRegistry.put(URI.class,           new BuiltIn.URIConverter());
-            converterRegistry.put(URL.class,           new BuiltIn.URLConverter());
-            converterRegistry.put(Date.class,          new BuiltIn.ISO8601DateConverter());
-            converterRegistry.put(BigDecimal.class,    new BuiltIn.BigDecimalConverter());
-            converterRegistry.put(BigInteger.class,    new BuiltIn.BigIntegerConverter());
-            converterRegistry.put(Charset.class,       new BuiltIn.CharsetConverter());
-            converterRegistry.put(InetAddress.class,   new BuiltIn.InetAddressConverter());
-            converterRegistry.put(Pattern.class,       new BuiltIn.PatternConverter());
-            converterRegistry.put(UUID.class,          new BuiltIn.UUIDConverter());
-            converterRegistry.put(Currency.class,      new BuiltIn.CurrencyConverter());
-            converterRegistry.put(TimeZone.class,      new BuiltIn.TimeZoneConverter());
-            converterRegistry.put(ByteOrder.class,     new BuiltIn.ByteOrderConverter());
-            converterRegistry.put(Class.class,         new BuiltIn.ClassConverter());
-            converterRegistry.put(NetworkInterface.class, new BuiltIn.NetworkInterfaceConverter());
+        private Map<Class<?>, ITypeConverter<?>> converters = Collections.emptyMap(); // registered with this CommandLine, copied on write
+        private ParseContext lastContext; // the most recent parse of this command, reported by the CommandLine accessors
 
-            // #698 use direct calls to Class.forName() and Class.getDeclaredMethod() with constant Strings
-            // to allow GraalVM static analysis to resolve the target elements
-            if (!excl("java.sql.Time")) { try { reg(Class.forName("java.sql.Time"), new BuiltIn.ISO8601TimeConverter(Class.forName("java.sql.Time").getDeclaredConstructor(long.class))); } catch (Exception e) {BuiltIn.handle(e, "java.sql.Time", tracer);} }
-
-            if (!excl("java.sql.Connection")) { try { reg(Class.forName("java.sql.Connection"), Class.forName("java.sql.DriverManager").getDeclaredMethod("getConnection", String.class), String.class); } catch (Exception e) {BuiltIn.handle(e, "java.sql.Connection", tracer);} }
-            if (!excl("java.sql.Driver"))     { try { reg(Class.forName("java.sql.Driver"),     Class.forName("java.sql.DriverManager").getDeclaredMethod("getDriver",     String.class), String.class); } catch (Exception e) {BuiltIn.handle(e, "java.sql.DriverManager", tracer);} }
-            if (!excl("java.sql.Timestamp"))  { try { reg(Class.forName("java.sql.Timestamp"),  Class.forName("java.sql.Timestamp")    .getDeclaredMethod("valueOf",       String.class), String.class); } catch (Exception e) {BuiltIn.handle(e, "java.sql.Timestamp", tracer);} }
-
-            if (!excl("java.time.Duration")) {       try { reg(Class.forName("java.time.Duration"),       Class.forName("java.time.Duration")      .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.Duration", tracer);} }
-            if (!excl("java.time.Instant")) {        try { reg(Class.forName("java.time.Instant"),        Class.forName("java.time.Instant")       .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.Instant", tracer);} }
-            if (!excl("java.time.LocalDate")) {      try { reg(Class.forName("java.time.LocalDate"),      Class.forName("java.time.LocalDate")     .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.LocalDate", tracer);} }
-            if (!excl("java.time.LocalDateTime")) {  try { reg(Class.forName("java.time.LocalDateTime"),  Class.forName("java.time.LocalDateTime") .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.LocalDateTime", tracer);} }
-            if (!excl("java.time.LocalTime")) {      try { reg(Class.forName("java.time.LocalTime"),      Class.forName("java.time.LocalTime")     .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.LocalTime", tracer);} }
-            if (!excl("java.time.MonthDay")) {       try { reg(Class.forName("java.time.MonthDay"),       Class.forName("java.time.MonthDay")      .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.MonthDay", tracer);} }
-            if (!excl("java.time.OffsetDateTime")) { try { reg(Class.forName("java.time.OffsetDateTime"), Class.forName("java.time.OffsetDateTime").getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.OffsetDateTime", tracer);} }
-            if (!excl("java.time.OffsetTime")) {     try { reg(Class.forName("java.time.OffsetTime"),     Class.forName("java.time.OffsetTime")    .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.OffsetTime", tracer);} }
-            if (!excl("java.time.Period")) {         try { reg(Class.forName("java.time.Period"),         Class.forName("java.time.Period")        .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.Period", tracer);} }
-            if (!excl("java.time.Year")) {           try { reg(Class.forName("java.time.Year"),           Class.forName("java.time.Year")          .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.Year", tracer);} }
-            if (!excl("java.time.YearMonth")) {      try { reg(Class.forName("java.time.YearMonth"),      Class.forName("java.time.YearMonth")     .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.YearMonth", tracer);} }
-            if (!excl("java.time.ZonedDateTime")) {  try { reg(Class.forName("java.time.ZonedDateTime"),  Class.forName("java.time.ZonedDateTime") .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); } catch (Exception e) {BuiltIn.handle(e, "java.time.ZonedDateTime", tracer);} }
-            if (!excl("java.time.ZoneId")) {         try { reg(Class.forName("java.time.ZoneId"),         Class.forName("java.time.ZoneId")        .getDeclaredMethod("of",    String.class),       String.class);       } catch (Exception e) {BuiltIn.handle(e, "java.time.ZoneId", tracer);} }
-            if (!excl("java.time.ZoneOffset")) {     try { reg(Class.forName("java.time.ZoneOffset"),     Class.forName("java.time.ZoneOffset")    .getDeclaredMethod("of",    String.class),       String.class);       } catch (Exception e) {BuiltIn.handle(e, "java.time.ZoneOffset", tracer);} }
-
-            if (!excl("java.nio.file.Path")) {     try { reg(Class.forName("java.nio.file.Path"),  Class.forName("java.nio.file.Paths").getDeclaredMethod("get", String.class, String[].class), String.class, String[].class); } catch (Exception e) {BuiltIn.handle(e, "java.nio.file.Path", tracer);} }
-        }
-        private boolean excl(String fqcn) { return BuiltIn.excluded(fqcn, tracer); }
-        private void reg(Class<?> cls, Method method, Class<?>... paramTypes) {
-            converterRegistry.put(cls, new BuiltIn.ReflectionConverter(method, paramTypes));
-        }
-        private void reg(Class<?> timeClass, BuiltIn.ISO8601TimeConverter converter) {
-            converterRegistry.put(timeClass, converter);
+        Interpreter() { }
+
+        private void registerConverter(Class<?> cls, ITypeConverter<?> converter) {
+            Map<Class<?>, ITypeConverter<?>> copy = new HashMap<Class<?>, ITypeConverter<?>>(converters);
+            copy.put(cls, converter);
+            converters = copy;
+        }
+        private ITypeConverter<?> converter(Class<?> type) {
+            ITypeConverter<?> result = converters.get(type);
+            return result != null ? result : BuiltIn.converter(type, tracer);
         }
         private ParserSpec config() { return commandSpec.parser(); }
         /**
@@ -11363,6 +12996,18 @@ public class CommandLine {
          * @throws ParameterException if the specified command line arguments are invalid
          */
         List<CommandLine> parse(String... args) {
+            List<CommandLine> result = new ArrayList<CommandLine>();
+            parse(result, args);
+            return result;
+        }
+        /**
+         * Parses the specified command line arguments, adding the commands and subcommands initialized by this method to the specified list.
+         * @param parsedCommands the list to add the matched commands and subcommands to
+         * @param args the command line arguments
+         * @return the context of the top-level command in this parse
+         * @throws ParameterException if the specified command line arguments are invalid
+         */
+        ParseContext parse(List<CommandLine> parsedCommands, String... args) {
             Assert.notNull(args, "argument array");
             if (tracer.isInfo()) {tracer.info("Picocli version: %s%n", versionString());}
             if (tracer.isInfo()) {tracer.info("Parsing %d command line args %s%n", args.length, Arrays.toString(args));}
@@ -11370,105 +13015,116 @@ public class CommandLine {
             if (tracer.isDebug()){tracer.debug("(ANSI is %s by default: systemproperty[picocli.ansi]=%s, isatty=%s, TERM=%s, OSTYPE=%s, isWindows=%s, JansiConsoleInstalled=%s, ANSICON=%s, ConEmuANSI=%s, NO_COLOR=%s, CLICOLOR=%s, CLICOLOR_FORCE=%s)%n",
                     Help.Ansi.AUTO.enabled() ? "enabled" : "disabled", System.getProperty("picocli.ansi"), Help.Ansi.isTTY(), System.getenv("TERM"), System.getenv("OSTYPE"), Help.Ansi.isWindows(), Help.Ansi.isJansiConsoleInstalled(), System.getenv("ANSICON"), System.getenv("ConEmuANSI"), System.getenv("NO_COLOR"), System.getenv("CLICOLOR"), System.getenv("CLICOLOR_FORCE"));}
             List<String> expanded = new ArrayList<String>();
-            for (String arg : args) { addOrExpand(arg, expanded, new LinkedHashSet<String>()); }
-            Stack<String> arguments = new Stack<String>();
-            arguments.addAll(reverseList(expanded));
-            List<CommandLine> result = new ArrayList<CommandLine>();
-            parse(result, arguments, args, new ArrayList<Object>());
-            return result;
+            for (String arg : args) { addOrExpand(arg, expanded, new LinkedHashSet<String>(), null); }
+            return parse(null, parsedCommands, new ArgCursor(expanded.toArray(new String[0])), args, new ArrayList<Object>());
         }
 
-        private void addOrExpand(String arg, List<String> arguments, Set<String> visited) {
+        private void addOrExpand(String arg, List<String> arguments, Set<String> visited, List<File> nestedAtFiles) {
             if (config().expandAtFiles() && !arg.equals("@") && arg.startsWith("@")) {
                 arg = arg.substring(1);
                 if (arg.startsWith("@")) {
                     if (tracer.isInfo()) { tracer.info("Not expanding @-escaped argument %s (trimmed leading '@' char)%n", arg); }
                 } else {
                     if (tracer.isInfo()) { tracer.info("Expanding argument file @%s%n", arg); }
-                    expandArgumentFile(arg, arguments, visited);
+                    expandArgumentFile(arg, arguments, visited, nestedAtFiles);
                     return;
                 }
             }
             arguments.add(arg);
         }
-        private void expandArgumentFile(String fileName, List<String> arguments, Set<String> visited) {
+        private void expandArgumentFile(String fileName, List<String> arguments, Set<String> visited, List<File> nestedAtFiles) {
             File file = new File(fileName);
+            if (nestedAtFiles != null) { nestedAtFiles.add(file); }
             if (!file.canRead()) {
                 if (tracer.isInfo()) {tracer.info("File %s does not exist or cannot be read; treating argument literally%n", fileName);}
                 arguments.add("@" + fileName);
             } else if (visited.contains(file.getAbsolutePath())) {
                 if (tracer.isInfo()) {tracer.info("Already visited file %s; ignoring...%n", file.getAbsolutePath());}
+            } else if (visited.isEmpty() && config().atFileCache() != null) { // only top-level files are cached
+                expandCachedArgumentFile(fileName, file, arguments, visited, config().atFileCache());
             } else {
-                expandValidArgumentFile(fileName, file, arguments, visited);
+                expandValidArgumentFile(fileName, file, arguments, visited, nestedAtFiles);
             }
         }
-        private void expandValidArgumentFile(String fileName, File file, List<String> arguments, Set<String> visited) {
-            List<String> result = new ArrayList<String>();
-            LineNumberReader reader = null;
+        private void expandCachedArgumentFile(String fileName, File file, List<String> arguments, Set<String> visited, AtFileCache cache) {
+            String key;
+            try {
+                key = AtFileCache.key(file, config());
+            } catch (IOException ex) {
+                throw new InitializationException("Could not read argument file @" + fileName, ex);
+            }
+            String[] cached = cache.get(key);
+            if (cached != null) {
+                if (tracer.isInfo()) {tracer.info("Expanded file @%s to arguments %s (from cache)%n", fileName, Arrays.asList(cached));}
+                arguments.addAll(Arrays.asList(cached));
+                return;
+            }
+            int start = arguments.size();
+            List<File> nestedAtFiles = new ArrayList<File>(); // argument files referenced while expanding this file
+            expandValidArgumentFile(fileName, file, arguments, visited, nestedAtFiles);
+            cache.put(key, arguments.subList(start, arguments.size()).toArray(new String[0]), nestedAtFiles);
+        }
+        private void expandValidArgumentFile(String fileName, File file, List<String> arguments, Set<String> visited, List<File> nestedAtFiles) {
+            int start = arguments.size();
+            FileInputStream in = null;
             try {
                 visited.add(file.getAbsolutePath());
-                reader = new LineNumberReader(new FileReader(file));
+                in = new FileInputStream(file);
+                ArgumentFileTokenizer tokenizer = new ArgumentFileTokenizer(in.getChannel(), file.length(),
+                        commandSpec.parser().atFileCharset(), commandSpec.parser().atFileCommentChar());
                 if (commandSpec.parser().useSimplifiedAtFiles()) {
                     String token;
-                    while ((token = reader.readLine()) != null) {
+                    while ((token = tokenizer.nextLine()) != null) {
                         if (token.length() > 0 && !token.trim().startsWith(String.valueOf(commandSpec.parser().atFileCommentChar()))) {
-                            addOrExpand(token, result, visited);
+                            addOrExpand(token, arguments, visited, nestedAtFiles);
                         }
                     }
                 } else {
-                    StreamTokenizer tok = new StreamTokenizer(reader);
-                    tok.resetSyntax();
-                    tok.wordChars(' ', 255);
-                    tok.whitespaceChars(0, ' ');
-                    tok.quoteChar('"');
-                    tok.quoteChar('\'');
-                    if (commandSpec.parser().atFileCommentChar() != null) {
-                        tok.commentChar(commandSpec.parser().atFileCommentChar());
-                    }
-                    while (tok.nextToken() != StreamTokenizer.TT_EOF) {
-                        addOrExpand(tok.sval, result, visited);
+                    String token;
+                    while ((token = tokenizer.nextToken()) != null) {
+                        addOrExpand(token, arguments, visited, nestedAtFiles);
                     }
                 }
             } catch (Exception ex) {
                 throw new InitializationException("Could not read argument file @" + fileName, ex);
             } finally {
-                close(reader);
+                close(in);
             }
-            if (tracer.isInfo()) {tracer.info("Expanded file @%s to arguments %s%n", fileName, result);}
-            arguments.addAll(result);
+            if (tracer.isInfo()) {tracer.info("Expanded file @%s to arguments %s%n", fileName, arguments.subList(start, arguments.size()));}
         }
-        private void clear() {
+        private void clear(ParseContext context) {
             getCommandSpec().userObject(); // #690 instantiate user object when cmd matched on the command line
-            position = 0;
-            endOfOptions = false;
-            isHelpRequested = false;
-            parseResultBuilder = ParseResult.builder(getCommandSpec());
-            for (OptionSpec option : getCommandSpec().options())                           { clear(option); }
-            for (PositionalParamSpec positional : getCommandSpec().positionalParameters()) { clear(positional); }
-            for (ArgGroupSpec group : getCommandSpec().argGroups())                        { clear(group); }
-        }
-        private void clear(ArgSpec argSpec) {
-            argSpec.resetStringValues();
-            argSpec.resetOriginalStringValues();
-            argSpec.typedValues.clear();
-            argSpec.typedValueAtPosition.clear();
-            if (argSpec.group() == null) { argSpec.applyInitialValue(tracer); } // groups do their own initialization
-        }
-        private void clear(ArgGroupSpec group) {
-            for (ArgSpec arg : group.args()) { clear(arg); }
-            for (ArgGroupSpec sub : group.subgroups()) { clear(sub); }
-        }
-
-        void maybeThrow(PicocliException ex) throws PicocliException {
+            for (OptionSpec option : getCommandSpec().options())                           { clear(context, option); }
+            for (PositionalParamSpec positional : getCommandSpec().positionalParameters()) { clear(context, positional); }
+            for (ArgGroupSpec group : getCommandSpec().argGroups())                        { clear(context, group); }
+        }
+        private void clear(ParseContext context, ArgSpec argSpec) {
+            ParseContext.ArgValues values = context.values(argSpec);
+            argSpec.stringValues = values.stringValues; // the ArgSpec reports the values of the most recent parse
+            argSpec.originalStringValues = values.originalStringValues;
+            argSpec.typedValues = values.typedValues;
+            if (argSpec.group() == null) { // groups do their own initialization
+                argSpec.applyInitialValue(tracer);
+                if (argSpec.hasInitialValue()) { values.set(argSpec.initialValue()); }
+            }
+        }
+        private void clear(ParseContext context, ArgGroupSpec group) {
+            for (ArgSpec arg : group.args()) { clear(context, arg); }
+            for (ArgGroupSpec sub : group.subgroups()) { clear(context, sub); }
+        }
+
+        void maybeThrow(ParseContext context, PicocliException ex) throws PicocliException {
             if (commandSpec.parser().collectErrors) {
-                parseResultBuilder.addError(ex);
+                context.builder.addError(ex);
             } else {
                 throw ex;
             }
         }
 
-        private void parse(List<CommandLine> parsedCommands, Stack<String> argumentStack, String[] originalArgs, List<Object> nowProcessing) {
-            clear(); // first reset any state in case this CommandLine instance is being reused
+        private ParseContext parse(ParseContext parent, List<CommandLine> parsedCommands, ArgCursor argumentStack, String[] originalArgs, List<Object> nowProcessing) {
+            ParseContext context = new ParseContext(getCommandSpec(), parent);
+            lastContext = context;
+            clear(context); // first reset any state in case this CommandLine instance is being reused
             if (tracer.isDebug()) {
                 tracer.debug("Initializing %s: %d options, %d positional parameters, %d required, %d groups, %d subcommands.%n",
                         commandSpec.toString(), new HashSet<ArgSpec>(commandSpec.optionsMap().values()).size(),
@@ -11476,83 +13132,83 @@ public class CommandLine {
                         commandSpec.argGroups().size(), commandSpec.subcommands().size());
             }
             parsedCommands.add(CommandLine.this);
-            List<ArgSpec> required = new ArrayList<ArgSpec>(commandSpec.requiredArgs());
+            Collection<ArgSpec> required = new RequiredArgs(context.plan);
             Set<ArgSpec> initialized = new LinkedHashSet<ArgSpec>();
-            Collections.sort(required, new PositionalParametersSorter());
             boolean continueOnError = commandSpec.parser().collectErrors();
             do {
                 int stackSize = argumentStack.size();
                 try {
-                    applyDefaultValues(required);
-                    processArguments(parsedCommands, argumentStack, required, initialized, originalArgs, nowProcessing);
+                    applyDefaultValues(context, required);
+                    processArguments(context, parsedCommands, argumentStack, required, initialized, originalArgs, nowProcessing);
                 } catch (InitializationException ex) {
-                    maybeThrow(ex);
+                    maybeThrow(context, ex);
                 } catch (ParameterException ex) {
-                    maybeThrow(ex);
+                    maybeThrow(context, ex);
                 } catch (Exception ex) {
                     int offendingArgIndex = originalArgs.length - argumentStack.size() - 1;
                     String arg = offendingArgIndex >= 0 && offendingArgIndex < originalArgs.length ? originalArgs[offendingArgIndex] : "?";
-                    maybeThrow(ParameterException.create(CommandLine.this, ex, arg, offendingArgIndex, originalArgs));
+                    maybeThrow(context, ParameterException.create(CommandLine.this, ex, arg, offendingArgIndex, originalArgs));
                 }
                 if (continueOnError && stackSize == argumentStack.size() && stackSize > 0) {
-                    parseResultBuilder.unmatched.add(argumentStack.pop());
+                    context.builder.unmatched.add(argumentStack.pop());
                 }
             } while (!argumentStack.isEmpty() && continueOnError);
 
-            if (!isAnyHelpRequested()) {
-                validateConstraints(argumentStack, required, initialized);
+            if (!isAnyHelpRequested(context)) {
+                validateConstraints(context, argumentStack, required, initialized);
             }
+            return context;
         }
 
-        private void validateConstraints(Stack<String> argumentStack, List<ArgSpec> required, Set<ArgSpec> matched) {
+        private void validateConstraints(ParseContext context, ArgCursor argumentStack, Collection<ArgSpec> required, Set<ArgSpec> matched) {
             if (!required.isEmpty()) {
                 for (ArgSpec missing : required) {
                     Assert.assertTrue(missing.group() == null, "Arguments in a group are not necessarily required for the command");
                     if (missing.isOption()) {
-                        maybeThrow(MissingParameterException.create(CommandLine.this, required, config().separator()));
+                        maybeThrow(context, MissingParameterException.create(CommandLine.this, required, config().separator()));
                     } else {
-                        assertNoMissingParameters(missing, missing.arity(), argumentStack);
+                        assertNoMissingParameters(context, missing, missing.arity(), argumentStack);
                     }
                 }
             }
-            if (!parseResultBuilder.unmatched.isEmpty()) {
-                String[] unmatched = parseResultBuilder.unmatched.toArray(new String[0]);
+            if (!context.builder.unmatched.isEmpty()) {
+                String[] unmatched = context.builder.unmatched.toArray(new String[0]);
                 for (UnmatchedArgsBinding unmatchedArgsBinding : getCommandSpec().unmatchedArgsBindings()) {
                     unmatchedArgsBinding.addAll(unmatched.clone());
                 }
-                if (!isUnmatchedArgumentsAllowed()) { maybeThrow(new UnmatchedArgumentException(CommandLine.this, Collections.unmodifiableList(parseResultBuilder.unmatched))); }
-                if (tracer.isInfo()) { tracer.info("Unmatched arguments: %s%n", parseResultBuilder.unmatched); }
+                if (!isUnmatchedArgumentsAllowed()) { maybeThrow(context, new UnmatchedArgumentException(CommandLine.this, Collections.unmodifiableList(context.builder.unmatched))); }
+                if (tracer.isInfo()) { tracer.info("Unmatched arguments: %s%n", context.builder.unmatched); }
             }
-            ParseResult pr = parseResultBuilder.build();
-            pr.validateGroups();
+            ParseResult pr = context.builder.build();
+            pr.validateGroups(context);
         }
 
-        private void applyDefaultValues(List<ArgSpec> required) throws Exception {
-            parseResultBuilder.isInitializingDefaultValues = true;
+        private void applyDefaultValues(ParseContext context, Collection<ArgSpec> required) throws Exception {
+            context.builder.isInitializingDefaultValues = true;
             for (ArgSpec arg : commandSpec.args()) {
                 if (arg.group() == null) {
-                    if (applyDefault(commandSpec.defaultValueProvider(), arg)) { required.remove(arg); }
+                    if (applyDefault(context, commandSpec.defaultValueProvider(), arg)) { required.remove(arg); }
                 }
             }
             for (ArgGroupSpec group : commandSpec.argGroups()) {
-                applyGroupDefaults(commandSpec.defaultValueProvider(), group, required);
+                applyGroupDefaults(context, commandSpec.defaultValueProvider(), group, required);
             }
             for (UnmatchedArgsBinding unmatched : commandSpec.unmatchedArgsBindings()) {
                 unmatched.clear();
             }
-            parseResultBuilder.isInitializingDefaultValues = false;
+            context.builder.isInitializingDefaultValues = false;
         }
-        private void applyGroupDefaults(IDefaultValueProvider defaultValueProvider, ArgGroupSpec group, List<ArgSpec> required) throws Exception {
+        private void applyGroupDefaults(ParseContext context, IDefaultValueProvider defaultValueProvider, ArgGroupSpec group, Collection<ArgSpec> required) throws Exception {
             for (ArgSpec arg : group.args()) {
                 if (arg.scope().get() != null) {
-                    if (applyDefault(defaultValueProvider, arg)) { required.remove(arg); }
+                    if (applyDefault(context, defaultValueProvider, arg)) { required.remove(arg); }
                 }
             }
             for (ArgGroupSpec sub : group.subgroups()) {
-                applyGroupDefaults(defaultValueProvider, sub, required);
+                applyGroupDefaults(context, defaultValueProvider, sub, required);
             }
         }
-        private boolean applyDefault(IDefaultValueProvider defaultValueProvider, ArgSpec arg) throws Exception {
+        private boolean applyDefault(ParseContext context, IDefaultValueProvider defaultValueProvider, ArgSpec arg) throws Exception {
 
             // Default value provider return value is only used if provider exists and if value
             // is not null otherwise the original default or initial value are used
@@ -11563,15 +13219,15 @@ public class CommandLine {
                 String provider = defaultValueProvider == null ? "" : (" from " + defaultValueProvider.toString());
                 if (tracer.isDebug()) {tracer.debug("Applying defaultValue (%s)%s to %s on %s%n", defaultValue, provider, arg, arg.scopeString());}
                 Range arity = arg.arity().min(Math.max(1, arg.arity().min));
-                applyOption(arg, false, LookBehind.SEPARATE, false, arity, stack(defaultValue), new HashSet<ArgSpec>(), arg.toString);
+                applyOption(context, arg, false, LookBehind.SEPARATE, false, arity, stack(defaultValue), new HashSet<ArgSpec>(), arg.toString);
             }
             return defaultValue != null;
         }
 
-        private Stack<String> stack(String value) {Stack<String> result = new Stack<String>(); result.push(value); return result;}
+        private ArgCursor stack(String value) { return new ArgCursor(value); }
 
-        private void processArguments(List<CommandLine> parsedCommands,
-                                      Stack<String> args,
+        private void processArguments(ParseContext context, List<CommandLine> parsedCommands,
+                                      ArgCursor args,
                                       Collection<ArgSpec> required,
                                       Set<ArgSpec> initialized,
                                       String[] originalArgs,
@@ -11585,12 +13241,12 @@ public class CommandLine {
             // 4. a combination of stand-alone options, like "-vxr". Equivalent to "-v -x -r", "-v true -x true -r true"
             // 5. a combination of stand-alone options and one option with an argument, like "-vxrffile"
 
-            parseResultBuilder.originalArgs(originalArgs);
-            parseResultBuilder.nowProcessing = nowProcessing;
-            String separator = config().separator();
+            context.builder.originalArgs(originalArgs);
+            context.builder.nowProcessing = nowProcessing;
+            String separator = context.plan.separator;
             while (!args.isEmpty()) {
-                if (endOfOptions) {
-                    processRemainderAsPositionalParameters(required, initialized, args);
+                if (context.endOfOptions) {
+                    processRemainderAsPositionalParameters(context, required, initialized, args);
                     return;
                 }
                 String originalArg = args.pop();
@@ -11598,36 +13254,34 @@ public class CommandLine {
                 boolean actuallyUnquoted = !originalArg.equals(arg);
                 if (tracer.isDebug()) {
                     int argIndex = originalArgs.length - (args.size() + 1);
-                    if (actuallyUnquoted) { tracer.debug("[%d] Processing argument '%s' (trimmed from '%s'). Remainder=%s%n", argIndex, arg, originalArg, reverse(copy(args))); }
-                    else { tracer.debug("[%d] Processing argument '%s'. Remainder=%s%n", argIndex, arg, reverse(copy(args))); }
+                    if (actuallyUnquoted) { tracer.debug("[%d] Processing argument '%s' (trimmed from '%s'). Remainder=%s%n", argIndex, arg, originalArg, args); }
+                    else { tracer.debug("[%d] Processing argument '%s'. Remainder=%s%n", argIndex, arg, args); }
                 }
 
                 // Double-dash separates options from positional arguments.
                 // If found, then interpret the remaining args as positional parameters.
-                if (commandSpec.parser.endOfOptionsDelimiter().equals(arg)) {
-                    tracer.info("Found end-of-options delimiter '%s'. Treating remainder as positional parameters.%n", commandSpec.parser.endOfOptionsDelimiter());
-                    endOfOptions = true;
-                    processRemainderAsPositionalParameters(required, initialized, args);
+                if (context.plan.endOfOptionsDelimiter.equals(arg)) {
+                    tracer.info("Found end-of-options delimiter '%s'. Treating remainder as positional parameters.%n", context.plan.endOfOptionsDelimiter);
+                    context.endOfOptions = true;
+                    processRemainderAsPositionalParameters(context, required, initialized, args);
                     return; // we are done
                 }
 
                 // if we find another command, we are done with the current command
-                if (commandSpec.subcommands().containsKey(arg)) {
-                    CommandLine subcommand = commandSpec.subcommands().get(arg);
-                    processSubcommand(subcommand, parseResultBuilder, parsedCommands, args, required, originalArgs, nowProcessing, separator, arg);
+                CommandLine subcommand = context.plan.subcommands.get(arg);
+                if (subcommand != null) {
+                    processSubcommand(context, subcommand, context, parsedCommands, args, required, originalArgs, nowProcessing, separator, arg);
                     return; // remainder done by the command
                 }
-                if (commandSpec.parent() != null && commandSpec.parent().subcommandsRepeatable() && commandSpec.parent().subcommands().containsKey(arg)) {
+                subcommand = context.parent == null ? null : repeatableSubcommand(arg);
+                if (subcommand != null) {
                     tracer.debug("'%s' is a repeatable subcommand of %s%n", arg, commandSpec.parent().qualifiedName());// #454 repeatable subcommands
-                    CommandLine subcommand = commandSpec.parent().subcommands().get(arg);
-                    if (subcommand.interpreter.parseResultBuilder != null) {
+                    if (parsedCommands.contains(subcommand)) {
                         tracer.debug("Subcommand '%s' has been matched before. Making a copy...%n", subcommand.getCommandName());
-                        CommandUserObject cuo = subcommand.getCommandSpec().userObject;
-                        Object command = cuo.type == null ? cuo.instance : cuo.type;
-                        subcommand = new CommandLine(command, factory); // create a new sub-hierarchy
+                        subcommand = subcommand.copy(); // create a new sub-hierarchy
                         subcommand.getCommandSpec().parent(commandSpec.parent()); // hook it up with its parent
                     }
-                    processSubcommand(subcommand, getParent().interpreter.parseResultBuilder, parsedCommands, args, required, originalArgs, nowProcessing, separator, arg);
+                    processSubcommand(context, subcommand, context.parent, parsedCommands, args, required, originalArgs, nowProcessing, separator, arg);
                     continue;
                 }
 
@@ -11640,9 +13294,9 @@ public class CommandLine {
                 if (separatorIndex > 0) {
                     String key = arg.substring(0, separatorIndex);
                     // be greedy. Consume the whole arg as an option if possible.
-                    if (isStandaloneOption(key) && isStandaloneOption(arg)) {
+                    if (isStandaloneOption(context, key) && isStandaloneOption(context, arg)) {
                         tracer.warn("Both '%s' and '%s' are valid option names in %s. Using '%s'...%n", arg, key, getCommandName(), arg);
-                    } else if (isStandaloneOption(key)) {
+                    } else if (isStandaloneOption(context, key)) {
                         lookBehind = LookBehind.ATTACHED_WITH_SEPARATOR;
                         String optionParam = arg.substring(separatorIndex + separator.length());
                         args.push(optionParam);
@@ -11654,92 +13308,98 @@ public class CommandLine {
                 } else {
                     if (tracer.isDebug()) {tracer.debug("'%s' cannot be separated into <option>%s<option-parameter>%n", arg, separator);}
                 }
-                if (isStandaloneOption(arg)) {
-                    processStandaloneOption(required, initialized, arg, actuallyUnquoted, args, lookBehind);
+                if (isStandaloneOption(context, arg)) {
+                    processStandaloneOption(context, required, initialized, arg, actuallyUnquoted, args, lookBehind);
                 }
                 // Compact (single-letter) options can be grouped with other options or with an argument.
                 // only single-letter options can be combined with other options or with an argument
                 else if (config().posixClusteredShortOptionsAllowed() && arg.length() > 2 && arg.startsWith("-")) {
                     if (tracer.isDebug()) {tracer.debug("Trying to process '%s' as clustered short options%n", arg, args);}
-                    processClusteredShortOptions(required, initialized, arg, actuallyUnquoted, args);
+                    processClusteredShortOptions(context, required, initialized, arg, actuallyUnquoted, args);
                 }
                 // The argument could not be interpreted as an option: process it as a positional argument
                 else {
                     args.push(arg);
                     if (tracer.isDebug()) {tracer.debug("Could not find option '%s', deciding whether to treat as unmatched option or positional parameter...%n", arg);}
-                    if (commandSpec.resemblesOption(arg, tracer)) { handleUnmatchedArgument(args); continue; } // #149
+                    if (commandSpec.resemblesOption(arg, tracer)) { handleUnmatchedArgument(context, args); continue; } // #149
                     if (tracer.isDebug()) {tracer.debug("No option named '%s' found. Processing as positional parameter%n", arg);}
-                    processPositionalParameter(required, initialized, actuallyUnquoted, args);
+                    processPositionalParameter(context, required, initialized, actuallyUnquoted, args);
                 }
             }
         }
 
-        private void processSubcommand(CommandLine subcommand, ParseResult.Builder builder, List<CommandLine> parsedCommands, Stack<String> args, Collection<ArgSpec> required, String[] originalArgs, List<Object> nowProcessing, String separator, String arg) {
+        private void processSubcommand(ParseContext context, CommandLine subcommand, ParseContext parentContext, List<CommandLine> parsedCommands, ArgCursor args, Collection<ArgSpec> required, String[] originalArgs, List<Object> nowProcessing, String separator, String arg) {
             nowProcessing.add(subcommand.commandSpec);
-            updateHelpRequested(subcommand.commandSpec);
-            if (!isAnyHelpRequested() && !required.isEmpty()) { // ensure current command portion is valid
+            updateHelpRequested(context, subcommand.commandSpec);
+            if (!isAnyHelpRequested(context) && !required.isEmpty()) { // ensure current command portion is valid
                 throw MissingParameterException.create(CommandLine.this, required, separator);
             }
             if (tracer.isDebug()) {tracer.debug("Found subcommand '%s' (%s)%n", arg, subcommand.commandSpec.toString());}
-            subcommand.interpreter.parse(parsedCommands, args, originalArgs, nowProcessing);
-            builder.subcommand(subcommand.interpreter.parseResultBuilder.build());
+            ParseContext subcommandContext = subcommand.interpreter.parse(parentContext, parsedCommands, args, originalArgs, nowProcessing);
+            parentContext.builder.subcommand(subcommandContext.builder.build());
         }
 
-        private boolean isStandaloneOption(String arg) {
-            return commandSpec.optionsMap().containsKey(arg) || commandSpec.negatedOptionsMap().containsKey(arg);
+        /** Returns the sibling subcommand with the specified name if the parent command has repeatable subcommands, or {@code null}. */
+        private CommandLine repeatableSubcommand(String arg) {
+            CommandSpec parent = commandSpec.parent();
+            return parent != null && parent.subcommandsRepeatable() ? parent.parsePlan().subcommands.get(arg) : null;
         }
-        private void handleUnmatchedArgument(Stack<String> args) throws Exception {
-            if (!args.isEmpty()) { handleUnmatchedArgument(args.pop()); }
+
+        private boolean isStandaloneOption(ParseContext context, String arg) {
+            return context.plan.options.containsKey(arg) || context.plan.negatedOptions.containsKey(arg);
+        }
+        private void handleUnmatchedArgument(ParseContext context, ArgCursor args) throws Exception {
+            if (!args.isEmpty()) { handleUnmatchedArgument(context, args.pop()); }
             if (config().stopAtUnmatched()) {
                 // addAll would give args in reverse order
-                while (!args.isEmpty()) { handleUnmatchedArgument(args.pop()); }
+                while (!args.isEmpty()) { handleUnmatchedArgument(context, args.pop()); }
             }
         }
-        private void handleUnmatchedArgument(String arg) {
-            parseResultBuilder.unmatched.add(arg);
+        private void handleUnmatchedArgument(ParseContext context, String arg) {
+            context.builder.unmatched.add(arg);
         }
 
-        private void processRemainderAsPositionalParameters(Collection<ArgSpec> required, Set<ArgSpec> initialized, Stack<String> args) throws Exception {
-            while (!args.empty()) {
-                processPositionalParameter(required, initialized, false, args);
+        private void processRemainderAsPositionalParameters(ParseContext context, Collection<ArgSpec> required, Set<ArgSpec> initialized, ArgCursor args) throws Exception {
+            while (!args.isEmpty()) {
+                processPositionalParameter(context, required, initialized, false, args);
             }
         }
-        private void processPositionalParameter(Collection<ArgSpec> required, Set<ArgSpec> initialized, boolean alreadyUnquoted, Stack<String> args) throws Exception {
-            int argIndex = parseResultBuilder.originalArgList.size() - args.size();
-            if (tracer.isDebug()) {tracer.debug("[%d] Processing next arg as a positional parameter. Command-local position=%d. Remainder=%s%n", argIndex, position, reverse(copy(args)));}
+        private void processPositionalParameter(ParseContext context, Collection<ArgSpec> required, Set<ArgSpec> initialized, boolean alreadyUnquoted, ArgCursor args) throws Exception {
+            int argIndex = context.builder.originalArgList.size() - args.size();
+            if (tracer.isDebug()) {tracer.debug("[%d] Processing next arg as a positional parameter. Command-local position=%d. Remainder=%s%n", argIndex, context.position, args);}
             if (config().stopAtPositional()) {
-                if (!endOfOptions && tracer.isDebug()) {tracer.debug("Parser was configured with stopAtPositional=true, treating remaining arguments as positional parameters.%n");}
-                endOfOptions = true;
+                if (!context.endOfOptions && tracer.isDebug()) {tracer.debug("Parser was configured with stopAtPositional=true, treating remaining arguments as positional parameters.%n");}
+                context.endOfOptions = true;
             }
-            int originalInteractiveCount = this.interactiveCount;
+            int originalInteractiveCount = context.interactiveCount;
             int consumedByGroup = 0;
             int argsConsumed = 0;
             int interactiveConsumed = 0;
-            int originalNowProcessingSize = parseResultBuilder.nowProcessing.size();
+            int originalNowProcessingSize = context.builder.nowProcessing.size();
             Map<PositionalParamSpec, Integer> newPositions = new IdentityHashMap<PositionalParamSpec, Integer>();
             for (PositionalParamSpec positionalParam : commandSpec.positionalParameters()) {
                 Range indexRange = positionalParam.index();
-                int localPosition = getPosition(positionalParam);
+                int localPosition = getPosition(context, positionalParam);
                 if (positionalParam.group() != null) { // does the positionalParam's index range contain the current position in the currently matching group
-                    GroupMatchContainer groupMatchContainer = parseResultBuilder.groupMatchContainer.findOrCreateMatchingGroup(positionalParam, commandSpec.commandLine());
+                    GroupMatchContainer groupMatchContainer = context.builder.groupMatchContainer.findOrCreateMatchingGroup(positionalParam, context);
                     if (!indexRange.contains(localPosition) || (groupMatchContainer != null && groupMatchContainer.lastMatch().hasMatchedValueAtPosition(positionalParam, localPosition))) {
                         continue;
                     }
                 } else {
-                    if (!indexRange.contains(localPosition) || positionalParam.typedValueAtPosition.get(localPosition) != null) {
+                    if (!indexRange.contains(localPosition) || context.values(positionalParam).typedValueAtPosition.get(localPosition) != null) {
                         continue;
                     }
                 }
-                Stack<String> argsCopy = copy(args);
+                ArgCursor argsCopy = args.copy();
                 Range arity = positionalParam.arity();
-                if (tracer.isDebug()) {tracer.debug("Position %s is in index range %s. Trying to assign args to %s, arity=%s%n", positionDesc(positionalParam), indexRange, positionalParam, arity);}
-                if (!assertNoMissingParameters(positionalParam, arity, argsCopy)) { break; } // #389 collectErrors parsing
+                if (tracer.isDebug()) {tracer.debug("Position %s is in index range %s. Trying to assign args to %s, arity=%s%n", positionDesc(context, positionalParam), indexRange, positionalParam, arity);}
+                if (!assertNoMissingParameters(context, positionalParam, arity, argsCopy)) { break; } // #389 collectErrors parsing
                 int originalSize = argsCopy.size();
-                int actuallyConsumed = applyOption(positionalParam, false, LookBehind.SEPARATE, alreadyUnquoted, arity, argsCopy, initialized, "args[" + indexRange + "] at position " + localPosition);
+                int actuallyConsumed = applyOption(context, positionalParam, false, LookBehind.SEPARATE, alreadyUnquoted, arity, argsCopy, initialized, "args[" + indexRange + "] at position " + localPosition);
                 int count = originalSize - argsCopy.size();
                 if (count > 0 || actuallyConsumed > 0) {
                     required.remove(positionalParam);
-                    interactiveConsumed = this.interactiveCount - originalInteractiveCount;
+                    interactiveConsumed = context.interactiveCount - originalInteractiveCount;
                 }
                 if (positionalParam.group() == null) { // don't update the command-level position for group args
                     argsConsumed = Math.max(argsConsumed, count);
@@ -11747,58 +13407,58 @@ public class CommandLine {
                     newPositions.put(positionalParam, localPosition + count);
                     consumedByGroup = Math.max(consumedByGroup, count);
                 }
-                while (parseResultBuilder.nowProcessing.size() > originalNowProcessingSize + count) {
-                    parseResultBuilder.nowProcessing.remove(parseResultBuilder.nowProcessing.size() - 1);
+                while (context.builder.nowProcessing.size() > originalNowProcessingSize + count) {
+                    context.builder.nowProcessing.remove(context.builder.nowProcessing.size() - 1);
                 }
             }
             // remove processed args from the stack
             int maxConsumed = Math.max(consumedByGroup, argsConsumed);
             for (int i = 0; i < maxConsumed; i++) { args.pop(); }
-            position += argsConsumed + interactiveConsumed;
-            if (tracer.isDebug()) {tracer.debug("Consumed %d arguments and %d interactive values, moving command-local position to index %d.%n", argsConsumed, interactiveConsumed, position);}
+            context.position += argsConsumed + interactiveConsumed;
+            if (tracer.isDebug()) {tracer.debug("Consumed %d arguments and %d interactive values, moving command-local position to index %d.%n", argsConsumed, interactiveConsumed, context.position);}
             for (PositionalParamSpec positional : newPositions.keySet()) {
-                GroupMatchContainer inProgress = parseResultBuilder.groupMatchContainer.findOrCreateMatchingGroup(positional, commandSpec.commandLine());
+                GroupMatchContainer inProgress = context.builder.groupMatchContainer.findOrCreateMatchingGroup(positional, context);
                 if (inProgress != null) {
                     inProgress.lastMatch().position = newPositions.get(positional);
                     if (tracer.isDebug()) {tracer.debug("Updated group position to %s for group %s.%n", inProgress.lastMatch().position, inProgress);}
                 }
             }
             if (consumedByGroup == 0 && argsConsumed == 0 && interactiveConsumed == 0 && !args.isEmpty()) {
-                handleUnmatchedArgument(args);
+                handleUnmatchedArgument(context, args);
             }
         }
 
-        private void processStandaloneOption(Collection<ArgSpec> required,
+        private void processStandaloneOption(ParseContext context, Collection<ArgSpec> required,
                                              Set<ArgSpec> initialized,
                                              String arg,
                                              boolean alreadyUnquoted,
-                                             Stack<String> args,
+                                             ArgCursor args,
                                              LookBehind lookBehind) throws Exception {
-            ArgSpec argSpec = commandSpec.optionsMap().get(arg);
+            ArgSpec argSpec = context.plan.options.get(arg);
             boolean negated = argSpec == null;
-            if (negated) { argSpec = commandSpec.negatedOptionsMap().get(arg); }
+            if (negated) { argSpec = context.plan.negatedOptions.get(arg); }
             required.remove(argSpec);
             Range arity = argSpec.arity();
             if (lookBehind.isAttached()) {
                 arity = arity.min(Math.max(1, arity.min)); // if key=value, minimum arity is at least 1
             }
             if (tracer.isDebug()) {tracer.debug("Found option named '%s': %s, arity=%s%n", arg, argSpec, arity);}
-            parseResultBuilder.nowProcessing.add(argSpec);
-            applyOption(argSpec, negated, lookBehind, alreadyUnquoted, arity, args, initialized, "option " + arg);
+            context.builder.nowProcessing.add(argSpec);
+            applyOption(context, argSpec, negated, lookBehind, alreadyUnquoted, arity, args, initialized, "option " + arg);
         }
 
-        private void processClusteredShortOptions(Collection<ArgSpec> required,
+        private void processClusteredShortOptions(ParseContext context, Collection<ArgSpec> required,
                                                   Set<ArgSpec> initialized,
                                                   String arg,
                                                   boolean alreadyUnquoted,
-                                                  Stack<String> args) throws Exception {
+                                                  ArgCursor args) throws Exception {
             String prefix = arg.substring(0, 1);
             String cluster = arg.substring(1);
             boolean paramAttachedToOption = true;
             boolean first = true;
             do {
-                if (cluster.length() > 0 && commandSpec.posixOptionsMap().containsKey(cluster.charAt(0))) {
-                    ArgSpec argSpec = commandSpec.posixOptionsMap().get(cluster.charAt(0));
+                ArgSpec argSpec = cluster.length() > 0 ? context.plan.posixOption(cluster.charAt(0)) : null;
+                if (argSpec != null) {
                     Range arity = argSpec.arity();
                     String argDescription = "option " + prefix + cluster.charAt(0);
                     if (tracer.isDebug()) {tracer.debug("Found option '%s%s' in %s: %s, arity=%s%n", prefix, cluster.charAt(0), arg,
@@ -11807,9 +13467,9 @@ public class CommandLine {
                     cluster = cluster.substring(1);
                     paramAttachedToOption = cluster.length() > 0;
                     LookBehind lookBehind = paramAttachedToOption ? LookBehind.ATTACHED : LookBehind.SEPARATE;
-                    if (cluster.startsWith(config().separator())) {// attached with separator, like -f=FILE or -v=true
+                    if (cluster.startsWith(context.plan.separator)) {// attached with separator, like -f=FILE or -v=true
                         lookBehind = LookBehind.ATTACHED_WITH_SEPARATOR;
-                        cluster = cluster.substring(config().separator().length());
+                        cluster = cluster.substring(context.plan.separator.length());
                         arity = arity.min(Math.max(1, arity.min)); // if key=value, minimum arity is at least 1
                     }
                     if (arity.min > 0 && !empty(cluster)) {
@@ -11822,13 +13482,13 @@ public class CommandLine {
                         args.push(cluster); // interpret remainder as option parameter (CAUTION: may be empty string!)
                     }
                     if (first) {
-                        parseResultBuilder.nowProcessing.add(argSpec);
+                        context.builder.nowProcessing.add(argSpec);
                         first = false;
                     } else {
-                        parseResultBuilder.nowProcessing.set(parseResultBuilder.nowProcessing.size() - 1, argSpec); // replace
+                        context.builder.nowProcessing.set(context.builder.nowProcessing.size() - 1, argSpec); // replace
                     }
                     int argCount = args.size();
-                    int consumed = applyOption(argSpec, false, lookBehind, alreadyUnquoted, arity, args, initialized, argDescription);
+                    int consumed = applyOption(context, argSpec, false, lookBehind, alreadyUnquoted, arity, args, initialized, argDescription);
                     // if cluster was consumed as a parameter or if this field was the last in the cluster we're done; otherwise continue do-while loop
                     if (empty(cluster) || args.isEmpty() || args.size() < argCount) {
                         return;
@@ -11844,8 +13504,8 @@ public class CommandLine {
                         args.push(paramAttachedToOption ? prefix + cluster : cluster);
                         if (args.peek().equals(arg)) { // #149 be consistent between unmatched short and long options
                             if (tracer.isDebug()) {tracer.debug("Could not match any short options in %s, deciding whether to treat as unmatched option or positional parameter...%n", arg);}
-                            if (commandSpec.resemblesOption(arg, tracer)) { handleUnmatchedArgument(args); return; } // #149
-                            processPositionalParameter(required, initialized, alreadyUnquoted, args);
+                            if (commandSpec.resemblesOption(arg, tracer)) { handleUnmatchedArgument(context, args); return; } // #149
+                            processPositionalParameter(context, required, initialized, alreadyUnquoted, args);
                             return;
                         }
                         // remainder was part of a clustered group that could not be completely parsed
@@ -11853,64 +13513,68 @@ public class CommandLine {
                         String tmp = args.pop();
                         tmp = tmp + " (while processing option: '" + arg + "')";
                         args.push(tmp);
-                        handleUnmatchedArgument(args);
+                        handleUnmatchedArgument(context, args);
                     } else {
                         args.push(cluster);
                         if (tracer.isDebug()) {tracer.debug("%s is not an option parameter for %s%n", cluster, arg);}
-                        processPositionalParameter(required, initialized, alreadyUnquoted, args);
+                        processPositionalParameter(context, required, initialized, alreadyUnquoted, args);
                     }
                     return;
                 }
             } while (true);
         }
 
-        private int applyOption(ArgSpec argSpec,
+        private int applyOption(ParseContext context, ArgSpec argSpec,
                                 boolean negated,
                                 LookBehind lookBehind,
                                 boolean alreadyUnquoted,
                                 Range arity,
-                                Stack<String> args,
+                                ArgCursor args,
                                 Set<ArgSpec> initialized,
                                 String argDescription) throws Exception {
-            updateHelpRequested(argSpec);
+            updateHelpRequested(context, argSpec);
             if (argSpec.parameterConsumer() != null) {
-                int originalSize = args.size();
-                argSpec.parameterConsumer().consumeParameters(args, argSpec, commandSpec);
-                return args.size() - originalSize;
+                Stack<String> stack = args.toStack();
+                argSpec.parameterConsumer().consumeParameters(stack, argSpec, commandSpec);
+                int result = stack.size() - args.size();
+                args.reset(stack);
+                return result;
             }
             boolean consumeOnlyOne = commandSpec.parser().aritySatisfiedByAttachedOptionParam() && lookBehind.isAttached();
-            Stack<String> workingStack = args;
+            ArgCursor workingStack = args;
             if (consumeOnlyOne) {
                 workingStack = args.isEmpty() ? args : stack(args.pop());
             } else {
-                if (!assertNoMissingParameters(argSpec, arity, args)) { return 0; } // #389 collectErrors parsing
+                if (!assertNoMissingParameters(context, argSpec, arity, args)) { return 0; } // #389 collectErrors parsing
             }
 
-            parseResultBuilder.beforeMatchingGroupElement(argSpec);
+            context.builder.beforeMatchingGroupElement(argSpec);
 
             int result;
             if (argSpec.type().isArray() && !(argSpec.interactive() && argSpec.type() == char[].class)) {
-                result = applyValuesToArrayField(argSpec, negated, lookBehind, alreadyUnquoted, arity, workingStack, initialized, argDescription);
+                result = applyValuesToArrayField(context, argSpec, negated, lookBehind, alreadyUnquoted, arity, workingStack, initialized, argDescription);
+            } else if (IParameterSink.class.isAssignableFrom(argSpec.type())) {
+                result = applyValuesToSink(context, argSpec, lookBehind, alreadyUnquoted, arity, workingStack, argDescription);
             } else if (Collection.class.isAssignableFrom(argSpec.type())) {
-                result = applyValuesToCollectionField(argSpec, negated, lookBehind, alreadyUnquoted, arity, workingStack, initialized, argDescription);
+                result = applyValuesToCollectionField(context, argSpec, negated, lookBehind, alreadyUnquoted, arity, workingStack, initialized, argDescription);
             } else if (Map.class.isAssignableFrom(argSpec.type())) {
-                result = applyValuesToMapField(argSpec, lookBehind, alreadyUnquoted, arity, workingStack, initialized, argDescription);
+                result = applyValuesToMapField(context, argSpec, lookBehind, alreadyUnquoted, arity, workingStack, initialized, argDescription);
             } else {
-                result = applyValueToSingleValuedField(argSpec, negated, lookBehind, alreadyUnquoted, arity, workingStack, initialized, argDescription);
+                result = applyValueToSingleValuedField(context, argSpec, negated, lookBehind, alreadyUnquoted, arity, workingStack, initialized, argDescription);
             }
             if (workingStack != args && !workingStack.isEmpty()) {
                 args.push(workingStack.pop());
-                Assert.assertTrue(workingStack.isEmpty(), "Working stack should be empty but was " + new ArrayList<String>(workingStack));
+                Assert.assertTrue(workingStack.isEmpty(), "Working stack should be empty but was " + workingStack);
             }
             return result;
         }
 
-        private int applyValueToSingleValuedField(ArgSpec argSpec,
+        private int applyValueToSingleValuedField(ParseContext context, ArgSpec argSpec,
                                                   boolean negated,
                                                   LookBehind lookBehind,
                                                   boolean alreadyUnquoted,
                                                   Range derivedArity,
-                                                  Stack<String> args,
+                                                  ArgCursor args,
                                                   Set<ArgSpec> initialized,
                                                   String argDescription) throws Exception {
             boolean noMoreValues = args.isEmpty();
@@ -11942,7 +13606,7 @@ public class CommandLine {
                         }
                         // don't process cmdline arg: it's okay to ignore value if not attached to option
                         Boolean oppositeValue = commandSpec.parser().toggleBooleanFlags()
-                                ? (Boolean) argSpec.getValue() // #147 toggle existing boolean value
+                                ? (Boolean) context.value(argSpec) // #147 toggle existing boolean value
                                 : defaultValue; // #712 flip the default value
                         if (oppositeValue == null) { oppositeValue = false; }
                         actualValue = String.valueOf(!oppositeValue);
@@ -11954,8 +13618,8 @@ public class CommandLine {
                     }
                 } else { // non-boolean option with optional value #325, #279
                     String fallbackValue = argSpec.isOption() ? ((OptionSpec) argSpec).fallbackValue() : "";
-                    // #828 should we call varargCanConsumeNextValue(argSpec, value)?
-                    if (isOption(value)) { // value is not a parameter
+                    // #828 should we call varargCanConsumeNextValue(context, argSpec, value)?
+                    if (isOption(context, value)) { // value is not a parameter
                         actualValue = fallbackValue;
                         optionalValueExists = false;
                         consumed = 0;
@@ -11969,7 +13633,7 @@ public class CommandLine {
                 // - if arity = 0   : ALWAYS read from console
                 // - if arity = 0..1: ONLY read from console if user specified a non-option value
                 if (argSpec.interactive() && (arity.max == 0 || !optionalValueExists)) {
-                    interactiveValue = readPassword(argSpec);
+                    interactiveValue = readPassword(context, argSpec);
                     consumed = 0;
                 }
             }
@@ -11979,7 +13643,7 @@ public class CommandLine {
                 }
             } else { // value was non-optional or optional value was actually specified
                 // process the command line value
-                if (!lookBehind.isAttached()) { parseResultBuilder.nowProcessing(argSpec, value); } // update position for Completers
+                if (!lookBehind.isAttached()) { context.builder.nowProcessing(argSpec, value); } // update position for Completers
             }
             if (noMoreValues && actualValue == null && interactiveValue == null) {
                 return 0;
@@ -12002,7 +13666,7 @@ public class CommandLine {
                     actualValue = "***"; // mask interactive value
                 }
             }
-            Object oldValue = argSpec.getValue();
+            Object oldValue = context.value(argSpec);
             String traceMessage = initValueMessage;
             if (argSpec.group() == null && initialized.contains(argSpec)) {
                 if (!isOverwrittenOptionsAllowed()) {
@@ -12013,64 +13677,64 @@ public class CommandLine {
             initialized.add(argSpec);
 
             if (tracer.isInfo()) { tracer.info(traceMessage, argSpec.toString(), String.valueOf(oldValue), String.valueOf(newValue), argDescription, argSpec.scopeString()); }
-            int pos = getPosition(argSpec);
-            argSpec.setValue(newValue);
-            parseResultBuilder.addOriginalStringValue(argSpec, actualValue);// #279 track empty string value if no command line argument was consumed
-            parseResultBuilder.addStringValue(argSpec, actualValue);
-            parseResultBuilder.addTypedValues(argSpec, pos, newValue);
-            parseResultBuilder.add(argSpec, pos);
+            int pos = getPosition(context, argSpec);
+            context.assign(argSpec, newValue);
+            context.builder.addOriginalStringValue(argSpec, actualValue);// #279 track empty string value if no command line argument was consumed
+            context.builder.addStringValue(argSpec, actualValue);
+            context.builder.addTypedValues(argSpec, pos, newValue);
+            context.builder.add(argSpec, pos);
             return 1;
         }
-        private int applyValuesToMapField(ArgSpec argSpec,
+        private int applyValuesToMapField(ParseContext context, ArgSpec argSpec,
                                           LookBehind lookBehind,
                                           boolean alreadyUnquoted,
                                           Range arity,
-                                          Stack<String> args,
+                                          ArgCursor args,
                                           Set<ArgSpec> initialized,
                                           String argDescription) throws Exception {
             Class<?>[] classes = argSpec.auxiliaryTypes();
             if (classes.length < 2) { throw new ParameterException(CommandLine.this, argSpec.toString() + " needs two types (one for the map key, one for the value) but only has " + classes.length + " types configured.",argSpec, null); }
             ITypeConverter<?> keyConverter   = getTypeConverter(classes[0], argSpec, 0);
             ITypeConverter<?> valueConverter = getTypeConverter(classes[1], argSpec, 1);
-            @SuppressWarnings("unchecked") Map<Object, Object> map = (Map<Object, Object>) argSpec.getValue();
+            @SuppressWarnings("unchecked") Map<Object, Object> map = (Map<Object, Object>) context.value(argSpec);
             if (map == null || (!map.isEmpty() && !initialized.contains(argSpec))) {
                 tracer.debug("Initializing binding for %s on %s with empty %s%n", optionDescription("", argSpec, 0), argSpec.scopeString(), argSpec.type().getSimpleName());
                 map = createMap(argSpec.type()); // map class
-                argSpec.setValue(map);
+                context.assign(argSpec, map);
             }
             initialized.add(argSpec);
             int originalSize = map.size();
-            int pos = getPosition(argSpec);
-            consumeMapArguments(argSpec, lookBehind, alreadyUnquoted, arity, args, classes, keyConverter, valueConverter, map, argDescription);
-            parseResultBuilder.add(argSpec, pos);
-            argSpec.setValue(map);
+            int pos = getPosition(context, argSpec);
+            consumeMapArguments(context, argSpec, lookBehind, alreadyUnquoted, arity, args, classes, keyConverter, valueConverter, map, argDescription);
+            context.builder.add(argSpec, pos);
+            context.assign(argSpec, map);
             return map.size() - originalSize;
         }
 
-        private void consumeMapArguments(ArgSpec argSpec,
+        private void consumeMapArguments(ParseContext context, ArgSpec argSpec,
                                          LookBehind lookBehind,
                                          boolean alreadyUnquoted,
                                          Range arity,
-                                         Stack<String> args,
+                                         ArgCursor args,
                                          Class<?>[] classes,
                                          ITypeConverter<?> keyConverter,
                                          ITypeConverter<?> valueConverter,
                                          Map<Object, Object> result,
                                          String argDescription) throws Exception {
 
-            // don't modify Interpreter.position: same position may be consumed by multiple ArgSpec objects
-            int currentPosition = getPosition(argSpec);
+            // don't modify ParseContext.position: same position may be consumed by multiple ArgSpec objects
+            int currentPosition = getPosition(context, argSpec);
 
             // first do the arity.min mandatory parameters
-            int initialSize = argSpec.stringValues().size();
-            int consumed = consumedCountMap(0, initialSize, argSpec);
+            int initialSize = context.values(argSpec).stringValues.size();
+            int consumed = consumedCountMap(context, 0, initialSize, argSpec);
             for (int i = 0; consumed < arity.min && !args.isEmpty(); i++) {
                 Map<Object, Object> typedValuesAtPosition = new LinkedHashMap<Object, Object>();
-                parseResultBuilder.addTypedValues(argSpec, currentPosition++, typedValuesAtPosition);
-                assertNoMissingMandatoryParameter(argSpec, args, i, arity);
-                consumeOneMapArgument(argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.pop(), classes, keyConverter, valueConverter, typedValuesAtPosition, i, argDescription);
+                context.builder.addTypedValues(argSpec, currentPosition++, typedValuesAtPosition);
+                assertNoMissingMandatoryParameter(context, argSpec, args, i, arity);
+                consumeOneMapArgument(context, argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.pop(), classes, keyConverter, valueConverter, typedValuesAtPosition, i, argDescription);
                 result.putAll(typedValuesAtPosition);
-                consumed = consumedCountMap(i + 1, initialSize, argSpec);
+                consumed = consumedCountMap(context, i + 1, initialSize, argSpec);
                 lookBehind = LookBehind.SEPARATE;
                 alreadyUnquoted = false;
             }
@@ -12078,26 +13742,26 @@ public class CommandLine {
             String fallback = consumed == 0 && argSpec.isOption() && !OptionSpec.DEFAULT_FALLBACK_VALUE.equals(((OptionSpec) argSpec).fallbackValue())
                     ? ((OptionSpec) argSpec).fallbackValue()
                     : null;
-            if (fallback != null && (args.isEmpty() || !varargCanConsumeNextValue(argSpec, args.peek()))) {
+            if (fallback != null && (args.isEmpty() || !varargCanConsumeNextValue(context, argSpec, args.peek()))) {
                 args.push(fallback);
             }
             for (int i = consumed; consumed < arity.max && !args.isEmpty(); i++) {
-                if (!varargCanConsumeNextValue(argSpec, args.peek())) { break; }
+                if (!varargCanConsumeNextValue(context, argSpec, args.peek())) { break; }
 
                 Map<Object, Object> typedValuesAtPosition = new LinkedHashMap<Object, Object>();
-                parseResultBuilder.addTypedValues(argSpec, currentPosition++, typedValuesAtPosition);
+                context.builder.addTypedValues(argSpec, currentPosition++, typedValuesAtPosition);
                 if (!canConsumeOneMapArgument(argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.peek(), classes, keyConverter, valueConverter, argDescription)) {
-                    break; // leave empty map at argSpec.typedValueAtPosition[currentPosition] so we won't try to consume that position again
+                    break; // leave empty map at typedValueAtPosition[currentPosition] so we won't try to consume that position again
                 }
-                consumeOneMapArgument(argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.pop(), classes, keyConverter, valueConverter, typedValuesAtPosition, i, argDescription);
+                consumeOneMapArgument(context, argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.pop(), classes, keyConverter, valueConverter, typedValuesAtPosition, i, argDescription);
                 result.putAll(typedValuesAtPosition);
-                consumed = consumedCountMap(i + 1, initialSize, argSpec);
+                consumed = consumedCountMap(context, i + 1, initialSize, argSpec);
                 lookBehind = LookBehind.SEPARATE;
                 alreadyUnquoted = false;
             }
         }
 
-        private void consumeOneMapArgument(ArgSpec argSpec,
+        private void consumeOneMapArgument(ParseContext context, ArgSpec argSpec,
                                            LookBehind lookBehind,
                                            boolean alreadyUnquoted, Range arity, int consumed,
                                            String arg,
@@ -12106,7 +13770,7 @@ public class CommandLine {
                                            Map<Object, Object> result,
                                            int index,
                                            String argDescription) throws Exception {
-            if (!lookBehind.isAttached()) { parseResultBuilder.nowProcessing(argSpec, arg); }
+            if (!lookBehind.isAttached()) { context.builder.nowProcessing(argSpec, arg); }
             String[] values = unquoteAndSplit(argSpec, lookBehind, alreadyUnquoted, arity, consumed, arg);
             for (String value : values) {
                 String[] keyValue = splitKeyValue(argSpec, value);
@@ -12115,10 +13779,10 @@ public class CommandLine {
                 result.put(mapKey, mapValue);
                 if (tracer.isInfo()) { tracer.info("Putting [%s : %s] in %s<%s, %s> %s for %s on %s%n", String.valueOf(mapKey), String.valueOf(mapValue),
                         result.getClass().getSimpleName(), classes[0].getSimpleName(), classes[1].getSimpleName(), argSpec.toString(), argDescription, argSpec.scopeString()); }
-                parseResultBuilder.addStringValue(argSpec, keyValue[0]);
-                parseResultBuilder.addStringValue(argSpec, keyValue[1]);
+                context.builder.addStringValue(argSpec, keyValue[0]);
+                context.builder.addStringValue(argSpec, keyValue[1]);
             }
-            parseResultBuilder.addOriginalStringValue(argSpec, arg);
+            context.builder.addOriginalStringValue(argSpec, arg);
         }
 
         private String[] unquoteAndSplit(ArgSpec argSpec, LookBehind lookBehind, boolean alreadyUnquoted, Range arity, int consumed, String arg) {
@@ -12162,25 +13826,25 @@ public class CommandLine {
             return keyValue;
         }
 
-        private void assertNoMissingMandatoryParameter(ArgSpec argSpec, Stack<String> args, int i, Range arity) {
-            if (!varargCanConsumeNextValue(argSpec, args.peek())) {
+        private void assertNoMissingMandatoryParameter(ParseContext context, ArgSpec argSpec, ArgCursor args, int i, Range arity) {
+            if (!varargCanConsumeNextValue(context, argSpec, args.peek())) {
                 String desc = arity.min > 1 ? (i + 1) + " (of " + arity.min + " mandatory parameters) " : "";
                 throw new MissingParameterException(CommandLine.this, argSpec, "Expected parameter " + desc + "for " + optionDescription("", argSpec, -1) + " but found '" + args.peek() + "'");
             }
         }
-        private int applyValuesToArrayField(ArgSpec argSpec,
+        private int applyValuesToArrayField(ParseContext context, ArgSpec argSpec,
                                             boolean negated,
                                             LookBehind lookBehind,
                                             boolean alreadyUnquoted,
                                             Range arity,
-                                            Stack<String> args,
+                                            ArgCursor args,
                                             Set<ArgSpec> initialized,
                                             String argDescription) throws Exception {
-            Object existing = argSpec.getValue();
+            Object existing = context.value(argSpec);
             int length = existing == null ? 0 : Array.getLength(existing);
             Class<?> type = argSpec.auxiliaryTypes()[0];
-            int pos = getPosition(argSpec);
-            List<Object> converted = consumeArguments(argSpec, negated, lookBehind, alreadyUnquoted, alreadyUnquoted, arity, args, type, argDescription);
+            int pos = getPosition(context, argSpec);
+            List<Object> converted = consumeArguments(context, argSpec, negated, lookBehind, alreadyUnquoted, alreadyUnquoted, arity, args, type, argDescription);
             List<Object> newValues = new ArrayList<Object>();
             if (initialized.contains(argSpec)) { // existing values are default values if initialized does NOT contain argsSpec
                 for (int i = 0; i < length; i++) {
@@ -12199,28 +13863,28 @@ public class CommandLine {
             for (int i = 0; i < newValues.size(); i++) {
                 Array.set(array, i, newValues.get(i));
             }
-            argSpec.setValue(array);
-            parseResultBuilder.add(argSpec, pos);
+            context.assign(argSpec, array);
+            context.builder.add(argSpec, pos);
             return converted.size(); // return how many args were consumed
         }
 
         @SuppressWarnings("unchecked")
-        private int applyValuesToCollectionField(ArgSpec argSpec,
+        private int applyValuesToCollectionField(ParseContext context, ArgSpec argSpec,
                                                  boolean negated,
                                                  LookBehind lookBehind,
                                                  boolean alreadyUnquoted,
                                                  Range arity,
-                                                 Stack<String> args,
+                                                 ArgCursor args,
                                                  Set<ArgSpec> initialized,
                                                  String argDescription) throws Exception {
-            Collection<Object> collection = (Collection<Object>) argSpec.getValue();
+            Collection<Object> collection = (Collection<Object>) context.value(argSpec);
             Class<?> type = argSpec.auxiliaryTypes()[0];
-            int pos = getPosition(argSpec);
-            List<Object> converted = consumeArguments(argSpec, negated, lookBehind, alreadyUnquoted, alreadyUnquoted, arity, args, type, argDescription);
+            int pos = getPosition(context, argSpec);
+            List<Object> converted = consumeArguments(context, argSpec, negated, lookBehind, alreadyUnquoted, alreadyUnquoted, arity, args, type, argDescription);
             if (collection == null || (!collection.isEmpty() && !initialized.contains(argSpec))) {
                 tracer.debug("Initializing binding for %s on %s with empty %s%n", optionDescription("", argSpec, 0), argSpec.scopeString(), argSpec.type().getSimpleName());
                 collection = createCollection(argSpec.type(), type); // collection type, element type
-                argSpec.setValue(collection);
+                context.assign(argSpec, collection);
             }
             initialized.add(argSpec);
             for (Object element : converted) {
@@ -12230,61 +13894,99 @@ public class CommandLine {
                     collection.add(element);
                 }
             }
-            parseResultBuilder.add(argSpec, pos);
-            argSpec.setValue(collection);
+            context.builder.add(argSpec, pos);
+            context.assign(argSpec, collection);
             return converted.size();
         }
 
-        private List<Object> consumeArguments(ArgSpec argSpec,
+        @SuppressWarnings("unchecked")
+        private int applyValuesToSink(ParseContext context, ArgSpec argSpec,
+                                      LookBehind lookBehind,
+                                      boolean alreadyUnquoted,
+                                      Range arity,
+                                      ArgCursor args,
+                                      String argDescription) throws Exception {
+            IParameterSink<Object> sink = (IParameterSink<Object>) context.value(argSpec);
+            if (sink == null) {
+                tracer.debug("Initializing binding for %s on %s with new %s%n", optionDescription("", argSpec, 0), argSpec.scopeString(), argSpec.type().getSimpleName());
+                sink = (IParameterSink<Object>) factory.create(argSpec.type());
+                context.assign(argSpec, sink);
+            }
+            Class<?> type = argSpec.auxiliaryTypes()[0];
+            ITypeConverter<?> converter = getTypeConverter(type, argSpec, 0);
+            int pos = getPosition(context, argSpec);
+            int consumed = 0;
+            // values are passed to the sink as they are converted, and are not recorded in the ArgSpec or the ParseResult
+            while (consumed < arity.max && !args.isEmpty()) {
+                if (consumed < arity.min) {
+                    assertNoMissingMandatoryParameter(context, argSpec, args, consumed, arity);
+                } else if (!varargCanConsumeNextValue(context, argSpec, args.peek())) {
+                    break;
+                }
+                String arg = args.pop();
+                if (consumed == 0 && !lookBehind.isAttached()) { context.builder.nowProcessing(argSpec, arg); }
+                for (String value : unquoteAndSplit(argSpec, lookBehind, alreadyUnquoted, arity, consumed, arg)) {
+                    sink.accept(tryConvert(argSpec, consumed, converter, value, type));
+                }
+                consumed++;
+                lookBehind = LookBehind.SEPARATE;
+                alreadyUnquoted = false;
+            }
+            if (tracer.isInfo()) { tracer.info("Passed %d values to %s for %s on %s%n", consumed, argSpec.toString(), argDescription, argSpec.scopeString()); }
+            context.builder.add(argSpec, pos);
+            return consumed;
+        }
+
+        private List<Object> consumeArguments(ParseContext context, ArgSpec argSpec,
                                               boolean negated,
                                               LookBehind lookBehind,
                                               boolean alreadyUnquoted,
                                               boolean unquoted, Range arity,
-                                              Stack<String> args,
+                                              ArgCursor args,
                                               Class<?> type,
                                               String argDescription) throws Exception {
             List<Object> result = new ArrayList<Object>();
 
-            // don't modify Interpreter.position: same position may be consumed by multiple ArgSpec objects
-            int currentPosition = getPosition(argSpec);
+            // don't modify ParseContext.position: same position may be consumed by multiple ArgSpec objects
+            int currentPosition = getPosition(context, argSpec);
 
             // first do the arity.min mandatory parameters
-            int initialSize = argSpec.stringValues().size();
-            int consumed = consumedCount(0, initialSize, argSpec);
+            int initialSize = context.values(argSpec).stringValues.size();
+            int consumed = consumedCount(context, 0, initialSize, argSpec);
             for (int i = 0; consumed < arity.min && !args.isEmpty(); i++) {
                 List<Object> typedValuesAtPosition = new ArrayList<Object>();
-                parseResultBuilder.addTypedValues(argSpec, currentPosition++, typedValuesAtPosition);
-                assertNoMissingMandatoryParameter(argSpec, args, i, arity);
-                consumeOneArgument(argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.pop(), type, typedValuesAtPosition, i, argDescription);
+                context.builder.addTypedValues(argSpec, currentPosition++, typedValuesAtPosition);
+                assertNoMissingMandatoryParameter(context, argSpec, args, i, arity);
+                consumeOneArgument(context, argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.pop(), type, typedValuesAtPosition, i, argDescription);
                 result.addAll(typedValuesAtPosition);
-                consumed = consumedCount(i + 1, initialSize, argSpec);
+                consumed = consumedCount(context, i + 1, initialSize, argSpec);
                 lookBehind = LookBehind.SEPARATE;
                 alreadyUnquoted = false;
             }
             if (argSpec.interactive() && argSpec.arity().max == 0) {
-                consumed = addPasswordToList(argSpec, type, result, consumed, argDescription);
+                consumed = addPasswordToList(context, argSpec, type, result, consumed, argDescription);
             }
             // now process the varargs if any
             String fallback = consumed == 0 && argSpec.isOption() && !OptionSpec.DEFAULT_FALLBACK_VALUE.equals(((OptionSpec) argSpec).fallbackValue())
                     ? ((OptionSpec) argSpec).fallbackValue()
                     : null;
-            if (fallback != null && (args.isEmpty() || !varargCanConsumeNextValue(argSpec, args.peek()))) {
+            if (fallback != null && (args.isEmpty() || !varargCanConsumeNextValue(context, argSpec, args.peek()))) {
                 args.push(fallback);
             }
             for (int i = consumed; consumed < arity.max && !args.isEmpty(); i++) {
-                if (argSpec.interactive() && argSpec.arity().max == 1 && !varargCanConsumeNextValue(argSpec, args.peek())) {
+                if (argSpec.interactive() && argSpec.arity().max == 1 && !varargCanConsumeNextValue(context, argSpec, args.peek())) {
                     // if interactive and arity = 0..1, we consume from command line if possible (if next arg not an option or subcommand)
-                    consumed = addPasswordToList(argSpec, type, result, consumed, argDescription);
+                    consumed = addPasswordToList(context, argSpec, type, result, consumed, argDescription);
                 } else {
-                    if (!varargCanConsumeNextValue(argSpec, args.peek())) { break; }
+                    if (!varargCanConsumeNextValue(context, argSpec, args.peek())) { break; }
                     List<Object> typedValuesAtPosition = new ArrayList<Object>();
-                    parseResultBuilder.addTypedValues(argSpec, currentPosition++, typedValuesAtPosition);
+                    context.builder.addTypedValues(argSpec, currentPosition++, typedValuesAtPosition);
                     if (!canConsumeOneArgument(argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.peek(), type, argDescription)) {
-                        break; // leave empty list at argSpec.typedValueAtPosition[currentPosition] so we won't try to consume that position again
+                        break; // leave empty list at typedValueAtPosition[currentPosition] so we won't try to consume that position again
                     }
-                    consumeOneArgument(argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.pop(), type, typedValuesAtPosition, i, argDescription);
+                    consumeOneArgument(context, argSpec, lookBehind, alreadyUnquoted, arity, consumed, args.pop(), type, typedValuesAtPosition, i, argDescription);
                     result.addAll(typedValuesAtPosition);
-                    consumed = consumedCount(i + 1, initialSize, argSpec);
+                    consumed = consumedCount(context, i + 1, initialSize, argSpec);
                     lookBehind = LookBehind.SEPARATE;
                     alreadyUnquoted = false;
                 }
@@ -12308,21 +14010,21 @@ public class CommandLine {
             return result;
         }
 
-        private int consumedCount(int i, int initialSize, ArgSpec arg) {
-            return commandSpec.parser().splitFirst() ? arg.stringValues().size() - initialSize : i;
+        private int consumedCount(ParseContext context, int i, int initialSize, ArgSpec arg) {
+            return commandSpec.parser().splitFirst() ? context.values(arg).stringValues.size() - initialSize : i;
         }
 
-        private int consumedCountMap(int i, int initialSize, ArgSpec arg) {
-            return commandSpec.parser().splitFirst() ? (arg.stringValues().size() - initialSize) / 2 : i;
+        private int consumedCountMap(ParseContext context, int i, int initialSize, ArgSpec arg) {
+            return commandSpec.parser().splitFirst() ? (context.values(arg).stringValues.size() - initialSize) / 2 : i;
         }
 
-        private int addPasswordToList(ArgSpec argSpec, Class<?> type, List<Object> result, int consumed, String argDescription) {
-            char[] password = readPassword(argSpec);
+        private int addPasswordToList(ParseContext context, ArgSpec argSpec, Class<?> type, List<Object> result, int consumed, String argDescription) {
+            char[] password = readPassword(context, argSpec);
             if (tracer.isInfo()) {
                 tracer.info("Adding *** (masked interactive value) to %s for %s on %s%n", argSpec.toString(), argDescription, argSpec.scopeString());
             }
-            parseResultBuilder.addStringValue(argSpec, "***");
-            parseResultBuilder.addOriginalStringValue(argSpec, "***");
+            context.builder.addStringValue(argSpec, "***");
+            context.builder.addOriginalStringValue(argSpec, "***");
             if (!char[].class.equals(argSpec.auxiliaryTypes()[0]) && !char[].class.equals(argSpec.type())) {
                 Object value = tryConvert(argSpec, consumed, getTypeConverter(type, argSpec, consumed), new String(password), type);
                 result.add(value);
@@ -12332,7 +14034,7 @@ public class CommandLine {
             consumed++;
             return consumed;
         }
-        private int consumeOneArgument(ArgSpec argSpec,
+        private int consumeOneArgument(ParseContext context, ArgSpec argSpec,
                                        LookBehind lookBehind,
                                        boolean alreadyUnquoted, Range arity,
                                        int consumed,
@@ -12341,7 +14043,7 @@ public class CommandLine {
                                        List<Object> result,
                                        int index,
                                        String argDescription) {
-            if (!lookBehind.isAttached()) { parseResultBuilder.nowProcessing(argSpec, arg); }
+            if (!lookBehind.isAttached()) { context.builder.nowProcessing(argSpec, arg); }
             String[] values = unquoteAndSplit(argSpec, lookBehind, alreadyUnquoted, arity, consumed, arg);
             ITypeConverter<?> converter = getTypeConverter(type, argSpec, 0);
             for (int j = 0; j < values.length; j++) {
@@ -12350,9 +14052,9 @@ public class CommandLine {
                 if (tracer.isInfo()) {
                     tracer.info("Adding [%s] to %s for %s on %s%n", String.valueOf(result.get(result.size() - 1)), argSpec.toString(), argDescription, argSpec.scopeString());
                 }
-                parseResultBuilder.addStringValue(argSpec, values[j]);
+                context.builder.addStringValue(argSpec, values[j]);
             }
-            parseResultBuilder.addOriginalStringValue(argSpec, arg);
+            context.builder.addOriginalStringValue(argSpec, arg);
             return ++index;
         }
         private boolean canConsumeOneArgument(ArgSpec argSpec, LookBehind lookBehind, boolean alreadyUnquoted, Range arity, int consumed, String arg, Class<?> type, String argDescription) {
@@ -12378,10 +14080,10 @@ public class CommandLine {
          * <p>
          * Usually, we stop if we encounter '--', a command, or another option.
          * However, if end-of-options has been reached, positional parameters may consume all remaining arguments. </p>*/
-        private boolean varargCanConsumeNextValue(ArgSpec argSpec, String nextValue) {
-            if (endOfOptions && argSpec.isPositional()) { return true; }
-            boolean isCommand = commandSpec.subcommands().containsKey(nextValue);
-            return !isCommand && !isOption(nextValue);
+        private boolean varargCanConsumeNextValue(ParseContext context, ArgSpec argSpec, String nextValue) {
+            if (context.endOfOptions && argSpec.isPositional()) { return true; }
+            boolean isCommand = context.plan.subcommands.containsKey(nextValue);
+            return !isCommand && !isOption(context, nextValue);
         }
 
         /** Returns true if the specified arg is "--", a registered option, or potentially a clustered POSIX option.
@@ -12390,31 +14092,29 @@ public class CommandLine {
          * @param arg the string to determine whether it is an option or not
          * @return true if it is an option, false otherwise
          */
-        private boolean isOption(String arg) {
+        private boolean isOption(ParseContext context, String arg) {
             if (arg == null)      { return false; }
-            if (commandSpec.parser().endOfOptionsDelimiter().equals(arg)) { return true; }
+            if (context.plan.endOfOptionsDelimiter.equals(arg)) { return true; }
 
             // not just arg prefix: we may be in the middle of parsing -xrvfFILE
-            if (commandSpec.optionsMap().containsKey(arg)) { // -v or -f or --file (not attached to param or other option)
+            if (context.plan.options.containsKey(arg)) { // -v or -f or --file (not attached to param or other option)
                 return true;
             }
             // [#828] Subcommands should not be parsed as option values for options with optional parameters.
-            if (commandSpec.subcommands().containsKey(arg)) {
+            if (context.plan.subcommands.containsKey(arg)) {
                 return true;
             }
             // #454 repeatable subcommands
-            if (commandSpec.parent() != null && commandSpec.parent().subcommandsRepeatable()) {
-                if (commandSpec.parent().subcommands().containsKey(arg)) {
-                    return true;
-                }
+            if (repeatableSubcommand(arg) != null) {
+                return true;
             }
-            int separatorIndex = arg.indexOf(config().separator());
+            int separatorIndex = arg.indexOf(context.plan.separator);
             if (separatorIndex > 0) { // -f=FILE or --file==FILE (attached to param via separator)
-                if (commandSpec.optionsMap().containsKey(arg.substring(0, separatorIndex))) {
+                if (context.plan.options.containsKey(arg.substring(0, separatorIndex))) {
                     return true;
                 }
             }
-            return (arg.length() > 2 && arg.startsWith("-") && commandSpec.posixOptionsMap().containsKey(arg.charAt(1)));
+            return (arg.length() > 2 && arg.startsWith("-") && context.plan.posixOption(arg.charAt(1)) != null);
         }
         private Object tryConvert(ArgSpec argSpec, int index, ITypeConverter<?> converter, String value, Class<?> type)
                 throws ParameterException {
@@ -12446,17 +14146,17 @@ public class CommandLine {
             return desc;
         }
 
-        private boolean isAnyHelpRequested() { return isHelpRequested || parseResultBuilder.versionHelpRequested || parseResultBuilder.usageHelpRequested; }
+        private boolean isAnyHelpRequested(ParseContext context) { return context.isHelpRequested || context.builder.versionHelpRequested || context.builder.usageHelpRequested; }
 
-        private void updateHelpRequested(CommandSpec command) {
-            isHelpRequested |= command.helpCommand();
+        private void updateHelpRequested(ParseContext context, CommandSpec command) {
+            context.isHelpRequested |= command.helpCommand();
         }
-        private void updateHelpRequested(ArgSpec argSpec) {
-            if (!parseResultBuilder.isInitializingDefaultValues && argSpec.isOption()) {
+        private void updateHelpRequested(ParseContext context, ArgSpec argSpec) {
+            if (!context.builder.isInitializingDefaultValues && argSpec.isOption()) {
                 OptionSpec option = (OptionSpec) argSpec;
-                isHelpRequested                  |= is(argSpec, "help", option.help());
-                parseResultBuilder.versionHelpRequested |= is(argSpec, "versionHelp", option.versionHelp());
-                parseResultBuilder.usageHelpRequested   |= is(argSpec, "usageHelp", option.usageHelp());
+                context.isHelpRequested                  |= is(argSpec, "help", option.help());
+                context.builder.versionHelpRequested |= is(argSpec, "versionHelp", option.versionHelp());
+                context.builder.usageHelpRequested   |= is(argSpec, "usageHelp", option.usageHelp());
             }
         }
         private boolean is(ArgSpec p, String attribute, boolean value) {
@@ -12481,38 +14181,10 @@ public class CommandLine {
             // consider adding ParserSpec.charArraysCanCaptureStrings() to allow non-interactive options to capture multi-char values in a char[] array
             // Note that this will require special logic for char[] types in CommandLine$Interpreter.applyValuesToArrayField;
             // TBD: what to do with multiple values? Append or overwrite?
-            if (char[].class.equals(argSpec.type()) && argSpec.interactive()) { return converterRegistry.get(char[].class); }
-            if (converterRegistry.containsKey(type)) { return converterRegistry.get(type); }
-            if (type.isEnum()) {
-                return new ITypeConverter<Object>() {
-                    @SuppressWarnings("unchecked")
-                    public Object convert(String value) throws Exception {
-                        try { return Enum.valueOf((Class<Enum>) type, value); }
-                        catch (IllegalArgumentException ex) {
-                            boolean insensitive = commandSpec.parser().caseInsensitiveEnumValuesAllowed();
-                            for (Enum enumConstant : ((Class<Enum>) type).getEnumConstants()) {
-                                String str = enumConstant.toString();
-                                String name = enumConstant.name();
-                                if (value.equals(str) || value.equals(name) || insensitive && (value.equalsIgnoreCase(str) || value.equalsIgnoreCase(name))) {
-                                    return enumConstant;
-                                }                            }
-                            String sensitivity = insensitive ? "case-insensitive" : "case-sensitive";
-                            Enum<?>[] constants = ((Class<Enum<?>>) type).getEnumConstants();
-                            List<String> names = new ArrayList<String>();
-                            for (Enum<?> constant : constants) {
-                                names.add(constant.name());
-                                if (!names.contains(constant.toString())) { // name() != toString()
-                                    if (!(insensitive && constant.name().equalsIgnoreCase(constant.toString()))) {
-                                        names.add(constant.toString());
-                                    }
-                                }
-                            }
-                            throw new TypeConversionException(
-                                    format("expected one of %s (%s) but was '%s'", names, sensitivity, value));
-                        }
-                    }
-                };
-            }
+            if (char[].class.equals(argSpec.type()) && argSpec.interactive()) { return converter(char[].class); }
+            ITypeConverter<?> result = converter(type);
+            if (result != null) { return result; }
+            if (type.isEnum()) { return BuiltIn.EnumConverter.forType(type, commandSpec.parser().caseInsensitiveEnumValuesAllowed()); }
             throw new MissingTypeConverterException(CommandLine.this, "No TypeConverter registered for " + type.getName() + " of " + argSpec);
         }
 
@@ -12528,7 +14200,7 @@ public class CommandLine {
             }
         }
 
-        private boolean assertNoMissingParameters(ArgSpec argSpec, Range arity, Stack<String> args) {
+        private boolean assertNoMissingParameters(ParseContext context, ArgSpec argSpec, Range arity, ArgCursor args) {
             if (argSpec.interactive()) { return true; }
             int available = args.size();
             if (available > 0 && commandSpec.parser().splitFirst() && argSpec.splitRegex().length() > 0) {
@@ -12537,7 +14209,7 @@ public class CommandLine {
             if (arity.min > available) {
                 if (arity.min == 1) {
                     if (argSpec.isOption()) {
-                        maybeThrow(new MissingParameterException(CommandLine.this, argSpec, "Missing required parameter for " +
+                        maybeThrow(context, new MissingParameterException(CommandLine.this, argSpec, "Missing required parameter for " +
                                 optionDescription("", argSpec, 0)));
                         return false;
                     }
@@ -12558,28 +14230,28 @@ public class CommandLine {
                     if (count > 1 || arity.min - available > 1) {
                         msg += "s";
                     }
-                    maybeThrow(new MissingParameterException(CommandLine.this, argSpec, msg + names));
+                    maybeThrow(context, new MissingParameterException(CommandLine.this, argSpec, msg + names));
                 } else if (args.isEmpty()) {
-                    maybeThrow(new MissingParameterException(CommandLine.this, argSpec, optionDescription("", argSpec, 0) +
+                    maybeThrow(context, new MissingParameterException(CommandLine.this, argSpec, optionDescription("", argSpec, 0) +
                             " requires at least " + arity.min + " values, but none were specified."));
                 } else {
-                    maybeThrow(new MissingParameterException(CommandLine.this, argSpec, optionDescription("", argSpec, 0) +
-                            " requires at least " + arity.min + " values, but only " + available + " were specified: " + reverse(args)));
+                    maybeThrow(context, new MissingParameterException(CommandLine.this, argSpec, optionDescription("", argSpec, 0) +
+                            " requires at least " + arity.min + " values, but only " + available + " were specified: " + args));
                 }
                 return false;
             }
             return true;
         }
 
-        char[] readPassword(ArgSpec argSpec) {
-            String name = argSpec.isOption() ? ((OptionSpec) argSpec).longestName() : "position " + position;
+        char[] readPassword(ParseContext context, ArgSpec argSpec) {
+            String name = argSpec.isOption() ? ((OptionSpec) argSpec).longestName() : "position " + context.position;
             String prompt = String.format("Enter value for %s (%s): ", name, str(argSpec.description(), 0));
             if (tracer.isDebug()) {tracer.debug("Reading value for %s from console...%n", name);}
-            char[] result = readPassword(prompt);
+            char[] result = readPassword(context, prompt);
             if (tracer.isDebug()) {tracer.debug("User entered %d characters for %s.%n", result.length, name);}
             return result;
         }
-        char[] readPassword(String prompt) {
+        char[] readPassword(ParseContext context, String prompt) {
             try {
                 Object console = System.class.getDeclaredMethod("console").invoke(null);
                 Method method = Class.forName("java.io.Console").getDeclaredMethod("readPassword", String.class, Object[].class);
@@ -12594,16 +14266,16 @@ public class CommandLine {
                     throw new IllegalStateException(ex2);
                 }
             } finally {
-                interactiveCount++;
+                context.interactiveCount++;
             }
         }
-        int getPosition(ArgSpec arg) {
-            if (arg.group() == null) { return position; }
-            GroupMatchContainer container = parseResultBuilder.groupMatchContainer.findLastMatchContainer(arg.group());
+        int getPosition(ParseContext context, ArgSpec arg) {
+            if (arg.group() == null) { return context.position; }
+            GroupMatchContainer container = context.builder.groupMatchContainer.findLastMatchContainer(arg.group());
             return container == null ? 0 : container.lastMatch().position;
         }
-        String positionDesc(ArgSpec arg) {
-            int pos = getPosition(arg);
+        String positionDesc(ParseContext context, ArgSpec arg) {
+            int pos = getPosition(context, arg);
             return (arg.group() == null) ? pos + " (command-local)" : pos + " (in group " + arg.group().synopsis() + ")";
         }
     }
@@ -12834,6 +14506,176 @@ public class CommandLine {
             return false;
         }
         static Set<String> traced = new HashSet<String>();
+
+        // types whose converters are looked up reflectively, so picocli can run on platforms without these classes
+        private static final String[] REFLECTED = {
+                "java.sql.Time", "java.sql.Connection", "java.sql.Driver", "java.sql.Timestamp",
+                "java.time.Duration", "java.time.Instant", "java.time.LocalDate", "java.time.LocalDateTime",
+                "java.time.LocalTime", "java.time.MonthDay", "java.time.OffsetDateTime", "java.time.OffsetTime",
+                "java.time.Period", "java.time.Year", "java.time.YearMonth", "java.time.ZonedDateTime",
+                "java.time.ZoneId", "java.time.ZoneOffset", "java.nio.file.Path"};
+        private static final Set<String> REFLECTED_NAMES = new HashSet<String>(Arrays.asList(REFLECTED));
+        private static final Map<Class<?>, ITypeConverter<?>> DIRECT = Collections.unmodifiableMap(directConverters());
+        private static final Map<String, ITypeConverter<?>> RESOLVED = new ConcurrentHashMap<String, ITypeConverter<?>>();
+        private static final ITypeConverter<?> UNAVAILABLE = new StringConverter(); // marks reflected types that could not be resolved
+
+        private static Map<Class<?>, ITypeConverter<?>> directConverters() {
+            Map<Class<?>, ITypeConverter<?>> result = new HashMap<Class<?>, ITypeConverter<?>>();
+            result.put(Object.class,        new StringConverter());
+            result.put(String.class,        new StringConverter());
+            result.put(StringBuilder.class, new StringBuilderConverter());
+            result.put(char[].class,        new CharArrayConverter());
+            result.put(CharSequence.class,  new CharSequenceConverter());
+            result.put(Byte.class,          new ByteConverter());
+            result.put(Byte.TYPE,           new ByteConverter());
+            result.put(Boolean.class,       new BooleanConverter());
+            result.put(Boolean.TYPE,        new BooleanConverter());
+            result.put(Character.class,     new CharacterConverter());
+            result.put(Character.TYPE,      new CharacterConverter());
+            result.put(Short.class,         new ShortConverter());
+            result.put(Short.TYPE,          new ShortConverter());
+            result.put(Integer.class,       new IntegerConverter());
+            result.put(Integer.TYPE,        new IntegerConverter());
+            result.put(Long.class,          new LongConverter());
+            result.put(Long.TYPE,           new LongConverter());
+            result.put(Float.class,         new FloatConverter());
+            result.put(Float.TYPE,          new FloatConverter());
+            result.put(Double.class,        new DoubleConverter());
+            result.put(Double.TYPE,         new DoubleConverter());
+            result.put(File.class,          new FileConverter());
+            result.put(URI.class,           new URIConverter());
+            result.put(URL.class,           new URLConverter());
+            result.put(Date.class,          new ISO8601DateConverter());
+            result.put(BigDecimal.class,    new BigDecimalConverter());
+            result.put(BigInteger.class,    new BigIntegerConverter());
+            result.put(Charset.class,       new CharsetConverter());
+            result.put(InetAddress.class,   new InetAddressConverter());
+            result.put(Pattern.class,       new PatternConverter());
+            result.put(UUID.class,          new UUIDConverter());
+            result.put(Currency.class,      new CurrencyConverter());
+            result.put(TimeZone.class,      new TimeZoneConverter());
+            result.put(ByteOrder.class,     new ByteOrderConverter());
+            result.put(Class.class,         new ClassConverter());
+            result.put(NetworkInterface.class, new NetworkInterfaceConverter());
+            return result;
+        }
+
+        /** Returns the built-in converter for the specified type, or {@code null} if there is none.
+         * Built-in converters are stateless and shared by all CommandLine instances in the process.
+         * Converters for the {@code java.sql}, {@code java.time} and {@code java.nio.file} types are resolved
+         * reflectively when first requested; the {@code picocli.converters.excludes} system property is honored on every lookup. */
+        static ITypeConverter<?> converter(Class<?> type, Tracer tracer) {
+            ITypeConverter<?> result = DIRECT.get(type);
+            if (result != null || !REFLECTED_NAMES.contains(type.getName())) { return result; }
+            String fqcn = type.getName();
+            if (excluded(fqcn, tracer)) { return null; }
+            result = RESOLVED.get(fqcn);
+            if (result == null) {
+                result = resolve(fqcn, tracer);
+                RESOLVED.put(fqcn, result == null ? UNAVAILABLE : result);
+            }
+            return result == UNAVAILABLE ? null : result;
+        }
+
+        private static ITypeConverter<?> resolve(String fqcn, Tracer tracer) {
+            // #698 use direct calls to Class.forName() and Class.getDeclaredMethod() with constant Strings
+            // to allow GraalVM static analysis to resolve the target elements
+            try {
+                if ("java.sql.Time".equals(fqcn))       { return new ISO8601TimeConverter(Class.forName("java.sql.Time").getDeclaredConstructor(long.class)); }
+                if ("java.sql.Connection".equals(fqcn)) { return new ReflectionConverter(Class.forName("java.sql.DriverManager").getDeclaredMethod("getConnection", String.class), String.class); }
+                if ("java.sql.Driver".equals(fqcn))     { return new ReflectionConverter(Class.forName("java.sql.DriverManager").getDeclaredMethod("getDriver",     String.class), String.class); }
+                if ("java.sql.Timestamp".equals(fqcn))  { return new ReflectionConverter(Class.forName("java.sql.Timestamp")    .getDeclaredMethod("valueOf",       String.class), String.class); }
+
+                if ("java.time.Duration".equals(fqcn))       { return new ReflectionConverter(Class.forName("java.time.Duration")      .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.Instant".equals(fqcn))        { return new ReflectionConverter(Class.forName("java.time.Instant")       .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.LocalDate".equals(fqcn))      { return new ReflectionConverter(Class.forName("java.time.LocalDate")     .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.LocalDateTime".equals(fqcn))  { return new ReflectionConverter(Class.forName("java.time.LocalDateTime") .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.LocalTime".equals(fqcn))      { return new ReflectionConverter(Class.forName("java.time.LocalTime")     .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.MonthDay".equals(fqcn))       { return new ReflectionConverter(Class.forName("java.time.MonthDay")      .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.OffsetDateTime".equals(fqcn)) { return new ReflectionConverter(Class.forName("java.time.OffsetDateTime").getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.OffsetTime".equals(fqcn))     { return new ReflectionConverter(Class.forName("java.time.OffsetTime")    .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.Period".equals(fqcn))         { return new ReflectionConverter(Class.forName("java.time.Period")        .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.Year".equals(fqcn))           { return new ReflectionConverter(Class.forName("java.time.Year")          .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.YearMonth".equals(fqcn))      { return new ReflectionConverter(Class.forName("java.time.YearMonth")     .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.ZonedDateTime".equals(fqcn))  { return new ReflectionConverter(Class.forName("java.time.ZonedDateTime") .getDeclaredMethod("parse", CharSequence.class), CharSequence.class); }
+                if ("java.time.ZoneId".equals(fqcn))         { return new ReflectionConverter(Class.forName("java.time.ZoneId")        .getDeclaredMethod("of",    String.class),       String.class); }
+                if ("java.time.ZoneOffset".equals(fqcn))     { return new ReflectionConverter(Class.forName("java.time.ZoneOffset")    .getDeclaredMethod("of",    String.class),       String.class); }
+
+                if ("java.nio.file.Path".equals(fqcn)) { return new ReflectionConverter(Class.forName("java.nio.file.Paths").getDeclaredMethod("get", String.class, String[].class), String.class, String[].class); }
+            } catch (Exception e) {
+                handle(e, "java.sql.Driver".equals(fqcn) ? "java.sql.DriverManager" : fqcn, tracer);
+            }
+            return null;
+        }
+        /** Converts to the constants of an enum class. The lookup tables are built once per enum class and
+         * shared by all options and positional parameters of that type, in all CommandLine instances.
+         * Values are matched by {@code name()} and {@code toString()}, and, if case-insensitive matching
+         * is enabled, by either of these ignoring case. When several constants match, the first wins. */
+        static final class EnumConverter implements ITypeConverter<Object> {
+            // the cached tables refer to their enum class, so they are softly reachable to allow class unloading
+            private static final Map<Class<?>, SoftReference<EnumConverter[]>> CACHE =
+                    Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<EnumConverter[]>>());
+            private final Map<String, Object> names;
+            private final Map<String, Object> aliases;
+            private final boolean caseInsensitive;
+            private final String expected;
+
+            private EnumConverter(Map<String, Object> names, Map<String, Object> aliases, boolean caseInsensitive, List<String> candidates) {
+                this.names = names;
+                this.aliases = aliases;
+                this.caseInsensitive = caseInsensitive;
+                this.expected = "expected one of " + candidates + " (" + (caseInsensitive ? "case-insensitive" : "case-sensitive") + ")";
+            }
+            static EnumConverter forType(Class<?> type, boolean caseInsensitive) {
+                SoftReference<EnumConverter[]> ref = CACHE.get(type);
+                EnumConverter[] pair = ref == null ? null : ref.get();
+                if (pair == null) {
+                    pair = create(type);
+                    CACHE.put(type, new SoftReference<EnumConverter[]>(pair));
+                }
+                return pair[caseInsensitive ? 1 : 0];
+            }
+            private static EnumConverter[] create(Class<?> type) {
+                Object[] constants = type.getEnumConstants();
+                int capacity = constants.length * 4 / 3 + 1;
+                Map<String, Object> names = new HashMap<String, Object>(capacity);
+                Map<String, Object> aliases = new HashMap<String, Object>(capacity);
+                Map<String, Object> folded = new HashMap<String, Object>(capacity * 2);
+                for (int i = constants.length - 1; i >= 0; i--) { // reverse order: earlier constants overwrite later ones
+                    names.put(((Enum<?>) constants[i]).name(), constants[i]);
+                    aliases.put(constants[i].toString(), constants[i]);
+                    folded.put(fold(constants[i].toString()), constants[i]);
+                    folded.put(fold(((Enum<?>) constants[i]).name()), constants[i]);
+                }
+                List<String> sensitive = new ArrayList<String>();
+                List<String> insensitive = new ArrayList<String>();
+                for (Object constant : constants) {
+                    String name = ((Enum<?>) constant).name();
+                    String str = constant.toString();
+                    sensitive.add(name);
+                    insensitive.add(name);
+                    if (!sensitive.contains(str)) { sensitive.add(str); } // name() != toString()
+                    if (!insensitive.contains(str) && !name.equalsIgnoreCase(str)) { insensitive.add(str); }
+                }
+                return new EnumConverter[] {
+                        new EnumConverter(names, aliases, false, sensitive),
+                        new EnumConverter(names, folded, true, insensitive)};
+            }
+            /** Folds case per character, so that {@code fold(a).equals(fold(b))} if and only if {@code a.equalsIgnoreCase(b)}. */
+            private static String fold(String value) {
+                char[] chars = value.toCharArray();
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+                }
+                return new String(chars);
+            }
+            public Object convert(String value) {
+                Object result = names.get(value);
+                if (result == null) { result = aliases.get(caseInsensitive ? fold(value) : value); }
+                if (result == null) { throw new TypeConversionException(expected + " but was '" + value + "'"); }
+                return result;
+            }
+        }
         static class ReflectionConverter implements ITypeConverter<Object> {
             private final Method method;
             private Class<?>[] paramTypes;
@@ -12916,7 +14758,7 @@ public class CommandLine {
             if (parent == null) { return; }
             Help.ColorScheme colors = colorScheme != null ? colorScheme : Help.defaultColorScheme(ansi);
             if (commands.length > 0) {
-                CommandLine subcommand = parent.getSubcommands().get(commands[0]);
+                CommandLine subcommand = parent.getCommandSpec().subcommands().get(commands[0]);
                 if (subcommand != null) {
                     if (outWriter != null) {
                         subcommand.usage(outWriter, colors);
@@ -13016,6 +14858,26 @@ public class CommandLine {
         String render(Help help);
     }
 
+    /**
+     * A help section renderer that can write its section directly to a destination, like the {@code PrintWriter} that the usage
+     * help message is printed to, instead of returning it as a String.
+     * {@link Help#render(Appendable)} calls {@link #render(Help, Appendable)} for renderers that implement this interface,
+     * so that long sections like the option list do not need to be built up in memory before they are printed.
+     * Both methods should produce the same text.
+     * @see Help#render(Appendable)
+     * @since 4.3
+     */
+    public interface IStreamingHelpSectionRenderer extends IHelpSectionRenderer {
+        /**
+         * Writes a section of the usage help to the specified destination.
+         * @param help the {@code Help} instance for which to render a section
+         * @param destination the {@code Appendable} to write the text of this section to; the text may contain {@linkplain Help.Ansi ANSI} escape codes
+         * @throws IOException if the destination throws an IOException
+         * @since 4.3
+         */
+        void render(Help help, Appendable destination) throws IOException;
+    }
+
     /**
      * A collection of methods and inner classes that provide fine-grained control over the contents and layout of
      * the usage help message to display to end users when help is requested or invalid input values were specified.
@@ -13200,6 +15062,29 @@ public class CommandLine {
         List<PositionalParamSpec> positionalParameters() { return commandSpec.positionalParameters(); }
         String commandName() { return commandSpec.name(); }
 
+        /**
+         * Writes the usage help message of this command to the specified destination, section by section, in the order of the
+         * {@linkplain UsageMessageSpec#sectionKeys() section keys}.
+         * Sections whose renderer is an {@link IStreamingHelpSectionRenderer} are written directly to the destination;
+         * the default renderers for the parameter list, option list and command list write their rows as they are laid out,
+         * so the full text of these sections is never held in memory.
+         * Other sections are rendered to a String first and then appended.
+         * @param destination the {@code Appendable} (for example, a {@code PrintWriter}) to write the usage help message to
+         * @throws IOException if the destination throws an IOException
+         * @since 4.3
+         */
+        public void render(Appendable destination) throws IOException {
+            Map<String, IHelpSectionRenderer> sectionMap = commandSpec.usageMessage().sectionMap();
+            for (String key : commandSpec.usageMessage().sectionKeys()) {
+                IHelpSectionRenderer renderer = sectionMap.get(key);
+                if (renderer instanceof IStreamingHelpSectionRenderer) {
+                    ((IStreamingHelpSectionRenderer) renderer).render(this, destination);
+                } else if (renderer != null) {
+                    destination.append(renderer.render(this));
+                }
+            }
+        }
+
         /**
          * Returns the full usage synopsis of this command. This is equivalent to:
          * {@code this.synopsisHeading() + this.synopsis(this.synopsisHeadingLength())}
@@ -13491,6 +15376,26 @@ public class CommandLine {
          * @return the fully formatted option list
          * @since 3.0 */
         public String optionList(Layout layout, Comparator<OptionSpec> optionSort, IParamLabelRenderer valueLabelRenderer) {
+            StringBuilder sb = new StringBuilder();
+            try {
+                optionList(layout, optionSort, valueLabelRenderer, sb, false);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex); // StringBuilder does not throw IOException
+            }
+            return sb.toString();
+        }
+
+        /** Writes the {@linkplain #optionList() option list} to the specified destination, one option at a time.
+         * If this {@code Help} is a subclass, the option list is obtained from {@link #optionList()} instead, to respect any overrides. */
+        void optionList(Appendable out) throws IOException {
+            if (getClass() != Help.class) { out.append(optionList()); return; }
+            Comparator<OptionSpec> sortOrder = commandSpec.usageMessage().sortOptions()
+                    ? createShortOptionNameComparator()
+                    : createOrderComparatorIfNecessary(commandSpec.options());
+            optionList(createDefaultLayout(), sortOrder, parameterLabelRenderer(), out, true);
+        }
+
+        private void optionList(Layout layout, Comparator<OptionSpec> optionSort, IParamLabelRenderer valueLabelRenderer, Appendable out, boolean stream) throws IOException {
             List<OptionSpec> options = new ArrayList<OptionSpec>(commandSpec.options()); // options are stored in order of declaration
             if (optionSort != null) {
                 Collections.sort(options, optionSort); // default: sort options ABC
@@ -13498,24 +15403,45 @@ public class CommandLine {
             List<ArgGroupSpec> groups = optionListGroups();
             for (ArgGroupSpec group : groups) { options.removeAll(group.options()); }
 
-            StringBuilder sb = new StringBuilder();
-            layout.addOptions(options, valueLabelRenderer);
-            sb.append(layout.toString());
+            addOptions(layout, options, valueLabelRenderer, out, stream);
+            if (!stream) { out.append(layout.toString()); }
 
             Collections.sort(groups, new SortByOrder<ArgGroupSpec>());
             for (ArgGroupSpec group : groups) {
-                sb.append(createHeading(group.heading()));
+                out.append(createHeading(group.heading()));
 
                 Layout groupLayout = createDefaultLayout();
-                groupLayout.addPositionalParameters(group.positionalParameters(), valueLabelRenderer);
+                addPositionalParameters(groupLayout, group.positionalParameters(), valueLabelRenderer, out, stream);
                 List<OptionSpec> groupOptions = new ArrayList<OptionSpec>(group.options());
                 if (optionSort != null) {
                     Collections.sort(groupOptions, optionSort);
                 }
-                groupLayout.addOptions(groupOptions, valueLabelRenderer);
-                sb.append(groupLayout);
+                addOptions(groupLayout, groupOptions, valueLabelRenderer, out, stream);
+                if (!stream) { out.append(groupLayout.toString()); }
+            }
+        }
+
+        /** Adds the options to the layout. If {@code stream} is {@code true}, the rows are written to the destination
+         * after each option, so that the table only holds the rows of one option; otherwise the caller writes the layout. */
+        private static void addOptions(Layout layout, List<OptionSpec> options, IParamLabelRenderer paramLabelRenderer, Appendable out, boolean stream) throws IOException {
+            if (!stream) {
+                layout.addOptions(options, paramLabelRenderer);
+                return;
+            }
+            for (OptionSpec option : options) {
+                layout.addOptions(Collections.singletonList(option), paramLabelRenderer);
+                layout.table.flush(out);
+            }
+        }
+        private static void addPositionalParameters(Layout layout, List<PositionalParamSpec> params, IParamLabelRenderer paramLabelRenderer, Appendable out, boolean stream) throws IOException {
+            if (!stream) {
+                layout.addPositionalParameters(params, paramLabelRenderer);
+                return;
+            }
+            for (PositionalParamSpec param : params) {
+                layout.addPositionalParameters(Collections.singletonList(param), paramLabelRenderer);
+                layout.table.flush(out);
             }
-            return sb.toString();
         }
 
         /** Returns the list of {@code ArgGroupSpec}s with a non-{@code null} heading. */
@@ -13545,12 +15471,22 @@ public class CommandLine {
          * @return the section of the usage help message that lists the parameters
          */
         public String parameterList(Layout layout, IParamLabelRenderer paramLabelRenderer) {
+            layout.addPositionalParameters(parameterListPositionals(), paramLabelRenderer);
+            return layout.toString();
+        }
+
+        /** Writes the {@linkplain #parameterList() parameter list} to the specified destination, one positional parameter at a time.
+         * If this {@code Help} is a subclass, the parameter list is obtained from {@link #parameterList()} instead, to respect any overrides. */
+        void parameterList(Appendable out) throws IOException {
+            if (getClass() != Help.class) { out.append(parameterList()); return; }
+            addPositionalParameters(createDefaultLayout(), parameterListPositionals(), parameterLabelRenderer(), out, true);
+        }
+
+        private List<PositionalParamSpec> parameterListPositionals() {
             List<PositionalParamSpec> positionals = new ArrayList<PositionalParamSpec>(commandSpec.positionalParameters());
             List<ArgGroupSpec> groups = optionListGroups();
             for (ArgGroupSpec group : groups) { positionals.removeAll(group.positionalParameters()); }
-
-            layout.addPositionalParameters(positionals, paramLabelRenderer);
-            return layout.toString();
+            return positionals;
         }
 
         /**
@@ -13765,7 +15701,24 @@ public class CommandLine {
         /** Returns a 2-column list with command names and the first line of their header or (if absent) description.
          * @return a usage help section describing the added commands */
         public String commandList() {
-            if (subcommands().isEmpty()) { return ""; }
+            StringBuilder sb = new StringBuilder();
+            try {
+                commandList(sb, false);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex); // StringBuilder does not throw IOException
+            }
+            return sb.toString();
+        }
+
+        /** Writes the {@linkplain #commandList() command list} to the specified destination, one subcommand at a time.
+         * If this {@code Help} is a subclass, the command list is obtained from {@link #commandList()} instead, to respect any overrides. */
+        void commandList(Appendable out) throws IOException {
+            if (getClass() != Help.class) { out.append(commandList()); return; }
+            commandList(out, true);
+        }
+
+        private void commandList(Appendable out, boolean stream) throws IOException {
+            if (subcommands().isEmpty()) { return; }
             int commandLength = maxLength(subcommands().keySet());
             Help.TextTable textTable = Help.TextTable.forColumns(ansi(),
                     new Help.Column(commandLength + 2, 2, Help.Column.Overflow.SPAN),
@@ -13782,8 +15735,9 @@ public class CommandLine {
                 for (int i = 0; i < lines.length; i++) {
                     textTable.addRowValues(i == 0 ? help.commandNamesText(", ") : Ansi.EMPTY_TEXT, lines[i]);
                 }
+                if (stream) { textTable.flush(out); }
             }
-            return textTable.toString();
+            if (!stream) { out.append(textTable.toString()); }
         }
         private static int maxLength(Collection<?> any) {
             int result = 0;
@@ -14110,7 +16064,7 @@ public class CommandLine {
 
         private static Text[] createDescriptionFirstLines(ColorScheme scheme, ArgSpec arg, String[] description, boolean[] showDefault) {
             Text[] result = scheme.ansi().new Text(str(description, 0), scheme).splitLines();
-            if (result.length == 0 || (result.length == 1 && result[0].plain.length() == 0)) {
+            if (result.length == 0 || (result.length == 1 && result[0].length == 0)) {
                 if (showDefault[0]) {
                     result = new Text[]{scheme.ansi().new Text("  Default: " + arg.defaultValueString(true), scheme)};
                     showDefault[0] = false; // don't show the default value twice
@@ -14607,7 +16561,7 @@ public class CommandLine {
                 if (row > rowCount() - 1) {
                     throw new IllegalArgumentException("Cannot write to row " + row + ": rowCount=" + rowCount());
                 }
-                if (value == null || value.plain.length() == 0) { return new Cell(col, row); }
+                if (value == null || value.length == 0) { return new Cell(col, row); }
                 Column column = columns[col];
                 int indent = column.indent;
                 switch (column.overflow) {
@@ -14666,28 +16620,29 @@ public class CommandLine {
                 line.setText(text.plainString().replace("-", "\u00ff"));
                 Count count = new Count();
                 for (int start = line.first(), end = line.next(); end != BreakIterator.DONE; start = end, end = line.next()) {
-                    Text word = text.substring(start, end); //.replace("\u00ff", "-"); // not needed
-                    if (columnValue.maxLength >= offset + count.columnCount + length(word)) {
-                        copy(word, columnValue, offset + count.charCount, count);
+                    // copy the word directly from the text, without creating a substring
+                    int wordFrom = text.from + start, wordLength = end - start;
+                    if (columnValue.maxLength >= offset + count.columnCount + text.getCJKAdjustedLength(wordFrom, wordLength)) {
+                        copy(text, wordFrom, wordLength, columnValue, offset + count.charCount, count);
                     } else {
                         break;
                     }
                 }
                 if (count.charCount == 0 && length(text) + offset > columnValue.maxLength) {
                     // The value is a single word that is too big to be written to the column. Write as much as we can.
-                    copy(text, columnValue, offset, count);
+                    copy(text, text.from, text.length, columnValue, offset, count);
                 }
                 return count.charCount;
             }
             private int copy(Text value, Text destination, int offset) {
                 Count count = new Count();
-                copy(value, destination, offset, count);
+                copy(value, value.from, value.length, destination, offset, count);
                 return count.charCount;
             }
-            private void copy(Text value, Text destination, int offset, Count count) {
-                int length = Math.min(value.length, destination.maxLength - offset);
-                value.getStyledChars(value.from, length, destination, offset);
-                count.columnCount += length(value, value.from, length);
+            private void copy(Text value, int from, int valueLength, Text destination, int offset, Count count) {
+                int length = Math.min(valueLength, destination.maxLength - offset);
+                value.getStyledChars(from, length, destination, offset);
+                count.columnCount += length(value, from, length);
                 count.charCount += length;
             }
 
@@ -14695,6 +16650,26 @@ public class CommandLine {
              * @param text the StringBuilder to write into
              * @return the specified StringBuilder object (to allow method chaining and a more fluid API) */
             public StringBuilder toString(StringBuilder text) {
+                try {
+                    appendRows(text);
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex); // StringBuilder does not throw IOException
+                }
+                return text;
+            }
+
+            /** Writes the rows of this table to the specified destination and removes them from this table, so that rows added
+             * after this call are written by the next call. This allows a long table to be written while only the rows
+             * added since the previous call are held in memory.
+             * @param destination the {@code Appendable} (for example, a {@code PrintWriter}) to write the rows to
+             * @throws IOException if the destination throws an IOException
+             * @since 4.3 */
+            public void flush(Appendable destination) throws IOException {
+                appendRows(destination);
+                columnValues.clear();
+            }
+
+            private void appendRows(Appendable text) throws IOException {
                 int columnCount = this.columns.length;
                 StringBuilder row = new StringBuilder(tableWidth);
                 for (int i = 0; i < columnValues.size(); i++) {
@@ -14705,11 +16680,10 @@ public class CommandLine {
                         int lastChar = row.length() - 1;
                         while (lastChar >= 0 && row.charAt(lastChar) == ' ') {lastChar--;} // rtrim
                         row.setLength(lastChar + 1);
-                        text.append(row.toString()).append(System.getProperty("line.separator"));
+                        text.append(row).append(System.getProperty("line.separator"));
                         row.setLength(0);
                     }
                 }
-                return text;
             }
             public String toString() { return toString(new StringBuilder()).toString(); }
         }
@@ -14756,6 +16730,7 @@ public class CommandLine {
             private final List<IStyle> optionParamStyles;
             private final Ansi ansi;
             private final Map<String, IStyle> markupMap;
+            private final Map<String, Ansi.TextBuffer> templates; // parsed markup, if this color scheme has a custom markup map
 
             /** Constructs a new empty ColorScheme with the specified Ansi enabled mode.
              * @see Help#defaultColorScheme(Ansi)
@@ -14769,6 +16744,7 @@ public class CommandLine {
                 parameterStyles   = Collections.unmodifiableList(new ArrayList<IStyle>(builder.parameterStyles()));
                 optionParamStyles = Collections.unmodifiableList(new ArrayList<IStyle>(builder.optionParamStyles()));
                 markupMap         = builder.markupMap == null ? null : Collections.unmodifiableMap(new HashMap<String, IStyle>(builder.markupMap));
+                templates         = markupMap == null ? null : Ansi.TextBuffer.templateCache();
             }
             /** Returns a Text with all command styles applied to the specified command string.
              * @param command the command string to apply the registered command styles to
@@ -14879,10 +16855,9 @@ public class CommandLine {
                 result.colorScheme = this;
                 if (plainText.length() == 0) { return result; }
                 IStyle[] all = styles.toArray(new IStyle[styles.size()]);
-                result.sections.add(new Ansi.StyledSection(
-                        0, plainText.length(), Style.on(all), Style.off(reverseArray(all)) + resetStyle().off()));
-                result.plain.append(plainText);
-                result.length = result.plain.length();
+                result.buffer.addRun(0, plainText.length(), Style.on(all), Style.off(reverseArray(all)) + resetStyle().off());
+                result.buffer.append(plainText, 0, plainText.length());
+                result.length = plainText.length();
                 return result;
             }
             /**
@@ -15258,14 +17233,161 @@ public class CommandLine {
                     return (17 + fgbg) * 37 + color;
                 }
             }
-            private static class StyledSection {
-                int startIndex, length;
-                String startStyles, endStyles;
-                StyledSection(int start, int len, String style1, String style2) {
-                    startIndex = start; length = len; startStyles = style1; endStyles = style2;
+            /** Characters and styled runs shared by a {@link Text} and the substrings and copies created from it.
+             * The runs are kept in parallel arrays, ordered by start index and not overlapping; the start and end escape codes
+             * of a run are at index {@code 2 * runStyle[i]} and {@code 2 * runStyle[i] + 1} of the {@code styles} array. */
+            private static final class TextBuffer {
+                private static final int MAX_INITIAL_CAPACITY = 256;
+                private static final int MAX_CACHED_TEMPLATES = 512;
+                /** Parsed markup of color schemes without a custom markup map, by markup string; shared by all Texts created from the same markup.
+                 * Color schemes with a custom markup map keep their own templates, so that this cache does not hold on to user styles. */
+                private static final Map<String, TextBuffer> TEMPLATES = templateCache();
+                char[] chars;
+                int charCount;
+                int[] runStart = new int[0];
+                int[] runLength = new int[0];
+                int[] runStyle = new int[0];
+                int runCount;
+                String[] styles = new String[0];
+                int styleCount;
+                boolean readOnly; // cached templates are shared between threads and never appended to
+
+                TextBuffer(int capacity) { chars = new char[Math.max(0, capacity)]; }
+
+                /** Returns the buffer for the specified string with markup. Markup is parsed once for each custom markup mapping,
+                 * the resulting buffer is cached and shared read-only by all Texts created from the same markup. */
+                static TextBuffer parse(String input, ColorScheme colorScheme) {
+                    if (input.indexOf("@|") < 0) {
+                        TextBuffer result = new TextBuffer(input.length());
+                        result.append(input, 0, input.length());
+                        return result;
+                    }
+                    Map<String, TextBuffer> templates = colorScheme.markupMap == null ? TEMPLATES : colorScheme.templates;
+                    TextBuffer result = templates.get(input);
+                    if (result == null) {
+                        result = parseMarkup(input, colorScheme);
+                        result.readOnly = true;
+                        templates.put(input, result);
+                    }
+                    return result;
                 }
-                StyledSection withStartIndex(int newStart) {
-                    return new StyledSection(newStart, length, startStyles, endStyles);
+                /** Returns a new thread-safe cache of parsed markup that discards the least recently used entries when it is full. */
+                static Map<String, TextBuffer> templateCache() {
+                    return Collections.synchronizedMap(new LinkedHashMap<String, TextBuffer>(16, 0.75f, true) {
+                        @Override protected boolean removeEldestEntry(Map.Entry<String, TextBuffer> eldest) {
+                            return size() > MAX_CACHED_TEMPLATES;
+                        }
+                    });
+                }
+                private static TextBuffer parseMarkup(String input, ColorScheme colorScheme) {
+                    TextBuffer result = new TextBuffer(input.length());
+                    int i = 0;
+                    while (true) {
+                        int j = input.indexOf("@|", i);
+                        if (j == -1) {
+                            result.append(input, i, input.length());
+                            return result;
+                        }
+                        result.append(input, i, j);
+                        int k = input.indexOf("|@", j);
+                        if (k == -1) {
+                            result.append(input, 0, input.length());
+                            return result;
+                        }
+
+                        j += 2;
+                        int space = input.indexOf(' ', j);
+                        if (space == -1 || space >= k) {
+                            result.append(input, 0, input.length());
+                            return result;
+                        }
+
+                        IStyle[] styles = colorScheme.parse(input.substring(j, space));
+                        result.addRun(result.charCount, k - space - 1,
+                                Style.on(styles), Style.off(reverseArray(styles)) + colorScheme.resetStyle().off());
+                        result.append(input, space + 1, k);
+                        i = k + 2;
+                    }
+                }
+
+                void append(String str, int begin, int end) {
+                    ensureCapacity(charCount + end - begin);
+                    str.getChars(begin, end, chars, charCount);
+                    charCount += end - begin;
+                }
+                void pad(int count) {
+                    ensureCapacity(charCount + count);
+                    Arrays.fill(chars, charCount, charCount + count, ' ');
+                    charCount += count;
+                }
+                /** Appends the specified range of the source buffer, with the parts of the runs that overlap this range.
+                 * A run that starts before the range also styles the characters (like indentation) that precede the range in this buffer,
+                 * up to the previous run, as many characters as the run has before the range. */
+                void append(TextBuffer source, int sourceFrom, int count) {
+                    int shift = charCount - sourceFrom;
+                    int previousEnd = runCount == 0 ? 0 : runStart[runCount - 1] + runLength[runCount - 1];
+                    for (int i = source.firstRunEndingAfter(sourceFrom); i < source.runCount && source.runStart[i] < sourceFrom + count; i++) {
+                        int start = Math.max(source.runStart[i] + shift, previousEnd);
+                        int end = Math.min(source.runStart[i] + source.runLength[i], sourceFrom + count) + shift;
+                        String startStyles = source.styles[2 * source.runStyle[i]];
+                        String endStyles = source.styles[2 * source.runStyle[i] + 1];
+                        if (start == previousEnd && runCount > 0 && source.runStart[i] < sourceFrom
+                                && styles[2 * runStyle[runCount - 1]].equals(startStyles) && styles[2 * runStyle[runCount - 1] + 1].equals(endStyles)) {
+                            runLength[runCount - 1] = end - runStart[runCount - 1]; // continues a run that was copied in a previous call
+                        } else {
+                            addRun(start, end - start, startStyles, endStyles);
+                        }
+                        previousEnd = end;
+                    }
+                    ensureCapacity(charCount + count);
+                    System.arraycopy(source.chars, sourceFrom, chars, charCount, count);
+                    charCount += count;
+                }
+                void addRun(int start, int length, String startStyles, String endStyles) {
+                    if (runCount == runStart.length) {
+                        int capacity = Math.max(4, runCount * 2);
+                        runStart = grow(runStart, capacity);
+                        runLength = grow(runLength, capacity);
+                        runStyle = grow(runStyle, capacity);
+                    }
+                    runStart[runCount] = start;
+                    runLength[runCount] = length;
+                    runStyle[runCount] = styleIndex(startStyles, endStyles);
+                    runCount++;
+                }
+                private int styleIndex(String startStyles, String endStyles) {
+                    for (int i = styleCount - 1; i >= 0; i--) {
+                        if (styles[2 * i].equals(startStyles) && styles[2 * i + 1].equals(endStyles)) { return i; }
+                    }
+                    if (2 * styleCount == styles.length) {
+                        String[] grown = new String[Math.max(4, styles.length * 2)];
+                        System.arraycopy(styles, 0, grown, 0, styles.length);
+                        styles = grown;
+                    }
+                    styles[2 * styleCount] = startStyles;
+                    styles[2 * styleCount + 1] = endStyles;
+                    return styleCount++;
+                }
+                /** Returns the index of the first run that ends after the specified position, or {@code runCount} if there is none. */
+                int firstRunEndingAfter(int position) {
+                    int low = 0, high = runCount;
+                    while (low < high) {
+                        int mid = (low + high) >>> 1;
+                        if (runStart[mid] + runLength[mid] <= position) { low = mid + 1; } else { high = mid; }
+                    }
+                    return low;
+                }
+                private void ensureCapacity(int capacity) {
+                    if (capacity > chars.length) {
+                        char[] grown = new char[Math.max(capacity, chars.length * 2)];
+                        System.arraycopy(chars, 0, grown, 0, charCount);
+                        chars = grown;
+                    }
+                }
+                private static int[] grow(int[] array, int capacity) {
+                    int[] result = new int[capacity];
+                    System.arraycopy(array, 0, result, 0, array.length);
+                    return result;
                 }
             }
 
@@ -15277,14 +17399,16 @@ public class CommandLine {
              * markup like {@code @|bg(red),white,underline some text|@}, and this class converts the markup to ANSI
              * escape codes.
              * <p>
-             * Internally keeps both an enriched and a plain text representation to allow layout components to calculate
-             * text width while remaining unaware of the embedded ANSI escape codes.</p> */
+             * Internally keeps the plain text and the positions of the styled sections, to allow layout components to calculate
+             * text width while remaining unaware of the embedded ANSI escape codes.
+             * Substrings and copies of a Text share its characters and styles instead of copying them,
+             * and markup is parsed once and shared by all Texts created from the same markup.</p> */
             public class Text implements Cloneable {
                 private final int maxLength;
                 private int from;
                 private int length;
-                private StringBuilder plain = new StringBuilder();
-                private List<StyledSection> sections = new ArrayList<StyledSection>();
+                private TextBuffer buffer;
+                private boolean ownsBuffer; // only the Text that created a buffer appends to it; copies and substrings copy it first
                 private ColorScheme colorScheme;
 
                 /** Constructs a Text with the specified max length (for use in a TextTable Column).
@@ -15294,7 +17418,12 @@ public class CommandLine {
                  * @param maxLength max length of this text
                  * @param colorScheme the colorScheme to use
                  * @since 4.2*/
-                public Text(int maxLength, ColorScheme colorScheme) { this.maxLength = maxLength; this.colorScheme = colorScheme; }
+                public Text(int maxLength, ColorScheme colorScheme) {
+                    this.maxLength = maxLength;
+                    this.colorScheme = colorScheme;
+                    this.buffer = new TextBuffer(Math.min(maxLength, TextBuffer.MAX_INITIAL_CAPACITY));
+                    this.ownsBuffer = true;
+                }
 
                 /** Copy constructor.
                  * @since 3.9 */
@@ -15302,8 +17431,7 @@ public class CommandLine {
                     this.maxLength = other.maxLength;
                     this.from = other.from;
                     this.length = other.length;
-                    this.plain = new StringBuilder(other.plain);
-                    this.sections = new ArrayList<StyledSection>(other.sections);
+                    this.buffer = other.buffer;
                     this.colorScheme = other.colorScheme;
                 }
                 /**
@@ -15323,57 +17451,20 @@ public class CommandLine {
                 public Text(String input, ColorScheme colorScheme) {
                     this.colorScheme = colorScheme;
                     maxLength = -1;
-                    plain.setLength(0);
-                    int i = 0;
-
-                    while (true) {
-                        int j = input.indexOf("@|", i);
-                        if (j == -1) {
-                            if (i == 0) {
-                                plain.append(input);
-                                length = plain.length();
-                                return;
-                            }
-                            plain.append(input.substring(i, input.length()));
-                            length = plain.length();
-                            return;
-                        }
-                        plain.append(input.substring(i, j));
-                        int k = input.indexOf("|@", j);
-                        if (k == -1) {
-                            plain.append(input);
-                            length = plain.length();
-                            return;
-                        }
-
-                        j += 2;
-                        String spec = input.substring(j, k);
-                        String[] items = spec.split(" ", 2);
-                        if (items.length == 1) {
-                            plain.append(input);
-                            length = plain.length();
-                            return;
-                        }
-
-                        IStyle[] styles = colorScheme.parse(items[0]);
-                        addStyledSection(plain.length(), items[1].length(),
-                                Style.on(styles), Style.off(reverseArray(styles)) + colorScheme.resetStyle().off());
-                        plain.append(items[1]);
-                        i = k + 2;
-                    }
-                }
-                private void addStyledSection(int start, int length, String startStyle, String endStyle) {
-                    sections.add(new StyledSection(start, length, startStyle, endStyle));
+                    buffer = TextBuffer.parse(input, colorScheme);
+                    ownsBuffer = !buffer.readOnly;
+                    length = buffer.charCount;
                 }
                 public Object clone() { return new Text(this); }
 
                 public Text[] splitLines() {
                     List<Text> result = new ArrayList<Text>();
+                    char[] chars = buffer.chars;
                     int start = 0, end = 0;
-                    for (int i = 0; i < plain.length(); i++, end = i) {
-                        char c = plain.charAt(i);
+                    for (int i = 0; i < length; i++, end = i) {
+                        char c = chars[from + i];
                         boolean eol = c == '\n';
-                        if (c == '\r' && i + 1 < plain.length() && plain.charAt(i + 1) == '\n') { eol = true; i++; } // \r\n
+                        if (c == '\r' && i + 1 < length && chars[from + i + 1] == '\n') { eol = true; i++; } // \r\n
                         eol |= c == '\r';
                         if (eol) {
                             result.add(this.substring(start, end));
@@ -15381,7 +17472,7 @@ public class CommandLine {
                         }
                     }
                     // add remainder (may be empty string)
-                    result.add(this.substring(start, plain.length()));
+                    result.add(this.substring(start, length));
                     return result.toArray(new Text[result.size()]);
                 }
 
@@ -15397,15 +17488,9 @@ public class CommandLine {
                  * @param end index in the plain text where to end the substring
                  * @return a new Text instance that is a substring of this Text */
                 public Text substring(int start, int end) {
-                    Text result = (Text) clone();
+                    Text result = new Text(this);
                     result.from = from + start;
                     result.length = end - start;
-                    result.sections.clear();
-                    for (StyledSection section : this.sections) {
-                        if (section.startIndex >= result.from + result.length) { continue; }
-                        if (section.startIndex + section.length <= result.from) { continue; }
-                        result.sections.add(section);
-                    }
                     return result;
                 }
                 /** @deprecated use {@link #concat(String)} instead */
@@ -15424,19 +17509,13 @@ public class CommandLine {
                  * @return a new Text instance
                  * @since 3.0 */
                 public Text concat(Text other) {
-                    Text result = (Text) clone();
-                    result.plain = new StringBuilder(plain.toString().substring(from, from + length));
+                    Text result = new Text(this);
+                    result.buffer = new TextBuffer(length + other.length);
+                    result.buffer.append(buffer, from, length);
+                    result.buffer.append(other.buffer, other.from, other.length);
+                    result.ownsBuffer = true;
                     result.from = 0;
-                    result.sections = new ArrayList<StyledSection>();
-                    for (StyledSection section : sections) {
-                        result.sections.add(section.withStartIndex(section.startIndex - from));
-                    }
-                    result.plain.append(other.plain.toString().substring(other.from, other.from + other.length));
-                    for (StyledSection section : other.sections) {
-                        int index = result.length + section.startIndex - other.from;
-                        result.sections.add(section.withStartIndex(index));
-                    }
-                    result.length = result.plain.length();
+                    result.length = result.buffer.charCount;
                     return result;
                 }
 
@@ -15448,23 +17527,26 @@ public class CommandLine {
                  * @param offset indentation (padding)
                  */
                 public void getStyledChars(int from, int length, Text destination, int offset) {
+                    destination.prepareAppend();
                     if (destination.length < offset) {
-                        for (int i = destination.length; i < offset; i++) {
-                            destination.plain.append(' ');
-                        }
-                        destination.length = offset;
+                        destination.buffer.pad(offset - destination.length);
                     }
-                    for (StyledSection section : sections) {
-                        if ((section.startIndex - from) + section.length >= 0) {
-                            destination.sections.add(section.withStartIndex(section.startIndex - from + destination.length));
-                        }
-                    }
-                    destination.plain.append(plain.toString().substring(from, from + length));
-                    destination.length = destination.plain.length();
+                    destination.buffer.append(buffer, from, length);
+                    destination.length = destination.buffer.charCount;
+                }
+                /** Before this Text is modified, copies it to a new buffer unless this Text created its buffer and ends where the buffer ends.
+                 * Copies and substrings never append to the buffer they share, so they cannot see each other's changes. */
+                private void prepareAppend() {
+                    if (ownsBuffer && from + length == buffer.charCount) { return; }
+                    TextBuffer copy = new TextBuffer(Math.max(length, maxLength));
+                    copy.append(buffer, from, length);
+                    buffer = copy;
+                    ownsBuffer = true;
+                    from = 0;
                 }
                 /** Returns the plain text without any formatting.
                  * @return the plain text without any formatting */
-                public String plainString() {  return plain.toString().substring(from, from + length); }
+                public String plainString() {  return new String(buffer.chars, from, length); }
 
                 public boolean equals(Object obj) { return toString().equals(String.valueOf(obj)); }
                 public int hashCode() { return toString().hashCode(); }
@@ -15474,34 +17556,28 @@ public class CommandLine {
                  * @return a String representation of the text with ANSI escape codes embedded (if enabled) */
                 public String toString() {
                     if (!Ansi.this.enabled()) {
-                        return plain.toString().substring(from, from + length);
+                        return plainString();
                     }
                     if (length == 0) { return ""; }
-                    StringBuilder sb = new StringBuilder(plain.length() + 20 * sections.size());
-                    StyledSection current = null;
-                    int end = Math.min(from + length, plain.length());
-                    for (int i = from; i < end; i++) {
-                        StyledSection section = findSectionContaining(i);
-                        if (section != current) {
-                            if (current != null) { sb.append(current.endStyles); }
-                            if (section != null) { sb.append(section.startStyles); }
-                            current = section;
-                        }
-                        sb.append(plain.charAt(i));
+                    TextBuffer text = buffer;
+                    int end = from + length;
+                    int first = text.firstRunEndingAfter(from);
+                    StringBuilder sb = new StringBuilder(length + 20 * (text.runCount - first));
+                    int pos = from;
+                    for (int i = first; i < text.runCount && text.runStart[i] < end; i++) {
+                        int start = Math.max(text.runStart[i], from);
+                        int runEnd = Math.min(text.runStart[i] + text.runLength[i], end);
+                        if (runEnd <= start) { continue; }
+                        sb.append(text.chars, pos, start - pos);
+                        sb.append(text.styles[2 * text.runStyle[i]]);
+                        sb.append(text.chars, start, runEnd - start);
+                        sb.append(text.styles[2 * text.runStyle[i] + 1]);
+                        pos = runEnd;
                     }
-                    if (current != null) { sb.append(current.endStyles); }
+                    sb.append(text.chars, pos, end - pos);
                     return sb.toString();
                 }
 
-                private StyledSection findSectionContaining(int index) {
-                    for (StyledSection section : sections) {
-                        if (index >= section.startIndex && index < section.startIndex + section.length) {
-                            return section;
-                        }
-                    }
-                    return null;
-                }
-
                 /** Returns the number of columns this Text will occupy on the console, adjusted for wide CJK characters.
                  * @return the number of columns this Text will occupy on the console, adjusted for wide CJK characters
                  * @since 4.0 */
@@ -15516,8 +17592,9 @@ public class CommandLine {
                  * @since 4.0 */
                 public int getCJKAdjustedLength(int fromPosition, int charCount) {
                     int result = 0;
+                    char[] chars = buffer.chars;
                     for (int i = fromPosition; i < fromPosition + charCount; i++) {
-                        result += UsageMessageSpec.isCharCJK(plain.charAt(i)) ? 2 : 1;
+                        result += UsageMessageSpec.isCharCJK(chars[i]) ? 2 : 1;
                     }
                     return result;
                 }
@@ -15580,35 +17657,74 @@ public class CommandLine {
     private static class CosineSimilarity {
         static List<String> mostSimilar(String pattern, Iterable<String> candidates) { return mostSimilar(pattern, candidates, 0); }
         static List<String> mostSimilar(String pattern, Iterable<String> candidates, double threshold) {
-            pattern = pattern.toLowerCase();
-            SortedMap<Double, String> sorted = new TreeMap<Double, String>();
-            for (String candidate : candidates) {
-                double score = similarity(pattern, candidate.toLowerCase(), 2);
-                if (score > threshold) { sorted.put(score, candidate); }
+            List<String> list = new ArrayList<String>();
+            for (String candidate : candidates) { list.add(candidate); }
+            return new Index(list).mostSimilar(pattern, threshold, list.size());
+        }
+
+        /** Inverted index from the bigrams of a fixed list of candidates to the candidates that contain them,
+         * so that the most similar candidates for a pattern can be found without re-analyzing every candidate. */
+        static final class Index {
+            final List<String> candidates;
+            private final Map<Integer, List<int[]>> postings = new HashMap<Integer, List<int[]>>(); // bigram -> {candidate index, frequency}
+            private final double[] norms;
+
+            Index(List<String> candidates) {
+                this.candidates = candidates;
+                norms = new double[candidates.size()];
+                for (int i = 0; i < norms.length; i++) {
+                    for (Map.Entry<Integer, Integer> gram : countBigramFrequency(candidates.get(i).toLowerCase()).entrySet()) {
+                        List<int[]> list = postings.get(gram.getKey());
+                        if (list == null) { postings.put(gram.getKey(), list = new ArrayList<int[]>()); }
+                        list.add(new int[] {i, gram.getValue()});
+                        norms[i] += gram.getValue() * gram.getValue();
+                    }
+                }
             }
-            return reverseList(new ArrayList<String>(sorted.values()));
-        }
 
-        private static double similarity(String sequence1, String sequence2, int degree) {
-            Map<String, Integer> m1 = countNgramFrequency(sequence1, degree);
-            Map<String, Integer> m2 = countNgramFrequency(sequence2, degree);
-            return dotProduct(m1, m2) / Math.sqrt(dotProduct(m1, m1) * dotProduct(m2, m2));
+            /** Returns at most {@code limit} candidates whose similarity to the pattern exceeds the threshold, most similar first.
+             * Candidates with the same similarity are all returned, the most recently indexed first. */
+            List<String> mostSimilar(String pattern, double threshold, int limit) {
+                Map<Integer, Integer> grams = countBigramFrequency(pattern.toLowerCase());
+                double patternNorm = 0;
+                Map<Integer, Integer> dotProducts = new HashMap<Integer, Integer>(); // only the candidates sharing a bigram with the pattern
+                for (Map.Entry<Integer, Integer> gram : grams.entrySet()) {
+                    patternNorm += gram.getValue() * gram.getValue();
+                    List<int[]> list = postings.get(gram.getKey());
+                    if (list == null) { continue; }
+                    for (int[] posting : list) {
+                        Integer dotProduct = dotProducts.get(posting[0]);
+                        dotProducts.put(posting[0], (dotProduct == null ? 0 : dotProduct) + gram.getValue() * posting[1]);
+                    }
+                }
+                final Map<Integer, Double> scores = new HashMap<Integer, Double>();
+                List<Integer> matches = new ArrayList<Integer>();
+                for (Map.Entry<Integer, Integer> entry : dotProducts.entrySet()) {
+                    double score = entry.getValue() / Math.sqrt(patternNorm * norms[entry.getKey()]);
+                    scores.put(entry.getKey(), score);
+                    if (score > threshold) { matches.add(entry.getKey()); }
+                }
+                Collections.sort(matches, new Comparator<Integer>() {
+                    public int compare(Integer o1, Integer o2) {
+                        int result = Double.compare(scores.get(o2), scores.get(o1));
+                        return result != 0 ? result : o2.compareTo(o1);
+                    }
+                });
+                List<String> result = new ArrayList<String>();
+                for (int i = 0; i < matches.size() && i < limit; i++) { result.add(candidates.get(matches.get(i))); }
+                return result;
+            }
         }
 
-        private static Map<String, Integer> countNgramFrequency(String sequence, int degree) {
-            Map<String, Integer> m = new HashMap<String, Integer>();
-            for (int i = 0; i + degree <= sequence.length(); i++) {
-                String gram = sequence.substring(i, i + degree);
-                m.put(gram, 1 + (m.containsKey(gram) ? m.get(gram) : 0));
+        private static Map<Integer, Integer> countBigramFrequency(String sequence) {
+            Map<Integer, Integer> m = new HashMap<Integer, Integer>();
+            for (int i = 0; i + 2 <= sequence.length(); i++) {
+                Integer gram = (sequence.charAt(i) << 16) | sequence.charAt(i + 1);
+                Integer count = m.get(gram);
+                m.put(gram, count == null ? 1 : count + 1);
             }
             return m;
         }
-
-        private static double dotProduct(Map<String, Integer> m1, Map<String, Integer> m2) {
-            double result = 0;
-            for (String key : m1.keySet()) { result += m1.get(key) * (m2.containsKey(key) ? m2.get(key) : 0); }
-            return result;
-        }
     }
     /** Base class of all exceptions thrown by {@code picocli.CommandLine}.
      * <h2>Class Diagram of the Picocli Exceptions</h2>
@@ -15852,12 +17968,7 @@ public class CommandLine {
             if (spec.resemblesOption(arg, null)) {
                 return spec.findVisibleOptionNamesWithPrefix(stripped.substring(0, Math.min(2, stripped.length())));
             } else if (!spec.subcommands().isEmpty()) {
-                List<String> visibleSubs = new ArrayList<String>();
-                for (Map.Entry<String, CommandLine> entry : spec.subcommands().entrySet()) {
-                    if (!entry.getValue().getCommandSpec().usageMessage().hidden()) { visibleSubs.add(entry.getKey()); }
-                }
-                List<String> mostSimilar = CosineSimilarity.mostSimilar(arg, visibleSubs);
-                return mostSimilar.subList(0, Math.min(3, mostSimilar.size()));
+                return spec.parsePlan().subcommandIndex().mostSimilar(arg, 0, 3);
             }
             return Collections.emptyList();
         }
@@ -15867,7 +17978,7 @@ public class CommandLine {
         private static String describe(List<String> unmatch, CommandLine cmd) {
             String plural = unmatch.size() == 1 ? "" : "s";
             String at = unmatch.size() == 1 ? " at" : " from";
-            return isUnknownOption(unmatch, cmd) ? "Unknown option" + plural : "Unmatched argument" + plural + at + " index " + (cmd.interpreter.parseResultBuilder == null ? "0" : cmd.interpreter.parseResultBuilder.originalArgList.indexOf(unmatch.get(0)));
+            return isUnknownOption(unmatch, cmd) ? "Unknown option" + plural : "Unmatched argument" + plural + at + " index " + (cmd.interpreter.lastContext == null ? "0" : cmd.interpreter.lastContext.builder.originalArgList.indexOf(unmatch.get(0)));
         }
         static String quoteElements(List<String> list) {
             String result = "", suffix = "";
@@ -0,0 +1,98 @@
+/*
+   Copyright 2017 Remko Popma
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package picocli;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Accesses a field or invokes a setter method through method handles adapted to {@code (Object)Object} and {@code (Object,Object)void}.
+ * <p>
+ * {@code MethodHandle.invokeExact} is signature polymorphic, which javac only supports with {@code -source 7} or later,
+ * so this class is compiled separately from {@code CommandLine}, which is compiled with {@code -source 1.5}.
+ * {@code CommandLine.Model.MemberAccessor} loads this class by name and calls {@link #create(Member)} reflectively,
+ * and keeps using reflection if this class is not available or cannot be loaded on the current platform.
+ * </p>
+ */
+final class MethodHandleAccessor extends CommandLine.Model.MemberAccessor {
+    private final MethodHandle getter; // (Object)Object, or null for methods
+    private final MethodHandle setter; // (Object,Object)void
+
+    private MethodHandleAccessor(MethodHandle getter, MethodHandle setter) {
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    static CommandLine.Model.MemberAccessor create(Member member) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle getter = null;
+        MethodHandle setter;
+        if (member instanceof Field) {
+            getter = receiver(lookup.unreflectGetter((Field) member), member);
+            setter = receiver(lookup.unreflectSetter((Field) member), member);
+        } else {
+            setter = receiver(lookup.unreflect((Method) member), member);
+        }
+        return new MethodHandleAccessor(
+                getter == null ? null : getter.asType(MethodType.methodType(Object.class, Object.class)),
+                setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+    }
+
+    private static MethodHandle receiver(MethodHandle handle, Member member) {
+        return Modifier.isStatic(member.getModifiers())
+                ? MethodHandles.dropArguments(handle, 0, Object.class)
+                : handle;
+    }
+
+    Object get(Object obj) throws Exception {
+        if (getter == null) { throw new UnsupportedOperationException("Cannot get value from method"); }
+        try {
+            return (Object) getter.invokeExact(obj);
+        } catch (Exception ex) {
+            throw ex;
+        } catch (Error err) {
+            throw err;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    void set(Object obj, Object value) throws Exception {
+        if (getter == null) { // a setter method: wrap anything it throws, like Method.invoke
+            try {
+                setter.invokeExact(obj, value);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+            return;
+        }
+        try {
+            setter.invokeExact(obj, value);
+        } catch (Exception ex) {
+            throw ex;
+        } catch (Error err) {
+            throw err;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+}
@@ -19,11 +19,15 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.LineNumberReader;
 import java.io.OutputStream;
+import java.io.StreamTokenizer;
+import java.io.StringReader;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -591,7 +595,7 @@ public class AtFileTest {
     @Test
     public void testAtFileExpansionExceptionHandling() throws Exception {
         Class<?> interpreterClass = Class.forName("picocli.CommandLine$Interpreter");
-        Method m = interpreterClass.getDeclaredMethod("expandValidArgumentFile", String.class, File.class, List.class, Set.class);
+        Method m = interpreterClass.getDeclaredMethod("expandValidArgumentFile", String.class, File.class, List.class, Set.class, List.class);
         m.setAccessible(true);
 
         class App {
@@ -605,7 +609,7 @@ public class AtFileTest {
         f.setAccessible(true);
         Object interpreter = f.get(commandLine);
         try {
-            m.invoke(interpreter, "fileName", null, new ArrayList<String>(), new HashSet<String>());
+            m.invoke(interpreter, "fileName", null, new ArrayList<String>(), new HashSet<String>(), null);
             fail("Expected exception");
         } catch (InvocationTargetException ex) {
             CommandLine.InitializationException actual = (CommandLine.InitializationException) ex.getCause();
@@ -755,4 +759,136 @@ public class AtFileTest {
         assertEquals(expected, actual);
     }
 
+    private static List<String> streamTokenizerTokens(String contents) throws IOException {
+        StreamTokenizer tok = new StreamTokenizer(new LineNumberReader(new StringReader(contents)));
+        tok.resetSyntax();
+        tok.wordChars(' ', 255);
+        tok.whitespaceChars(0, ' ');
+        tok.quoteChar('"');
+        tok.quoteChar('\'');
+        tok.commentChar('#');
+        List<String> result = new ArrayList<String>();
+        while (tok.nextToken() != StreamTokenizer.TT_EOF) {
+            result.add(tok.sval);
+        }
+        return result;
+    }
+
+    @Test
+    public void testAtFileTokensSameAsStreamTokenizer() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) { // larger than the read buffer, so tokens span buffer boundaries
+            sb.append("word").append(i).append(" \"quoted ").append(i).append("\"\t'single ' # comment ").append(i).append("\r\n");
+        }
+        sb.append("abc\"def\" x#y 'esc\\n\\t\\101\\7\\'q' \u00e9t\u00e9 \u4e2d\u6587 \"\" 'unterminated\r\nnext\rlast \"open");
+        String contents = sb.toString();
+        File file = File.createTempFile("picocli", "atfile");
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(contents.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        class App {
+            @Parameters List<String> params;
+        }
+        App app = new App();
+        new CommandLine(app).setAtFileCharset(Charset.forName("UTF-8")).parseArgs("@" + file.getAbsolutePath());
+        assertEquals(streamTokenizerTokens(contents), app.params);
+        file.delete();
+    }
+
+    @Test
+    public void testAtFileCharset() throws IOException {
+        File file = File.createTempFile("picocli", "atfile");
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write("gr\u00fc\u00dfe".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        class App {
+            @Parameters String param;
+        }
+        App app = new App();
+        CommandLine cmd = new CommandLine(app);
+        cmd.setAtFileCharset(Charset.forName("UTF-8")).parseArgs("@" + file.getAbsolutePath());
+        assertEquals("gr\u00fc\u00dfe", app.param);
+
+        cmd.setAtFileCharset(Charset.forName("ISO-8859-1")).parseArgs("@" + file.getAbsolutePath());
+        assertEquals(new String("gr\u00fc\u00dfe".getBytes("UTF-8"), "ISO-8859-1"), app.param);
+
+        assertEquals(Charset.defaultCharset(), cmd.setAtFileCharset(null).getAtFileCharset());
+        file.delete();
+    }
+
+    @Test
+    public void testAtFileCacheHitsAndMisses() throws IOException {
+        File nested = File.createTempFile("picocli", "nested");
+        writeFile(nested, "c d");
+        File file = File.createTempFile("picocli", "atfile");
+        writeFile(file, "a b @" + nested.getAbsolutePath());
+        class App {
+            @Parameters List<String> params;
+        }
+        App app = new App();
+        CommandLine.AtFileCache cache = new CommandLine.AtFileCache(10);
+        CommandLine cmd = new CommandLine(app).setAtFileCache(cache);
+        assertSame(cache, cmd.getAtFileCache());
+
+        cmd.parseArgs("@" + file.getAbsolutePath());
+        assertEquals(Arrays.asList("a", "b", "c", "d"), app.params);
+        assertEquals(0, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        cmd.parseArgs("@" + file.getAbsolutePath(), "e");
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), app.params);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.size());
+
+        writeFile(nested, "c d x"); // modifying a nested file invalidates the entry
+        cmd.parseArgs("@" + file.getAbsolutePath());
+        assertEquals(Arrays.asList("a", "b", "c", "d", "x"), app.params);
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+
+        writeFile(file, "y z"); // modifying the file itself changes its key
+        cmd.parseArgs("@" + file.getAbsolutePath());
+        assertEquals(Arrays.asList("y", "z"), app.params);
+        assertEquals(3, cache.missCount());
+        file.delete();
+        nested.delete();
+    }
+
+    @Test
+    public void testAtFileCacheEvictsLeastRecentlyUsed() throws IOException {
+        File[] files = new File[3];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = File.createTempFile("picocli", "atfile");
+            writeFile(files[i], "arg" + i);
+        }
+        CommandLine.AtFileCache cache = new CommandLine.AtFileCache(2);
+        class App {
+            @Parameters List<String> params;
+        }
+        CommandLine cmd = new CommandLine(new App()).setAtFileCache(cache);
+        cmd.parseArgs("@" + files[0].getAbsolutePath());
+        cmd.parseArgs("@" + files[1].getAbsolutePath());
+        cmd.parseArgs("@" + files[0].getAbsolutePath()); // hit: files[1] is now least recently used
+        cmd.parseArgs("@" + files[2].getAbsolutePath()); // evicts files[1]
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.hitCount());
+        cmd.parseArgs("@" + files[0].getAbsolutePath());
+        assertEquals(2, cache.hitCount());
+        cmd.parseArgs("@" + files[1].getAbsolutePath());
+        assertEquals(2, cache.hitCount());
+        assertEquals(4, cache.missCount());
+        for (File file : files) { file.delete(); }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAtFileCacheRequiresPositiveMaxEntries() {
+        new CommandLine.AtFileCache(0);
+    }
 }
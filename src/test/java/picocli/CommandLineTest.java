@@ -35,6 +35,7 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -2340,6 +2341,29 @@ public class CommandLineTest {
         }
     }
     @Test
+    public void testManyRequiredOptionsMissingInDeclarationOrder() {
+        CommandSpec spec = CommandSpec.create();
+        for (int i = 0; i < 100; i++) {
+            spec.addOption(OptionSpec.builder("-o" + i).type(int.class).required(true).build());
+        }
+        CommandLine cmd = new CommandLine(spec);
+        List<String> args = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            if (i != 3 && i != 64 && i != 99) { args.add("-o" + i); args.add("" + i); }
+        }
+        for (int attempt = 0; attempt < 2; attempt++) { // required args are reset for every parse
+            try {
+                cmd.parseArgs(args.toArray(new String[0]));
+                fail("MissingParameterException expected");
+            } catch (MissingParameterException ex) {
+                assertEquals("Missing required options [-o3=PARAM, -o64=PARAM, -o99=PARAM]", ex.getMessage());
+                assertEquals(3, ex.getMissing().size());
+            }
+        }
+        args.addAll(Arrays.asList("-o3", "3", "-o64", "64", "-o99", "99"));
+        assertEquals(100, cmd.parseArgs(args.toArray(new String[0])).matchedOptions().size());
+    }
+    @Test
     public void test185MissingOptionsShouldUseLabel() {
         class App {
             @Parameters(arity = "1", paramLabel = "IN_FILE", description = "The input file")
@@ -3330,28 +3354,32 @@ public class CommandLineTest {
     public void testInterpreterApplyValueToSingleValuedField() throws Exception {
         Class c = Class.forName("picocli.CommandLine$Interpreter");
         Class lookBehindClass = Class.forName("picocli.CommandLine$LookBehind");
+        Class argCursorClass = Class.forName("picocli.CommandLine$ArgCursor");
+        Class parseContextClass = Class.forName("picocli.CommandLine$ParseContext");
         Method applyValueToSingleValuedField = c.getDeclaredMethod("applyValueToSingleValuedField",
+                parseContextClass,
                 ArgSpec.class,
                 boolean.class,
                 lookBehindClass,
                 boolean.class,
                 Range.class,
-                Stack.class, Set.class, String.class);
+                argCursorClass, Set.class, String.class);
         applyValueToSingleValuedField.setAccessible(true);
 
         CommandSpec spec = CommandSpec.create();
         spec.parser().trimQuotes(true);
         CommandLine cmd = new CommandLine(spec);
         Object interpreter = TestUtil.interpreter(cmd);
-        Method clear = c.getDeclaredMethod("clear");
-        clear.setAccessible(true);
-        clear.invoke(interpreter); // initializes the interpreter instance
+        Object context = TestUtil.parseContext(cmd);
 
         PositionalParamSpec arg = PositionalParamSpec.builder().arity("1").build();
         Object SEPARATE = lookBehindClass.getDeclaredField("SEPARATE").get(null);
+        Constructor argCursorConstructor = argCursorClass.getDeclaredConstructor(String[].class);
+        argCursorConstructor.setAccessible(true);
+        Object emptyArgs = argCursorConstructor.newInstance((Object) new String[0]);
 
-        int value = (Integer) applyValueToSingleValuedField.invoke(interpreter,
-                arg, false, SEPARATE, false, Range.valueOf("1"), new Stack<String>(), new HashSet<String>(), "");
+        int value = (Integer) applyValueToSingleValuedField.invoke(interpreter, context,
+                arg, false, SEPARATE, false, Range.valueOf("1"), emptyArgs, new HashSet<String>(), "");
         assertEquals(0, value);
     }
 
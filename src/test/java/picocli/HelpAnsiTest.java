@@ -16,6 +16,9 @@ import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 import static org.junit.Assert.*;
 import static picocli.TestUtil.usageString;
@@ -610,6 +613,102 @@ public class HelpAnsiTest {
         }
     }
 
+    @Test
+    public void testTextSplitLinesOfSubstring() {
+        Ansi ansi = Ansi.ON;
+        Ansi.Text text = ansi.new Text("a\n@|bold b\nc|@\nd").substring(2, 5);
+        Ansi.Text[] lines = text.splitLines();
+        assertEquals(2, lines.length);
+        assertEquals(ansi.new Text("@|bold b|@"), lines[0]);
+        assertEquals(ansi.new Text("@|bold c|@"), lines[1]);
+    }
+
+    @Test
+    public void testTextConcatSubstringDoesNotCopyStylesOutsideSubstring() {
+        Ansi ansi = Ansi.ON;
+        Ansi.Text text = ansi.new Text("ab@|bold XY|@").substring(0, 2);
+        assertEquals(ansi.new Text("abcd"), text.concat("cd"));
+    }
+
+    @Test
+    public void testTextGetStyledCharsDoesNotModifySharedText() {
+        Ansi ansi = Ansi.ON;
+        Ansi.Text original = ansi.new Text("@|bold abc|@def");
+        Ansi.Text copy = ansi.new Text(original);
+        Ansi.Text prefix = original.substring(0, 2);
+        original.getStyledChars(4, 2, copy, 0);
+        original.getStyledChars(1, 2, prefix, 0);
+        assertEquals(ansi.new Text("@|bold abc|@def"), original);
+        assertEquals(ansi.new Text("@|bold abc|@defef"), copy);
+        assertEquals(ansi.new Text("@|bold abbc|@"), prefix);
+    }
+
+    static class CountingStyle implements Ansi.IStyle {
+        int count;
+        public String on() { count++; return "<"; }
+        public String off() { return ">"; }
+    }
+
+    @Test
+    public void testTextMarkupParsedOncePerColorScheme() {
+        CountingStyle style = new CountingStyle();
+        Map<String, Ansi.IStyle> markup = new HashMap<String, Ansi.IStyle>();
+        markup.put("counted", style);
+        CommandLine.Help.ColorScheme scheme1 = new CommandLine.Help.ColorScheme.Builder(Ansi.ON).customMarkupMap(markup).build();
+        CommandLine.Help.ColorScheme scheme2 = new CommandLine.Help.ColorScheme.Builder(Ansi.OFF).customMarkupMap(markup).build();
+        String input = "a @|counted b|@ c";
+
+        scheme1.text(input);
+        scheme1.text(input);
+        assertEquals(1, style.count);
+        assertEquals("a <b> c", scheme1.text(input).toString());
+
+        Ansi.Text text2 = scheme2.text(input);
+        assertEquals("not shared with other color schemes", 2, style.count);
+        assertEquals("a b c", text2.toString());
+    }
+
+    @Test
+    public void testTextFromCachedMarkupNotModifiedByGetStyledChars() {
+        Ansi ansi = Ansi.ON;
+        String input = "@|bold abc|@ " + UUID.randomUUID();
+        Ansi.Text text = ansi.new Text(input);
+        ansi.new Text("@|underline x|@").getStyledChars(0, 1, text, 0);
+        assertEquals(ansi.new Text(input).concat("@|underline x|@"), text);
+        assertEquals(ansi.new Text(input).plainString().length(), ansi.new Text(input).getCJKAdjustedLength());
+        assertEquals(text.plainString().substring(0, text.plainString().length() - 1), ansi.new Text(input).plainString());
+    }
+
+    @Test
+    public void testTextGetStyledCharsIntoTwoSubstringsOfSameText() {
+        Ansi ansi = Ansi.ON;
+        Ansi.Text parent = ansi.new Text("abcdef");
+        Ansi.Text first = parent.substring(2);
+        Ansi.Text second = parent.substring(4);
+        Ansi.Text source = ansi.new Text("@|bold X|@@|bold Y|@");
+        source.getStyledChars(0, 1, first, 0);
+        source.getStyledChars(1, 1, second, 0);
+        assertEquals(ansi.new Text("abcdef"), parent);
+        assertEquals(ansi.new Text("cdef@|bold X|@"), first);
+        assertEquals(ansi.new Text("ef@|bold Y|@"), second);
+
+        parent.getStyledChars(0, 1, parent, 0);
+        assertEquals(ansi.new Text("abcdefa"), parent);
+        assertEquals(ansi.new Text("cdef@|bold X|@"), first);
+        assertEquals(ansi.new Text("ef@|bold Y|@"), second);
+    }
+
+    @Test
+    public void testGetStyledCharsContinuesRunAcrossIndent() {
+        Ansi ansi = Ansi.ON;
+        Ansi.Text source = ansi.new Text("@|bold abcd|@");
+        Ansi.Text destination = ansi.new Text("@|underline x|@ ");
+        source.getStyledChars(2, 2, destination, 4);
+        String bold = Ansi.Style.bold.on(), off = Ansi.Style.bold.off() + Ansi.Style.reset.off();
+        String underline = Ansi.Style.underline.on(), underlineOff = Ansi.Style.underline.off() + Ansi.Style.reset.off();
+        assertEquals(underline + "x" + underlineOff + " " + bold + "  cd" + off, destination.toString());
+    }
+
     @Test
     public void testTextHashCode() {
         Ansi ansi = Ansi.ON;
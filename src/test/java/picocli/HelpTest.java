@@ -19,6 +19,7 @@ import org.junit.After;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.contrib.java.lang.system.EnvironmentVariables;
 import org.junit.contrib.java.lang.system.ProvideSystemProperty;
 import org.junit.contrib.java.lang.system.SystemErrRule;
 import org.junit.contrib.java.lang.system.SystemOutRule;
@@ -93,6 +94,8 @@ public class HelpTest {
     public final SystemOutRule systemOutRule = new SystemOutRule().enableLog().muteForSuccessfulTests();
     @Rule
     public final SystemErrRule systemErrRule = new SystemErrRule().enableLog().muteForSuccessfulTests();
+    @Rule
+    public final EnvironmentVariables environmentVariables = new EnvironmentVariables();
 
     @After
     public void after() {
@@ -3665,6 +3668,45 @@ public class HelpTest {
         assertEquals(80, cmd.getCommandSpec().usageMessage().width());
     }
 
+    @Test
+    public void testAutoWidthUsesColumnsEnvironmentVariable() {
+        @Command(usageHelpAutoWidth = true)
+        class App {}
+
+        environmentVariables.set("COLUMNS", "123");
+        CommandLine cmd = new CommandLine(new App());
+        assertEquals(123, cmd.getCommandSpec().usageMessage().width());
+
+        environmentVariables.set("COLUMNS", "30");
+        assertEquals(55, cmd.getCommandSpec().usageMessage().width());
+
+        environmentVariables.set("COLUMNS", "abc");
+        assertEquals(80, cmd.getCommandSpec().usageMessage().width());
+    }
+
+    @Test
+    public void testTerminalWidthDetectionStartedWhenAutoWidthCommandConstructed() throws Exception {
+        @Command(usageHelpAutoWidth = true)
+        class App {}
+
+        environmentVariables.set("COLUMNS", null);
+        Field terminalWidth = UsageMessageSpec.class.getDeclaredField("terminalWidth");
+        terminalWidth.setAccessible(true);
+        terminalWidth.set(null, null);
+        new CommandLine(CommandSpec.create());
+        assertNull(terminalWidth.get(null));
+
+        CommandLine cmd = new CommandLine(new App());
+        Object detection = terminalWidth.get(null);
+        assertNotNull(detection);
+        assertEquals(80, cmd.getCommandSpec().usageMessage().width());
+        assertSame(detection, terminalWidth.get(null));
+
+        UsageMessageSpec.refreshTerminalWidth();
+        assertNotSame(detection, terminalWidth.get(null));
+        assertEquals(80, cmd.getCommandSpec().usageMessage().width());
+    }
+
     @Test
     public void testCliBuilderLsExample() {
         @Command(name="ls")
@@ -4433,4 +4475,86 @@ public class HelpTest {
             assertEquals("Invalid usage long options max width 61. Value must not exceed width(80) - 20", ok.getMessage());
         }
     }
+
+    @Command(name = "stream", description = "Streams its usage help.", subcommands = {StreamSub.class, HelpCommand.class})
+    static class StreamApp {
+        @Option(names = {"-a", "--alpha"}, description = {"First line.", "Second line."}) int a;
+        @Option(names = "-b", description = "The b.") boolean b;
+        @Parameters(index = "0", description = "The file.") File file;
+        @CommandLine.ArgGroup(validate = false, heading = "Group:%n") StreamGroup group;
+    }
+    static class StreamGroup {
+        @Option(names = "-x", description = "The x.") int x;
+        @Parameters(index = "1", description = "The y.") String y;
+    }
+    @Command(name = "sub", description = {"The sub.", "More."})
+    static class StreamSub { }
+
+    @Test
+    public void testRenderToAppendableSameAsSectionsRenderedToString() throws IOException {
+        CommandLine cmd = new CommandLine(new StreamApp());
+        Help help = cmd.getHelpFactory().create(cmd.getCommandSpec(), Help.defaultColorScheme(Help.Ansi.ON));
+        StringBuilder expected = new StringBuilder();
+        for (String key : cmd.getHelpSectionKeys()) {
+            expected.append(cmd.getHelpSectionMap().get(key).render(help));
+        }
+        StringBuilder actual = new StringBuilder();
+        help.render(actual);
+        assertEquals(expected.toString(), actual.toString());
+
+        StringWriter sw = new StringWriter();
+        cmd.usage(new PrintWriter(sw), Help.Ansi.ON);
+        assertEquals(expected.toString(), sw.toString());
+        assertEquals(expected.toString(), cmd.getUsageMessage(Help.Ansi.ON));
+    }
+
+    @Test
+    public void testUsageStreamsSectionsWithStreamingRenderer() {
+        CommandLine cmd = new CommandLine(new StreamApp());
+        final List<Appendable> destinations = new ArrayList<Appendable>();
+        cmd.getHelpSectionMap().put(UsageMessageSpec.SECTION_KEY_FOOTER, new CommandLine.IStreamingHelpSectionRenderer() {
+            public String render(Help help) { return "rendered"; }
+            public void render(Help help, Appendable destination) throws IOException {
+                destinations.add(destination);
+                destination.append("streamed");
+            }
+        });
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        cmd.usage(pw, Help.Ansi.OFF);
+        assertEquals(Arrays.<Appendable>asList(pw), destinations);
+        assertTrue(sw.toString(), sw.toString().endsWith("streamed"));
+        assertTrue(cmd.getUsageMessage(Help.Ansi.OFF).endsWith("streamed"));
+
+        cmd.setUsageHelpCached(true);
+        destinations.clear();
+        sw.getBuffer().setLength(0);
+        cmd.usage(pw, Help.Ansi.OFF);
+        assertTrue(sw.toString(), sw.toString().endsWith("streamed"));
+        assertEquals(1, destinations.size());
+        assertNotSame(pw, destinations.get(0));
+    }
+
+    @Test
+    public void testRenderToAppendableRespectsHelpSubclassOverrides() throws IOException {
+        CommandLine cmd = new CommandLine(new StreamApp());
+        cmd.setHelpFactory(new IHelpFactory() {
+            public Help create(CommandSpec commandSpec, ColorScheme colorScheme) {
+                return new Help(commandSpec, colorScheme) {
+                    @Override public String optionList() { return "options" + format("%n"); }
+                    @Override public String parameterList() { return "parameters" + format("%n"); }
+                    @Override public String commandList() { return "commands" + format("%n"); }
+                };
+            }
+        });
+        StringWriter sw = new StringWriter();
+        cmd.usage(new PrintWriter(sw), Help.Ansi.OFF);
+        assertEquals(format("" +
+                "Usage: stream [-b] [-a=<a>] [-x=<x>] <file> <y> [COMMAND]%n" +
+                "Streams its usage help.%n" +
+                "parameters%n" +
+                "options%n" +
+                "Commands:%n" +
+                "commands%n"), sw.toString());
+    }
 }
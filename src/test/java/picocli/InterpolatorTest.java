@@ -203,6 +203,99 @@ public class InterpolatorTest {
         System.clearProperty("key");
     }
 
+    @Test
+    public void interpolateWithoutVariablesReturnsOriginal() {
+        CommandSpec hierarchy = createTestSpec();
+        Interpolator interpolator = new Interpolator(hierarchy);
+        String original = "no variables here";
+        assertSame(original, interpolator.interpolate(original));
+        assertEquals("costs $5 or $$", interpolator.interpolate("costs $$5 or $$$$"));
+    }
+
+    @Test
+    public void interpolateReflectsChangedSystemProperties() {
+        CommandSpec hierarchy = createTestSpec();
+        Interpolator interpolator = new Interpolator(hierarchy);
+        String original = "value: ${sys:interpolateChanged:-none}, name: ${COMMAND-NAME}";
+
+        System.clearProperty("interpolateChanged");
+        assertEquals("value: none, name: top", interpolator.interpolate(original));
+        System.setProperty("interpolateChanged", "first");
+        assertEquals("value: first, name: top", interpolator.interpolate(original));
+        System.setProperty("interpolateChanged", "second");
+        assertEquals("value: second, name: top", interpolator.interpolate(original));
+        hierarchy.name("renamed");
+        assertEquals("value: second, name: renamed", interpolator.interpolate(original));
+    }
+
+    @Test
+    public void interpolateReflectsChangedResourceBundle() {
+        CommandSpec hierarchy = createTestSpec();
+        Interpolator interpolator = new Interpolator(hierarchy);
+        String original = "resource: ${bundle:myProp:-missing}";
+
+        assertEquals("resource: missing", interpolator.interpolate(original));
+        hierarchy.resourceBundle(createResourceBundle("myProp=first"));
+        assertEquals("resource: first", interpolator.interpolate(original));
+        hierarchy.resourceBundle(createResourceBundle("myProp=second"));
+        assertEquals("resource: second", interpolator.interpolate(original));
+    }
+
+    @Test
+    public void interpolateSameStringForDifferentCommands() {
+        CommandSpec hierarchy = createTestSpec();
+        CommandSpec sub = hierarchy.subcommands().get("sub").getCommandSpec();
+        String original = "${COMMAND-FULL-NAME} of ${PARENT-COMMAND-NAME:-nobody}";
+
+        assertEquals("top of nobody", new Interpolator(hierarchy).interpolate(original));
+        assertEquals("top sub of top", new Interpolator(sub).interpolate(original));
+        assertEquals("top of nobody", new Interpolator(hierarchy).interpolate(original));
+    }
+
+    @Test
+    public void interpolateReflectsRenamedParent() {
+        CommandSpec hierarchy = createTestSpec();
+        CommandSpec subsub = hierarchy.subcommands().get("sub").getCommandSpec().subcommands().get("subsub").getCommandSpec();
+        Interpolator interpolator = new Interpolator(subsub);
+        String original = "${COMMAND-FULL-NAME}";
+
+        assertEquals("top sub subsub", interpolator.interpolate(original));
+        hierarchy.name("renamed");
+        assertEquals("renamed sub subsub", interpolator.interpolate(original));
+    }
+
+    @Test
+    public void interpolateCachesPerCommand() {
+        CommandSpec hierarchy = createTestSpec();
+        CommandSpec sub = hierarchy.subcommands().get("sub").getCommandSpec();
+        String original = "${COMMAND-NAME}";
+
+        assertEquals("top", new Interpolator(hierarchy).interpolate(original));
+        assertEquals("sub", new Interpolator(sub).interpolate(original));
+        assertEquals(1, hierarchy.interpolated.size());
+        assertEquals(1, sub.interpolated.size());
+        sub.name("other");
+        assertEquals(1, hierarchy.interpolated.size());
+        assertEquals(0, sub.interpolated.size());
+    }
+
+    @Test
+    public void interpolationDependencies() {
+        CommandSpec hierarchy = createTestSpec();
+        System.setProperty("interpolationDependency", "value");
+        try {
+            new Interpolator(hierarchy).interpolate("${sys:interpolationDependency} ${env:interpolationDependencyEnv:-x} ${COMMAND-NAME}");
+        } finally {
+            System.clearProperty("interpolationDependency");
+        }
+        Map<String, String> dependencies = hierarchy.interpolationDependencies();
+        assertEquals("value", dependencies.get("sys:interpolationDependency"));
+        assertTrue(dependencies.containsKey("env:interpolationDependencyEnv"));
+        assertNull(dependencies.get("env:interpolationDependencyEnv"));
+        assertTrue(dependencies.containsKey("sys:COMMAND-NAME"));
+        assertTrue(hierarchy.subcommands().get("sub").getCommandSpec().interpolationDependencies().isEmpty());
+    }
+
     private CommandSpec createTestSpec() {
         CommandSpec result = CommandSpec.create().name("top")
                 .addSubcommand("sub", CommandSpec.create().name("sub")
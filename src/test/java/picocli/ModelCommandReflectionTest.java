@@ -8,10 +8,14 @@ import picocli.CommandLine.Model.CommandSpec;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 public class ModelCommandReflectionTest {
@@ -304,4 +308,53 @@ public class ModelCommandReflectionTest {
     public void testBuildUnmatchedForField_valid() {
         CommandSpec.forAnnotatedObject(new MyUnmatched2());
     }
+
+    static class UpperCaseConverter implements ITypeConverter<String> {
+        public String convert(String value) { return value.toUpperCase(); }
+    }
+    @Command(name = "templated")
+    static class Templated {
+        @Option(names = "-x") int x;
+        @Option(names = "-n") String name = "default";
+        @Option(names = "-c", converter = UpperCaseConverter.class) String converted;
+        @Parameters List<String> files;
+        int y;
+        @Option(names = "-y") void setY(int value) { y = value; }
+    }
+
+    @Test
+    public void testClassTemplateCachedPerClass() throws Exception {
+        Class<?> template = Class.forName("picocli.CommandLine$Model$ClassTemplate");
+        Method forClass = template.getDeclaredMethod("forClass", Class.class);
+        forClass.setAccessible(true);
+        assertSame(forClass.invoke(null, Templated.class), forClass.invoke(null, Templated.class));
+    }
+
+    @Test
+    public void testClassTemplateBindsArgsToEachInstance() {
+        Templated first = new Templated();
+        Templated second = new Templated();
+        second.name = "other";
+        CommandLine cmd1 = new CommandLine(first);
+        CommandLine cmd2 = new CommandLine(second);
+        for (int i = 0; i < 3; i++) { new CommandLine(new Templated()); } // reuse the cached template
+
+        cmd2.parseArgs("-x", "2", "-y", "22", "-c", "abc", "f2");
+        cmd1.parseArgs("-x", "1", "-y", "11", "f1");
+        assertEquals(1, first.x);
+        assertEquals(11, first.y);
+        assertEquals("default", first.name);
+        assertNull(first.converted);
+        assertEquals(Arrays.asList("f1"), first.files);
+        assertEquals(2, second.x);
+        assertEquals(22, second.y);
+        assertEquals("other", second.name);
+        assertEquals("ABC", second.converted);
+        assertEquals(Arrays.asList("f2"), second.files);
+
+        assertEquals("default", cmd1.getCommandSpec().findOption("-n").initialValue());
+        assertEquals("other", cmd2.getCommandSpec().findOption("-n").initialValue());
+        assertNotSame(cmd1.getCommandSpec().findOption("-x"), cmd2.getCommandSpec().findOption("-x"));
+        assertNotSame(cmd1.getCommandSpec().findOption("-c").converters()[0], cmd2.getCommandSpec().findOption("-c").converters()[0]);
+    }
 }
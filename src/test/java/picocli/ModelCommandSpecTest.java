@@ -1300,6 +1300,25 @@ public class ModelCommandSpecTest {
         assertTrue(spec.resemblesOption("/a", tracer));
     }
 
+    @Test
+    public void testResemblesOption_CommonPrefixLength() {
+        CommandSpec spec = CommandSpec.wrapWithoutInspection(null);
+        spec.addOption(OptionSpec.builder("-a", "--alpha").build());
+        spec.addOption(OptionSpec.builder("--all").build());
+        spec.addOption(OptionSpec.builder("/b").build());
+
+        assertEquals(0, spec.parsePlan().commonPrefixLength("xyz"));
+        assertEquals(3, spec.parsePlan().commonPrefixLength("-"));
+        assertEquals(2 + 1 + 1, spec.parsePlan().commonPrefixLength("-ab"));
+        assertEquals(1 + 7 + 4, spec.parsePlan().commonPrefixLength("--alphabet"));
+        assertEquals(1 + 4 + 4, spec.parsePlan().commonPrefixLength("--al"));
+        assertTrue(spec.resemblesOption("--other", null));
+        assertFalse(spec.resemblesOption("xyz", null));
+
+        spec.addOption(OptionSpec.builder("--beta").build()); // the prefix tree is rebuilt when options are added
+        assertEquals(1 + 4 + 4 + 2, spec.parsePlan().commonPrefixLength("--al"));
+    }
+
     @Test
     public void testUsageSpec_CustomSynopsisSetter() {
         UsageMessageSpec usage = new UsageMessageSpec();
@@ -1467,4 +1486,57 @@ public class ModelCommandSpecTest {
         assertEquals("spec1", specElements.get(0).getName());
         assertEquals("spec2", specElements.get(1).getName());
     }
+    @Test
+    public void testParsePlanInvalidatedWhenSpecModified() {
+        CommandSpec spec = CommandSpec.create();
+        spec.addOption(OptionSpec.builder("-x").type(int.class).build());
+        CommandLine cmd = new CommandLine(spec);
+        cmd.parseArgs("-x", "1");
+
+        spec.addOption(OptionSpec.builder("-y").type(int.class).required(true).build());
+        spec.addSubcommand("sub", CommandSpec.create());
+        ParseResult pr = cmd.parseArgs("-x", "2", "-y", "3", "sub");
+        assertEquals(Integer.valueOf(3), pr.matchedOptionValue('y', 0));
+        assertTrue(pr.hasSubcommand());
+
+        spec.remove(spec.findOption('y'));
+        try {
+            cmd.parseArgs("-y", "3");
+            fail("Expected exception");
+        } catch (UnmatchedArgumentException ex) {
+            assertEquals("Unknown options: '-y', '3'", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testParsePlanSuggestsVisibleOptionsAndSubcommands() {
+        CommandSpec spec = CommandSpec.create();
+        spec.addOption(OptionSpec.builder("--alpha").build());
+        spec.addOption(OptionSpec.builder("--alps").hidden(true).build());
+        spec.addSubcommand("status", CommandSpec.create());
+        spec.addSubcommand("secret", new CommandLine(CommandSpec.create().usageMessage(new UsageMessageSpec().hidden(true))));
+
+        assertEquals(Arrays.asList("--alpha"), spec.parsePlan().visibleOptionNamesWithPrefix("al"));
+        assertEquals(Arrays.asList("status"), spec.parsePlan().subcommandIndex().mostSimilar("statsu", 0.0, 5));
+        assertSame(spec.parsePlan().subcommandIndex(), spec.parsePlan().subcommandIndex());
+
+        spec.addOption(OptionSpec.builder("--alt").build()); // a new plan creates new suggestions
+        assertEquals(Arrays.asList("--alpha", "--alt"), spec.parsePlan().visibleOptionNamesWithPrefix("al"));
+    }
+
+    @Test
+    public void testParsePlanInvalidatedWhenSeparatorModified() {
+        CommandSpec spec = CommandSpec.create();
+        spec.addOption(OptionSpec.builder("--x").type(int.class).build());
+        CommandLine cmd = new CommandLine(spec);
+        assertEquals(Integer.valueOf(1), cmd.parseArgs("--x=1").matchedOptionValue("x", 0));
+
+        cmd.setSeparator(":");
+        assertEquals(Integer.valueOf(2), cmd.parseArgs("--x:2").matchedOptionValue("x", 0));
+
+        cmd.setEndOfOptionsDelimiter("++");
+        cmd.setUnmatchedArgumentsAllowed(true);
+        ParseResult pr = cmd.parseArgs("++", "--x:3");
+        assertEquals(Arrays.asList("--x:3"), pr.unmatched());
+    }
 }
@@ -45,6 +45,56 @@ public class ModelFieldBindingTest {
         assertEquals(987, binding.get());
     }
 
+    @Test
+    public void testFieldBindingRepeatedAccessSwitchesToMethodHandles() throws Exception {
+        Field f = ModelMethodBindingBean.class.getDeclaredField("x");
+        f.setAccessible(true);
+
+        ModelMethodBindingBean value = new ModelMethodBindingBean();
+        FieldBinding binding = new FieldBinding(value, f);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i == 0 ? 7 : i - 1), binding.set(i));
+            assertEquals(i, value.publicGetX());
+            assertEquals(i, binding.get());
+        }
+        Field accessor = FieldBinding.class.getDeclaredField("accessor");
+        accessor.setAccessible(true);
+        assertEquals("MethodHandleAccessor", accessor.get(binding).getClass().getSimpleName());
+    }
+
+    static String staticField = "initial";
+
+    @Test
+    public void testFieldBindingRepeatedAccessToStaticField() throws Exception {
+        Field f = ModelFieldBindingTest.class.getDeclaredField("staticField");
+        FieldBinding binding = new FieldBinding((Object) null, f);
+        try {
+            for (int i = 0; i < 100; i++) {
+                binding.set("value" + i);
+                assertEquals("value" + i, staticField);
+                assertEquals("value" + i, binding.get());
+            }
+        } finally {
+            staticField = "initial";
+        }
+    }
+
+    @Test
+    public void testFieldBindingRepeatedAccessWrapsExceptions() throws Exception {
+        Field f = ModelMethodBindingBean.class.getDeclaredField("x");
+        f.setAccessible(true);
+
+        FieldBinding binding = new FieldBinding(new ModelMethodBindingBean(), f);
+        for (int i = 0; i < 100; i++) {
+            try {
+                binding.set("not an int");
+                fail("Expected exception");
+            } catch (PicocliException ok) {
+                assertTrue(ok.getMessage(), ok.getMessage().startsWith("Could not set value for field private int picocli.ModelMethodBindingBean.x to not an int"));
+            }
+        }
+    }
+
     @Test
     public void testFieldBindingToString() throws Exception {
         Field f = ModelMethodBindingBean.class.getDeclaredField("x");
@@ -0,0 +1,163 @@
+package picocli;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.ProvideSystemProperty;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.IFactory;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.IGeneratedClass;
+import picocli.CommandLine.Model.IGeneratedField;
+import picocli.CommandLine.Model.OptionSpec;
+import picocli.CommandLine.Model.PositionalParamSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Range;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for models built from a generated {@link IGeneratedClass} instead of reflection.
+ * {@link GeneratedAppModel} is registered in {@code META-INF/services/picocli.CommandLine$Model$IGeneratedClass}
+ * in the test resources, and used because the {@code picocli.useGeneratedClasses} system property is set.
+ */
+public class ModelGeneratedClassTest {
+    @Rule
+    public final ProvideSystemProperty useGeneratedClasses = new ProvideSystemProperty("picocli.useGeneratedClasses", "true");
+
+    @Command(name = "app", mixinStandardHelpOptions = true, description = "Example command.")
+    static class ReflectedApp {
+        @Option(names = {"-x", "--count"}, description = "The count.") int count;
+        @Parameters(description = "The files.") List<File> files;
+    }
+
+    /** Has the same fields as {@code ReflectedApp}, but no field annotations: the options and positional parameters
+     * are built by {@link GeneratedAppModel}. */
+    @Command(name = "app", mixinStandardHelpOptions = true, description = "Example command.")
+    public static class GeneratedApp {
+        static int created;
+        int count;
+        List<File> files;
+        public GeneratedApp() { created++; }
+    }
+
+    /** Like the code generated by the {@code GeneratedClassProcessor} for {@code ReflectedApp}. */
+    public static class GeneratedAppModel implements IGeneratedClass {
+        static int gets;
+        static int sets;
+        static int instances;
+
+        public Class<?> getType() { return GeneratedApp.class; }
+        public IGeneratedField[] getFields() {
+            return new IGeneratedField[] {
+                new IGeneratedField() {
+                    public String getName() { return "count"; }
+                    public Class<?> getType() { return int.class; }
+                    public ArgSpec createArgSpec(IFactory factory) {
+                        return OptionSpec.builder("-x", "--count")
+                                .type(int.class).auxiliaryTypes(int.class)
+                                .arity(Range.valueOf("1").unspecified(true))
+                                .paramLabel("<count>")
+                                .description("The count.")
+                                .withToString("field int picocli.ModelGeneratedClassTest$GeneratedApp.count")
+                                .build();
+                    }
+                    public Object get(Object instance) { gets++; return ((GeneratedApp) instance).count; }
+                    public void set(Object instance, Object value) { sets++; ((GeneratedApp) instance).count = (Integer) value; }
+                },
+                new IGeneratedField() {
+                    public String getName() { return "files"; }
+                    public Class<?> getType() { return List.class; }
+                    public ArgSpec createArgSpec(IFactory factory) {
+                        return PositionalParamSpec.builder()
+                                .type(List.class).auxiliaryTypes(File.class)
+                                .arity(Range.valueOf("0..1").unspecified(true))
+                                .required(false)
+                                .paramLabel("<files>")
+                                .description("The files.")
+                                .withToString("field java.util.List<java.io.File> picocli.ModelGeneratedClassTest$GeneratedApp.files")
+                                .build();
+                    }
+                    public Object get(Object instance) { gets++; return ((GeneratedApp) instance).files; }
+                    @SuppressWarnings("unchecked")
+                    public void set(Object instance, Object value) { sets++; ((GeneratedApp) instance).files = (List<File>) value; }
+                },
+            };
+        }
+        public Object newInstance() { instances++; return new GeneratedApp(); }
+    }
+
+    @Test
+    public void testGeneratedClassProvidesOptionsAndPositionalParameters() {
+        CommandSpec spec = new CommandLine(new GeneratedApp()).getCommandSpec();
+        assertEquals("app", spec.name());
+        assertEquals(Arrays.asList("-x", "--count", "-h", "--help", "-V", "--version"), optionNames(spec));
+        assertEquals(File.class, spec.positionalParameters().get(0).auxiliaryTypes()[0]);
+    }
+
+    @Test
+    public void testGeneratedClassUsageSameAsReflection() {
+        String reflected = new CommandLine(new ReflectedApp()).getUsageMessage(CommandLine.Help.Ansi.OFF);
+        String generated = new CommandLine(new GeneratedApp()).getUsageMessage(CommandLine.Help.Ansi.OFF);
+        assertEquals(reflected, generated);
+    }
+
+    @Test
+    public void testGeneratedClassToStringSameAsReflection() {
+        CommandSpec reflected = new CommandLine(new ReflectedApp()).getCommandSpec();
+        CommandSpec generated = new CommandLine(new GeneratedApp()).getCommandSpec();
+        assertEquals(reflected.findOption("-x").toString().replace("ReflectedApp", "GeneratedApp"), generated.findOption("-x").toString());
+        assertEquals(reflected.positionalParameters().get(0).toString().replace("ReflectedApp", "GeneratedApp"),
+                generated.positionalParameters().get(0).toString());
+    }
+
+    @Test
+    public void testGeneratedFieldAccessorsUsedForParsing() {
+        GeneratedApp app = new GeneratedApp();
+        int sets = GeneratedAppModel.sets;
+        new CommandLine(app).parseArgs("-x", "3", "a.txt", "b.txt");
+        assertEquals(3, app.count);
+        assertEquals(Arrays.asList(new File("a.txt"), new File("b.txt")), app.files);
+        assertTrue(GeneratedAppModel.sets > sets);
+    }
+
+    @Test
+    public void testGeneratedClassNewInstanceUsedByDefaultFactory() {
+        int instances = GeneratedAppModel.instances;
+        CommandLine cmd = new CommandLine(GeneratedApp.class);
+        assertTrue(cmd.getCommand() instanceof GeneratedApp);
+        assertEquals(instances + 1, GeneratedAppModel.instances);
+    }
+
+    @Test
+    public void testGeneratedFieldInitialValue() {
+        GeneratedApp app = new GeneratedApp();
+        app.count = 7;
+        CommandLine cmd = new CommandLine(app);
+        assertEquals(7, cmd.getCommandSpec().findOption("-x").initialValue());
+        cmd.parseArgs("-x", "3");
+        assertEquals(3, app.count);
+        cmd.parseArgs();
+        assertEquals(7, app.count);
+    }
+
+    @Test
+    public void testGeneratedClassNotUsedUnlessEnabled() {
+        System.clearProperty("picocli.useGeneratedClasses");
+        int instances = GeneratedAppModel.instances;
+        CommandLine cmd = new CommandLine(GeneratedApp.class);
+        assertTrue(cmd.getCommand() instanceof GeneratedApp);
+        assertEquals("not created by the generated class", instances, GeneratedAppModel.instances);
+    }
+
+    private static List<String> optionNames(CommandSpec spec) {
+        List<String> result = new java.util.ArrayList<String>();
+        for (CommandLine.Model.OptionSpec option : spec.options()) { result.addAll(Arrays.asList(option.names())); }
+        return result;
+    }
+}
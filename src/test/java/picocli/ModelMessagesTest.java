@@ -78,4 +78,26 @@ public class ModelMessagesTest {
 
         assertNotEquals(def, new Messages(CommandSpec.create(), rb).getStringArray("usage.description", def));
     }
+
+    @Test
+    public void testMessagesIndexKeysOnFirstLookupOnly() {
+        final int[] enumerations = {0};
+        ResourceBundle rb = new ResourceBundle() {
+            protected Object handleGetObject(String key) { return "greeting".equals(key) ? "hello" : null; }
+            public Enumeration<String> getKeys() {
+                enumerations[0]++;
+                return new Vector<String>(java.util.Arrays.asList("greeting")).elements();
+            }
+        };
+        CommandSpec spec = CommandSpec.create();
+        Messages first = new Messages(spec, rb);
+        Messages second = Messages.copy(CommandSpec.create(), first);
+        assertEquals("no keys indexed on construction", 0, enumerations[0]);
+
+        assertEquals("hello", first.getString("greeting", "default"));
+        assertEquals("hello", second.getString("greeting", "default"));
+        assertEquals("default", second.getString("other", "default"));
+        assertArrayEquals(new String[] {"hello"}, new Messages(spec, rb).getStringArray("greeting", null));
+        assertEquals("keys indexed once per bundle", 1, enumerations[0]);
+    }
 }
@@ -92,6 +92,57 @@ public class ModelMethodBindingTest {
         assertEquals(987, binding.get());
     }
 
+    @Test
+    public void testSetInvokesMethod_RepeatedInvocations() throws Exception {
+        Method setX = ModelMethodBindingBean.class.getDeclaredMethod("setX", int.class);
+        setX.setAccessible(true);
+
+        ModelMethodBindingBean value = new ModelMethodBindingBean();
+        MethodBinding binding = new MethodBinding(new ObjectScope(value), setX, CommandSpec.create());
+        for (int i = 0; i < 100; i++) {
+            binding.set(i);
+            assertEquals(i, value.publicGetX());
+            assertEquals(i, binding.get());
+        }
+    }
+
+    @Test
+    public void testSetFailsIfObjectNotSet_RepeatedInvocations() throws Exception {
+        Method setX = ModelMethodBindingBean.class.getDeclaredMethod("setX", int.class);
+        setX.setAccessible(true);
+
+        MethodBinding binding = new MethodBinding(new ObjectScope(null), setX, CommandSpec.create());
+        for (int i = 0; i < 100; i++) {
+            try {
+                binding.set(i);
+                fail("Expect exception");
+            } catch (ParameterException ex) {
+                assertThat(ex.getCause().getClass().toString(), ex.getCause() instanceof NullPointerException);
+            }
+        }
+    }
+
+    static class ErrorThrowingBean {
+        void setX(int x) { throw new StackOverflowError("x=" + x); }
+    }
+
+    @Test
+    public void testSetWrapsErrorsInParameterException_RepeatedInvocations() throws Exception {
+        Method setX = ErrorThrowingBean.class.getDeclaredMethod("setX", int.class);
+        setX.setAccessible(true);
+
+        MethodBinding binding = new MethodBinding(new ObjectScope(new ErrorThrowingBean()), setX, CommandSpec.create());
+        for (int i = 0; i < 100; i++) { // before and after switching from reflection to method handles
+            try {
+                binding.set(i);
+                fail("Expect error");
+            } catch (ParameterException expected) {
+                assertTrue(expected.getCause() instanceof StackOverflowError);
+                assertEquals("x=" + i, expected.getCause().getMessage());
+            }
+        }
+    }
+
     @Test
     public void testSetFailsIfObjectNotSet_ForSetterMethod() throws Exception {
         Method setX = ModelMethodBindingBean.class.getDeclaredMethod("setX", int.class);
@@ -22,6 +22,7 @@ import picocli.CommandLine.Model.PositionalParamSpec;
 import picocli.CommandLine.ParseResult;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.*;
 import static picocli.CommandLine.Command;
@@ -708,4 +710,58 @@ public class ModelParseResultTest {
         assertTrue(matched.contains(pr.commandSpec().findOption("--help")));
         assertTrue(matched.contains(pr.commandSpec().findOption("--version")));
     }
+
+    @Test
+    public void testParseResultNotAffectedByNextParse() {
+        class App {
+            @Option(names = "-x") int x;
+            @Parameters List<String> files;
+        }
+        CommandLine cmd = new CommandLine(new App());
+        ParseResult first = cmd.parseArgs("-x", "1", "a", "b");
+        ParseResult second = cmd.parseArgs("-x", "2", "c");
+
+        assertEquals(Integer.valueOf(1), first.matchedOptionValue("-x", 0));
+        assertEquals(Arrays.asList("a", "b"), first.matchedPositionalValue(0, Collections.<String>emptyList()));
+        assertEquals(Integer.valueOf(2), second.matchedOptionValue("-x", 0));
+        assertEquals(Arrays.asList("c"), second.matchedPositionalValue(0, Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void testConcurrentParsingOfSharedSpec() throws Exception {
+        class App {
+            @Option(names = "-x") int x;
+            @Option(names = "--name") List<String> names;
+            @Parameters List<String> files;
+        }
+        final CommandLine cmd = new CommandLine(new App());
+        final int threadCount = 8;
+        final int iterations = 500;
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < iterations; i++) {
+                            ParseResult pr = cmd.parseArgs("-x", String.valueOf(id), "--name", "n" + id, "--name", "m" + id, "f" + id);
+                            assertEquals(Integer.valueOf(id), pr.matchedOptionValue("-x", -1));
+                            assertEquals(Arrays.asList("n" + id, "m" + id), pr.matchedOptionValue("--name", Collections.<String>emptyList()));
+                            assertEquals(Arrays.asList("f" + id), pr.matchedPositionalValue(0, Collections.<String>emptyList()));
+                            assertEquals(Arrays.asList("-x", String.valueOf(id), "--name", "n" + id, "--name", "m" + id, "f" + id), pr.originalArgs());
+                        }
+                    } catch (Throwable ex) {
+                        failures.add(ex);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) { thread.join(); }
+        assertEquals(Collections.emptyList(), failures);
+    }
 }
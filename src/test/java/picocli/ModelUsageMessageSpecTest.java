@@ -3,12 +3,15 @@ package picocli;
 import org.junit.Ignore;
 import org.junit.Test;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.IHelpSectionRenderer;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Model.OptionSpec;
 import picocli.CommandLine.Model.PositionalParamSpec;
 import picocli.CommandLine.Model.UsageMessageSpec;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 import static picocli.TestUtil.usageString;
@@ -263,4 +266,113 @@ public class ModelUsageMessageSpecTest {
         assertSame(commandSpec, messages.commandSpec());
         assertEquals("picocli.SharedMessages", messages.resourceBundleBaseName());
     }
+
+    static class CountingRenderer implements CommandLine.IHelpSectionRenderer {
+        int count;
+        public String render(CommandLine.Help help) { count++; return help.synopsis(0); }
+    }
+
+    @Test
+    public void testUsageHelpNotCachedByDefault() {
+        CommandLine cmd = new CommandLine(CommandSpec.create());
+        CountingRenderer renderer = new CountingRenderer();
+        cmd.getHelpSectionMap().put(UsageMessageSpec.SECTION_KEY_SYNOPSIS, renderer);
+        assertFalse(cmd.isUsageHelpCached());
+        cmd.getUsageMessage(CommandLine.Help.Ansi.OFF);
+        cmd.getUsageMessage(CommandLine.Help.Ansi.OFF);
+        assertEquals(2, renderer.count);
+    }
+
+    @Test
+    public void testUsageHelpCachedPerWidthAndAnsi() {
+        CommandLine cmd = new CommandLine(CommandSpec.create()).setUsageHelpCached(true);
+        CountingRenderer renderer = new CountingRenderer();
+        cmd.getHelpSectionMap().put(UsageMessageSpec.SECTION_KEY_SYNOPSIS, renderer);
+        renderer.count = 0;
+
+        String plain = cmd.getUsageMessage(CommandLine.Help.Ansi.OFF);
+        assertSame(plain, cmd.getUsageMessage(CommandLine.Help.Ansi.OFF));
+        assertEquals(1, renderer.count);
+
+        String ansi = cmd.getUsageMessage(CommandLine.Help.Ansi.ON);
+        assertNotEquals(plain, ansi);
+        assertSame(ansi, cmd.getUsageMessage(CommandLine.Help.Ansi.ON));
+        assertEquals(2, renderer.count);
+
+        cmd.setUsageHelpWidth(100);
+        cmd.getUsageMessage(CommandLine.Help.Ansi.OFF);
+        assertEquals(3, renderer.count);
+    }
+
+    @Test
+    public void testUsageHelpCacheDiscardedWhenModelModified() {
+        CommandSpec spec = CommandSpec.create().name("app");
+        spec.usageMessage().cacheUsageHelp(true);
+        CommandLine cmd = new CommandLine(spec);
+        CommandLine sub = new CommandLine(CommandSpec.create());
+        cmd.addSubcommand("sub", sub);
+        assertEquals(String.format("Usage: app [COMMAND]%nCommands:%n  sub%n"), cmd.getUsageMessage(CommandLine.Help.Ansi.OFF));
+
+        spec.addOption(OptionSpec.builder("-x").description("The x.").build());
+        spec.usageMessage().description("Description.");
+        sub.getCommandSpec().usageMessage().description("Sub description.");
+        assertEquals(String.format("" +
+                "Usage: app [-x] [COMMAND]%n" +
+                "Description.%n" +
+                "  -x     The x.%n" +
+                "Commands:%n" +
+                "  sub  Sub description.%n"), cmd.getUsageMessage(CommandLine.Help.Ansi.OFF));
+
+        cmd.getHelpSectionMap().remove(UsageMessageSpec.SECTION_KEY_COMMAND_LIST);
+        spec.name("renamed");
+        assertEquals(String.format("" +
+                "Usage: renamed [-x] [COMMAND]%n" +
+                "Description.%n" +
+                "  -x     The x.%n" +
+                "Commands:%n"), cmd.getUsageMessage(CommandLine.Help.Ansi.OFF));
+    }
+
+    @Test
+    public void testUsageHelpCacheDiscardedWhenNestedSubcommandModified() {
+        CommandSpec spec = CommandSpec.create().name("app");
+        spec.usageMessage().cacheUsageHelp(true);
+        CommandLine cmd = new CommandLine(spec);
+        CommandLine sub = new CommandLine(CommandSpec.create());
+        CommandLine subsub = new CommandLine(CommandSpec.create());
+        sub.addSubcommand("subsub", subsub);
+        cmd.addSubcommand("sub", sub);
+        final CommandSpec nested = subsub.getCommandSpec();
+        cmd.getHelpSectionMap().put(UsageMessageSpec.SECTION_KEY_FOOTER, new IHelpSectionRenderer() {
+            public String render(Help help) { return String.format("%d nested description lines%n", nested.usageMessage().description().length); }
+        });
+        cmd.getCommandSpec().usageMessage().sectionKeys(Arrays.asList(UsageMessageSpec.SECTION_KEY_FOOTER));
+        assertEquals(String.format("0 nested description lines%n"), cmd.getUsageMessage(CommandLine.Help.Ansi.OFF));
+
+        nested.usageMessage().description("Nested.");
+        assertEquals(String.format("1 nested description lines%n"), cmd.getUsageMessage(CommandLine.Help.Ansi.OFF));
+    }
+
+    @Test
+    public void testUsageHelpCacheKeyIncludesAtFileSetting() {
+        CommandSpec spec = CommandSpec.create().name("app");
+        spec.usageMessage().cacheUsageHelp(true).showAtFileInUsageHelp(true);
+        CommandLine cmd = new CommandLine(spec);
+        assertEquals(String.format("Usage: app [@<filename>...]%n" +
+                "      [@<filename>...]   One or more argument files containing options.%n"), cmd.getUsageMessage(CommandLine.Help.Ansi.OFF));
+
+        cmd.setExpandAtFiles(false);
+        assertEquals(String.format("Usage: app%n"), cmd.getUsageMessage(CommandLine.Help.Ansi.OFF));
+    }
+
+    @Test
+    public void testSetUsageHelpCachedAppliesToSubcommands() {
+        CommandLine cmd = new CommandLine(CommandSpec.create());
+        CommandLine sub = new CommandLine(CommandSpec.create());
+        cmd.addSubcommand("sub", sub);
+        cmd.setUsageHelpCached(true);
+        assertTrue(sub.isUsageHelpCached());
+        assertTrue(sub.getCommandSpec().usageMessage().cacheUsageHelp());
+        cmd.setUsageHelpCached(false);
+        assertFalse(sub.isUsageHelpCached());
+    }
 }
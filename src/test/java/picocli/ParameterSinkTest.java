@@ -0,0 +1,149 @@
+package picocli;
+
+import org.junit.Test;
+import picocli.CommandLine.IParameterSink;
+import picocli.CommandLine.InitializationException;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.PositionalParamSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.ParseResult;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParameterSinkTest {
+
+    static class ListSink<T> implements IParameterSink<T> {
+        final List<T> received = new ArrayList<T>();
+        public void accept(T value) { received.add(value); }
+    }
+
+    static class App {
+        @Option(names = "-v") boolean verbose;
+        @Option(names = "-n", split = ",") ListSink<Integer> numbers = new ListSink<Integer>();
+        @Parameters ListSink<String> files = new ListSink<String>();
+    }
+
+    @Test
+    public void testPositionalValuesPassedToSink() {
+        App app = new App();
+        ParseResult pr = new CommandLine(app).parseArgs("a", "-v", "b", "c");
+        assertTrue(app.verbose);
+        assertEquals(Arrays.asList("a", "b", "c"), app.files.received);
+        assertTrue(pr.hasMatchedPositional(0));
+    }
+
+    @Test
+    public void testSinkValuesAreNotRetained() {
+        App app = new App();
+        CommandLine cmd = new CommandLine(app);
+        cmd.parseArgs("a", "b", "c");
+        ArgSpec files = cmd.getCommandSpec().positionalParameters().get(0);
+        assertTrue(files.isMultiValue());
+        assertTrue(files.stringValues().isEmpty());
+        assertTrue(files.originalStringValues().isEmpty());
+        assertTrue(files.typedValues().isEmpty());
+    }
+
+    @Test
+    public void testOptionValuesAreConvertedAndSplit() {
+        App app = CommandLine.populateCommand(new App(), "-n", "1,2", "-n=3", "x");
+        assertEquals(Arrays.asList(1, 2, 3), app.numbers.received);
+        assertEquals(Arrays.asList("x"), app.files.received);
+    }
+
+    @Test
+    public void testInvalidValue() {
+        try {
+            CommandLine.populateCommand(new App(), "-n", "a");
+            fail("Expected exception");
+        } catch (ParameterException ex) {
+            assertEquals("Invalid value for option '-n' (<numbers>): 'a' is not an int", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testSinkCreatedByFactoryIfNull() {
+        class NullSink {
+            @Parameters ListSink<String> files;
+        }
+        NullSink app = CommandLine.populateCommand(new NullSink(), "a", "b");
+        assertEquals(Arrays.asList("a", "b"), app.files.received);
+    }
+
+    @Test
+    public void testSinkExceptionReportedAsParameterException() {
+        class Failing {
+            @Parameters IParameterSink<String> files = new IParameterSink<String>() {
+                public void accept(String value) { throw new IllegalStateException("cannot process " + value); }
+            };
+        }
+        try {
+            CommandLine.populateCommand(new Failing(), "a");
+            fail("Expected exception");
+        } catch (ParameterException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("cannot process a"));
+        }
+    }
+
+    static class FileSink implements IParameterSink<File> {
+        final List<File> received = new ArrayList<File>();
+        public void accept(File value) { received.add(value); }
+    }
+
+    static class IntSink extends ListSink<Integer> {}
+
+    @Test
+    public void testElementTypeResolvedFromImplementedInterface() {
+        class Files {
+            @Parameters FileSink files;
+        }
+        Files app = CommandLine.populateCommand(new Files(), "a", "b");
+        assertEquals(Arrays.asList(new File("a"), new File("b")), app.files.received);
+    }
+
+    @Test
+    public void testElementTypeResolvedFromSuperclass() {
+        class Numbers {
+            @Option(names = "-n", split = ",") IntSink numbers = new IntSink();
+        }
+        Numbers app = CommandLine.populateCommand(new Numbers(), "-n", "1,2");
+        assertEquals(Arrays.asList(1, 2), app.numbers.received);
+    }
+
+    @Test
+    public void testElementTypeResolvedForProgrammaticSpec() {
+        FileSink sink = new FileSink();
+        CommandSpec spec = CommandSpec.create();
+        spec.addPositional(PositionalParamSpec.builder().type(FileSink.class).initialValue(sink).build());
+        new CommandLine(spec).parseArgs("a");
+        assertEquals(Arrays.asList(new File("a")), sink.received);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testUnresolvableElementTypeRequiresExplicitType() {
+        class Raw {
+            @Parameters ListSink files;
+        }
+        try {
+            new CommandLine(new Raw());
+            fail("Expected exception");
+        } catch (InitializationException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Cannot infer the element type of class picocli.ParameterSinkTest$ListSink"));
+            assertTrue(ex.getMessage(), ex.getMessage().endsWith("Specify the element type with the 'type' attribute of the annotation."));
+        }
+        class Explicit {
+            @Parameters(type = String.class) ListSink files;
+        }
+        Explicit app = CommandLine.populateCommand(new Explicit(), "a");
+        assertEquals(Arrays.asList("a"), app.files.received);
+    }
+}
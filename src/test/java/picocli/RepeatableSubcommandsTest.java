@@ -4,13 +4,17 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.RestoreSystemProperties;
 import org.junit.rules.TestRule;
+import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.IExitCodeGenerator;
+import picocli.CommandLine.ITypeConverter;
 import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.ParentCommand;
 import picocli.CommandLine.ParseResult;
+import picocli.CommandLine.Spec;
 
 import java.io.File;
 import java.io.PrintWriter;
@@ -711,4 +715,139 @@ public class RepeatableSubcommandsTest {
         spec.subcommandsRepeatable(true);
         assertTrue("after", spec.subcommandsRepeatable());
     }
+
+    static class CopyMixin {
+        @Spec(Spec.Target.MIXEE) CommandSpec mixee;
+        @Option(names = "-q") boolean quiet;
+    }
+
+    @Command(name = "step", mixinStandardHelpOptions = true, subcommands = CopyLeaf.class)
+    static class CopyStep implements Runnable {
+        @Spec CommandSpec spec;
+        @Mixin CopyMixin mixin;
+        @ParentCommand CopyTop parent;
+        @Option(names = "-a", defaultValue = "none") String a;
+        @Option(names = "-n") int n;
+        @Parameters(arity = "0..1") String param;
+        public void run() { }
+    }
+
+    @Command(name = "leaf")
+    static class CopyLeaf implements Runnable {
+        @ParentCommand CopyStep parent;
+        @Option(names = "-x") int x;
+        public void run() { }
+    }
+
+    @Command(name = "top", subcommandsRepeatable = true, subcommands = CopyStep.class)
+    static class CopyTop implements Runnable {
+        public void run() { }
+    }
+
+    @Test
+    public void testRepeatedSubcommandIsCopiedWithNewUserObjects() {
+        CopyTop top = new CopyTop();
+        CommandLine cl = new CommandLine(top);
+        ParseResult pr = cl.parseArgs("step -a 1 -n 1 -q p1 step -n 2 step leaf -x 3".split(" "));
+        List<ParseResult> steps = pr.subcommands();
+        assertEquals(3, steps.size());
+
+        List<CopyStep> commands = new ArrayList<CopyStep>();
+        for (ParseResult step : steps) {
+            CopyStep cmd = step.commandSpec().userObject() instanceof CopyStep ? (CopyStep) step.commandSpec().userObject() : null;
+            assertNotNull(cmd);
+            assertFalse(commands.contains(cmd));
+            commands.add(cmd);
+            assertSame(step.commandSpec(), cmd.spec);
+            assertSame(step.commandSpec(), cmd.mixin.mixee);
+            assertSame(top, cmd.parent);
+            assertSame(cl.getCommandSpec(), step.commandSpec().parent());
+            assertTrue(step.commandSpec().optionsMap().containsKey("--help"));
+        }
+        assertEquals("1", commands.get(0).a);
+        assertEquals(1, commands.get(0).n);
+        assertTrue(commands.get(0).mixin.quiet);
+        assertEquals("p1", commands.get(0).param);
+
+        assertEquals("none", commands.get(1).a);
+        assertEquals(2, commands.get(1).n);
+        assertFalse(commands.get(1).mixin.quiet);
+        assertNull(commands.get(1).param);
+
+        assertEquals("none", commands.get(2).a);
+        assertEquals(0, commands.get(2).n);
+        CopyLeaf leaf = steps.get(2).subcommand().commandSpec().commandLine().getCommand();
+        assertEquals(3, leaf.x);
+        assertSame(commands.get(2), leaf.parent);
+    }
+
+    @Test
+    public void testRepeatedSubcommandCopyKeepsSettings() {
+        CommandLine cl = new CommandLine(new CopyTop());
+        cl.setSeparator(":");
+        cl.registerConverter(Integer.TYPE, new ITypeConverter<Integer>() {
+            public Integer convert(String value) { return Integer.parseInt(value) * 10; }
+        });
+        cl.getSubcommands().get("step").getCommandSpec().usageMessage().description("custom description");
+        ParseResult pr = cl.parseArgs("step -n:1 step -n:2 step -n:3".split(" "));
+        int expected = 10;
+        for (ParseResult step : pr.subcommands()) {
+            CopyStep cmd = step.commandSpec().commandLine().getCommand();
+            assertEquals(expected, cmd.n);
+            expected += 10;
+            assertEquals(":", step.commandSpec().parser().separator());
+            assertArrayEquals(new String[] {"custom description"}, step.commandSpec().usageMessage().description());
+        }
+    }
+
+    @Test
+    public void testCommandSpecCopyBindsArgsToNewUserObject() {
+        CommandLine cl = new CommandLine(new CopyTop());
+        CommandSpec original = cl.getSubcommands().get("step").getCommandSpec();
+        CopyStep userObject = new CopyStep();
+        CommandSpec copy = original.copy(userObject);
+
+        assertNotNull(copy);
+        assertSame(userObject, copy.userObject());
+        assertEquals(original.name(), copy.name());
+        assertEquals(original.options().size(), copy.options().size());
+        assertEquals(original.positionalParameters().size(), copy.positionalParameters().size());
+        assertEquals(original.subcommands().keySet(), copy.subcommands().keySet());
+        assertSame(copy, userObject.spec);
+        assertNotNull(userObject.mixin);
+        assertSame(copy, userObject.mixin.mixee);
+
+        copy.findOption("-n").setValue(42);
+        assertEquals(42, userObject.n);
+        assertEquals(0, ((CopyStep) original.userObject()).n);
+    }
+
+    static class CopyGroup {
+        @Option(names = "-g", required = true) int g;
+    }
+
+    @Command(name = "grouped")
+    static class CopyGroupedStep implements Runnable {
+        @ArgGroup(exclusive = false) CopyGroup group;
+        public void run() { }
+    }
+
+    @Command(name = "top", subcommandsRepeatable = true, subcommands = CopyGroupedStep.class)
+    static class CopyGroupedTop implements Runnable {
+        public void run() { }
+    }
+
+    @Test
+    public void testRepeatedSubcommandWithArgGroupIsInspectedAgain() {
+        CommandLine cl = new CommandLine(new CopyGroupedTop());
+        assertNull(cl.getSubcommands().get("grouped").getCommandSpec().copy(CopyGroupedStep.class));
+
+        ParseResult pr = cl.parseArgs("grouped -g 1 grouped -g 2".split(" "));
+        assertEquals(2, pr.subcommands().size());
+        CopyGroupedStep first = pr.subcommands().get(0).commandSpec().commandLine().getCommand();
+        CopyGroupedStep second = pr.subcommands().get(1).commandSpec().commandLine().getCommand();
+        assertNotSame(first, second);
+        assertEquals(1, first.group.g);
+        assertEquals(2, second.group.g);
+    }
 }
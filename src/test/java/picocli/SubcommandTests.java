@@ -25,6 +25,7 @@ import picocli.CommandLine.UnmatchedArgumentException;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.reflect.Field;
 import java.util.*;
 
 import static org.junit.Assert.*;
@@ -2121,4 +2122,198 @@ public class SubcommandTests {
         assertNotSame(sub.getCommandSpec(), sub.getCommandSpec().root());
         assertSame(sub.getCommandSpec().parent().parent().parent(), sub.getCommandSpec().root());
     }
+
+    static int lazyAlphaCount;
+    static int lazyBetaCount;
+
+    @Command(name = "alpha")
+    static class LazyAlpha implements Runnable {
+        @CommandLine.ParentCommand LazyRoot parent;
+        @Option(names = "-x") int x;
+        LazyAlpha() { lazyAlphaCount++; }
+        public void run() { }
+    }
+
+    @Command(name = "beta", aliases = "b")
+    static class LazyBeta implements Runnable {
+        LazyBeta() { lazyBetaCount++; }
+        public void run() { }
+    }
+
+    @Command(name = "broken")
+    static class LazyBroken {
+        @Option(names = "-x") @CommandLine.Parameters int x;
+    }
+
+    @Command(name = "root", lazySubcommands = true, subcommands = {LazyAlpha.class, LazyBeta.class})
+    static class LazyRoot implements Runnable {
+        public void run() { }
+    }
+
+    @Test
+    public void testLazySubcommandsConstructedWhenMatched() {
+        lazyAlphaCount = 0;
+        lazyBetaCount = 0;
+        LazyRoot root = new LazyRoot();
+        CommandLine commandLine = new CommandLine(root);
+        assertEquals(0, lazyAlphaCount);
+        assertEquals(0, lazyBetaCount);
+        assertEquals(setOf("alpha", "beta", "b"), commandLine.getCommandSpec().subcommands().keySet());
+
+        ParseResult parseResult = commandLine.parseArgs("alpha", "-x", "3");
+        assertEquals(1, lazyAlphaCount);
+        assertEquals(0, lazyBetaCount);
+        CommandLine alpha = parseResult.subcommand().commandSpec().commandLine();
+        assertSame(commandLine, alpha.getParent());
+        assertSame(root, ((LazyAlpha) alpha.getCommand()).parent);
+        assertEquals(3, ((LazyAlpha) alpha.getCommand()).x);
+
+        commandLine.parseArgs("alpha");
+        assertEquals("constructed only once", 1, lazyAlphaCount);
+
+        commandLine.parseArgs("b");
+        assertEquals(1, lazyBetaCount);
+        assertSame(commandLine.getCommandSpec().subcommands().get("beta"), commandLine.getCommandSpec().subcommands().get("b"));
+    }
+
+    @Test
+    public void testLazySubcommandsConstructedForUsageHelp() {
+        lazyAlphaCount = 0;
+        lazyBetaCount = 0;
+        CommandLine commandLine = new CommandLine(new LazyRoot());
+        String expected = String.format("" +
+                "Usage: root [COMMAND]%n" +
+                "Commands:%n" +
+                "  alpha%n" +
+                "  beta, b%n");
+        assertEquals(expected, commandLine.getUsageMessage(CommandLine.Help.Ansi.OFF));
+        assertEquals(1, lazyAlphaCount);
+        assertEquals(1, lazyBetaCount);
+        assertEquals(Arrays.asList("alpha", "beta", "b"), new ArrayList<String>(commandLine.getSubcommands().keySet()));
+    }
+
+    @Test
+    public void testLazySubcommandsReceiveSettingsAppliedBeforeConstruction() {
+        lazyAlphaCount = 0;
+        StringWriter sw = new StringWriter();
+        PrintWriter out = new PrintWriter(sw);
+        CommandLine commandLine = new CommandLine(new LazyRoot())
+                .setSeparator(":")
+                .setOut(out)
+                .setUsageHelpWidth(100)
+                .registerConverter(Integer.TYPE, new ITypeConverter<Integer>() {
+                    public Integer convert(String value) { return Integer.parseInt(value) * 2; }
+                });
+        assertEquals(0, lazyAlphaCount);
+
+        commandLine.parseArgs("alpha", "-x:21");
+        CommandLine alpha = commandLine.getCommandSpec().subcommands().get("alpha");
+        assertEquals(42, ((LazyAlpha) alpha.getCommand()).x);
+        assertEquals(":", alpha.getSeparator());
+        assertSame(out, alpha.getOut());
+        assertEquals(100, alpha.getUsageHelpWidth());
+    }
+
+    @Command(name = "gamma", hidden = true)
+    static class LazyGamma { }
+
+    @Test
+    public void testLazySubcommandsNotConstructedForSuggestions() {
+        @Command(name = "root", lazySubcommands = true, subcommands = {LazyAlpha.class, LazyBeta.class, LazyGamma.class})
+        class Root { }
+        lazyAlphaCount = 0;
+        lazyBetaCount = 0;
+        CommandLine commandLine = new CommandLine(new Root());
+        try {
+            commandLine.parseArgs("alpah");
+            fail("Expected exception");
+        } catch (UnmatchedArgumentException ex) {
+            assertEquals(Arrays.asList("alpha"), ex.getSuggestions());
+        }
+        try {
+            commandLine.parseArgs("gama");
+            fail("Expected exception");
+        } catch (UnmatchedArgumentException ex) {
+            assertEquals("hidden subcommands are not suggested", Collections.emptyList(), ex.getSuggestions());
+        }
+        assertEquals(0, lazyAlphaCount);
+        assertEquals(0, lazyBetaCount);
+    }
+
+    @Test
+    public void testLazySubcommandErrorReportedWhenConstructed() {
+        @Command(name = "root", lazySubcommands = true, subcommands = LazyBroken.class)
+        class Root { }
+        CommandLine commandLine = new CommandLine(new Root());
+        try {
+            commandLine.parseArgs("broken");
+            fail("Expected exception");
+        } catch (InitializationException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("x"));
+        }
+    }
+
+    @Test
+    public void testLazySubcommandConstructedOnceByConcurrentLookups() throws Exception {
+        final CommandLine commandLine = new CommandLine(new LazyRoot());
+        final java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        final List<Object> results = Collections.synchronizedList(new ArrayList<Object>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            final boolean iterate = i % 2 == 0;
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        Map<String, CommandLine> subcommands = commandLine.getCommandSpec().subcommands();
+                        results.add(iterate ? new LinkedHashMap<String, CommandLine>(subcommands).get("alpha") : subcommands.get("alpha"));
+                    } catch (Throwable t) {
+                        results.add(t);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) { thread.join(); }
+
+        CommandLine alpha = commandLine.getCommandSpec().subcommands().get("alpha");
+        assertEquals(8, results.size());
+        for (Object result : results) {
+            assertSame("constructed only once: " + result, alpha, result);
+        }
+        assertSame(commandLine, alpha.getParent());
+    }
+
+    @Test
+    public void testLazySubcommandsRememberOnlyLastValueOfEachSetting() throws Exception {
+        CommandLine commandLine = new CommandLine(new LazyRoot());
+        for (int width = 55; width < 1000; width++) {
+            commandLine.setUsageHelpWidth(width);
+            commandLine.setSeparator(String.valueOf(width));
+        }
+        commandLine.setSeparator(":");
+        for (int i = 0; i < 100; i++) {
+            commandLine.registerConverter(Integer.TYPE, new ITypeConverter<Integer>() {
+                public Integer convert(String value) { return Integer.parseInt(value) * 2; }
+            });
+            commandLine.registerConverter(Long.TYPE, new ITypeConverter<Long>() {
+                public Long convert(String value) { return Long.parseLong(value); }
+            });
+        }
+        Field commandsField = CommandSpec.class.getDeclaredField("commands");
+        commandsField.setAccessible(true);
+        Object commands = commandsField.get(commandLine.getCommandSpec());
+        Field deferredField = commands.getClass().getDeclaredField("deferredSettings");
+        deferredField.setAccessible(true);
+        Map<?, ?> deferred = (Map<?, ?>) deferredField.get(commands);
+        assertEquals("width, separator, and one converter per type", 4, deferred.size());
+
+        commandLine.parseArgs("alpha", "-x:21");
+        CommandLine alpha = commandLine.getCommandSpec().subcommands().get("alpha");
+        assertEquals(42, ((LazyAlpha) alpha.getCommand()).x);
+        assertEquals(":", alpha.getSeparator());
+        assertEquals(999, alpha.getUsageHelpWidth());
+    }
 }
@@ -21,6 +21,7 @@ import picocli.CommandLine.Help.Ansi.Text;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -146,25 +147,33 @@ public class TestUtil {
         return result;
     }
 
-    @SuppressWarnings("unchecked")
     public static Object interpreter(CommandLine cmd) throws Exception {
         Field field = CommandLine.class.getDeclaredField("interpreter");
         field.setAccessible(true);
-        Object interpreter =  field.get(cmd);
+        return field.get(cmd);
+    }
+
+    /** Creates a parse context for the specified command and initializes the command's options and positional parameters with it. */
+    @SuppressWarnings("unchecked")
+    public static Object parseContext(CommandLine cmd) throws Exception {
+        Class contextClass = Class.forName("picocli.CommandLine$ParseContext");
+        Constructor constructor = contextClass.getDeclaredConstructor(CommandLine.Model.CommandSpec.class, contextClass);
+        constructor.setAccessible(true);
+        Object context = constructor.newInstance(cmd.getCommandSpec(), null);
 
         Class c = Class.forName("picocli.CommandLine$Interpreter");
-        Method clear = c.getDeclaredMethod("clear");
+        Method clear = c.getDeclaredMethod("clear", contextClass);
         clear.setAccessible(true);
-        clear.invoke(interpreter); // initializes the interpreter instance
+        clear.invoke(interpreter(cmd), context); // initializes the options and positional parameters
 
-        Field parseResultField = c.getDeclaredField("parseResultBuilder");
+        Field parseResultField = contextClass.getDeclaredField("builder");
         parseResultField.setAccessible(true);
         Field nowProcessing = CommandLine.ParseResult.Builder.class.getDeclaredField("nowProcessing");
         nowProcessing.setAccessible(true);
-        Object parseResult = parseResultField.get(interpreter);
+        Object parseResult = parseResultField.get(context);
         nowProcessing.set(parseResult, new ArrayList<Object>());
 
-        return interpreter;
+        return context;
     }
 
 }
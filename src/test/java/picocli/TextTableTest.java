@@ -45,6 +45,21 @@ public class TextTableTest
     assertEquals(" key\n                value\n", normalizeNewlines(textTable));
   }
 
+  @Test
+  public void flushWritesRowsAndClearsTable() throws java.io.IOException
+  {
+    CommandLine.Help.TextTable textTable = emptyTable();
+    textTable.addRowValues("key", "value");
+    StringBuilder out = new StringBuilder();
+    textTable.flush(out);
+    assertEquals(0, textTable.rowCount());
+    assertEquals("", textTable.toString());
+
+    textTable.addRowValues("other", "value");
+    textTable.flush(out);
+    assertEquals(" key            value\n other          value\n", out.toString().replaceAll(newline, "\n"));
+  }
+
   @SuppressWarnings("deprecation")
   private CommandLine.Help.TextTable emptyTable() {
     return forColumns(CommandLine.Help.Ansi.OFF,
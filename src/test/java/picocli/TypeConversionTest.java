@@ -22,6 +22,9 @@ import org.junit.contrib.java.lang.system.RestoreSystemProperties;
 import org.junit.contrib.java.lang.system.SystemErrRule;
 import org.junit.rules.TestRule;
 import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.MissingTypeConverterException;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.OptionSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
@@ -30,7 +33,6 @@ import picocli.CommandLine.UnmatchedArgumentException;
 
 import java.io.File;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
@@ -871,6 +873,55 @@ public class TypeConversionTest {
         }
     }
 
+    enum Overlapping {
+        alpha("BETA"), BETA("gamma"), GAMMA("x");
+        String str;
+        Overlapping(String s) {str = s;}
+        @Override
+        public String toString() { return str; }
+    }
+    @Test
+    public void testEnumConversionPrefersNameThenFirstMatchingConstant() {
+        class App {
+            @Option(names = "-e") Overlapping myEnum;
+        }
+        Object[][] io = new Object[][] { // value, case-sensitive result, case-insensitive result
+                {"BETA",  Overlapping.BETA,  Overlapping.BETA},
+                {"gamma", Overlapping.BETA,  Overlapping.BETA},
+                {"GAMMA", Overlapping.GAMMA, Overlapping.GAMMA},
+                {"beta",  null,              Overlapping.alpha},
+                {"ALPHA", null,              Overlapping.alpha},
+                {"X",     null,              Overlapping.GAMMA},
+        };
+        for (Object[] inOut : io) {
+            for (int i = 1; i <= 2; i++) {
+                App params = new App();
+                CommandLine cmd = new CommandLine(params).setCaseInsensitiveEnumValuesAllowed(i == 2);
+                if (inOut[i] == null) {
+                    try {
+                        cmd.parseArgs("-e", inOut[0].toString());
+                        fail("Expected exception for " + inOut[0]);
+                    } catch (ParameterException ex) {
+                        assertEquals("Invalid value for option '-e': expected one of [alpha, BETA, BETA, gamma, GAMMA, x] (case-sensitive) but was '" + inOut[0] + "'", ex.getMessage());
+                    }
+                } else {
+                    cmd.parseArgs("-e", inOut[0].toString());
+                    assertSame(inOut[0] + "/" + i, inOut[i], params.myEnum);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEnumConverterSharedPerEnumClass() throws Exception {
+        Method forType = Class.forName("picocli.CommandLine$BuiltIn$EnumConverter").getDeclaredMethod("forType", Class.class, boolean.class);
+        forType.setAccessible(true);
+        Object sensitive = forType.invoke(null, Digits.class, false);
+        assertSame(sensitive, forType.invoke(null, Digits.class, false));
+        assertNotSame(sensitive, forType.invoke(null, Digits.class, true));
+        assertNotSame(sensitive, forType.invoke(null, Overlapping.class, false));
+    }
+
     @Test
     public void testEnumArrayTypeConversionFailsForInvalidInput() {
         try {
@@ -943,51 +994,59 @@ public class TypeConversionTest {
             System.out.println("Unable to verify Java 7 converters on " + System.getProperty("java.version"));
             return;
         }
-        CommandLine commandLine = new CommandLine(new EnumParams());
-        Map<Class<?>, ITypeConverter<?>> registry = extractRegistry(commandLine);
-
-        verifyReflectedConverter(registry, "java.nio.file.Path", "/tmp/some/directory", new File("/tmp/some/directory").toString());
+        verifyReflectedConverter("java.nio.file.Path", "/tmp/some/directory", new File("/tmp/some/directory").toString());
     }
 
     @Test
     public void testJava8Types() throws Exception {
-        CommandLine commandLine = new CommandLine(new EnumParams());
-        Map<Class<?>, ITypeConverter<?>> registry = extractRegistry(commandLine);
-
         if (System.getProperty("java.version").compareTo("1.8.0") < 0) {
             System.out.println("Unable to verify Java 8 converters on " + System.getProperty("java.version"));
             return;
         }
-        verifyReflectedConverter(registry, "java.time.Duration", "P2DT3H4M", "PT51H4M");
-        verifyReflectedConverter(registry, "java.time.Instant", "2007-12-03T10:15:30.00Z", "2007-12-03T10:15:30Z");
-        verifyReflectedConverter(registry, "java.time.LocalDate", "2007-12-03", "2007-12-03");
-        verifyReflectedConverter(registry, "java.time.LocalDateTime", "2007-12-03T10:15:30", "2007-12-03T10:15:30");
-        verifyReflectedConverter(registry, "java.time.LocalTime", "10:15", "10:15");
-        verifyReflectedConverter(registry, "java.time.MonthDay", "--12-03", "--12-03");
-        verifyReflectedConverter(registry, "java.time.OffsetDateTime", "2007-12-03T10:15:30+01:00", "2007-12-03T10:15:30+01:00");
-        verifyReflectedConverter(registry, "java.time.OffsetTime", "10:15:30+01:00", "10:15:30+01:00");
-        verifyReflectedConverter(registry, "java.time.Period", "P1Y2M3D", "P1Y2M3D");
-        verifyReflectedConverter(registry, "java.time.Year", "2007", "2007");
-        verifyReflectedConverter(registry, "java.time.YearMonth", "2007-12", "2007-12");
-        verifyReflectedConverter(registry, "java.time.ZonedDateTime", "2007-12-03T10:15:30+01:00[Europe/Paris]", "2007-12-03T10:15:30+01:00[Europe/Paris]");
-        verifyReflectedConverter(registry, "java.time.ZoneId", "Europe/Paris", "Europe/Paris");
-        verifyReflectedConverter(registry, "java.time.ZoneOffset", "+0800", "+08:00");
-    }
-
-    private void verifyReflectedConverter(Map<Class<?>, ITypeConverter<?>> registry, String clsName, String value, String expectedToString) throws Exception {
+        verifyReflectedConverter("java.time.Duration", "P2DT3H4M", "PT51H4M");
+        verifyReflectedConverter("java.time.Instant", "2007-12-03T10:15:30.00Z", "2007-12-03T10:15:30Z");
+        verifyReflectedConverter("java.time.LocalDate", "2007-12-03", "2007-12-03");
+        verifyReflectedConverter("java.time.LocalDateTime", "2007-12-03T10:15:30", "2007-12-03T10:15:30");
+        verifyReflectedConverter("java.time.LocalTime", "10:15", "10:15");
+        verifyReflectedConverter("java.time.MonthDay", "--12-03", "--12-03");
+        verifyReflectedConverter("java.time.OffsetDateTime", "2007-12-03T10:15:30+01:00", "2007-12-03T10:15:30+01:00");
+        verifyReflectedConverter("java.time.OffsetTime", "10:15:30+01:00", "10:15:30+01:00");
+        verifyReflectedConverter("java.time.Period", "P1Y2M3D", "P1Y2M3D");
+        verifyReflectedConverter("java.time.Year", "2007", "2007");
+        verifyReflectedConverter("java.time.YearMonth", "2007-12", "2007-12");
+        verifyReflectedConverter("java.time.ZonedDateTime", "2007-12-03T10:15:30+01:00[Europe/Paris]", "2007-12-03T10:15:30+01:00[Europe/Paris]");
+        verifyReflectedConverter("java.time.ZoneId", "Europe/Paris", "Europe/Paris");
+        verifyReflectedConverter("java.time.ZoneOffset", "+0800", "+08:00");
+    }
+
+    private void verifyReflectedConverter(String clsName, String value, String expectedToString) throws Exception {
         Class<?> cls = Class.forName(clsName);
-        ITypeConverter<?> converter = registry.get(cls);
-        Object path = converter.convert(value);
-        assertTrue(clsName, cls.isAssignableFrom(path.getClass()));
-        assertEquals(expectedToString, path.toString());
+        Object converted = convert(new CommandLine(singleOptionSpec(cls)), value);
+        assertTrue(clsName, cls.isAssignableFrom(converted.getClass()));
+        assertEquals(expectedToString, converted.toString());
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<Class<?>, ITypeConverter<?>> extractRegistry(CommandLine commandLine) throws Exception {
-        Object interpreter = makeAccessible(CommandLine.class.getDeclaredField("interpreter")).get(commandLine);
-        return (Map<Class<?>, ITypeConverter<?>>) makeAccessible(interpreter.getClass().getDeclaredField("converterRegistry")).get(interpreter);
+    private static CommandSpec singleOptionSpec(Class<?> type) {
+        CommandSpec spec = CommandSpec.create();
+        spec.addOption(OptionSpec.builder("-x").type(type).build());
+        return spec;
+    }
+    /** Parses the specified value for the single option of the specified command and returns the converted value. */
+    private static Object convert(CommandLine commandLine, String value) {
+        commandLine.parseArgs("-x", value);
+        return commandLine.getCommandSpec().findOption("-x").getValue();
+    }
+    /** Returns {@code true} if a new CommandLine can convert command line arguments to the specified type. */
+    private static boolean hasConverter(Class<?> type) {
+        try {
+            convert(new CommandLine(singleOptionSpec(type)), "value");
+            return true;
+        } catch (MissingTypeConverterException ex) {
+            return false;
+        } catch (ParameterException ex) { // the converter exists, but it rejected the value
+            return true;
+        }
     }
-    private static Field makeAccessible(Field f) { f.setAccessible(true); return f; }
 
     static class EmptyValueConverter implements ITypeConverter<Short> {
         public Short convert(String value) throws Exception {
@@ -1028,56 +1087,79 @@ public class TypeConversionTest {
         assertEquals(Short.valueOf((short) 987), withValue2.x);
     }
 
-    private Map<Class<?>, ITypeConverter<?>> createSampleRegistry() throws Exception {
-        CommandLine commandLine = new CommandLine(new EnumParams());
-        Map<Class<?>, ITypeConverter<?>> registry = extractRegistry(commandLine);
-        System.clearProperty("picocli.converters.excludes");
-        return registry;
+    @Test
+    public void testBuiltInConvertersUsedByAllInstances() throws Exception {
+        Timestamp expected = Timestamp.valueOf("2007-12-03 10:15:30");
+        assertEquals(expected, convert(new CommandLine(singleOptionSpec(Timestamp.class)), "2007-12-03 10:15:30"));
+        assertEquals(expected, convert(new CommandLine(singleOptionSpec(Timestamp.class)), "2007-12-03 10:15:30"));
+        assertEquals(5, convert(new CommandLine(singleOptionSpec(int.class)), "5"));
+        assertEquals(6, convert(new CommandLine(singleOptionSpec(int.class)), "6"));
+    }
+
+    @Test
+    public void testRegisteredConverterDoesNotAffectOtherInstances() throws Exception {
+        ITypeConverter<Integer> custom = new ITypeConverter<Integer>() {
+            public Integer convert(String value) { return -1; }
+        };
+        CommandLine registered = new CommandLine(singleOptionSpec(int.class)).registerConverter(Integer.TYPE, custom);
+        CommandLine plain = new CommandLine(singleOptionSpec(int.class));
+        assertEquals(-1, convert(registered, "5"));
+        assertEquals(5, convert(plain, "5"));
     }
 
     @Test
     public void testWithoutExcludes() throws Exception {
-        Map<Class<?>, ITypeConverter<?>> registry = createSampleRegistry();
-
-        assertTrue("at least 39 (actual " + registry.size() +")", registry.size() >= 39);
-        assertTrue("java.sql.Time", registry.containsKey(java.sql.Time.class));
-        assertTrue("java.sql.Timestamp", registry.containsKey(java.sql.Timestamp.class));
-        assertTrue("java.sql.Connection", registry.containsKey(java.sql.Connection.class));
-        assertTrue("java.sql.Driver", registry.containsKey(java.sql.Driver.class));
+        Class<?>[] builtIn = {Object.class, String.class, StringBuilder.class, char[].class, CharSequence.class,
+                Byte.class, byte.class, Boolean.class, boolean.class, Character.class, char.class, Short.class, short.class,
+                Integer.class, int.class, Long.class, long.class, Float.class, float.class, Double.class, double.class,
+                File.class, URI.class, URL.class, Date.class, BigDecimal.class,
+                BigInteger.class, Charset.class, InetAddress.class,
+                Pattern.class, UUID.class, Currency.class, TimeZone.class,
+                ByteOrder.class, Class.class, NetworkInterface.class,
+                Time.class, Timestamp.class, Connection.class, Driver.class};
+        for (Class<?> type : builtIn) {
+            assertTrue(type.getName(), hasConverter(type));
+        }
     }
 
     @Test
     public void testExcludesRegexByPackage() throws Exception {
         System.setProperty("picocli.converters.excludes", "java.sql.*");
-        Map<Class<?>, ITypeConverter<?>> registry = createSampleRegistry();
-
-        assertFalse("java.sql.Time", registry.containsKey(java.sql.Time.class));
-        assertFalse("java.sql.Timestamp", registry.containsKey(java.sql.Timestamp.class));
-        assertFalse("java.sql.Connection", registry.containsKey(java.sql.Connection.class));
-        assertFalse("java.sql.Driver", registry.containsKey(java.sql.Driver.class));
+        try {
+            assertFalse("java.sql.Time", hasConverter(Time.class));
+            assertFalse("java.sql.Timestamp", hasConverter(Timestamp.class));
+            assertFalse("java.sql.Connection", hasConverter(Connection.class));
+            assertFalse("java.sql.Driver", hasConverter(Driver.class));
+        } finally {
+            System.clearProperty("picocli.converters.excludes");
+        }
     }
 
     @Test
     public void testExcludesRegex() throws Exception {
         System.setProperty("picocli.converters.excludes", "java.sql.Ti.*");
-        Map<Class<?>, ITypeConverter<?>> registry = createSampleRegistry();
-
-        assertFalse("java.sql.Time", registry.containsKey(java.sql.Time.class));
-        assertFalse("java.sql.Timestamp", registry.containsKey(java.sql.Timestamp.class));
-        assertTrue("java.sql.Connection", registry.containsKey(java.sql.Connection.class));
-        assertTrue("java.sql.Driver", registry.containsKey(java.sql.Driver.class));
+        try {
+            assertFalse("java.sql.Time", hasConverter(Time.class));
+            assertFalse("java.sql.Timestamp", hasConverter(Timestamp.class));
+            assertTrue("java.sql.Connection", hasConverter(Connection.class));
+            assertTrue("java.sql.Driver", hasConverter(Driver.class));
+        } finally {
+            System.clearProperty("picocli.converters.excludes");
+        }
     }
 
     @Test
     public void testExcludesCommaSeparatedRegex() throws Exception {
         //System.setProperty("picocli.trace", "DEBUG");
         System.setProperty("picocli.converters.excludes", "java.sql.Time,java.sql.Connection");
-        Map<Class<?>, ITypeConverter<?>> registry = createSampleRegistry();
-
-        assertFalse("java.sql.Time", registry.containsKey(java.sql.Time.class));
-        assertTrue("java.sql.Timestamp", registry.containsKey(java.sql.Timestamp.class));
-        assertFalse("java.sql.Connection", registry.containsKey(java.sql.Connection.class));
-        assertTrue("java.sql.Driver", registry.containsKey(java.sql.Driver.class));
+        try {
+            assertFalse("java.sql.Time", hasConverter(Time.class));
+            assertTrue("java.sql.Timestamp", hasConverter(Timestamp.class));
+            assertFalse("java.sql.Connection", hasConverter(Connection.class));
+            assertTrue("java.sql.Driver", hasConverter(Driver.class));
+        } finally {
+            System.clearProperty("picocli.converters.excludes");
+        }
     }
 
     @Test
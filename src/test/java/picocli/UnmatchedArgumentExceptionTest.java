@@ -146,4 +146,31 @@ public class UnmatchedArgumentExceptionTest {
                 "Usage: Completion [COMMAND]%n");
     }
 
+    @Test
+    public void testVisibleOptionsWithSamePrefixSuggested() {
+        @Command(name = "app") class App {
+            @Option(names = {"-v", "--verbose"}) boolean verbose;
+            @Option(names = "--version") boolean version;
+            @Option(names = "--verify", hidden = true) boolean verify;
+            @Option(names = "--quiet") boolean quiet;
+        }
+        CommandLine cmd = new CommandLine(new App());
+        assertEquals(Arrays.asList("--verbose", "--version"), new UnmatchedArgumentException(cmd, Arrays.asList("--vet")).getSuggestions());
+        assertEquals(Arrays.asList("-v", "--verbose", "--version"), new UnmatchedArgumentException(cmd, Arrays.asList("--v")).getSuggestions());
+        assertEquals(Arrays.asList(), new UnmatchedArgumentException(cmd, Arrays.asList("--xyz")).getSuggestions());
+    }
+
+    @Test
+    public void testSubcommandsWithSameSimilarityAllSuggested() {
+        @Command(name = "app") class App {}
+        CommandLine cmd = new CommandLine(new App())
+                .addSubcommand("install-y", new App())
+                .addSubcommand("install-x", new App())
+                .addSubcommand("list", new App());
+        UnmatchedArgumentException ex = new UnmatchedArgumentException(cmd, Arrays.asList("install"));
+        assertEquals(Arrays.asList("install-x", "install-y", "list"), ex.getSuggestions());
+
+        cmd.getSubcommands().get("install-x").getCommandSpec().usageMessage().hidden(true);
+        assertEquals(Arrays.asList("install-y", "list"), ex.getSuggestions());
+    }
 }